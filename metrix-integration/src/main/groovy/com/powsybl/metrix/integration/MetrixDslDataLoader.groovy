@@ -11,6 +11,8 @@ package com.powsybl.metrix.integration
 import com.powsybl.dsl.DslLoader
 import com.powsybl.iidm.network.*
 import com.powsybl.metrix.integration.exceptions.MetrixException
+import com.powsybl.metrix.mapping.DslCompilationConfig
+import com.powsybl.metrix.mapping.DslScriptCompiler
 import com.powsybl.metrix.mapping.Filter
 import com.powsybl.metrix.mapping.FilteringContext
 import com.powsybl.metrix.mapping.LogDslLoader
@@ -31,6 +33,12 @@ class MetrixDslDataLoader extends DslLoader {
 
     private static final String METRIX_SCRIPT_SECTION = "Metrix script"
 
+    /**
+     * Version of the Metrix DSL, to be changed with the compiler configuration or the script binding,
+     * so that the cached compiled scripts are not reused.
+     */
+    static final String DSL_VERSION = "metrix-1"
+
     static final String BRANCH_RATINGS_BASE_CASE = "branchRatingsBaseCase"
     static final String BRANCH_ANALYSIS_RATINGS_BASE_CASE = "branchAnalysisRatingsBaseCase"
     static final String BRANCH_RATINGS_ON_CONTINGENCY = "branchRatingsOnContingency"
@@ -1029,6 +1037,8 @@ class MetrixDslDataLoader extends DslLoader {
         }
     }
 
+    private DslCompilationConfig compilationConfig
+
     MetrixDslDataLoader(GroovyCodeSource dslSrc) {
         super(dslSrc)
     }
@@ -1057,10 +1067,21 @@ class MetrixDslDataLoader extends DslLoader {
         config.addCompilationCustomizers(astCustomizer)
     }
 
+    DslCompilationConfig getCompilationConfig() {
+        compilationConfig ?: DslCompilationConfig.load()
+    }
+
+    MetrixDslDataLoader setCompilationConfig(DslCompilationConfig compilationConfig) {
+        this.compilationConfig = Objects.requireNonNull(compilationConfig)
+        this
+    }
+
     static void evaluate(GroovyCodeSource dslSrc, Binding binding) {
-        def config = createCompilerConfig()
-        def shell = new GroovyShell(binding, config)
-        shell.evaluate(dslSrc)
+        evaluate(dslSrc, binding, DslCompilationConfig.load())
+    }
+
+    static void evaluate(GroovyCodeSource dslSrc, Binding binding, DslCompilationConfig compilationConfig) {
+        DslScriptCompiler.evaluate(dslSrc, binding, createCompilerConfig(), DSL_VERSION, compilationConfig)
     }
 
     MetrixDslData load(Network network, MetrixParameters parameters, TimeSeriesMappingConfig mappingConfig) {
@@ -1123,7 +1144,7 @@ class MetrixDslDataLoader extends DslLoader {
         // set base network
         binding.setVariable("network", network)
 
-        evaluate(dslSrc, binding)
+        evaluate(dslSrc, binding, getCompilationConfig())
 
         checkBranchThreshold(mappingConfig, logDslLoader)
 
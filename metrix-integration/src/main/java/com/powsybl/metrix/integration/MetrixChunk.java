@@ -16,6 +16,7 @@ import com.powsybl.metrix.integration.dataGenerator.MetrixInputDataGenerator;
 import com.powsybl.metrix.integration.dataGenerator.MetrixOutputData;
 import com.powsybl.metrix.integration.exceptions.MetrixException;
 import com.powsybl.metrix.integration.metrix.MetrixChunkParam;
+import com.powsybl.metrix.integration.timeseries.InitOptimizedTimeSeriesWriter;
 import com.powsybl.timeseries.TimeSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -111,7 +112,7 @@ public class MetrixChunk {
                                 List<TimeSeries> initOptimizedTimeSeriesList = new ArrayList<>();
                                 Path initOptimizedFilePath = workingDir.resolve(INPUT_OPTIMIZED_FILE_NAME);
                                 if (Files.exists(initOptimizedFilePath)) {
-                                    initOptimizedTimeSeriesList = TimeSeries.parseJson(initOptimizedFilePath);
+                                    initOptimizedTimeSeriesList = InitOptimizedTimeSeriesWriter.parseJson(initOptimizedFilePath, variantProvider.getIndex());
                                 }
 
                                 result.createTimeSeries(variantProvider.getIndex(), initOptimizedTimeSeriesList, results);
@@ -24,6 +24,7 @@ public class MetrixConfig {
     private static final int RESULT_NUMBER_LIMIT = 10000;
     private static final int DEFAULT_DEBUG_LOG_LEVEL = 0;
     private static final int DEFAULT_LOG_LEVEL = 2;
+    private static final boolean DEFAULT_PARALLEL_INPUT_WRITING = false;
 
     public static MetrixConfig load() {
         return load(PlatformConfig.defaultConfig());
@@ -51,7 +52,10 @@ public class MetrixConfig {
                 .orElseGet(() -> moduleConfig.getOptionalIntProperty("logLevel")
                         .orElse(DEFAULT_LOG_LEVEL));
 
-        return new MetrixConfig(homeDir, debug, constantLossFactor, chunkSize, resultNumberLimit, debugLogLevel, noDebugLogLevel);
+        boolean parallelInputWriting = moduleConfig.getOptionalBooleanProperty("parallel-input-writing").orElse(DEFAULT_PARALLEL_INPUT_WRITING);
+
+        return new MetrixConfig(homeDir, debug, constantLossFactor, chunkSize, resultNumberLimit, debugLogLevel, noDebugLogLevel)
+                .setParallelInputWriting(parallelInputWriting);
     }
 
     private Path homeDir;
@@ -68,6 +72,8 @@ public class MetrixConfig {
 
     private int noDebugLogLevel;
 
+    private boolean parallelInputWriting = DEFAULT_PARALLEL_INPUT_WRITING;
+
     private static int validateChunkSize(int chunkSize) {
         if (chunkSize < 1) {
             throw new IllegalArgumentException("Invalid chunk size " + chunkSize);
@@ -155,6 +161,15 @@ public class MetrixConfig {
         return this;
     }
 
+    public boolean isParallelInputWriting() {
+        return parallelInputWriting;
+    }
+
+    public MetrixConfig setParallelInputWriting(boolean parallelInputWriting) {
+        this.parallelInputWriting = parallelInputWriting;
+        return this;
+    }
+
     public String logLevel() {
         int logLevel = isDebug() ? getDebugLogLevel() : getNoDebugLogLevel();
         String[] logLevels = new String[]{"trace", "debug", "info", "warning", "error", "critical"};
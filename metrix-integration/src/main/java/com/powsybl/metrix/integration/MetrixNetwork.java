@@ -26,6 +26,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,6 +36,10 @@ public class MetrixNetwork {
     private static final Logger LOGGER = LoggerFactory.getLogger(MetrixNetwork.class);
     private static final String PAYS_CVG_PROPERTY = "paysCvg";
     private static final String PAYS_CVG_UNDEFINED = "Undefined";
+    private static final Set<IdentifiableType> PROPAGATED_TYPES = EnumSet.of(IdentifiableType.LINE,
+            IdentifiableType.TWO_WINDINGS_TRANSFORMER,
+            IdentifiableType.THREE_WINDINGS_TRANSFORMER,
+            IdentifiableType.HVDC_CONVERTER_STATION);
 
     private final Network network;
 
@@ -476,23 +482,37 @@ public class MetrixNetwork {
                 }
             }
             if (ctyOk) {
-                if (propagate) {
-                    // replace elements with new elements from propagation
-                    // this will keep the original extensions
-                    List<ContingencyElement> extendedElements = new ArrayList<>(getElementsToTrip(contingency, true));
-                    Collection<ContingencyElement> originalElements = new ArrayList<>(contingency.getElements());
-                    originalElements.forEach(contingency::removeElement);
-                    extendedElements.forEach(contingency::addElement);
-                }
                 contingencyList.add(contingency);
             }
         }
 
+        if (propagate) {
+            propagateContingencies();
+        }
+
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug(String.format("Cty        total = <%5d> ok = <%5d> not = <%5d>", contingencyList.size(), ctyList.size(), contingencyList.size() - ctyList.size()));
         }
     }
 
+    private void propagateContingencies() {
+        // replace elements with new elements from propagation
+        // this will keep the original extensions
+        // the propagation of the elements is shared by all the contingencies. Traversals are sequential, as
+        // they read the network topology which is lazily computed by IIDM and not thread safe
+        PropagationCache cache = new PropagationCache();
+        for (Contingency contingency : contingencyList) {
+            List<ContingencyElement> extendedElements = new ArrayList<>(getElementsToTrip(contingency, cache::getElementsToTrip));
+            Collection<ContingencyElement> originalElements = new ArrayList<>(contingency.getElements());
+            originalElements.forEach(contingency::removeElement);
+            extendedElements.forEach(contingency::addElement);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("Propagation elements = <%5d> cache hits = <%5d> traversal time = <%5d> ms",
+                    cache.getElementCount(), cache.getHitCount(), cache.getTraversalTime()));
+        }
+    }
+
     private void setSwitchRetainToFalse() {
         for (VoltageLevel vl : network.getVoltageLevels()) {
             if (vl.getTopologyKind() == TopologyKind.NODE_BREAKER) {
@@ -687,43 +707,125 @@ public class MetrixNetwork {
         if (!propagate) {
             return new HashSet<>(contingency.getElements());
         } else {
+            return getElementsToTrip(contingency, this::getPropagatedElements);
+        }
+    }
+
+    private static Set<ContingencyElement> getElementsToTrip(Contingency contingency, Function<ContingencyElement, Set<ContingencyElement>> propagation) {
+        Set<ContingencyElement> elementsToTrip = new HashSet<>();
+        for (ContingencyElement element : contingency.getElements()) {
+            if (element.getType() == ContingencyElementType.GENERATOR ||
+                    element.getType() == ContingencyElementType.HVDC_LINE) {
+                elementsToTrip.add(element);
+            } else {
+                elementsToTrip.addAll(propagation.apply(element));
+            }
+        }
+        return elementsToTrip;
+    }
 
-            Set<ContingencyElement> elementsToTrip = new HashSet<>();
+    /**
+     * Branches tripped by the breakers opened to isolate a single contingency element.
+     * The propagation of a contingency is the union of the propagation of its elements.
+     */
+    private Set<ContingencyElement> getPropagatedElements(ContingencyElement element) {
 
-            Set<Switch> switchesToOpen = new HashSet<>();
-            Set<Terminal> terminalsToDisconnect = new HashSet<>();
+        Set<ContingencyElement> elementsToTrip = new HashSet<>();
 
-            for (ContingencyElement element : contingency.getElements()) {
-                if (element.getType() == ContingencyElementType.GENERATOR ||
-                        element.getType() == ContingencyElementType.HVDC_LINE) {
-                    elementsToTrip.add(element);
-                } else {
-                    Tripping modification = element.toModification();
-                    modification.traverse(network, switchesToOpen, terminalsToDisconnect);
-                }
-            }
+        Set<Switch> switchesToOpen = new HashSet<>();
+        Set<Terminal> terminalsToDisconnect = new HashSet<>();
+
+        Tripping modification = element.toModification();
+        modification.traverse(network, switchesToOpen, terminalsToDisconnect);
+
+        // disconnect equipments and open switches
+        for (Switch s : switchesToOpen) {
+            VoltageLevel.NodeBreakerView nodeBreakerView = s.getVoltageLevel().getNodeBreakerView();
+            terminalsToDisconnect.add(nodeBreakerView.getTerminal1(s.getId()));
+            terminalsToDisconnect.add(nodeBreakerView.getTerminal2(s.getId()));
+        }
+        terminalsToDisconnect.stream()
+                .filter(Objects::nonNull)
+                .forEach(t -> {
+                    Connectable<?> connectable = t.getConnectable();
+                    if (connectable != null && PROPAGATED_TYPES.contains(connectable.getType())) {
+                        elementsToTrip.add(new BranchContingency(connectable.getId()));
+                    }
+                });
+        return elementsToTrip;
+    }
 
-            Set<IdentifiableType> types = EnumSet.of(IdentifiableType.LINE,
-                    IdentifiableType.TWO_WINDINGS_TRANSFORMER,
-                    IdentifiableType.THREE_WINDINGS_TRANSFORMER,
-                    IdentifiableType.HVDC_CONVERTER_STATION);
+    /**
+     * Propagated elements of contingency elements, shared by all the contingencies of the network
+     */
+    private final class PropagationCache {
 
-            // disconnect equipments and open switches
-            for (Switch s : switchesToOpen) {
-                VoltageLevel.NodeBreakerView nodeBreakerView = s.getVoltageLevel().getNodeBreakerView();
-                terminalsToDisconnect.add(nodeBreakerView.getTerminal1(s.getId()));
-                terminalsToDisconnect.add(nodeBreakerView.getTerminal2(s.getId()));
+        private final Map<PropagationKey, Set<ContingencyElement>> propagatedElements = new HashMap<>();
+
+        private int hitCount = 0;
+
+        private long traversalTime = 0;
+
+        Set<ContingencyElement> getElementsToTrip(ContingencyElement element) {
+            PropagationKey key = new PropagationKey(element);
+            Set<ContingencyElement> elementsToTrip = propagatedElements.get(key);
+            if (elementsToTrip != null) {
+                hitCount++;
+                return elementsToTrip;
             }
-            terminalsToDisconnect.stream()
-                    .filter(Objects::nonNull)
-                    .forEach(t -> {
-                        Connectable<?> connectable = t.getConnectable();
-                        if (connectable != null && types.contains(connectable.getType())) {
-                            elementsToTrip.add(new BranchContingency(connectable.getId()));
-                        }
-                    });
+            long start = System.nanoTime();
+            elementsToTrip = Collections.unmodifiableSet(getPropagatedElements(element));
+            traversalTime += System.nanoTime() - start;
+            propagatedElements.put(key, elementsToTrip);
             return elementsToTrip;
         }
+
+        int getElementCount() {
+            return propagatedElements.size();
+        }
+
+        int getHitCount() {
+            return hitCount;
+        }
+
+        long getTraversalTime() {
+            return TimeUnit.NANOSECONDS.toMillis(traversalTime);
+        }
     }
-}
 
+    /**
+     * Contingency element of the propagation cache: a branch tripped on one side and the whole branch share their id
+     * but not their propagation
+     */
+    private static final class PropagationKey {
+
+        private final ContingencyElementType type;
+
+        private final String id;
+
+        private final String voltageLevelId;
+
+        private PropagationKey(ContingencyElement element) {
+            this.type = element.getType();
+            this.id = element.getId();
+            this.voltageLevelId = element instanceof AbstractSidedContingency ? ((AbstractSidedContingency) element).getVoltageLevelId() : null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PropagationKey)) {
+                return false;
+            }
+            PropagationKey other = (PropagationKey) obj;
+            return type == other.type && id.equals(other.id) && Objects.equals(voltageLevelId, other.voltageLevelId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, id, voltageLevelId);
+        }
+    }
+}
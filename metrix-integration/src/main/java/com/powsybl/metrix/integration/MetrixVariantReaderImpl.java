@@ -8,7 +8,6 @@
 
 package com.powsybl.metrix.integration;
 
-import com.google.common.base.Strings;
 import com.powsybl.contingency.Contingency;
 import com.powsybl.iidm.network.*;
 import com.powsybl.iidm.network.extensions.LoadDetail;
@@ -19,6 +18,7 @@ import com.powsybl.metrix.mapping.EquipmentVariable;
 import com.powsybl.metrix.mapping.MappableEquipmentType;
 import com.powsybl.metrix.mapping.MappingVariable;
 import com.powsybl.metrix.mapping.TimeSeriesMapper;
+import com.powsybl.metrix.mapping.common.FixedDecimalFormatter;
 import com.powsybl.timeseries.TimeSeriesTable;
 import gnu.trove.list.array.TDoubleArrayList;
 import org.slf4j.Logger;
@@ -27,8 +27,6 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -42,7 +40,9 @@ public class MetrixVariantReaderImpl implements MetrixVariantReader {
 
     private static final int N = 3;
 
-    private final DecimalFormat formatter = new DecimalFormat("0." + Strings.repeat("#", N), new DecimalFormatSymbols(Locale.US));
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final FixedDecimalFormatter formatter = new FixedDecimalFormatter(N);
 
     private static final double EPSILON = Math.pow(10, -N);
 
@@ -79,6 +79,13 @@ public class MetrixVariantReaderImpl implements MetrixVariantReader {
 
     private final char separator;
 
+    /**
+     * The lines of the current variant, written at once at the end of the variant.
+     */
+    private final StringBuilder block = new StringBuilder();
+
+    private char[] blockChars = new char[0];
+
     public MetrixVariantReaderImpl(MetrixNetwork metrixNetwork, BufferedWriter writer, char separator) {
         this.metrixNetwork = Objects.requireNonNull(metrixNetwork);
         this.writer = Objects.requireNonNull(writer);
@@ -157,11 +164,7 @@ public class MetrixVariantReaderImpl implements MetrixVariantReader {
         });
     }
 
-    private String formatDouble(double value) {
-        return formatter.format(value);
-    }
-
-    private boolean writeVariant(int num, Map<String, List<String>> ids, Map<String, TDoubleArrayList> values) throws IOException {
+    private boolean writeVariant(int num, Map<String, List<String>> ids, Map<String, TDoubleArrayList> values) {
         boolean atLeastOneChange = false;
         for (Map.Entry<String, List<String>> e : ids.entrySet()) {
             String key = e.getKey();
@@ -170,63 +173,62 @@ public class MetrixVariantReaderImpl implements MetrixVariantReader {
         return atLeastOneChange;
     }
 
-    private boolean writeVariant(int num, String key, List<String> ids, TDoubleArrayList values) throws IOException {
+    private boolean writeVariant(int num, String key, List<String> ids, TDoubleArrayList values) {
         if (ids.isEmpty()) {
             return false;
         }
-        writer.write(Integer.toString(num));
-        writer.write(separator);
-        writer.write(key);
-        writer.write(separator);
-        writer.write(Integer.toString(ids.size()));
+        block.append(num).append(separator).append(key).append(separator).append(ids.size());
         for (int i = 0; i < ids.size(); i++) {
-            writer.write(separator);
-            writer.write(ids.get(i));
-            writer.write(separator);
-            writer.write(formatDouble(values.get(i)));
+            block.append(separator).append(ids.get(i)).append(separator);
+            formatter.format(values.get(i), block);
         }
-        writer.write(separator);
-        writer.newLine();
+        block.append(separator).append(LINE_SEPARATOR);
         return true;
     }
 
-    private boolean writeVariant(int num, String key, List<String> ids) throws IOException {
+    private boolean writeVariant(int num, String key, List<String> ids) {
         if (ids.isEmpty()) {
             return false;
         }
-        writer.write(Integer.toString(num));
-        writer.write(separator);
-        writer.write(key);
-        writer.write(separator);
-        writer.write(Integer.toString(ids.size()));
+        block.append(num).append(separator).append(key).append(separator).append(ids.size());
         for (String id : ids) {
-            writer.write(separator);
-            writer.write(id);
+            block.append(separator).append(id);
         }
-        writer.write(separator);
-        writer.newLine();
+        block.append(separator).append(LINE_SEPARATOR);
         return true;
     }
 
+    private void writeBlock() throws IOException {
+        int length = block.length();
+        if (length == 0) {
+            return;
+        }
+        if (blockChars.length < length) {
+            blockChars = new char[Math.max(length, 2 * blockChars.length)];
+        }
+        block.getChars(0, length, blockChars, 0);
+        writer.write(blockChars, 0, length);
+        block.setLength(0);
+    }
+
     @Override
     public void onVariantEnd(int variantNum) {
         addLoadValues();
-        try {
-            boolean atLeastOneChange = writeVariant(variantNum, "QUADIN", openBranchList);
-            atLeastOneChange |= writeVariant(variantNum, "PRODIN", openGeneratorList);
-            atLeastOneChange |= writeVariant(variantNum, generatorIds, generatorValues);
-            atLeastOneChange |= writeVariant(variantNum, hvdcLineIds, hvdcLineValues);
-            atLeastOneChange |= writeVariant(variantNum, loadIds, loadValues);
-            atLeastOneChange |= writeVariant(variantNum, pstIds, pstValues);
-            atLeastOneChange |= writeVariant(variantNum, metrixVariableIds, metrixVariableValues);
-            atLeastOneChange |= writeVariant(variantNum, "PROBABINC", contingencyIds, contingencyProbabilityValues);
-
-            if (!atLeastOneChange && variantNum != TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-                writer.write(Integer.toString(variantNum));
-                writer.write(separator);
-                writer.newLine();
-            }
+        boolean atLeastOneChange = writeVariant(variantNum, "QUADIN", openBranchList);
+        atLeastOneChange |= writeVariant(variantNum, "PRODIN", openGeneratorList);
+        atLeastOneChange |= writeVariant(variantNum, generatorIds, generatorValues);
+        atLeastOneChange |= writeVariant(variantNum, hvdcLineIds, hvdcLineValues);
+        atLeastOneChange |= writeVariant(variantNum, loadIds, loadValues);
+        atLeastOneChange |= writeVariant(variantNum, pstIds, pstValues);
+        atLeastOneChange |= writeVariant(variantNum, metrixVariableIds, metrixVariableValues);
+        atLeastOneChange |= writeVariant(variantNum, "PROBABINC", contingencyIds, contingencyProbabilityValues);
+
+        if (!atLeastOneChange && variantNum != TimeSeriesMapper.CONSTANT_VARIANT_ID) {
+            block.append(variantNum).append(separator).append(LINE_SEPARATOR);
+        }
 
+        try {
+            writeBlock();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
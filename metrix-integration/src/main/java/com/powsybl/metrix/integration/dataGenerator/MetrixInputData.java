@@ -27,7 +27,11 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class MetrixInputData {
 
@@ -94,6 +98,67 @@ public class MetrixInputData {
         }
     }
 
+    /**
+     * Bus indexes of the network elements, by position in the MetrixNetwork lists. They are resolved sequentially
+     * before the write passes, the bus-breaker view of node-breaker voltage levels being lazily computed by IIDM
+     * which is not thread safe.
+     */
+    private static final class BusIndexes {
+
+        private final int[] line1;
+        private final int[] line2;
+        private final int[] twoWindingsTransformer1;
+        private final int[] twoWindingsTransformer2;
+        private final int[] switch1;
+        private final int[] switch2;
+        private final int[] load;
+        private final int[] danglingLine;
+        private final int[] generator;
+        private final int[] hvdcLine1;
+        private final int[] hvdcLine2;
+
+        private BusIndexes(MetrixNetwork metrixNetwork) {
+            List<Line> lines = metrixNetwork.getLineList();
+            line1 = new int[lines.size()];
+            line2 = new int[lines.size()];
+            for (int i = 0; i < lines.size(); i++) {
+                line1[i] = metrixNetwork.getIndex(lines.get(i).getTerminal1().getBusBreakerView().getBus());
+                line2[i] = metrixNetwork.getIndex(lines.get(i).getTerminal2().getBusBreakerView().getBus());
+            }
+            List<TwoWindingsTransformer> twoWindingsTransformers = metrixNetwork.getTwoWindingsTransformerList();
+            twoWindingsTransformer1 = new int[twoWindingsTransformers.size()];
+            twoWindingsTransformer2 = new int[twoWindingsTransformers.size()];
+            for (int i = 0; i < twoWindingsTransformers.size(); i++) {
+                twoWindingsTransformer1[i] = metrixNetwork.getIndex(twoWindingsTransformers.get(i).getTerminal1().getBusBreakerView().getBus());
+                twoWindingsTransformer2[i] = metrixNetwork.getIndex(twoWindingsTransformers.get(i).getTerminal2().getBusBreakerView().getBus());
+            }
+            List<Switch> switches = metrixNetwork.getSwitchList();
+            switch1 = new int[switches.size()];
+            switch2 = new int[switches.size()];
+            for (int i = 0; i < switches.size(); i++) {
+                Switch sw = switches.get(i);
+                switch1[i] = metrixNetwork.getIndex(sw.getVoltageLevel().getBusBreakerView().getBus1(sw.getId()));
+                switch2[i] = metrixNetwork.getIndex(sw.getVoltageLevel().getBusBreakerView().getBus2(sw.getId()));
+            }
+            load = metrixNetwork.getLoadList().stream()
+                    .mapToInt(l -> metrixNetwork.getIndex(l.getTerminal().getBusBreakerView().getBus()))
+                    .toArray();
+            danglingLine = metrixNetwork.getDanglingLineList().stream()
+                    .mapToInt(dl -> metrixNetwork.getIndex(dl.getTerminal().getBusBreakerView().getBus()))
+                    .toArray();
+            generator = metrixNetwork.getGeneratorList().stream()
+                    .mapToInt(g -> metrixNetwork.getIndex(g.getTerminal().getBusBreakerView().getBus()))
+                    .toArray();
+            List<HvdcLine> hvdcLines = metrixNetwork.getHvdcLineList();
+            hvdcLine1 = new int[hvdcLines.size()];
+            hvdcLine2 = new int[hvdcLines.size()];
+            for (int i = 0; i < hvdcLines.size(); i++) {
+                hvdcLine1[i] = metrixNetwork.getIndex(hvdcLines.get(i).getConverterStation1().getTerminal().getBusBreakerView().getBus());
+                hvdcLine2[i] = metrixNetwork.getIndex(hvdcLines.get(i).getConverterStation2().getTerminal().getBusBreakerView().getBus());
+            }
+        }
+    }
+
     public MetrixInputData(MetrixNetwork metrixNetwork, MetrixDslData metrixDslData, MetrixParameters parameters) {
         this.metrixNetwork = Objects.requireNonNull(metrixNetwork);
         this.parameters = Objects.requireNonNull(parameters);
@@ -107,7 +172,6 @@ public class MetrixInputData {
     private int cqnbquad = 0;
     private int dtnbtrde = 0;
     private int dcnblies = 0;
-    private int dcnbdroo = 0;
     private int tnnbntot = 0;
 
     private int sectnbse = 0;
@@ -194,6 +258,15 @@ public class MetrixInputData {
         if (dslData != null) {
             sectnbse = dslData.getSectionList().size();
         }
+
+        // Computed here rather than in writeGenerators as writeContingencies needs it for the power reserve
+        for (Generator generator : metrixNetwork.getGeneratorList()) {
+            GeneratorAdjustmentMode adjustmentMode = getGeneratorAdjustmentMode(generator.getId());
+            if (adjustmentMode == GeneratorAdjustmentMode.ADEQUACY_AND_REDISPATCHING ||
+                    adjustmentMode == GeneratorAdjustmentMode.ADEQUACY_ONLY) {
+                sumPmax += generator.getMaxP();
+            }
+        }
     }
 
     private void writeGeneral(MetrixDie die) {
@@ -271,7 +344,7 @@ public class MetrixInputData {
         nbtaptd[index - 1] = nbtap;
     }
 
-    private void writeBranches(boolean constantLossFactor, MetrixDie die) {
+    private void writeBranches(boolean constantLossFactor, BusIndexes busIndexes, MetrixDie die) {
 
         // Branch
         String[] cqnomqua = new String[cqnbquad];
@@ -294,20 +367,22 @@ public class MetrixInputData {
         List<Integer> dtuppran = new ArrayList<>(); // PST upperTapRange [pst, upperTapRange, ...]
         List<Float> dttapdep = new ArrayList<>(); // PST phasing taps
 
-        for (Line l : metrixNetwork.getLineList()) {
+        List<Line> lines = metrixNetwork.getLineList();
+        for (int i = 0; i < lines.size(); i++) {
+            Line l = lines.get(i);
             double nominalVoltage1 = l.getTerminal1().getVoltageLevel().getNominalV();
             double nominalVoltage2 = l.getTerminal2().getVoltageLevel().getNominalV();
             double nominalVoltage = constantLossFactor ? Math.max(nominalVoltage1, nominalVoltage2) : nominalVoltage2;
             double r = (l.getR() * Math.pow(parameters.getNominalU(), 2)) / Math.pow(nominalVoltage, 2);
             double admittance = toAdmittance(l.getId(), l.getX(), nominalVoltage, parameters.getNominalU());
             int index = metrixNetwork.getIndex(l);
-            int bus1Index = metrixNetwork.getIndex(l.getTerminal1().getBusBreakerView().getBus());
-            int bus2Index = metrixNetwork.getIndex(l.getTerminal2().getBusBreakerView().getBus());
             writeBranch(cqnomqua, cqadmita, cqresist, qasurvdi, qasurnmk, tnnorqua, tnnexqua, index, l.getId(), admittance, r,
-                    getMonitoringTypeBasecase(l.getId()), getMonitoringTypeOnContingency(l.getId()), bus1Index, bus2Index);
+                    getMonitoringTypeBasecase(l.getId()), getMonitoringTypeOnContingency(l.getId()), busIndexes.line1[i], busIndexes.line2[i]);
         }
 
-        for (TwoWindingsTransformer twt : metrixNetwork.getTwoWindingsTransformerList()) {
+        List<TwoWindingsTransformer> twoWindingsTransformers = metrixNetwork.getTwoWindingsTransformerList();
+        for (int i = 0; i < twoWindingsTransformers.size(); i++) {
+            TwoWindingsTransformer twt = twoWindingsTransformers.get(i);
             double nominalVoltage2 = twt.getTerminal2().getVoltageLevel().getNominalV();
             double x = twt.getX();
             double r = twt.getR();
@@ -357,22 +432,22 @@ public class MetrixInputData {
             double admittance = toAdmittance(twt.getId(), x, nominalVoltage2, parameters.getNominalU());
             r = (r * Math.pow(parameters.getNominalU(), 2)) / Math.pow(nominalVoltage2, 2);
 
-            int bus1Index = metrixNetwork.getIndex(twt.getTerminal1().getBusBreakerView().getBus());
-            int bus2Index = metrixNetwork.getIndex(twt.getTerminal2().getBusBreakerView().getBus());
             writeBranch(cqnomqua, cqadmita, cqresist, qasurvdi, qasurnmk, tnnorqua, tnnexqua, index, twt.getId(), admittance, r,
-                    getMonitoringTypeBasecase(twt.getId()), getMonitoringTypeOnContingency(twt.getId()), bus1Index, bus2Index);
+                    getMonitoringTypeBasecase(twt.getId()), getMonitoringTypeOnContingency(twt.getId()),
+                    busIndexes.twoWindingsTransformer1[i], busIndexes.twoWindingsTransformer2[i]);
         }
 
         metrixNetwork.getThreeWindingsTransformerList().forEach(twt -> {
             throw new UnsupportedOperationException("TODO");
         });
 
-        for (Switch sw : metrixNetwork.getSwitchList()) {
+        List<Switch> switches = metrixNetwork.getSwitchList();
+        for (int i = 0; i < switches.size(); i++) {
+            Switch sw = switches.get(i);
             int index = metrixNetwork.getIndex(sw);
-            int bus1Index = metrixNetwork.getIndex(sw.getVoltageLevel().getBusBreakerView().getBus1(sw.getId()));
-            int bus2Index = metrixNetwork.getIndex(sw.getVoltageLevel().getBusBreakerView().getBus2(sw.getId()));
             writeBranch(cqnomqua, cqadmita, cqresist, qasurvdi, qasurnmk, tnnorqua, tnnexqua, index, sw.getId(),
-                    CQADMITA_SWITCH_VAL, CQRESIST_SWITCH_VAL, MonitoringType.NO.getType(), MonitoringType.NO.getType(), bus1Index, bus2Index);
+                    CQADMITA_SWITCH_VAL, CQRESIST_SWITCH_VAL, MonitoringType.NO.getType(), MonitoringType.NO.getType(),
+                    busIndexes.switch1[i], busIndexes.switch2[i]);
         }
 
         // Branch
@@ -442,7 +517,7 @@ public class MetrixInputData {
         tnnomnoe[index] = id;
     }
 
-    private void writeLoads(MetrixDie die) {
+    private void writeLoads(BusIndexes busIndexes, MetrixDie die) {
 
         int[] tnneucel = new int[ecnbcons];
         float[] esafiact = new float[ecnbcons];
@@ -460,9 +535,8 @@ public class MetrixInputData {
 
         int index = 0;
         for (Load load : metrixNetwork.getLoadList()) {
-            int busIndex = metrixNetwork.getIndex(load.getTerminal().getBusBreakerView().getBus());
             String loadId = load.getId();
-            writeLoad(tnneucel, esafiact, tnnomnoe, index, busIndex, (float) load.getP0(), loadId);
+            writeLoad(tnneucel, esafiact, tnnomnoe, index, busIndexes.load[index], (float) load.getP0(), loadId);
 
             if (!preventiveLoadsList.isEmpty() && preventiveLoadsList.contains(loadId)) {
                 Integer preventivePercentage = dslData.getPreventiveLoadPercentage(loadId);
@@ -473,9 +547,9 @@ public class MetrixInputData {
             index++;
         }
 
-        for (DanglingLine dl : metrixNetwork.getDanglingLineList()) {
-            int busIndex = metrixNetwork.getIndex(dl.getTerminal().getBusBreakerView().getBus());
-            writeLoad(tnneucel, esafiact, tnnomnoe, index, busIndex, (float) dl.getP0(), dl.getId());
+        for (int i = 0; i < metrixNetwork.getDanglingLineList().size(); i++) {
+            DanglingLine dl = metrixNetwork.getDanglingLineList().get(i);
+            writeLoad(tnneucel, esafiact, tnnomnoe, index, busIndexes.danglingLine[i], (float) dl.getP0(), dl.getId());
             index++;
         }
 
@@ -489,7 +563,7 @@ public class MetrixInputData {
         }
     }
 
-    private void writeGenerators(MetrixDie die) {
+    private void writeGenerators(BusIndexes busIndexes, MetrixDie die) {
 
         String[] trnomgth = new String[trnbgrou];
         int[] tnneurgt = new int[trnbgrou];
@@ -501,21 +575,17 @@ public class MetrixInputData {
         List<String> trnomtyp = metrixNetwork.getGeneratorTypeList();
         int[] trtypgrp = new int[trnbgrou];
 
-        for (Generator generator : metrixNetwork.getGeneratorList()) {
+        List<Generator> generators = metrixNetwork.getGeneratorList();
+        for (int i = 0; i < generators.size(); i++) {
+            Generator generator = generators.get(i);
             int index = metrixNetwork.getIndex(generator);
-            int busIndex = metrixNetwork.getIndex(generator.getTerminal().getBusBreakerView().getBus());
             trnomgth[index - 1] = generator.getId();
-            tnneurgt[index - 1] = busIndex;
+            tnneurgt[index - 1] = busIndexes.generator[i];
             trtypgrp[index - 1] = trnomtyp.indexOf(metrixNetwork.getGeneratorType(generator));
-            GeneratorAdjustmentMode adjustmentMode = getGeneratorAdjustmentMode(generator.getId());
-            spimpmod[index - 1] = adjustmentMode.getType();
+            spimpmod[index - 1] = getGeneratorAdjustmentMode(generator.getId()).getType();
             sppactgt[index - 1] = (float) generator.getTargetP();
             trvalpmd[index - 1] = (float) generator.getMaxP();
             trpuimin[index - 1] = (float) generator.getMinP();
-            if (adjustmentMode == GeneratorAdjustmentMode.ADEQUACY_AND_REDISPATCHING ||
-                    adjustmentMode == GeneratorAdjustmentMode.ADEQUACY_ONLY) {
-                sumPmax += generator.getMaxP();
-            }
         }
 
         die.setInt("TRNBTYPE", trnomtyp.size());
@@ -545,7 +615,7 @@ public class MetrixInputData {
         return TimeSeriesMapper.getHvdcLineSetPoint(hvdcLine);
     }
 
-    private void writeHvdc(MetrixDie die) {
+    private void writeHvdc(BusIndexes busIndexes, MetrixDie die) {
 
         String[] dcnomqua = new String[dcnblies];
         int[] dcnorqua = new int[dcnblies];
@@ -559,15 +629,16 @@ public class MetrixInputData {
         float[] dcperst1 = new float[dcnblies];
         float[] dcperst2 = new float[dcnblies];
         float[] tmpDcdroopk = new float[dcnblies];
+        int dcnbdroo = 0;
 
-        for (HvdcLine l : metrixNetwork.getHvdcLineList()) {
+        List<HvdcLine> hvdcLines = metrixNetwork.getHvdcLineList();
+        for (int i = 0; i < hvdcLines.size(); i++) {
+            HvdcLine l = hvdcLines.get(i);
             double nominalVoltage = l.getNominalV();
             int index = metrixNetwork.getIndex(l);
-            int bus1Index = metrixNetwork.getIndex(l.getConverterStation1().getTerminal().getBusBreakerView().getBus());
-            int bus2Index = metrixNetwork.getIndex(l.getConverterStation2().getTerminal().getBusBreakerView().getBus());
             dcnomqua[index - 1] = l.getId();
-            dcnorqua[index - 1] = bus1Index;
-            dcnexqua[index - 1] = bus2Index;
+            dcnorqua[index - 1] = busIndexes.hvdcLine1[i];
+            dcnexqua[index - 1] = busIndexes.hvdcLine2[i];
 
             dcminpui[index - 1] = getHvdcLineMin(l);
             dcmaxpui[index - 1] = getHvdcLineMax(l);
@@ -1101,23 +1172,67 @@ public class MetrixInputData {
         }
     }
 
-    private void write(Path dir, boolean writeJson, BufferedWriter writer, boolean constantLossFactor) throws IOException {
-        MetrixDie die = new MetrixDie();
-        writeGeneral(die);
-        writeOptions(die);
-        writeTopology(die);
-        writeBranches(constantLossFactor, die);
-        writeLoads(die);
-        writeGenerators(die);
-        writeHvdc(die);
-        writeContingencies(die);
-        writeSpecificContingencies(die);
-        writeCurative(die);
-        writeContingencyFlowResults(die);
-        writeDetailedMarginalVariations(die);
-        writeSections(die);
-        writeGeneratorsBindings(die);
-        writeLoadsBindings(die);
+    private MetrixDie createDie(boolean constantLossFactor, boolean parallel) {
+        BusIndexes busIndexes = new BusIndexes(metrixNetwork);
+
+        // Passes are listed in die attribute order. The contingency passes read the contingency indexes
+        // built by writeContingencies, all the others only read the network and the configuration
+        List<Consumer<MetrixDie>> networkPasses = Arrays.asList(
+            this::writeGeneral,
+            this::writeOptions,
+            this::writeTopology,
+            die -> writeBranches(constantLossFactor, busIndexes, die),
+            die -> writeLoads(busIndexes, die),
+            die -> writeGenerators(busIndexes, die),
+            die -> writeHvdc(busIndexes, die),
+            this::writeContingencies);
+        List<Consumer<MetrixDie>> contingencyPasses = Arrays.asList(
+            this::writeSpecificContingencies,
+            this::writeCurative,
+            this::writeContingencyFlowResults,
+            this::writeDetailedMarginalVariations);
+        List<Consumer<MetrixDie>> bindingPasses = Arrays.asList(
+            this::writeSections,
+            this::writeGeneratorsBindings,
+            this::writeLoadsBindings);
+
+        MetrixDie metrixDie = new MetrixDie();
+        if (!parallel) {
+            networkPasses.forEach(pass -> pass.accept(metrixDie));
+            contingencyPasses.forEach(pass -> pass.accept(metrixDie));
+            bindingPasses.forEach(pass -> pass.accept(metrixDie));
+            return metrixDie;
+        }
+
+        // Each pass fills its own die, merged afterwards in pass order to keep the sequential attribute order.
+        // A dedicated pool is used so that the passes do not compete with other users of the common pool
+        ForkJoinPool pool = new ForkJoinPool(Math.min(networkPasses.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            List<ForkJoinTask<MetrixDie>> networkTasks = fork(pool, networkPasses);
+            List<ForkJoinTask<MetrixDie>> bindingTasks = fork(pool, bindingPasses);
+            networkTasks.forEach(ForkJoinTask::join);
+            List<ForkJoinTask<MetrixDie>> contingencyTasks = fork(pool, contingencyPasses);
+            for (List<ForkJoinTask<MetrixDie>> tasks : Arrays.asList(networkTasks, contingencyTasks, bindingTasks)) {
+                tasks.forEach(task -> metrixDie.putAll(task.join()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return metrixDie;
+    }
+
+    private static List<ForkJoinTask<MetrixDie>> fork(ForkJoinPool pool, List<Consumer<MetrixDie>> passes) {
+        return passes.stream()
+                .map(pass -> pool.submit(() -> {
+                    MetrixDie die = new MetrixDie();
+                    pass.accept(die);
+                    return die;
+                }))
+                .collect(Collectors.toList());
+    }
+
+    private void write(Path dir, boolean writeJson, BufferedWriter writer, boolean constantLossFactor, boolean parallel) throws IOException {
+        MetrixDie die = createDie(constantLossFactor, parallel);
 
         if (writeJson && dir != null) {
             die.saveToJson(dir.resolve("fort.json"));
@@ -1128,11 +1243,19 @@ public class MetrixInputData {
     }
 
     public void write(Path dir, boolean debug, boolean constantLossFactor) throws IOException {
-        write(dir, debug, null, constantLossFactor);
+        write(dir, debug, constantLossFactor, false);
+    }
+
+    /**
+     * Write the DIE, computing its independent sections concurrently when parallel is set.
+     * The output is the same as the sequential one.
+     */
+    public void write(Path dir, boolean debug, boolean constantLossFactor, boolean parallel) throws IOException {
+        write(dir, debug, null, constantLossFactor, parallel);
     }
 
     public void writeJson(StringWriter writer) throws IOException {
-        write(null, false, new BufferedWriter(writer), false);
+        write(null, false, new BufferedWriter(writer), false, false);
     }
 
     /**
@@ -159,7 +159,7 @@ public class MetrixInputDataGenerator {
     protected void writeNetworkInLogger(Supplier<MetrixInputData> metrixInputData, boolean isConstantLossFactor) throws IOException {
         metrixChunkLogger.writeNetwork(() -> {
             // write DIE
-            metrixInputData.get().write(workingDir, true, isConstantLossFactor);
+            metrixInputData.get().write(workingDir, true, isConstantLossFactor, config.isParallelInputWriting());
         });
     }
 
@@ -255,6 +255,17 @@ public class MetrixDie {
         booleanAttributes.put(name, new BooleanAttribute(name, new boolean[]{value}));
     }
 
+    /**
+     * Copy all the attributes of another DIE, in their insertion order.
+     */
+    public void putAll(MetrixDie other) {
+        intAttributes.putAll(other.intAttributes);
+        floatAttributes.putAll(other.floatAttributes);
+        doubleAttributes.putAll(other.doubleAttributes);
+        stringAttributes.putAll(other.stringAttributes);
+        booleanAttributes.putAll(other.booleanAttributes);
+    }
+
     public Set<String> getAttributeNames() {
         Set<String> names = new HashSet<>();
         names.addAll(intAttributes.keySet());
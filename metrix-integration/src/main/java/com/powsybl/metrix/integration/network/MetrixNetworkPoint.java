@@ -9,12 +9,9 @@ package com.powsybl.metrix.integration.network;
 
 import com.powsybl.iidm.network.*;
 import com.powsybl.metrix.mapping.TimeSeriesMapper;
-import com.powsybl.timeseries.*;
+import com.powsybl.timeseries.TimeSeries;
 
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 public final class MetrixNetworkPoint {
 
@@ -26,25 +23,24 @@ public final class MetrixNetworkPoint {
     }
 
     public static void addTimeSeriesValues(int version, int point, boolean isCurativeMode, String defaultId, List<TimeSeries> timeSeries, Network networkPoint) {
+        addTimeSeriesValues(point, isCurativeMode, defaultId, new MetrixNetworkPointValues(version, timeSeries), networkPoint);
+    }
+
+    /**
+     * Add the Metrix result values of a point to the network. Reuse the same values for all the points of a version
+     * to decompress each time series only once.
+     */
+    public static void addTimeSeriesValues(int point, boolean isCurativeMode, String defaultId, MetrixNetworkPointValues values, Network networkPoint) {
         final boolean isCurativeTimeSeriesAdding = false;
 
         // Add double time series to network
-        List<DoubleTimeSeries> doubleTimeSeries = timeSeries.stream()
-                .filter(ts -> ts.getMetadata().getDataType() == TimeSeriesDataType.DOUBLE)
-                .map(ts -> (DoubleTimeSeries) ts)
-                .collect(Collectors.toList());
-        ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(doubleTimeSeries);
-        addTimeSeriesValues(version, point, isCurativeTimeSeriesAdding, defaultId, store, networkPoint);
+        addEquipmentValues(point, isCurativeTimeSeriesAdding, defaultId, values, networkPoint);
         if (isCurativeMode) {
-            addTimeSeriesValues(version, point, !isCurativeTimeSeriesAdding, defaultId, store, networkPoint);
-        }
+            addEquipmentValues(point, !isCurativeTimeSeriesAdding, defaultId, values, networkPoint);
 
-        // For curative mode, add topology time series to network
-        List<StringTimeSeries> stringTimeSeries = timeSeries.stream()
-                .filter(ts -> isCurativeMode && ts.getMetadata().getDataType() == TimeSeriesDataType.STRING && ts.getMetadata().getName().compareTo("TOPOLOGY_" + defaultId) == 0)
-                .map(ts -> (StringTimeSeries) ts)
-                .collect(Collectors.toList());
-        addTopologyTimeSeries(point, stringTimeSeries, networkPoint);
+            // For curative mode, add topology time series to network
+            addTopologyTimeSeries(values.getStringValue("TOPOLOGY_" + defaultId, point), networkPoint);
+        }
     }
 
     private static String getPrefix(String prefix, boolean isCurativeMode) {
@@ -55,77 +51,48 @@ public final class MetrixNetworkPoint {
         return isCurativeMode ? "_" + defaultId : "";
     }
 
-    private static void addTimeSeriesValues(int version, int point, boolean isCurativeMode, String defaultId, ReadOnlyTimeSeriesStore store, Network networkPoint) {
-
-        networkPoint.getGenerators().forEach(generator -> addTimeSeriesToGenerator(generator, store, version, point,
-                getPrefix("GEN_", isCurativeMode),
-                getSuffix(isCurativeMode, defaultId)
-        ));
-
-        networkPoint.getLoads().forEach(load -> addTimeSeriesToLoad(load, store, version, point,
-                getPrefix("LOAD_", isCurativeMode),
-                getSuffix(isCurativeMode, defaultId)
-        ));
-
-        networkPoint.getHvdcLines().forEach(hvdcLine -> addTimeSeriesToHvdcLine(hvdcLine, store, version, point,
-                getPrefix("HVDC_", isCurativeMode),
-                getSuffix(isCurativeMode, defaultId)
-        ));
-
-        networkPoint.getTwoWindingsTransformerStream().filter(transformer -> transformer.hasPhaseTapChanger()).forEach(transformer -> addTimeSeriesToPhaseTapChanger(transformer, store, version, point,
-                isCurativeMode ? "PST_CUR_TAP_" : "PST_TAP_",
-                getSuffix(isCurativeMode, defaultId)
-        ));
-    }
-
-    private static double getTimeSeriesValue(Identifiable identifiable, ReadOnlyTimeSeriesStore store, int version, int point, String prefix, String suffix) {
-        AtomicReference<Double> value = new AtomicReference<>(Double.NaN);
-        String timeSeriesName = prefix + identifiable.getId() + suffix;
-        if (store.timeSeriesExists(timeSeriesName)) {
-            Optional<DoubleTimeSeries> timeSeries = store.getDoubleTimeSeries(timeSeriesName, version);
-            timeSeries.ifPresent(timeSeriesList -> {
-                double[] values = timeSeriesList.toArray();
-                value.set(values[point]);
-            });
-        }
-        return value.get();
-    }
+    private static void addEquipmentValues(int point, boolean isCurativeMode, String defaultId, MetrixNetworkPointValues values, Network networkPoint) {
+        String suffix = getSuffix(isCurativeMode, defaultId);
 
-    private static void addTimeSeriesToGenerator(Generator generator, ReadOnlyTimeSeriesStore store, int version, int point, String prefix, String suffix) {
-        double value = getTimeSeriesValue(generator, store, version, point, prefix, suffix);
-        if (!Double.isNaN(value)) {
-            generator.setTargetP(generator.getTargetP() + value);
+        String generatorPrefix = getPrefix("GEN_", isCurativeMode);
+        for (Generator generator : networkPoint.getGenerators()) {
+            double value = values.getValue(generatorPrefix, generator.getId(), suffix, point);
+            if (!Double.isNaN(value)) {
+                generator.setTargetP(generator.getTargetP() + value);
+            }
         }
-    }
 
-    private static void addTimeSeriesToLoad(Load load, ReadOnlyTimeSeriesStore store, int version, int point, String prefix, String suffix) {
-        double value = getTimeSeriesValue(load, store, version, point, prefix, suffix);
-        if (!Double.isNaN(value)) {
-            load.setP0(load.getP0() - value);
+        String loadPrefix = getPrefix("LOAD_", isCurativeMode);
+        for (Load load : networkPoint.getLoads()) {
+            double value = values.getValue(loadPrefix, load.getId(), suffix, point);
+            if (!Double.isNaN(value)) {
+                load.setP0(load.getP0() - value);
+            }
         }
-    }
 
-    private static void addTimeSeriesToHvdcLine(HvdcLine hvdcLine, ReadOnlyTimeSeriesStore store, int version, int point, String prefix, String suffix) {
-        double value = getTimeSeriesValue(hvdcLine, store, version, point, prefix, suffix);
-        if (!Double.isNaN(value)) {
-            TimeSeriesMapper.setHvdcLineSetPoint(hvdcLine, value);
+        String hvdcLinePrefix = getPrefix("HVDC_", isCurativeMode);
+        for (HvdcLine hvdcLine : networkPoint.getHvdcLines()) {
+            double value = values.getValue(hvdcLinePrefix, hvdcLine.getId(), suffix, point);
+            if (!Double.isNaN(value)) {
+                TimeSeriesMapper.setHvdcLineSetPoint(hvdcLine, value);
+            }
         }
-    }
 
-    private static void addTimeSeriesToPhaseTapChanger(TwoWindingsTransformer transformer, ReadOnlyTimeSeriesStore store, int version, int point, String prefix, String suffix) {
-        double value = getTimeSeriesValue(transformer, store, version, point, prefix, suffix);
-        if (!Double.isNaN(value)) {
-            transformer.getPhaseTapChanger().setTapPosition((int) value);
+        String phaseTapChangerPrefix = isCurativeMode ? "PST_CUR_TAP_" : "PST_TAP_";
+        for (TwoWindingsTransformer transformer : networkPoint.getTwoWindingsTransformers()) {
+            if (transformer.hasPhaseTapChanger()) {
+                double value = values.getValue(phaseTapChangerPrefix, transformer.getId(), suffix, point);
+                if (!Double.isNaN(value)) {
+                    transformer.getPhaseTapChanger().setTapPosition((int) value);
+                }
+            }
         }
     }
 
-    private static void addTopologyTimeSeries(int point, List<StringTimeSeries> stringTimeSeries, Network networkPoint) {
-        if (stringTimeSeries.isEmpty()) {
+    private static void addTopologyTimeSeries(String value, Network networkPoint) {
+        if (value == null) {
             return;
         }
-        StringTimeSeries topologyTimeSeries = stringTimeSeries.get(0);
-        String[] values = topologyTimeSeries.toArray();
-        String value = values[point];
         String[] ids = value.split(ID_SEPARATOR);
         for (int i = 0; i < ids.length; i++) {
             String id = ids[i];
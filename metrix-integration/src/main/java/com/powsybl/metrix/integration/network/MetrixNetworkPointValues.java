@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package com.powsybl.metrix.integration.network;
+
+import com.powsybl.timeseries.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Point accessor on the Metrix result time series of a version.
+ * <p>
+ * Each time series is decompressed once, the first time one of its values is read, so that the network of every
+ * point of the version can be rebuilt without copying the whole time series again.
+ */
+public class MetrixNetworkPointValues {
+
+    private static final class Values {
+
+        private final DoubleTimeSeries timeSeries;
+
+        private double[] values;
+
+        private Values(DoubleTimeSeries timeSeries) {
+            this.timeSeries = timeSeries;
+        }
+
+        private double get(int point) {
+            if (values == null) {
+                values = timeSeries.toArray();
+            }
+            return values[point];
+        }
+    }
+
+    private final int version;
+
+    private final Map<String, DoubleTimeSeries> doubleTimeSeries = new HashMap<>();
+
+    private final Map<String, StringTimeSeries> stringTimeSeries = new HashMap<>();
+
+    // time series values by equipment id, by time series name prefix and suffix
+    private final Map<String, Map<String, Map<String, Values>>> valuesByPrefixAndSuffix = new HashMap<>();
+
+    private final Map<String, String[]> stringValues = new HashMap<>();
+
+    public MetrixNetworkPointValues(int version, List<TimeSeries> timeSeries) {
+        this.version = version;
+        for (TimeSeries ts : Objects.requireNonNull(timeSeries)) {
+            TimeSeriesMetadata metadata = ts.getMetadata();
+            if (metadata.getDataType() == TimeSeriesDataType.DOUBLE) {
+                doubleTimeSeries.put(metadata.getName(), (DoubleTimeSeries) ts);
+            } else if (metadata.getDataType() == TimeSeriesDataType.STRING) {
+                stringTimeSeries.put(metadata.getName(), (StringTimeSeries) ts);
+            }
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    private Map<String, Values> getValues(String prefix, String suffix) {
+        Map<String, Map<String, Values>> valuesBySuffix = valuesByPrefixAndSuffix.get(prefix);
+        if (valuesBySuffix == null) {
+            valuesBySuffix = new HashMap<>();
+            valuesByPrefixAndSuffix.put(prefix, valuesBySuffix);
+        }
+        Map<String, Values> valuesById = valuesBySuffix.get(suffix);
+        if (valuesById == null) {
+            valuesById = new HashMap<>();
+            for (Map.Entry<String, DoubleTimeSeries> e : doubleTimeSeries.entrySet()) {
+                String name = e.getKey();
+                if (name.length() > prefix.length() + suffix.length() && name.startsWith(prefix) && name.endsWith(suffix)) {
+                    valuesById.put(name.substring(prefix.length(), name.length() - suffix.length()), new Values(e.getValue()));
+                }
+            }
+            valuesBySuffix.put(suffix, valuesById);
+        }
+        return valuesById;
+    }
+
+    /**
+     * @return the value at the given point of the time series named prefix + id + suffix, NaN if there is no such
+     * time series
+     */
+    public double getValue(String prefix, String id, String suffix, int point) {
+        Values values = getValues(prefix, suffix).get(id);
+        return values != null ? values.get(point) : Double.NaN;
+    }
+
+    /**
+     * @return the value at the given point of the string time series with the given name, null if there is no such
+     * time series
+     */
+    public String getStringValue(String timeSeriesName, int point) {
+        String[] values = stringValues.get(timeSeriesName);
+        if (values == null) {
+            StringTimeSeries timeSeries = stringTimeSeries.get(timeSeriesName);
+            if (timeSeries == null) {
+                return null;
+            }
+            values = timeSeries.toArray();
+            stringValues.put(timeSeriesName, values);
+        }
+        return values[point];
+    }
+}
@@ -7,11 +7,14 @@
 
 package com.powsybl.metrix.integration.timeseries;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Range;
 import com.powsybl.iidm.network.*;
 import com.powsybl.metrix.integration.MetrixDslData;
-import com.powsybl.metrix.integration.dataGenerator.MetrixOutputData;
 import com.powsybl.metrix.mapping.DefaultTimeSeriesMapperObserver;
 import com.powsybl.metrix.mapping.EquipmentVariable;
 import com.powsybl.metrix.mapping.MappingVariable;
@@ -19,26 +22,51 @@ import com.powsybl.metrix.mapping.TimeSeriesMapper;
 import com.powsybl.timeseries.*;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 import static com.powsybl.metrix.integration.dataGenerator.MetrixOutputData.*;
 
+/**
+ * Writes the initial values of the hvdc lines and phase tap changers optimized by Metrix.
+ * <p>
+ * Values are kept in one array per equipment time series, filled with the base case (or constant mapped) value at
+ * version start and overwritten by mapped values. Time series that are never mapped on a point are written once in
+ * the constants section of the file, the other ones with all their values in the time series section.
+ */
 public class InitOptimizedTimeSeriesWriter extends DefaultTimeSeriesMapperObserver {
 
     public static final String INPUT_OPTIMIZED_FILE_NAME = "input_optimized_time_series.json";
 
-    private Network network;
-    private int length;
-    private int offset;
-    private TimeSeriesIndex index;
-    private Writer writer;
+    private static final String OFFSET = "offset";
+    private static final String LENGTH = "length";
+    private static final String CONSTANTS = "constants";
+    private static final String TIME_SERIES = "timeSeries";
+    private static final String NAME = "name";
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String VALUE = "value";
+    private static final String VALUES = "values";
+
+    private final Network network;
+    private final int length;
+    private final int offset;
+    private final Writer writer;
 
-    Map<String, MetrixOutputData.DoubleResultChunk> constantDoubleTimeSeries = new HashMap<>();
-    Map<String, MetrixOutputData.DoubleResultChunk> doubleTimeSeries = new HashMap<>();
-    Set<String> hvdcToInit;
-    Set<String> phaseTapChangerToInit;
+    // time series slots: one per hvdc line, two per phase tap changer (alpha then tap position)
+    private final Map<String, Integer> hvdcSlots = new LinkedHashMap<>();
+    private final Map<String, Integer> phaseTapChangerSlots = new LinkedHashMap<>();
+    private final String[] names;
+    private final String[] types;
+    private final String[] ids;
+    private final double[] constants;
+    private final double[][] values;
+    private final boolean[] mapped;
 
     public InitOptimizedTimeSeriesWriter(Network network, MetrixDslData metrixDslData, Range<Integer> pointRange, Writer writer) {
         Objects.requireNonNull(pointRange);
@@ -47,103 +75,217 @@ public class InitOptimizedTimeSeriesWriter extends DefaultTimeSeriesMapperObserv
         this.writer = Objects.requireNonNull(writer);
         this.length = pointRange.upperEndpoint() - pointRange.lowerEndpoint() + 1;
         this.offset = pointRange.lowerEndpoint();
-        this.hvdcToInit = metrixDslData.getHvdcFlowResults();
-        this.phaseTapChangerToInit = metrixDslData.getPstAngleTapResults();
-    }
-
-    private void addHvdcTimeSeries(int point, Identifiable<?> identifiable, double activePowerSetpoint) {
-        String id = identifiable.getId();
-        String timeSeriesName = HVDC_NAME + id;
-        addTimeSeriesValue(point, timeSeriesName, id, HVDC_TYPE, activePowerSetpoint);
+        int slotCount = metrixDslData.getHvdcFlowResults().size() + 2 * metrixDslData.getPstAngleTapResults().size();
+        names = new String[slotCount];
+        types = new String[slotCount];
+        ids = new String[slotCount];
+        constants = new double[slotCount];
+        values = new double[slotCount][length];
+        mapped = new boolean[slotCount];
+        int slot = 0;
+        for (String id : metrixDslData.getHvdcFlowResults()) {
+            hvdcSlots.put(id, slot);
+            initSlot(slot++, HVDC_NAME + id, HVDC_TYPE, id);
+        }
+        for (String id : metrixDslData.getPstAngleTapResults()) {
+            phaseTapChangerSlots.put(id, slot);
+            initSlot(slot++, PST_NAME + id, PST_TYPE, id);
+            initSlot(slot++, PST_TAP_NAME + id, PST_TYPE, id);
+        }
     }
 
-    private void addPhaseTapChangerTimeSeries(int point, Identifiable<?> identifiable, int tapPosition, double alpha) {
-        String id = identifiable.getId();
-        String timeSeriesName = PST_NAME + id;
-        addTimeSeriesValue(point, timeSeriesName, id, PST_TYPE, alpha);
-        timeSeriesName = PST_TAP_NAME + id;
-        addTimeSeriesValue(point, timeSeriesName, id, PST_TYPE, tapPosition);
+    private void initSlot(int slot, String name, String type, String id) {
+        names[slot] = name;
+        types[slot] = type;
+        ids[slot] = id;
     }
 
-    private void addTimeSeriesValue(int point, String timeSeriesName, String id, String type, double value) {
+    private void setValue(int slot, int point, double value) {
         if (point == TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-            constantDoubleTimeSeries.computeIfAbsent(timeSeriesName, k -> {
-                Map<String, String> tags = ImmutableMap.of(type, id, CONTINGENCY_TYPE, BASECASE_TYPE);
-                return new MetrixOutputData.DoubleResultChunk(length, tags);
-            });
-            for (int i = 0; i < length; i++) {
-                constantDoubleTimeSeries.get(timeSeriesName).insertResult(i, value);
-            }
+            constants[slot] = value;
+            Arrays.fill(values[slot], value);
         } else {
-            doubleTimeSeries.computeIfAbsent(timeSeriesName, k -> {
-                Map<String, String> tags = ImmutableMap.of(type, id, CONTINGENCY_TYPE, BASECASE_TYPE);
-                return new MetrixOutputData.DoubleResultChunk(length, tags);
-            });
-            doubleTimeSeries.get(timeSeriesName).insertResult(point - offset, value);
+            values[slot][point - offset] = value;
+            mapped[slot] = true;
         }
     }
 
-    private List<TimeSeries> createTimeSeries() {
-        List<TimeSeries> timeSeries = new ArrayList<>();
-        for (Map.Entry<String, MetrixOutputData.DoubleResultChunk> e : doubleTimeSeries.entrySet()) {
-            String timeSeriesName = e.getKey();
-            MetrixOutputData.DoubleResultChunk res = e.getValue();
-            DoubleTimeSeries storedDoubleTimeSeries = new StoredDoubleTimeSeries(
-                    new TimeSeriesMetadata(timeSeriesName, TimeSeriesDataType.DOUBLE, res.getTags(), index),
-                    new UncompressedDoubleDataChunk(offset, res.getTimeSeries()).tryToCompress());
-            timeSeries.add(storedDoubleTimeSeries);
-        }
-        return timeSeries;
+    private void setPhaseTapChangerValues(int slot, int point, TwoWindingsTransformer twoWindingsTransformer, int tapPosition) {
+        setValue(slot, point, twoWindingsTransformer.getPhaseTapChanger().getStep(tapPosition).getAlpha());
+        setValue(slot + 1, point, tapPosition);
     }
 
-    private void writeTimeSeries(List<TimeSeries> timeSeries) {
-        try {
-            TimeSeries.writeJson(writer, timeSeries);
-            writer.close();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private void writeJson() throws IOException {
+        JsonFactory factory = new JsonFactory();
+        try (JsonGenerator generator = factory.createGenerator(writer)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeNumberField(OFFSET, offset);
+            generator.writeNumberField(LENGTH, length);
+            generator.writeFieldName(CONSTANTS);
+            generator.writeStartArray();
+            for (int slot = 0; slot < names.length; slot++) {
+                if (!mapped[slot]) {
+                    writeSlotStart(generator, slot);
+                    generator.writeNumberField(VALUE, constants[slot]);
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+            generator.writeFieldName(TIME_SERIES);
+            generator.writeStartArray();
+            for (int slot = 0; slot < names.length; slot++) {
+                if (mapped[slot]) {
+                    writeSlotStart(generator, slot);
+                    generator.writeFieldName(VALUES);
+                    generator.writeArray(values[slot], 0, length);
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
         }
     }
 
+    private void writeSlotStart(JsonGenerator generator, int slot) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField(NAME, names[slot]);
+        generator.writeStringField(TYPE, types[slot]);
+        generator.writeStringField(ID, ids[slot]);
+    }
+
     @Override
     public void versionStart(int version) {
         super.versionStart(version);
-        hvdcToInit.stream().forEach(id -> {
-            HvdcLine hvdcLine = network.getHvdcLine(id);
-            double activePowerSetpoint = hvdcLine.getActivePowerSetpoint();
-            addHvdcTimeSeries(TimeSeriesMapper.CONSTANT_VARIANT_ID, hvdcLine, activePowerSetpoint);
-        });
-        phaseTapChangerToInit.stream().forEach(id -> {
+        Arrays.fill(mapped, false);
+        hvdcSlots.forEach((id, slot) -> setValue(slot, TimeSeriesMapper.CONSTANT_VARIANT_ID, network.getHvdcLine(id).getActivePowerSetpoint()));
+        phaseTapChangerSlots.forEach((id, slot) -> {
             TwoWindingsTransformer twoWindingsTransformer = network.getTwoWindingsTransformer(id);
-            PhaseTapChanger phaseTapChanger = twoWindingsTransformer.getPhaseTapChanger();
-            int tapPosition = phaseTapChanger.getTapPosition();
-            double alpha = phaseTapChanger.getStep(tapPosition).getAlpha();
-            addPhaseTapChangerTimeSeries(TimeSeriesMapper.CONSTANT_VARIANT_ID, twoWindingsTransformer, tapPosition, alpha);
+            setPhaseTapChangerValues(slot, TimeSeriesMapper.CONSTANT_VARIANT_ID, twoWindingsTransformer, twoWindingsTransformer.getPhaseTapChanger().getTapPosition());
         });
     }
 
-    @Override
-    public void timeSeriesMappingStart(int point, TimeSeriesIndex index) {
-        this.index = index;
-        doubleTimeSeries.putAll(constantDoubleTimeSeries);
-    }
-
     @Override
     public void timeSeriesMappedToEquipment(int point, String timeSeriesName, Identifiable<?> identifiable, MappingVariable variable, double equipmentValue) {
-        if (identifiable instanceof HvdcLine && hvdcToInit.contains(identifiable.getId()) && variable == EquipmentVariable.activePowerSetpoint) {
-            addHvdcTimeSeries(point, identifiable, equipmentValue);
-        } else if (identifiable instanceof TwoWindingsTransformer && phaseTapChangerToInit.contains(identifiable.getId()) && variable == EquipmentVariable.phaseTapPosition) {
-            int tapPosition = (int) equipmentValue;
-            double alpha = ((TwoWindingsTransformer) identifiable).getPhaseTapChanger().getStep(tapPosition).getAlpha();
-            addPhaseTapChangerTimeSeries(point, identifiable, tapPosition, alpha);
+        if (identifiable instanceof HvdcLine && variable == EquipmentVariable.activePowerSetpoint) {
+            Integer slot = hvdcSlots.get(identifiable.getId());
+            if (slot != null) {
+                setValue(slot, point, equipmentValue);
+            }
+        } else if (identifiable instanceof TwoWindingsTransformer && variable == EquipmentVariable.phaseTapPosition) {
+            Integer slot = phaseTapChangerSlots.get(identifiable.getId());
+            if (slot != null) {
+                setPhaseTapChangerValues(slot, point, (TwoWindingsTransformer) identifiable, (int) equipmentValue);
+            }
         }
     }
 
     @Override
     public void versionEnd(int version) {
-        List<TimeSeries> timeSeries = createTimeSeries();
-        writeTimeSeries(timeSeries);
-        constantDoubleTimeSeries.clear();
-        doubleTimeSeries.clear();
+        try {
+            writeJson();
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DoubleTimeSeries createTimeSeries(String name, String type, String id, TimeSeriesIndex index, DoubleDataChunk chunk) {
+        Map<String, String> tags = ImmutableMap.of(type, id, CONTINGENCY_TYPE, BASECASE_TYPE);
+        return new StoredDoubleTimeSeries(new TimeSeriesMetadata(name, TimeSeriesDataType.DOUBLE, tags, index), chunk);
+    }
+
+    private static void readTimeSeries(JsonParser parser, int offset, int length, TimeSeriesIndex index, boolean constant, List<TimeSeries> timeSeries) throws IOException {
+        if (length < 0) {
+            throw new IllegalStateException("Time series offset and length are expected before time series");
+        }
+        String name = null;
+        String type = null;
+        String id = null;
+        double[] chunkValues = null;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+            if (token == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                switch (fieldName) {
+                    case NAME:
+                        name = parser.getValueAsString();
+                        break;
+                    case TYPE:
+                        type = parser.getValueAsString();
+                        break;
+                    case ID:
+                        id = parser.getValueAsString();
+                        break;
+                    case VALUE:
+                        chunkValues = new double[] {parser.getValueAsDouble()};
+                        break;
+                    case VALUES:
+                        chunkValues = new double[length];
+                        int i = 0;
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            chunkValues[i++] = parser.getValueAsDouble();
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected field name " + fieldName);
+                }
+            }
+        }
+        if (name == null || type == null || id == null || chunkValues == null) {
+            throw new IllegalStateException("Incomplete time series " + name);
+        }
+        DoubleDataChunk chunk = constant ? new CompressedDoubleDataChunk(offset, length, chunkValues, new int[] {length})
+                                         : new UncompressedDoubleDataChunk(offset, chunkValues);
+        timeSeries.add(createTimeSeries(name, type, id, index, chunk));
+    }
+
+    /**
+     * Stream the initial values written by this writer back to time series of the given index.
+     */
+    public static List<TimeSeries> parseJson(Reader reader, TimeSeriesIndex index) {
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(index);
+        List<TimeSeries> timeSeries = new ArrayList<>();
+        JsonFactory factory = new JsonFactory();
+        try (JsonParser parser = factory.createParser(reader)) {
+            int offset = 0;
+            int length = -1;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.getCurrentName();
+                    switch (fieldName) {
+                        case OFFSET:
+                            offset = parser.nextIntValue(0);
+                            break;
+                        case LENGTH:
+                            length = parser.nextIntValue(-1);
+                            break;
+                        case CONSTANTS:
+                        case TIME_SERIES:
+                            parser.nextToken();
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                readTimeSeries(parser, offset, length, index, fieldName.equals(CONSTANTS), timeSeries);
+                            }
+                            break;
+                        default:
+                            throw new IllegalStateException("Unexpected field name " + fieldName);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return timeSeries;
+    }
+
+    public static List<TimeSeries> parseJson(Path file, TimeSeriesIndex index) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parseJson(reader, index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -22,7 +22,9 @@ import org.threeten.extra.Interval;
 import java.io.*;
 import java.time.Duration;
 import java.util.Collections;
+import java.util.Map;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import static com.powsybl.metrix.integration.AbstractCompareTxt.compareStreamTxt;
 
@@ -80,5 +82,23 @@ class InitOptimizedTimeSeriesWriterTest {
         // Check
         InputStream expected = getClass().getResourceAsStream("/inputs_optimized_time_series.json");
         Assertions.assertNotNull(compareStreamTxt(expected, writer.toString()));
+
+        // Read back
+        Map<String, double[]> values = InitOptimizedTimeSeriesWriter.parseJson(new StringReader(writer.toString()), index).stream()
+                .collect(Collectors.toMap(ts -> ts.getMetadata().getName(), ts -> ((DoubleTimeSeries) ts).toArray()));
+        Assertions.assertEquals(4, values.size());
+        Assertions.assertArrayEquals(new double[] {300d, 300d}, values.get("HVDC_HVDC2"));
+        Assertions.assertArrayEquals(new double[] {100d, 110d}, values.get("HVDC_HVDC1"));
+        Assertions.assertArrayEquals(new double[] {-0.06d, -0.05d}, values.get("PST_FP.AND1  FTDPRA1  1"));
+        Assertions.assertArrayEquals(new double[] {10d, 11d}, values.get("PST_TAP_FP.AND1  FTDPRA1  1"));
+    }
+
+    @Test
+    void invalidInitOptimizedTimeSeriesTest() {
+        TimeSeriesIndex index = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T01:00:00Z/2015-01-01T02:00:00Z"), Duration.ofHours(1));
+        StringReader missingLength = new StringReader("{ \"constants\" : [ { \"name\" : \"HVDC_HVDC1\", \"type\" : \"hvdc\", \"id\" : \"HVDC1\", \"value\" : 1.0 } ] }");
+        Assertions.assertThrows(IllegalStateException.class, () -> InitOptimizedTimeSeriesWriter.parseJson(missingLength, index));
+        StringReader unknownField = new StringReader("{ \"offset\" : 0, \"length\" : 2, \"other\" : 1 }");
+        Assertions.assertThrows(IllegalStateException.class, () -> InitOptimizedTimeSeriesWriter.parseJson(unknownField, index));
     }
 }
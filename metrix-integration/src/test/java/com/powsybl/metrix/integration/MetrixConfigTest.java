@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.nio.file.FileSystem;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MetrixConfigTest {
@@ -53,6 +54,7 @@ class MetrixConfigTest {
         assertTrue(metrixConfig.isConstantLossFactor());
         assertEquals(333, metrixConfig.getChunkSize());
         assertEquals(20000, metrixConfig.getResultNumberLimit());
+        assertFalse(metrixConfig.isParallelInputWriting());
     }
 
     @Test
@@ -63,8 +65,10 @@ class MetrixConfigTest {
         config.setStringProperty("constant-loss-factor", "true");
         config.setStringProperty("chunk-size", "333");
         config.setStringProperty("result-limit", "20000");
+        config.setStringProperty("parallel-input-writing", "true");
         MetrixConfig metrixConfig = MetrixConfig.load(platformConfig);
         assertTrue(metrixConfig.isConstantLossFactor());
+        assertTrue(metrixConfig.isParallelInputWriting());
         assertEquals(333, metrixConfig.getChunkSize());
         assertEquals(20000, metrixConfig.getResultNumberLimit());
     }
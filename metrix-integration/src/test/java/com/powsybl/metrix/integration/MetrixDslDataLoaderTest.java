@@ -16,6 +16,7 @@ import com.google.common.jimfs.Jimfs;
 import com.powsybl.iidm.network.Network;
 import com.powsybl.iidm.xml.NetworkXml;
 import com.powsybl.metrix.integration.dataGenerator.MetrixInputData;
+import com.powsybl.metrix.mapping.DslCompilationConfig;
 import com.powsybl.metrix.mapping.MappingKey;
 import com.powsybl.metrix.mapping.MappingParameters;
 import com.powsybl.metrix.mapping.TimeSeriesDslLoader;
@@ -37,6 +38,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -478,6 +480,36 @@ class MetrixDslDataLoaderTest {
             "Time Series 'ts' not found");
     }
 
+    @Test
+    void compilationConfigTest() throws IOException {
+        try (Writer writer = Files.newBufferedWriter(dslFile, StandardCharsets.UTF_8)) {
+            writer.write(String.join(System.lineSeparator(),
+                "for (l in network.lines) {",
+                "  branch(l.id) {",
+                "    contingencyFlowResults 'cty1', 'cty2'",
+                "  }",
+                "}"));
+        }
+
+        MetrixDslData expected;
+        try (Reader reader = Files.newBufferedReader(dslFile, StandardCharsets.UTF_8)) {
+            expected = new MetrixDslDataLoader(reader, dslFile.getFileName().toString()).load(network, parameters, new TimeSeriesMappingConfig(network));
+        }
+        assertEquals(12, expected.getContingencyFlowResultList().size());
+
+        // statically compiled script, compiled then loaded from the cache
+        DslCompilationConfig compilationConfig = new DslCompilationConfig().setCompileStatic(true).setScriptCacheDir(fileSystem.getPath("/cache"));
+        for (int i = 0; i < 2; i++) {
+            try (Reader reader = Files.newBufferedReader(dslFile, StandardCharsets.UTF_8)) {
+                MetrixDslDataLoader dslLoader = new MetrixDslDataLoader(reader, dslFile.getFileName().toString()).setCompilationConfig(compilationConfig);
+                assertEquals(expected, dslLoader.load(network, parameters, new TimeSeriesMappingConfig(network)));
+            }
+        }
+        try (Stream<Path> files = Files.list(fileSystem.getPath("/cache"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
     @Test
     void contingencyFlowResultTest() throws IOException {
         try (Writer writer = Files.newBufferedWriter(dslFile, StandardCharsets.UTF_8)) {
@@ -15,6 +15,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Range;
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
+import com.powsybl.commons.PowsyblException;
 import com.powsybl.contingency.*;
 import com.powsybl.iidm.network.*;
 import com.powsybl.iidm.xml.NetworkXml;
@@ -349,6 +350,30 @@ class MetrixInputTest {
         } catch (UncheckedIOException e) {
             fail();
         }
+
+        // Parallel writing gives the same DIE as sequential writing
+        Path sequentialDir = Files.createDirectory(fileSystem.getPath("/sequential"));
+        Path parallelDir = Files.createDirectory(fileSystem.getPath("/parallel"));
+        inputData.write(sequentialDir, true, false, false);
+        inputData.write(parallelDir, true, false, true);
+        assertArrayEquals(Files.readAllBytes(sequentialDir.resolve("fort.json")), Files.readAllBytes(parallelDir.resolve("fort.json")));
+    }
+
+    @Test
+    void parallelWriteNodeBreakerTest() throws IOException {
+        // All the voltage levels of this network are node-breaker ones
+        Network n = NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xml"));
+        assertTrue(n.getVoltageLevelStream().allMatch(vl -> vl.getTopologyKind() == TopologyKind.NODE_BREAKER));
+        Path sequentialDir = Files.createDirectory(fileSystem.getPath("/sequential"));
+        new MetrixInputData(MetrixNetwork.create(n), null, new MetrixParameters()).write(sequentialDir, true, false, false);
+        byte[] expected = Files.readAllBytes(sequentialDir.resolve("fort.json"));
+
+        for (int i = 0; i < 5; i++) {
+            Network other = NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xml"));
+            Path parallelDir = Files.createDirectory(fileSystem.getPath("/parallel" + i));
+            new MetrixInputData(MetrixNetwork.create(other), null, new MetrixParameters()).write(parallelDir, true, false, true);
+            assertArrayEquals(expected, Files.readAllBytes(parallelDir.resolve("fort.json")));
+        }
     }
 
     @Test
@@ -435,6 +460,63 @@ class MetrixInputTest {
         assertEquals(metrixNetwork.getElementsToTrip(cty, false), ImmutableSet.of(g, l3));
     }
 
+    @Test
+    void propagateTrippingContingencyListTest() {
+        Network n = NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xml"));
+
+        ContingencyElement l1 = new BranchContingency("FTDPRA1  FVERGE1  1");
+        ContingencyElement l3 = new BranchContingency("FVALDI1  FTDPRA1  1");
+        ContingencyElement h = new HvdcLineContingency("HVDC1");
+        ContingencyElement g = new GeneratorContingency("FSSV.O11_G");
+
+        // Contingencies sharing elements, so that the propagation of some of them is reused
+        List<Contingency> contingencies = ImmutableList.of(
+                new Contingency("cty1", l1),
+                new Contingency("cty2", l1, h),
+                new Contingency("cty3", g, l3),
+                new Contingency("cty4", l3));
+        Map<String, Set<ContingencyElement>> expected = new HashMap<>();
+        MetrixNetwork reference = MetrixNetwork.create(n);
+        contingencies.forEach(cty -> expected.put(cty.getId(), reference.getElementsToTrip(cty, true)));
+
+        MetrixParameters parameters = new MetrixParameters().setPropagateBranchTripping(true);
+        MetrixNetwork metrixNetwork = MetrixNetwork.create(n, network -> contingencies, null, parameters, (Path) null);
+
+        assertEquals(contingencies.size(), metrixNetwork.getContingencyList().size());
+        for (int i = 0; i < contingencies.size(); i++) {
+            Contingency contingency = metrixNetwork.getContingencyList().get(i);
+            assertEquals(contingencies.get(i).getId(), contingency.getId());
+            assertEquals(expected.get(contingency.getId()), new HashSet<>(contingency.getElements()));
+        }
+    }
+
+    @Test
+    void propagateSidedTrippingContingencyListTest() {
+        Network n = NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xml"));
+
+        // the same branch tripped on each side and on both sides, which are propagated separately
+        String branchId = "FTDPRA1  FVERGE1  1";
+        List<Contingency> contingencies = ImmutableList.of(
+                new Contingency("side1", new BranchContingency(branchId, "FTDPRA1")),
+                new Contingency("full", new BranchContingency(branchId)),
+                new Contingency("side2", new BranchContingency(branchId, "FVERGE1")));
+        MetrixNetwork reference = MetrixNetwork.create(n);
+        List<Set<ContingencyElement>> expected = new ArrayList<>();
+        contingencies.forEach(cty -> expected.add(reference.getElementsToTrip(cty, true)));
+
+        MetrixParameters parameters = new MetrixParameters().setPropagateBranchTripping(true);
+        MetrixNetwork metrixNetwork = MetrixNetwork.create(n, network -> contingencies, null, parameters, (Path) null);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), new HashSet<>(metrixNetwork.getContingencyList().get(i).getElements()));
+        }
+
+        // a side which is not one of the branch is not answered from the propagation of the whole branch
+        List<Contingency> wrongSide = ImmutableList.of(
+                new Contingency("full", new BranchContingency(branchId)),
+                new Contingency("wrongSide", new BranchContingency(branchId, "FP.AND1")));
+        assertThrows(PowsyblException.class, () -> MetrixNetwork.create(n, network -> wrongSide, null, parameters, (Path) null));
+    }
+
     @Test
     void loadBreakTest() throws IOException {
         Network n = NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xml"));
@@ -9,11 +9,14 @@
 package com.powsybl.metrix.integration;
 
 import com.google.common.collect.ImmutableMap;
+import com.powsybl.iidm.network.Generator;
 import com.powsybl.iidm.network.HvdcLine;
+import com.powsybl.iidm.network.Load;
 import com.powsybl.iidm.network.Network;
 import com.powsybl.iidm.xml.NetworkXml;
 import com.powsybl.metrix.integration.dataGenerator.MetrixOutputData;
 import com.powsybl.metrix.integration.network.MetrixNetworkPoint;
+import com.powsybl.metrix.integration.network.MetrixNetworkPointValues;
 import com.powsybl.timeseries.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,6 +32,7 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.powsybl.metrix.integration.AbstractCompareTxt.compareStreamTxt;
 import static com.powsybl.metrix.integration.dataGenerator.MetrixOutputData.HVDC_TYPE;
@@ -125,6 +129,55 @@ class MetrixRunResultTest {
         assertTrue(network.getSwitch("FVERGE1_FP.AND1  FVERGE1  2_DJ7").isOpen()); // Topology time series
     }
 
+    private static double getExpectedValue(ReadOnlyTimeSeriesStore store, String timeSeriesName, int point) {
+        double value = store.getDoubleTimeSeries(timeSeriesName, 1).map(ts -> ts.toArray()[point]).orElse(Double.NaN);
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    @Test
+    void metrixNetworkPointValuesTest() throws URISyntaxException {
+        List<TimeSeries> timeSeriesList = createResults(Collections.emptyList());
+        ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(timeSeriesList.stream()
+                .filter(ts -> ts.getMetadata().getDataType() == TimeSeriesDataType.DOUBLE)
+                .map(ts -> (DoubleTimeSeries) ts)
+                .collect(Collectors.toList()));
+        Network baseNetwork = NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xml"));
+
+        // same values for all points, compared to the whole time series values
+        MetrixNetworkPointValues values = new MetrixNetworkPointValues(1, timeSeriesList);
+        assertEquals(1, values.getVersion());
+        for (int point = 0; point < index.getPointCount(); point++) {
+            Network network = NetworkXml.copy(baseNetwork);
+            MetrixNetworkPoint.addTimeSeriesValues(point, false, "NIORTL41SSFLO", values, network);
+            for (Generator generator : network.getGenerators()) {
+                assertEquals(baseNetwork.getGenerator(generator.getId()).getTargetP() + getExpectedValue(store, "GEN_" + generator.getId(), point),
+                        generator.getTargetP(), EPSILON_COMPARISON);
+            }
+            for (Load load : network.getLoads()) {
+                assertEquals(baseNetwork.getLoad(load.getId()).getP0() - getExpectedValue(store, "LOAD_" + load.getId(), point),
+                        load.getP0(), EPSILON_COMPARISON);
+            }
+
+            // same network as with a single point reading
+            Network curativeNetwork = NetworkXml.copy(baseNetwork);
+            MetrixNetworkPoint.addTimeSeriesValues(point, true, "MELLEL41ZMAGD", values, curativeNetwork);
+            Network expectedNetwork = NetworkXml.copy(baseNetwork);
+            MetrixNetworkPoint.addTimeSeriesValues(1, point, true, "MELLEL41ZMAGD", timeSeriesList, expectedNetwork);
+            for (Generator generator : expectedNetwork.getGenerators()) {
+                assertEquals(generator.getTargetP(), curativeNetwork.getGenerator(generator.getId()).getTargetP(), EPSILON_COMPARISON);
+            }
+            for (Load load : expectedNetwork.getLoads()) {
+                assertEquals(load.getP0(), curativeNetwork.getLoad(load.getId()).getP0(), EPSILON_COMPARISON);
+            }
+            for (HvdcLine hvdcLine : expectedNetwork.getHvdcLines()) {
+                assertEquals(hvdcLine.getActivePowerSetpoint(), curativeNetwork.getHvdcLine(hvdcLine.getId()).getActivePowerSetpoint(), EPSILON_COMPARISON);
+                assertEquals(hvdcLine.getConvertersMode(), curativeNetwork.getHvdcLine(hvdcLine.getId()).getConvertersMode());
+            }
+        }
+        assertTrue(Double.isNaN(values.getValue("GEN_", "UNKNOWN", "", 0)));
+        assertNull(values.getStringValue("TOPOLOGY_UNKNOWN", 0));
+    }
+
     @Test
     void metrixInitOptimizedResultTest() throws IOException, URISyntaxException {
         // Init time series
@@ -10,12 +10,86 @@ package com.powsybl.metrix.mapping
 
 import com.powsybl.iidm.network.Identifiable
 import groovy.transform.CompileStatic
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.Future
 
 class Filter {
 
+    /**
+     * Variables of a filter evaluated by a worker thread, resolved before the ones of the script binding.
+     */
+    @CompileStatic
+    private static class FilterVariables extends GroovyObjectSupport {
+
+        private final String scriptVariable
+        private FilteringContext filteringContext
+
+        FilterVariables(String scriptVariable) {
+            this.scriptVariable = scriptVariable
+        }
+
+        @Override
+        Object getProperty(String propertyName) {
+            // same precedence as the variables set in the binding by the sequential evaluation
+            if (propertyName == "voltageLevel") {
+                return filteringContext.voltageLevel
+            }
+            if (propertyName == "substation") {
+                return filteringContext.substation
+            }
+            if (propertyName == scriptVariable) {
+                return filteringContext.identifiable
+            }
+            throw new MissingPropertyException(propertyName, FilterVariables)
+        }
+    }
+
     @CompileStatic
     static Collection<Identifiable> evaluate(Binding binding, Iterable<FilteringContext> filteringContexts,
                                              String scriptVariable, Closure<Boolean> filter) {
+        evaluate(binding, filteringContexts, scriptVariable, filter, null)
+    }
+
+    @CompileStatic
+    static Collection<Identifiable> evaluate(Binding binding, Iterable<FilteringContext> filteringContexts,
+                                             String scriptVariable, Closure<Boolean> filter, IndexedFilter indexedFilter) {
+        evaluate(binding, filteringContexts, scriptVariable, filter, indexedFilter, null)
+    }
+
+    /**
+     * Evaluate a filter on each filtering context, from the equipment indexes if possible, otherwise by calling the
+     * filter closure, concurrently on contiguous partitions of the filtering contexts if a pool is given.
+     */
+    @CompileStatic
+    static Collection<Identifiable> evaluate(Binding binding, Iterable<FilteringContext> filteringContexts,
+                                             String scriptVariable, Closure<Boolean> filter, IndexedFilter indexedFilter,
+                                             ForkJoinPool pool) {
+        if (filter != null && indexedFilter != null && filteringContexts instanceof FilteringContextIndex) {
+            FilteringContextIndex filteringContextIndex = (FilteringContextIndex) filteringContexts
+            BitSet positions = indexedFilter.evaluate(filteringContextIndex, scriptVariable)
+            if (positions != null) {
+                if (filteringContextIndex.size() > 0) {
+                    resetBinding(binding, scriptVariable)
+                }
+                return filteringContextIndex.getIdentifiables(positions)
+            }
+        }
+
+        if (filter != null && pool != null && pool.parallelism > 1) {
+            List<FilteringContext> filteringContextList = filteringContexts instanceof FilteringContextIndex
+                    ? ((FilteringContextIndex) filteringContexts).getFilteringContexts()
+                    : filteringContexts.toList()
+            if (filteringContextList.size() > 1) {
+                Collection<Identifiable> identifiables = evaluateInParallel(filteringContextList, scriptVariable, filter, pool)
+                resetBinding(binding, scriptVariable)
+                return identifiables
+            }
+        }
+
         Iterable<FilteringContext> eval = filteringContexts.findAll({ FilteringContext filteringContext ->
 
             def savedVariable = binding.hasVariable(scriptVariable) ? binding.getVariable(scriptVariable) : null
@@ -34,4 +108,65 @@ class Filter {
         return eval.collect { filteringContext -> ((FilteringContext) filteringContext).identifiable }
     }
 
+    @CompileStatic
+    private static Collection<Identifiable> evaluateInParallel(List<FilteringContext> filteringContexts, String scriptVariable, Closure<Boolean> filter,
+                                                               ForkJoinPool pool) {
+        int partitionCount = Math.min(pool.parallelism, filteringContexts.size())
+        List<Future<List<Identifiable>>> futures = new ArrayList<Future<List<Identifiable>>>(partitionCount)
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int from = (int) ((long) filteringContexts.size() * partition / partitionCount)
+            int to = (int) ((long) filteringContexts.size() * (partition + 1) / partitionCount)
+            List<FilteringContext> partitionContexts = filteringContexts.subList(from, to)
+            Callable<List<Identifiable>> task = { -> evaluatePartition(partitionContexts, scriptVariable, filter) } as Callable<List<Identifiable>>
+            futures.add(pool.submit(task))
+        }
+        // merge the partitions in network order, reporting the first error as the sequential evaluation does
+        List<Identifiable> identifiables = new ArrayList<>()
+        try {
+            for (Future<List<Identifiable>> future : futures) {
+                identifiables.addAll(future.get())
+            }
+        } catch (ExecutionException e) {
+            cancel(futures)
+            throw e.cause instanceof RuntimeException || e.cause instanceof Error ? e.cause : new IllegalStateException(e.cause)
+        } catch (InterruptedException e) {
+            cancel(futures)
+            Thread.currentThread().interrupt()
+            throw new IllegalStateException(e)
+        }
+        identifiables
+    }
+
+    @CompileStatic
+    private static List<Identifiable> evaluatePartition(List<FilteringContext> filteringContexts, String scriptVariable, Closure<Boolean> filter) {
+        // each worker has its own copy of the closure, resolving the filter variables from its own delegate
+        FilterVariables variables = new FilterVariables(scriptVariable)
+        Closure<Boolean> workerFilter = filter.rehydrate(variables, filter.owner, filter.thisObject)
+        workerFilter.resolveStrategy = Closure.DELEGATE_FIRST
+        List<Identifiable> identifiables = new ArrayList<>()
+        for (FilteringContext filteringContext : filteringContexts) {
+            variables.filteringContext = filteringContext
+            if (DefaultTypeTransformation.castToBoolean(workerFilter.call())) {
+                identifiables.add(filteringContext.identifiable)
+            }
+        }
+        identifiables
+    }
+
+    @CompileStatic
+    private static void cancel(List<Future<List<Identifiable>>> futures) {
+        for (Future<List<Identifiable>> future : futures) {
+            future.cancel(true)
+        }
+    }
+
+    /**
+     * Leave the binding as the sequential evaluation does.
+     */
+    @CompileStatic
+    private static void resetBinding(Binding binding, String scriptVariable) {
+        binding.setVariable(scriptVariable, binding.hasVariable(scriptVariable) ? binding.getVariable(scriptVariable) : null)
+        binding.setVariable("voltageLevel", null)
+        binding.setVariable("substation", null)
+    }
 }
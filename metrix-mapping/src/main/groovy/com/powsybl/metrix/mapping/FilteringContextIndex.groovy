@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping
+
+import com.powsybl.iidm.network.Identifiable
+import groovy.transform.CompileStatic
+import org.codehaus.groovy.runtime.InvokerHelper
+
+/**
+ * Filtering contexts of an equipment type, with hash indexes of property values built on demand, once per
+ * (variable, property path), and used to evaluate {@link IndexedFilter} predicates.
+ * <p>
+ * Index keys follow Groovy semantics: {@code ==} compares numbers by value and strings with GStrings, whereas
+ * {@code in} relies on {@link Collection#contains}. Property values or searched values whose comparison
+ * cannot be reproduced by a hash lookup make the index unusable, and the filter closure is called instead.
+ */
+@CompileStatic
+class FilteringContextIndex implements Iterable<FilteringContext> {
+
+    private static final Object UNSUPPORTED = new Object()
+
+    private static final Map<Object, int[]> UNSUPPORTED_INDEX = Collections.unmodifiableMap(new HashMap<Object, int[]>())
+
+    private static final long MAX_EXACT_LONG = 1L << 53
+
+    private static final String VOLTAGE_LEVEL = "voltageLevel"
+
+    private static final String SUBSTATION = "substation"
+
+    private final List<FilteringContext> filteringContexts
+
+    private final Map<String, Map<Object, int[]>> indexes = new HashMap<>()
+
+    FilteringContextIndex(List<FilteringContext> filteringContexts) {
+        this.filteringContexts = Objects.requireNonNull(filteringContexts)
+    }
+
+    @Override
+    Iterator<FilteringContext> iterator() {
+        filteringContexts.iterator()
+    }
+
+    List<FilteringContext> getFilteringContexts() {
+        filteringContexts
+    }
+
+    int size() {
+        filteringContexts.size()
+    }
+
+    List<Identifiable> getIdentifiables(BitSet positions) {
+        List<Identifiable> identifiables = new ArrayList<>(positions.cardinality())
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            identifiables.add(filteringContexts.get(i).identifiable)
+        }
+        identifiables
+    }
+
+    /**
+     * Positions of the filtering contexts for which {@code variable.path == value}, or null if the index cannot be used.
+     */
+    BitSet findEqual(String scriptVariable, String variable, String path, Object value) {
+        Object key = equalityKey(value)
+        if (key.is(UNSUPPORTED)) {
+            return null
+        }
+        Map<Object, int[]> index = getIndex(scriptVariable, variable, path, true)
+        if (index.is(UNSUPPORTED_INDEX)) {
+            return null
+        }
+        BitSet positions = new BitSet(filteringContexts.size())
+        set(positions, index.get(key))
+        positions
+    }
+
+    /**
+     * Positions of the filtering contexts for which {@code variable.path in values}, or null if the index cannot be used.
+     */
+    BitSet findIn(String scriptVariable, String variable, String path, Object values) {
+        if (!(values instanceof List || values instanceof Set)) {
+            return null
+        }
+        Collection<?> collection = (Collection<?>) values
+        for (Object value : collection) {
+            if (!isHashable(value)) {
+                return null
+            }
+        }
+        Map<Object, int[]> index = getIndex(scriptVariable, variable, path, false)
+        if (index.is(UNSUPPORTED_INDEX)) {
+            return null
+        }
+        BitSet positions = new BitSet(filteringContexts.size())
+        for (Object value : collection) {
+            set(positions, index.get(value))
+        }
+        positions
+    }
+
+    private static void set(BitSet bitSet, int[] positions) {
+        if (positions != null) {
+            for (int position : positions) {
+                bitSet.set(position)
+            }
+        }
+    }
+
+    private synchronized Map<Object, int[]> getIndex(String scriptVariable, String variable, String path, boolean equality) {
+        // same precedence as the variables set in the binding by Filter.evaluate
+        String role
+        if (variable == VOLTAGE_LEVEL || variable == SUBSTATION) {
+            role = variable
+        } else if (variable == scriptVariable) {
+            role = ""
+        } else {
+            return UNSUPPORTED_INDEX
+        }
+        String indexKey = role + ":" + path + ":" + equality
+        Map<Object, int[]> index = indexes.get(indexKey)
+        if (index == null) {
+            index = buildIndex(role, path.split("\\."), equality)
+            indexes.put(indexKey, index)
+        }
+        index
+    }
+
+    private Map<Object, int[]> buildIndex(String role, String[] path, boolean equality) {
+        Map<Object, List<Integer>> positions = new HashMap<>()
+        for (int i = 0; i < filteringContexts.size(); i++) {
+            FilteringContext filteringContext = filteringContexts.get(i)
+            Object value
+            if (role == VOLTAGE_LEVEL) {
+                value = filteringContext.voltageLevel
+            } else if (role == SUBSTATION) {
+                value = filteringContext.substation
+            } else {
+                value = filteringContext.identifiable
+            }
+            try {
+                for (String property : path) {
+                    value = InvokerHelper.getProperty(value, property)
+                }
+            } catch (Exception ignored) {
+                // let the filter closure report the error, if it is evaluated at all
+                return UNSUPPORTED_INDEX
+            }
+            Object key = equality ? equalityKey(value) : (isHashable(value) ? value : UNSUPPORTED)
+            if (key.is(UNSUPPORTED)) {
+                return UNSUPPORTED_INDEX
+            }
+            positions.computeIfAbsent(key, { k -> new ArrayList<Integer>() }).add(i)
+        }
+        Map<Object, int[]> index = new HashMap<>(positions.size() * 2)
+        for (Map.Entry<Object, List<Integer>> entry : positions.entrySet()) {
+            int[] keyPositions = new int[entry.value.size()]
+            for (int i = 0; i < keyPositions.length; i++) {
+                keyPositions[i] = entry.value.get(i)
+            }
+            index.put(entry.key, keyPositions)
+        }
+        index
+    }
+
+    /**
+     * Values whose equals and hashCode are consistent with each other, as required by a hash lookup.
+     */
+    private static boolean isHashable(Object value) {
+        value == null || value instanceof String || value instanceof GString || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte || value instanceof Double || value instanceof Float
+                || value instanceof BigDecimal || value instanceof BigInteger
+    }
+
+    /**
+     * Normalize a value so that two values are equal according to Groovy {@code ==} if and only if their keys are equal.
+     */
+    private static Object equalityKey(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Enum) {
+            return value
+        }
+        if (value instanceof GString) {
+            return value.toString()
+        }
+        if (value instanceof Double || value instanceof Float || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            // + 0.0 turns -0.0 into 0.0, which are equal for Groovy
+            return ((Number) value).doubleValue() + 0.0d
+        }
+        if (value instanceof Long) {
+            long longValue = (long) value
+            return longValue >= -MAX_EXACT_LONG && longValue <= MAX_EXACT_LONG ? (Object) ((double) longValue) : UNSUPPORTED
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            // only values exactly represented as a double compare the same way with doubles and with integers
+            BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal((BigInteger) value)
+            double doubleValue = decimal.doubleValue()
+            return !Double.isInfinite(doubleValue) && new BigDecimal(doubleValue).compareTo(decimal) == 0 ? (Object) (doubleValue + 0.0d) : UNSUPPORTED
+        }
+        UNSUPPORTED
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping
+
+import groovy.transform.CompileStatic
+
+/**
+ * Equipment filter predicate recognized at script compilation time by {@link IndexedFilterCustomizer},
+ * which can be answered from the indexes of a {@link FilteringContextIndex} instead of calling the filter
+ * closure for each equipment.
+ * <p>
+ * The value side of a comparison is evaluated once, by a closure located where the filter is declared.
+ * Evaluation returns null when the predicate cannot be answered from the indexes, in which case the filter
+ * closure has to be called.
+ */
+@CompileStatic
+abstract class IndexedFilter {
+
+    private static class Comparison extends IndexedFilter {
+
+        private final String variable
+        private final String path
+        private final Closure value
+        private final boolean membership
+
+        Comparison(String variable, String path, Closure value, boolean membership) {
+            this.variable = Objects.requireNonNull(variable)
+            this.path = Objects.requireNonNull(path)
+            this.value = Objects.requireNonNull(value)
+            this.membership = membership
+        }
+
+        @Override
+        BitSet evaluate(FilteringContextIndex index, String scriptVariable) {
+            Object evaluatedValue
+            try {
+                evaluatedValue = value.call()
+            } catch (Exception ignored) {
+                // let the filter closure report the error, if it is evaluated at all
+                return null
+            }
+            membership ? index.findIn(scriptVariable, variable, path, evaluatedValue)
+                    : index.findEqual(scriptVariable, variable, path, evaluatedValue)
+        }
+    }
+
+    private static class Logical extends IndexedFilter {
+
+        private final IndexedFilter left
+        private final IndexedFilter right
+        private final boolean and
+
+        Logical(IndexedFilter left, IndexedFilter right, boolean and) {
+            this.left = Objects.requireNonNull(left)
+            this.right = Objects.requireNonNull(right)
+            this.and = and
+        }
+
+        @Override
+        BitSet evaluate(FilteringContextIndex index, String scriptVariable) {
+            BitSet result = left.evaluate(index, scriptVariable)
+            if (result == null) {
+                return null
+            }
+            BitSet other = right.evaluate(index, scriptVariable)
+            if (other == null) {
+                return null
+            }
+            // Groovy BitSet operators return a new bit set
+            and ? result & other : result | other
+        }
+    }
+
+    /**
+     * Evaluate the predicate, returning the positions of the matching filtering contexts or null if the
+     * predicate cannot be answered from the indexes.
+     */
+    abstract BitSet evaluate(FilteringContextIndex index, String scriptVariable)
+
+    /**
+     * Predicate {@code variable.path == value}.
+     */
+    static IndexedFilter equal(String variable, String path, Closure value) {
+        new Comparison(variable, path, value, false)
+    }
+
+    /**
+     * Predicate {@code variable.path in value}.
+     */
+    static IndexedFilter isIn(String variable, String path, Closure value) {
+        new Comparison(variable, path, value, true)
+    }
+
+    static IndexedFilter and(IndexedFilter left, IndexedFilter right) {
+        new Logical(left, right, true)
+    }
+
+    static IndexedFilter or(IndexedFilter left, IndexedFilter right) {
+        new Logical(left, right, false)
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping
+
+import groovy.transform.CompileStatic
+import org.codehaus.groovy.ast.*
+import org.codehaus.groovy.ast.expr.*
+import org.codehaus.groovy.ast.stmt.*
+import org.codehaus.groovy.classgen.GeneratorContext
+import org.codehaus.groovy.control.CompilePhase
+import org.codehaus.groovy.control.SourceUnit
+import org.codehaus.groovy.control.customizers.CompilationCustomizer
+import org.codehaus.groovy.syntax.Types
+
+/**
+ * Recognize the mapping script filters made of comparisons between an equipment property and a value
+ * ({@code generator.id == 'G1'}, {@code substation.country == FR}, {@code load.id in ['L1', 'L2']}, ...),
+ * possibly combined with {@code &&} and {@code ||}, and pass an {@link IndexedFilter} along with the filter closure:
+ * {@code filter { generator.id == 'G1' }} becomes {@code filter({ generator.id == 'G1' }, IndexedFilter.equal('generator', 'id', { 'G1' }))}.
+ * <p>
+ * Values may only be constants, lists or variables that do not depend on the filtered equipment. Scripts declaring
+ * local variables named as the equipment variables are left untouched.
+ */
+@CompileStatic
+class IndexedFilterCustomizer extends CompilationCustomizer {
+
+    private static final String FILTER = "filter"
+
+    private static final Set<String> VARIABLES = Collections.unmodifiableSet(
+            (MappableEquipmentType.values().collect { it.scriptVariable } + ["voltageLevel", "substation"]) as Set<String>)
+
+    private static final ClassNode INDEXED_FILTER = ClassHelper.make(IndexedFilter)
+
+    IndexedFilterCustomizer() {
+        super(CompilePhase.CONVERSION)
+    }
+
+    @Override
+    void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        if (!declaresVariable(source, classNode)) {
+            new FilterTransformer(source).visitClass(classNode)
+        }
+    }
+
+    private static boolean declaresVariable(SourceUnit source, ClassNode classNode) {
+        Set<String> names = new HashSet<>()
+        classNode.fields.each { names.add(it.name) }
+        ClassCodeVisitorSupport visitor = new ClassCodeVisitorSupport() {
+            @Override
+            protected SourceUnit getSourceUnit() {
+                source
+            }
+
+            @Override
+            protected void visitConstructorOrMethod(MethodNode node, boolean isConstructor) {
+                node.parameters.each { names.add(it.name) }
+                super.visitConstructorOrMethod(node, isConstructor)
+            }
+
+            @Override
+            void visitDeclarationExpression(DeclarationExpression expression) {
+                if (expression.isMultipleAssignmentDeclaration()) {
+                    expression.tupleExpression.expressions.each { names.add(((VariableExpression) it).name) }
+                } else {
+                    names.add(expression.variableExpression.name)
+                }
+                super.visitDeclarationExpression(expression)
+            }
+
+            @Override
+            void visitClosureExpression(ClosureExpression expression) {
+                expression.parameters?.each { names.add(it.name) }
+                super.visitClosureExpression(expression)
+            }
+
+            @Override
+            void visitForLoop(ForStatement forLoop) {
+                names.add(forLoop.variable.name)
+                super.visitForLoop(forLoop)
+            }
+
+            @Override
+            void visitCatchStatement(CatchStatement statement) {
+                names.add(statement.variable.name)
+                super.visitCatchStatement(statement)
+            }
+        }
+        visitor.visitClass(classNode)
+        names.any { VARIABLES.contains(it) }
+    }
+
+    private static class FilterTransformer extends ClassCodeExpressionTransformer {
+
+        private final SourceUnit source
+
+        FilterTransformer(SourceUnit source) {
+            this.source = source
+        }
+
+        @Override
+        protected SourceUnit getSourceUnit() {
+            source
+        }
+
+        @Override
+        Expression transform(Expression expression) {
+            if (expression instanceof ClosureExpression) {
+                ((ClosureExpression) expression).code.visit(this)
+                return expression
+            }
+            if (expression instanceof MethodCallExpression) {
+                Expression transformed = transformFilter((MethodCallExpression) expression)
+                if (transformed != null) {
+                    return transformed
+                }
+            }
+            super.transform(expression)
+        }
+
+        private static Expression transformFilter(MethodCallExpression call) {
+            if (!call.implicitThis || call.methodAsString != FILTER || !(call.arguments instanceof ArgumentListExpression)) {
+                return null
+            }
+            List<Expression> arguments = ((ArgumentListExpression) call.arguments).expressions
+            if (arguments.size() != 1 || !(arguments[0] instanceof ClosureExpression)) {
+                return null
+            }
+            ClosureExpression closure = (ClosureExpression) arguments[0]
+            if (closure.parameters != null && closure.parameters.length > 0 || !(closure.code instanceof BlockStatement)) {
+                return null
+            }
+            List<Statement> statements = ((BlockStatement) closure.code).statements
+            if (statements.size() != 1) {
+                return null
+            }
+            Expression predicate = null
+            if (statements[0] instanceof ExpressionStatement) {
+                predicate = ((ExpressionStatement) statements[0]).expression
+            } else if (statements[0] instanceof ReturnStatement) {
+                predicate = ((ReturnStatement) statements[0]).expression
+            }
+            Expression indexedFilter = predicate != null ? indexedFilter(predicate) : null
+            if (indexedFilter == null) {
+                return null
+            }
+            MethodCallExpression transformed = new MethodCallExpression(call.objectExpression, call.method, new ArgumentListExpression(closure, indexedFilter))
+            transformed.implicitThis = true
+            transformed.sourcePosition = call
+            transformed
+        }
+
+        private static Expression indexedFilter(Expression predicate) {
+            if (!(predicate instanceof BinaryExpression) || predicate instanceof DeclarationExpression) {
+                return null
+            }
+            BinaryExpression binary = (BinaryExpression) predicate
+            String factory
+            switch (binary.operation.type) {
+                case Types.LOGICAL_AND:
+                    factory = "and"
+                    break
+                case Types.LOGICAL_OR:
+                    factory = "or"
+                    break
+                case Types.COMPARE_EQUAL:
+                    factory = "equal"
+                    break
+                case Types.KEYWORD_IN:
+                    factory = "isIn"
+                    break
+                default:
+                    return null
+            }
+            List<Expression> arguments
+            if (factory == "and" || factory == "or") {
+                Expression left = indexedFilter(binary.leftExpression)
+                Expression right = indexedFilter(binary.rightExpression)
+                if (left == null || right == null) {
+                    return null
+                }
+                arguments = [left, right]
+            } else {
+                List<String> path = []
+                Expression root = binary.leftExpression
+                while (isProperty(root)) {
+                    path.add(0, ((PropertyExpression) root).propertyAsString)
+                    root = ((PropertyExpression) root).objectExpression
+                }
+                if (path.isEmpty() || !(root instanceof VariableExpression) || !VARIABLES.contains(((VariableExpression) root).name)) {
+                    return null
+                }
+                Expression value = copyValue(binary.rightExpression)
+                if (value == null) {
+                    return null
+                }
+                ClosureExpression valueClosure = new ClosureExpression(Parameter.EMPTY_ARRAY, new ExpressionStatement(value))
+                valueClosure.sourcePosition = binary.rightExpression
+                arguments = [new ConstantExpression(((VariableExpression) root).name), new ConstantExpression(path.join(".")), (Expression) valueClosure]
+            }
+            new StaticMethodCallExpression(INDEXED_FILTER, factory, new ArgumentListExpression(arguments))
+        }
+
+        private static boolean isProperty(Expression expression) {
+            if (expression instanceof PropertyExpression && !(expression instanceof AttributeExpression)) {
+                PropertyExpression property = (PropertyExpression) expression
+                return !property.safe && !property.spreadSafe && property.propertyAsString != null
+            }
+            false
+        }
+
+        /**
+         * Copy a value expression which does not depend on the filtered equipment, or return null.
+         */
+        private static Expression copyValue(Expression expression) {
+            Expression copy = null
+            if (expression instanceof ConstantExpression) {
+                copy = new ConstantExpression(((ConstantExpression) expression).value)
+            } else if (expression instanceof VariableExpression) {
+                String name = ((VariableExpression) expression).name
+                if (!VARIABLES.contains(name) && name != "this" && name != "super" && name != "it") {
+                    copy = new VariableExpression(name)
+                }
+            } else if (expression instanceof ClassExpression) {
+                copy = new ClassExpression(expression.type)
+            } else if (isProperty(expression)) {
+                Expression object = copyValue(((PropertyExpression) expression).objectExpression)
+                if (object != null) {
+                    copy = new PropertyExpression(object, ((PropertyExpression) expression).propertyAsString)
+                }
+            } else if (expression instanceof UnaryMinusExpression && ((UnaryMinusExpression) expression).expression instanceof ConstantExpression) {
+                copy = new UnaryMinusExpression(copyValue(((UnaryMinusExpression) expression).expression))
+            } else if (expression instanceof ListExpression) {
+                List<Expression> values = []
+                for (Expression value : ((ListExpression) expression).expressions) {
+                    Expression valueCopy = copyValue(value)
+                    if (valueCopy == null) {
+                        return null
+                    }
+                    values.add(valueCopy)
+                }
+                copy = new ListExpression(values)
+            }
+            copy?.sourcePosition = expression
+            copy
+        }
+    }
+}
@@ -13,13 +13,14 @@ import com.powsybl.iidm.network.Identifiable
 import com.powsybl.iidm.network.Network
 import com.powsybl.iidm.network.Switch
 import com.powsybl.iidm.network.TopologyKind
+import com.powsybl.iidm.network.VoltageLevel
+import com.powsybl.metrix.mapping.timeseries.PlannedOutagesTimeSeriesBuilder
 import com.powsybl.timeseries.ReadOnlyTimeSeriesStore
 import com.powsybl.timeseries.StringTimeSeries
 import com.powsybl.timeseries.TimeSeriesFilter
 import com.powsybl.timeseries.ast.NodeCalc
 import com.powsybl.timeseries.dsl.CalculatedTimeSeriesGroovyDslLoader
 import groovy.transform.CompileStatic
-import org.apache.commons.lang3.StringUtils
 import org.codehaus.groovy.control.CompilerConfiguration
 import org.codehaus.groovy.control.customizers.ImportCustomizer
 import org.slf4j.Logger
@@ -28,6 +29,7 @@ import org.slf4j.LoggerFactory
 import java.nio.charset.StandardCharsets
 import java.nio.file.Files
 import java.nio.file.Path
+import java.util.concurrent.ForkJoinPool
 
 class TimeSeriesDslLoader {
 
@@ -52,9 +54,16 @@ class TimeSeriesDslLoader {
     static class FilteredSpec {
 
         Closure<Boolean> filter
+        IndexedFilter indexedFilter
 
         void filter(Closure<Boolean> filter) {
             this.filter = filter
+            this.indexedFilter = null
+        }
+
+        void filter(Closure<Boolean> filter, IndexedFilter indexedFilter) {
+            this.filter = filter
+            this.indexedFilter = indexedFilter
         }
     }
 
@@ -113,8 +122,18 @@ class TimeSeriesDslLoader {
         }
     }
 
+    /**
+     * Version of the mapping DSL, to be changed with the compiler configuration or the script binding,
+     * so that the cached compiled scripts are not reused.
+     */
+    static final String DSL_VERSION = "mapping-1"
+
     protected final GroovyCodeSource dslSrc
 
+    private DslCompilationConfig compilationConfig
+
+    private TimeSeriesMappingConfigCache configCache
+
     TimeSeriesDslLoader(GroovyCodeSource dslSrc) {
         this.dslSrc = Objects.requireNonNull(dslSrc)
     }
@@ -131,6 +150,27 @@ class TimeSeriesDslLoader {
         this(new GroovyCodeSource(reader, fileName, GroovyShell.DEFAULT_CODE_BASE))
     }
 
+    DslCompilationConfig getCompilationConfig() {
+        compilationConfig ?: DslCompilationConfig.load()
+    }
+
+    TimeSeriesDslLoader setCompilationConfig(DslCompilationConfig compilationConfig) {
+        this.compilationConfig = Objects.requireNonNull(compilationConfig)
+        this
+    }
+
+    Optional<TimeSeriesMappingConfigCache> getConfigCache() {
+        configCache != null ? Optional.of(configCache) : TimeSeriesMappingConfigCache.load()
+    }
+
+    /**
+     * Cache of the configurations built by the script, to skip its evaluation when nothing it depends on changed.
+     */
+    TimeSeriesDslLoader setConfigCache(TimeSeriesMappingConfigCache configCache) {
+        this.configCache = Objects.requireNonNull(configCache)
+        this
+    }
+
     private static logWarn(LogDslLoader logDslLoader, String message) {
         if (logDslLoader == null) {
             return
@@ -161,7 +201,7 @@ class TimeSeriesDslLoader {
 
     @CompileStatic
     private static void mapToEquipments(Binding binding, Set<String> existingTimeSeriesNames, TimeSeriesMappingConfig config,
-                                        Closure closure, Iterable<FilteringContext> filteringContexts,
+                                        Closure closure, Iterable<FilteringContext> filteringContexts, ForkJoinPool filterPool,
                                         MappableEquipmentType equipmentType) {
         Closure cloned = (Closure) closure.clone()
         EquipmentMappingSpec spec = new EquipmentMappingSpec()
@@ -179,7 +219,7 @@ class TimeSeriesDslLoader {
         }
 
         // evaluate equipment filters
-        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, equipmentType.scriptVariable, spec.filter)
+        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, equipmentType.scriptVariable, spec.filter, spec.indexedFilter, filterPool)
 
         // create at least one entry in the config even if no equipment match the filter (mandatory for ignore-empty-filter option)
         if (filteredEquipments.isEmpty()) {
@@ -221,7 +261,7 @@ class TimeSeriesDslLoader {
 
     @CompileStatic
     private static void mapToBreakers(Binding binding, Set<String> existingTimeSeriesNames, TimeSeriesMappingConfig config,
-                                      Closure closure, Iterable<FilteringContext> filteringContexts) {
+                                      Closure closure, Iterable<FilteringContext> filteringContexts, ForkJoinPool filterPool) {
         Closure cloned = (Closure) closure.clone()
         SimpleMappingSpec spec = new SimpleMappingSpec()
         cloned.delegate = spec
@@ -232,7 +272,7 @@ class TimeSeriesDslLoader {
         def breakerType = MappableEquipmentType.SWITCH
 
         // evaluate equipment filters
-        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, breakerType.scriptVariable, spec.filter)
+        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, breakerType.scriptVariable, spec.filter, spec.indexedFilter, filterPool)
 
         // for each filtered equipment, compute the distribution key and add it to the config
         if (!filteredEquipments.isEmpty()) {
@@ -249,7 +289,7 @@ class TimeSeriesDslLoader {
 
     @CompileStatic
     private static void mapToSimpleVariableEquipments(Binding binding, Set<String> existingTimeSeriesNames, TimeSeriesMappingConfig config,
-                                                      Closure closure, Iterable<FilteringContext> filteringContexts, MappableEquipmentType equipmentType) {
+                                                      Closure closure, Iterable<FilteringContext> filteringContexts, ForkJoinPool filterPool, MappableEquipmentType equipmentType) {
         Closure cloned = (Closure) closure.clone()
         SimpleVariableMappingSpec spec = new SimpleVariableMappingSpec()
         cloned.delegate = spec
@@ -261,7 +301,7 @@ class TimeSeriesDslLoader {
         EquipmentVariable variable = EquipmentVariable.check(equipmentType, spec.variable)
 
         // evaluate equipment filters
-        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, equipmentType.scriptVariable, spec.filter)
+        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, equipmentType.scriptVariable, spec.filter, spec.indexedFilter, filterPool)
 
         // create at least one entry in the config even if no equipment match the filter (mandatory for ignore-empty-filter option)
         if (filteredEquipments.size() == 0) {
@@ -276,7 +316,7 @@ class TimeSeriesDslLoader {
 
     @CompileStatic
     private static void unmappedEquipments(Binding binding, TimeSeriesMappingConfig config,
-                                           Closure closure, Iterable<FilteringContext> filteringContexts,
+                                           Closure closure, Iterable<FilteringContext> filteringContexts, ForkJoinPool filterPool,
                                            MappableEquipmentType equipmentType) {
         Closure cloned = (Closure) closure.clone()
         FilteredSpec spec = new FilteredSpec()
@@ -284,7 +324,7 @@ class TimeSeriesDslLoader {
         cloned()
 
         // evaluate equipment filters
-        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, equipmentType.scriptVariable, spec.filter)
+        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, equipmentType.scriptVariable, spec.filter, spec.indexedFilter, filterPool)
 
         // for each filtered equipment, add it to the unmapped config
         filteredEquipments.forEach({ Identifiable identifiable ->
@@ -317,13 +357,8 @@ class TimeSeriesDslLoader {
         Set<String> disconnectedIds = new HashSet<>()
         for (int version : versions) {
             StringTimeSeries plannedOutagesTimeSeries = store.getStringTimeSeries(timeSeriesName, version).orElseThrow({ new TimeSeriesMappingException("Invalid planned outages time series name " + timeSeriesName) })
-            String[] array = plannedOutagesTimeSeries.toArray()
-            for (int i = 0; i < array.length; i++) {
-                String[] ids = array[i].split(",")
-                disconnectedIds.addAll(ids)
-            }
+            disconnectedIds.addAll(new PlannedOutagesTimeSeriesBuilder(plannedOutagesTimeSeries, plannedOutagesTimeSeries.getMetadata().getIndex()).getDisconnectedIds())
         }
-        disconnectedIds.remove(StringUtils.EMPTY)
         binding.setVariable("disconnectedIds", disconnectedIds)
 
         // add time series to the config
@@ -331,11 +366,14 @@ class TimeSeriesDslLoader {
 
         // evaluate equipment filters
         Collection<Identifiable> filteredTransformers = Filter.evaluate(binding, transformersFilteringContext, MappableEquipmentType.TRANSFORMER.scriptVariable,
-                { e -> return disconnectedIds.contains(((Identifiable) binding.getVariable(MappableEquipmentType.TRANSFORMER.getScriptVariable())).id) })
+                { e -> return disconnectedIds.contains(((Identifiable) binding.getVariable(MappableEquipmentType.TRANSFORMER.getScriptVariable())).id) },
+                IndexedFilter.isIn(MappableEquipmentType.TRANSFORMER.scriptVariable, "id", { disconnectedIds }))
         Collection<Identifiable> filteredLines = Filter.evaluate(binding, linesFilteringContext, MappableEquipmentType.LINE.scriptVariable,
-                { e -> return disconnectedIds.contains(((Identifiable) binding.getVariable(MappableEquipmentType.LINE.getScriptVariable())).id) })
+                { e -> return disconnectedIds.contains(((Identifiable) binding.getVariable(MappableEquipmentType.LINE.getScriptVariable())).id) },
+                IndexedFilter.isIn(MappableEquipmentType.LINE.scriptVariable, "id", { disconnectedIds }))
         Collection<Identifiable> filteredGenerators = Filter.evaluate(binding, generatorsFilteringContext, MappableEquipmentType.GENERATOR.scriptVariable,
-                { e -> return disconnectedIds.contains(((Identifiable) binding.getVariable(MappableEquipmentType.GENERATOR.getScriptVariable())).id) })
+                { e -> return disconnectedIds.contains(((Identifiable) binding.getVariable(MappableEquipmentType.GENERATOR.getScriptVariable())).id) },
+                IndexedFilter.isIn(MappableEquipmentType.GENERATOR.scriptVariable, "id", { disconnectedIds }))
 
         // for each filtered equipment, add it to the config
         for (Identifiable identifiable in filteredTransformers) {
@@ -351,7 +389,7 @@ class TimeSeriesDslLoader {
 
     @CompileStatic
     private static void equipmentTimeSeries(Binding binding, TimeSeriesMappingConfig config,
-                                            Closure closure, Iterable<FilteringContext> filteringContexts,
+                                            Closure closure, Iterable<FilteringContext> filteringContexts, ForkJoinPool filterPool,
                                             MappableEquipmentType equipmentType,
                                             LogDslLoader logDslLoader) {
         Closure cloned = (Closure) closure.clone()
@@ -363,7 +401,7 @@ class TimeSeriesDslLoader {
         Set<EquipmentVariable> variables = EquipmentVariable.check(equipmentType, spec.variables)
 
         // evaluate equipment filters for each variable
-        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, equipmentType.scriptVariable, spec.filter)
+        Collection<Identifiable> filteredEquipments = Filter.evaluate(binding, filteringContexts, equipmentType.scriptVariable, spec.filter, spec.indexedFilter, filterPool)
 
         if (filteredEquipments.isEmpty()) {
             logWarn(logDslLoader, "provideTs - Empty filtered list for equipment type " + equipmentType.toString() + " and variables " + variables.toString())
@@ -376,6 +414,11 @@ class TimeSeriesDslLoader {
     }
 
     static void bind(Binding binding, Network network, ReadOnlyTimeSeriesStore store, MappingParameters parameters, TimeSeriesMappingConfig config, LogDslLoader logDslLoader, ComputationRange computationRange) {
+        bind(binding, network, store, parameters, config, logDslLoader, computationRange, null)
+    }
+
+    static void bind(Binding binding, Network network, ReadOnlyTimeSeriesStore store, MappingParameters parameters, TimeSeriesMappingConfig config, LogDslLoader logDslLoader, ComputationRange computationRange,
+                     ForkJoinPool filterPool) {
         Set<String> existingTimeSeriesNames = store.getTimeSeriesNames(new TimeSeriesFilter())
 
         ComputationRange checkedComputationRange = ComputationRangeChecker.check(computationRange, store)
@@ -390,19 +433,19 @@ class TimeSeriesDslLoader {
             bus != null && bus.isInMainConnectedComponent()
         }
 
-        def generatorsFilteringContext = network.getGenerators().findAll(mappeable).collect { injection -> new FilteringContext(injection) }
-        def loadsFilteringContext = network.getLoads().findAll(mappeable).collect { injection -> new FilteringContext(injection) }
-        def danglingLinesFilteringContext = network.getDanglingLines().findAll(mappeable).collect { injection -> new FilteringContext(injection) }
-        def hvdcLinesFilteringContext = network.getHvdcLines().collect { hvdcLine -> new FilteringContext(hvdcLine) }
-        def lccConverterStationsFilteringContext = network.getLccConverterStations().collect { converter -> new FilteringContext(converter) }
-        def vscConverterStationsFilteringContext = network.getVscConverterStations().collect { converter -> new FilteringContext(converter) }
-        def transformersFilteringContext = network.getTwoWindingsTransformers().collect { transformer -> new FilteringContext(transformer) }
-        def linesFilteringContext = network.getLines().collect { line -> new FilteringContext(line) }
-        def phaseTapChangersFilteringContext = network.getTwoWindingsTransformers().findAll {transformer -> transformer.hasPhaseTapChanger() }
-                .collect { transformer -> new FilteringContext(transformer) }
-        def ratioTapChangersFilteringContext = network.getTwoWindingsTransformers().findAll {transformer -> transformer.hasRatioTapChanger() }
-                .collect { transformer -> new FilteringContext(transformer) }
-        def switchesFilteringContext = network.getSwitchStream().collect { s -> new FilteringContext(s) }
+        def generatorsFilteringContext = new FilteringContextIndex(network.getGenerators().findAll(mappeable).collect { injection -> new FilteringContext(injection) })
+        def loadsFilteringContext = new FilteringContextIndex(network.getLoads().findAll(mappeable).collect { injection -> new FilteringContext(injection) })
+        def danglingLinesFilteringContext = new FilteringContextIndex(network.getDanglingLines().findAll(mappeable).collect { injection -> new FilteringContext(injection) })
+        def hvdcLinesFilteringContext = new FilteringContextIndex(network.getHvdcLines().collect { hvdcLine -> new FilteringContext(hvdcLine) })
+        def lccConverterStationsFilteringContext = new FilteringContextIndex(network.getLccConverterStations().collect { converter -> new FilteringContext(converter) })
+        def vscConverterStationsFilteringContext = new FilteringContextIndex(network.getVscConverterStations().collect { converter -> new FilteringContext(converter) })
+        def transformersFilteringContext = new FilteringContextIndex(network.getTwoWindingsTransformers().collect { transformer -> new FilteringContext(transformer) })
+        def linesFilteringContext = new FilteringContextIndex(network.getLines().collect { line -> new FilteringContext(line) })
+        def phaseTapChangersFilteringContext = new FilteringContextIndex(network.getTwoWindingsTransformers().findAll {transformer -> transformer.hasPhaseTapChanger() }
+                .collect { transformer -> new FilteringContext(transformer) })
+        def ratioTapChangersFilteringContext = new FilteringContextIndex(network.getTwoWindingsTransformers().findAll {transformer -> transformer.hasRatioTapChanger() }
+                .collect { transformer -> new FilteringContext(transformer) })
+        def switchesFilteringContext = new FilteringContextIndex(network.getSwitchStream().collect { s -> new FilteringContext(s) })
 
         // parameters
         binding.parameters = { Closure<Void> closure ->
@@ -411,60 +454,60 @@ class TimeSeriesDslLoader {
 
         // mapping
         binding.mapToGenerators = { Closure closure ->
-            mapToEquipments(binding, existingTimeSeriesNames, config, closure, generatorsFilteringContext, MappableEquipmentType.GENERATOR)
+            mapToEquipments(binding, existingTimeSeriesNames, config, closure, generatorsFilteringContext, filterPool, MappableEquipmentType.GENERATOR)
         }
         binding.mapToLoads = { Closure closure ->
-            mapToEquipments(binding, existingTimeSeriesNames, config, closure, loadsFilteringContext, MappableEquipmentType.LOAD)
+            mapToEquipments(binding, existingTimeSeriesNames, config, closure, loadsFilteringContext, filterPool, MappableEquipmentType.LOAD)
         }
         binding.mapToBoundaryLines = { Closure closure ->
-            mapToEquipments(binding, existingTimeSeriesNames, config, closure, danglingLinesFilteringContext, MappableEquipmentType.BOUNDARY_LINE)
+            mapToEquipments(binding, existingTimeSeriesNames, config, closure, danglingLinesFilteringContext, filterPool, MappableEquipmentType.BOUNDARY_LINE)
         }
         binding.mapToHvdcLines = { Closure closure ->
-            mapToEquipments(binding, existingTimeSeriesNames, config, closure, hvdcLinesFilteringContext, MappableEquipmentType.HVDC_LINE)
+            mapToEquipments(binding, existingTimeSeriesNames, config, closure, hvdcLinesFilteringContext, filterPool, MappableEquipmentType.HVDC_LINE)
         }
         binding.mapToTransformers = { Closure closure ->
-            mapToEquipments(binding, existingTimeSeriesNames, config, closure, transformersFilteringContext, MappableEquipmentType.TRANSFORMER)
+            mapToEquipments(binding, existingTimeSeriesNames, config, closure, transformersFilteringContext, filterPool, MappableEquipmentType.TRANSFORMER)
         }
         binding.mapToLines = { Closure closure ->
-            mapToEquipments(binding, existingTimeSeriesNames, config, closure, linesFilteringContext, MappableEquipmentType.LINE)
+            mapToEquipments(binding, existingTimeSeriesNames, config, closure, linesFilteringContext, filterPool, MappableEquipmentType.LINE)
         }
         binding.mapToPhaseTapChangers = { Closure closure ->
-            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, phaseTapChangersFilteringContext, MappableEquipmentType.PHASE_TAP_CHANGER)
+            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, phaseTapChangersFilteringContext, filterPool, MappableEquipmentType.PHASE_TAP_CHANGER)
         }
         binding.mapToRatioTapChangers = { Closure closure ->
-            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, ratioTapChangersFilteringContext, MappableEquipmentType.RATIO_TAP_CHANGER)
+            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, ratioTapChangersFilteringContext, filterPool, MappableEquipmentType.RATIO_TAP_CHANGER)
         }
         binding.mapToLccConverterStations = { Closure closure ->
-            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, lccConverterStationsFilteringContext, MappableEquipmentType.LCC_CONVERTER_STATION)
+            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, lccConverterStationsFilteringContext, filterPool, MappableEquipmentType.LCC_CONVERTER_STATION)
         }
         binding.mapToVscConverterStations = { Closure closure ->
-            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, vscConverterStationsFilteringContext, MappableEquipmentType.VSC_CONVERTER_STATION)
+            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, vscConverterStationsFilteringContext, filterPool, MappableEquipmentType.VSC_CONVERTER_STATION)
         }
         binding.mapToBreakers = { Closure closure ->
-            mapToBreakers(binding, existingTimeSeriesNames, config, closure, switchesFilteringContext)
+            mapToBreakers(binding, existingTimeSeriesNames, config, closure, switchesFilteringContext, filterPool)
         }
         binding.mapPlannedOutages = { Closure closure ->
             mapPlannedOutages(binding, existingTimeSeriesNames, store, config, closure, transformersFilteringContext, linesFilteringContext, generatorsFilteringContext, checkedComputationRange.getVersions())
         }
         binding.mapToPsts = { @Deprecated Closure closure ->
-            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, phaseTapChangersFilteringContext, MappableEquipmentType.PST)
+            mapToSimpleVariableEquipments(binding, existingTimeSeriesNames, config, closure, phaseTapChangersFilteringContext, filterPool, MappableEquipmentType.PST)
         }
 
         // unmapped
         binding.unmappedGenerators = { Closure closure ->
-            unmappedEquipments(binding, config, closure, generatorsFilteringContext, MappableEquipmentType.GENERATOR)
+            unmappedEquipments(binding, config, closure, generatorsFilteringContext, filterPool, MappableEquipmentType.GENERATOR)
         }
         binding.unmappedLoads = { Closure closure ->
-            unmappedEquipments(binding, config, closure, loadsFilteringContext, MappableEquipmentType.LOAD)
+            unmappedEquipments(binding, config, closure, loadsFilteringContext, filterPool, MappableEquipmentType.LOAD)
         }
         binding.unmappedBoundaryLines = { Closure closure ->
-            unmappedEquipments(binding, config, closure, danglingLinesFilteringContext, MappableEquipmentType.BOUNDARY_LINE)
+            unmappedEquipments(binding, config, closure, danglingLinesFilteringContext, filterPool, MappableEquipmentType.BOUNDARY_LINE)
         }
         binding.unmappedHvdcLines = { Closure closure ->
-            unmappedEquipments(binding, config, closure, hvdcLinesFilteringContext, MappableEquipmentType.HVDC_LINE)
+            unmappedEquipments(binding, config, closure, hvdcLinesFilteringContext, filterPool, MappableEquipmentType.HVDC_LINE)
         }
         binding.unmappedPhaseTapChangers = { Closure closure ->
-            unmappedEquipments(binding, config, closure, phaseTapChangersFilteringContext, MappableEquipmentType.PHASE_TAP_CHANGER)
+            unmappedEquipments(binding, config, closure, phaseTapChangersFilteringContext, filterPool, MappableEquipmentType.PHASE_TAP_CHANGER)
         }
 
         // time series with specific ignore limits
@@ -474,76 +517,76 @@ class TimeSeriesDslLoader {
 
         // equipments for which time series must be provided
         binding.provideTsGenerators = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, generatorsFilteringContext, MappableEquipmentType.GENERATOR, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, generatorsFilteringContext, filterPool, MappableEquipmentType.GENERATOR, logDslLoader)
         }
         binding.provideTsLoads = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, loadsFilteringContext, MappableEquipmentType.LOAD, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, loadsFilteringContext, filterPool, MappableEquipmentType.LOAD, logDslLoader)
         }
         binding.provideTsHvdcLines = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, hvdcLinesFilteringContext, MappableEquipmentType.HVDC_LINE, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, hvdcLinesFilteringContext, filterPool, MappableEquipmentType.HVDC_LINE, logDslLoader)
         }
         binding.provideTsTransformers = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, transformersFilteringContext, MappableEquipmentType.TRANSFORMER, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, transformersFilteringContext, filterPool, MappableEquipmentType.TRANSFORMER, logDslLoader)
         }
         binding.provideTsLines = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, linesFilteringContext, MappableEquipmentType.LINE, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, linesFilteringContext, filterPool, MappableEquipmentType.LINE, logDslLoader)
         }
         binding.provideTsBoundaryLines = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, danglingLinesFilteringContext, MappableEquipmentType.BOUNDARY_LINE, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, danglingLinesFilteringContext, filterPool, MappableEquipmentType.BOUNDARY_LINE, logDslLoader)
         }
         binding.provideTsPhaseTapChangers = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, phaseTapChangersFilteringContext, MappableEquipmentType.PHASE_TAP_CHANGER, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, phaseTapChangersFilteringContext, filterPool, MappableEquipmentType.PHASE_TAP_CHANGER, logDslLoader)
         }
         binding.provideTsRatioTapChangers = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, ratioTapChangersFilteringContext, MappableEquipmentType.RATIO_TAP_CHANGER, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, ratioTapChangersFilteringContext, filterPool, MappableEquipmentType.RATIO_TAP_CHANGER, logDslLoader)
         }
         binding.provideTsBreakers = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, switchesFilteringContext, MappableEquipmentType.SWITCH, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, switchesFilteringContext, filterPool, MappableEquipmentType.SWITCH, logDslLoader)
         }
         binding.provideTsLccConverterStations = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, lccConverterStationsFilteringContext, MappableEquipmentType.LCC_CONVERTER_STATION, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, lccConverterStationsFilteringContext, filterPool, MappableEquipmentType.LCC_CONVERTER_STATION, logDslLoader)
         }
         binding.provideTsVscConverterStations = { Closure closure ->
-            equipmentTimeSeries(binding, config, closure, vscConverterStationsFilteringContext, MappableEquipmentType.VSC_CONVERTER_STATION, logDslLoader)
+            equipmentTimeSeries(binding, config, closure, vscConverterStationsFilteringContext, filterPool, MappableEquipmentType.VSC_CONVERTER_STATION, logDslLoader)
         }
 
         binding.sum = { NodeCalc tsNode, Boolean all_versions = false ->
             if (all_versions) {
-                TimeSeriesMappingConfig.getTimeSeriesSum(tsNode, store, fullComputationRange)
+                config.getTimeSeriesStats(store).getSum(tsNode, fullComputationRange)
             } else {
-                TimeSeriesMappingConfig.getTimeSeriesSum(tsNode, store, checkedComputationRange)
+                config.getTimeSeriesStats(store).getSum(tsNode, checkedComputationRange)
             }
         }
 
         binding.min = { NodeCalc tsNode, Boolean all_versions = false ->
             if (all_versions) {
-                TimeSeriesMappingConfig.getTimeSeriesMin(tsNode, store, fullComputationRange)
+                config.getTimeSeriesStats(store).getMin(tsNode, fullComputationRange)
             } else {
-                TimeSeriesMappingConfig.getTimeSeriesMin(tsNode, store, checkedComputationRange)
+                config.getTimeSeriesStats(store).getMin(tsNode, checkedComputationRange)
             }
         }
 
         binding.max = { NodeCalc tsNode, Boolean all_versions = false ->
             if (all_versions) {
-                TimeSeriesMappingConfig.getTimeSeriesMax(tsNode, store, fullComputationRange)
+                config.getTimeSeriesStats(store).getMax(tsNode, fullComputationRange)
             } else {
-                TimeSeriesMappingConfig.getTimeSeriesMax(tsNode, store, checkedComputationRange)
+                config.getTimeSeriesStats(store).getMax(tsNode, checkedComputationRange)
             }
         }
 
         binding.avg = { NodeCalc tsNode, Boolean all_versions = false ->
             if (all_versions) {
-                TimeSeriesMappingConfig.getTimeSeriesAvg(tsNode, store, fullComputationRange)
+                config.getTimeSeriesStats(store).getAvg(tsNode, fullComputationRange)
             } else {
-                TimeSeriesMappingConfig.getTimeSeriesAvg(tsNode, store, checkedComputationRange)
+                config.getTimeSeriesStats(store).getAvg(tsNode, checkedComputationRange)
             }
         }
 
         binding.median = { NodeCalc tsNode, Boolean all_versions = false ->
             if (all_versions) {
-                TimeSeriesMappingConfig.getTimeSeriesMedian(tsNode, store, fullComputationRange)
+                config.getTimeSeriesStats(store).getMedian(tsNode, fullComputationRange)
             } else {
-                TimeSeriesMappingConfig.getTimeSeriesMedian(tsNode, store, checkedComputationRange)
+                config.getTimeSeriesStats(store).getMedian(tsNode, checkedComputationRange)
             }
         }
     }
@@ -554,13 +597,15 @@ class TimeSeriesDslLoader {
         imports.addStaticStars("com.powsybl.iidm.network.Country")
         imports.addStaticStars("com.powsybl.metrix.mapping.EquipmentVariable")
         def config = CalculatedTimeSeriesGroovyDslLoader.createCompilerConfig()
-        config.addCompilationCustomizers(imports)
+        config.addCompilationCustomizers(imports, new IndexedFilterCustomizer())
     }
 
     static void evaluate(GroovyCodeSource dslSrc, Binding binding) {
-        def config = createCompilerConfig()
-        def shell = new GroovyShell(binding, config)
-        shell.evaluate(dslSrc)
+        evaluate(dslSrc, binding, DslCompilationConfig.load())
+    }
+
+    static void evaluate(GroovyCodeSource dslSrc, Binding binding, DslCompilationConfig compilationConfig) {
+        DslScriptCompiler.evaluate(dslSrc, binding, createCompilerConfig(), DSL_VERSION, compilationConfig)
     }
 
     static TimeSeriesMappingConfig load(Reader reader, Network network, MappingParameters parameters, ReadOnlyTimeSeriesStore store, Writer out, ComputationRange computationRange) {
@@ -583,20 +628,51 @@ class TimeSeriesDslLoader {
         load(network, parameters, store, null, computationRange)
     }
 
+    /**
+     * Pool evaluating the filters concurrently, null if they have to be evaluated sequentially. IIDM is not thread
+     * safe and computes the bus-breaker and bus views of the voltage levels and the network components when first
+     * read, so they are all computed here, before the filters are forked.
+     */
+    static ForkJoinPool createFilterPool(Network network, MappingParameters parameters) {
+        if (parameters.getFilterParallelism() <= 1) {
+            return null
+        }
+        network.voltageLevels.each { VoltageLevel voltageLevel ->
+            voltageLevel.busBreakerView.buses.each { it.connectedComponent; it.synchronousComponent }
+            voltageLevel.busView.buses.each { it.connectedComponent; it.synchronousComponent }
+        }
+        new ForkJoinPool(parameters.getFilterParallelism())
+    }
+
     TimeSeriesMappingConfig load(Network network, MappingParameters parameters, ReadOnlyTimeSeriesStore store, Writer out, ComputationRange computationRange) {
+        Optional<TimeSeriesMappingConfigCache> cache = getConfigCache()
+        if (cache.isPresent()) {
+            return cache.get().getOrLoad(dslSrc.getName(), dslSrc.getScriptText(), DSL_VERSION, network, parameters, store, out, computationRange,
+                    { Writer cacheOut -> evaluateConfig(network, parameters, store, cacheOut, computationRange) })
+        }
+        evaluateConfig(network, parameters, store, out, computationRange)
+    }
+
+    private TimeSeriesMappingConfig evaluateConfig(Network network, MappingParameters parameters, ReadOnlyTimeSeriesStore store, Writer out, ComputationRange computationRange) {
         long start = System.currentTimeMillis()
 
         TimeSeriesMappingConfig config = new TimeSeriesMappingConfig(network)
 
         Binding binding = new Binding()
         LogDslLoader logDslLoader = LogDslLoader.create(binding, out)
-        bind(binding, network, store, parameters, config, logDslLoader, computationRange)
+        // filters which cannot be answered from the equipment indexes are evaluated concurrently if requested
+        ForkJoinPool filterPool = createFilterPool(network, parameters)
+        try {
+            bind(binding, network, store, parameters, config, logDslLoader, computationRange, filterPool)
 
-        if (out != null) {
-            binding.out = out
-        }
+            if (out != null) {
+                binding.out = out
+            }
 
-        evaluate(dslSrc, binding)
+            evaluate(dslSrc, binding, getCompilationConfig())
+        } finally {
+            filterPool?.shutdownNow()
+        }
 
         config.checkMappedVariables()
         Set<MappingKey> keys = config.checkEquipmentTimeSeries()
@@ -46,4 +46,8 @@ public class BalanceContext {
     public double getBalanceSum() {
         return balanceSum;
     }
+
+    public int getPointCount() {
+        return pointCount;
+    }
 }
@@ -9,7 +9,6 @@
 package com.powsybl.metrix.mapping;
 
 import com.google.common.base.Strings;
-import com.google.common.collect.TreeBasedTable;
 import com.powsybl.iidm.network.*;
 import com.powsybl.iidm.network.extensions.LoadDetail;
 import com.powsybl.timeseries.TimeSeriesIndex;
@@ -21,7 +20,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -33,7 +31,7 @@ public class BalanceSummary extends DefaultTimeSeriesMapperObserver {
 
     private static final DecimalFormat FORMATTER = new DecimalFormat("0." + Strings.repeat("#", N), new DecimalFormatSymbols(Locale.US));
 
-    private static String formatDouble(Double value) {
+    private static String formatDouble(double value) {
         if (Math.abs(value) == Double.MAX_VALUE || Double.isNaN(value)) {
             return "?";
         } else {
@@ -50,12 +48,38 @@ public class BalanceSummary extends DefaultTimeSeriesMapperObserver {
     private static final String MIN_COLUMN = "Min";
     private static final String MAX_COLUMN = "Max";
 
-    private final TreeBasedTable<Instant, Integer, Double> table = TreeBasedTable.create();
+    /**
+     * Default number of points between two balance summaries printed during a version, 0 to only print the version
+     * summary.
+     */
+    public static final int DEFAULT_SUMMARY_PERIOD = 0;
+
+    /**
+     * Balances of a version, indexed by point.
+     */
+    private static final class VersionBalances {
+
+        private final double[] values;
+
+        private final BitSet points = new BitSet();
+
+        private VersionBalances(int pointCount) {
+            values = new double[pointCount];
+        }
+    }
+
+    private final SortedMap<Integer, VersionBalances> balancesPerVersion = new TreeMap<>();
 
     private final List<BalanceContext> statsPerVersion = new ArrayList<>();
 
     private PrintStream out = null;
 
+    private final int summaryPeriod;
+
+    private TimeSeriesIndex index;
+
+    private VersionBalances balances;
+
     private double balanceValue = 0;
     private double constantBalanceValue = 0;
 
@@ -76,10 +100,24 @@ public class BalanceSummary extends DefaultTimeSeriesMapperObserver {
     private BalanceContext context;
 
     public BalanceSummary(PrintStream out) {
+        this(out, DEFAULT_SUMMARY_PERIOD);
+    }
+
+    /**
+     * @param out the stream to print balance summaries to
+     * @param summaryPeriod the number of points between two summaries of the current version, 0 to only print the
+     *                      summary at the end of each version
+     */
+    public BalanceSummary(PrintStream out, int summaryPeriod) {
+        if (summaryPeriod < 0) {
+            throw new IllegalArgumentException("Invalid balance summary period " + summaryPeriod);
+        }
         this.out = Objects.requireNonNull(out);
+        this.summaryPeriod = summaryPeriod;
     }
 
     public BalanceSummary() {
+        this.summaryPeriod = DEFAULT_SUMMARY_PERIOD;
     }
 
     public static boolean isInjection(Identifiable<?> identifiable, MappingVariable variable) {
@@ -138,17 +176,22 @@ public class BalanceSummary extends DefaultTimeSeriesMapperObserver {
             out.println("Version " + version);
         }
         this.context = new BalanceContext(version);
+        this.balances = null;
     }
 
     @Override
     public void versionEnd(int version) {
         statsPerVersion.add(context);
         if (out != null) {
-            double average = context.getAverage();
-            out.println("Balance summary: min=" + formatDouble(context.getBalanceMin()) + " MWh, max=" + formatDouble(context.getBalanceMax())
-                    + " MWh, average=" + formatDouble(average) + " MWh");
+            out.println("Balance summary: " + formatStats(context));
         }
         this.context = null;
+        this.balances = null;
+    }
+
+    private static String formatStats(BalanceContext context) {
+        return "min=" + formatDouble(context.getBalanceMin()) + " MWh, max=" + formatDouble(context.getBalanceMax())
+                + " MWh, average=" + formatDouble(context.getAverage()) + " MWh";
     }
 
     @Override
@@ -178,13 +221,22 @@ public class BalanceSummary extends DefaultTimeSeriesMapperObserver {
         } else {
             balanceValue += constantBalanceValue;
             context.updateValue(balanceValue);
-            table.put(index.getInstantAt(point), context.getVersion(), balanceValue);
-            if (out != null) {
-                out.println("Balance at " + index.getInstantAt(point) + ": " + String.format(Locale.US, "%.1f", balanceValue));
+            putBalance(point, index);
+            if (out != null && summaryPeriod > 0 && context.getPointCount() % summaryPeriod == 0) {
+                out.println("Balance after " + context.getPointCount() + " points: " + formatStats(context));
             }
         }
     }
 
+    private void putBalance(int point, TimeSeriesIndex index) {
+        if (balances == null) {
+            this.index = index;
+            balances = balancesPerVersion.computeIfAbsent(context.getVersion(), v -> new VersionBalances(index.getPointCount()));
+        }
+        balances.values[point] = balanceValue;
+        balances.points.set(point);
+    }
+
     public void writeCsv(Path mappingSynthesisDir, char separator) throws IOException {
         writeCsv(mappingSynthesisDir, separator, ZoneId.systemDefault());
     }
@@ -202,17 +254,19 @@ public class BalanceSummary extends DefaultTimeSeriesMapperObserver {
     public void writeCsv(BufferedWriter writer, char separator, ZoneId zoneId) throws IOException {
         BalanceConfig config = new BalanceConfig(separator, DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(zoneId));
         writer.write(TIME_COLUMN);
-        for (int version : table.columnKeySet()) {
+        BitSet points = new BitSet();
+        for (Map.Entry<Integer, VersionBalances> e : balancesPerVersion.entrySet()) {
             writer.write(config.separator);
-            writer.write(VERSION_COLUMN + " " + version);
+            writer.write(VERSION_COLUMN + " " + e.getKey());
+            points.or(e.getValue().points);
         }
         writer.newLine();
-        for (Instant instant : table.rowKeySet()) {
-            ZonedDateTime dateTime = ZonedDateTime.ofInstant(instant, zoneId);
+        for (int point = points.nextSetBit(0); point >= 0; point = points.nextSetBit(point + 1)) {
+            ZonedDateTime dateTime = ZonedDateTime.ofInstant(index.getInstantAt(point), zoneId);
             writer.write(dateTime.format(config.dateTimeFormatter));
-            for (int version : table.columnKeySet()) {
+            for (VersionBalances versionBalances : balancesPerVersion.values()) {
                 writer.write(config.separator);
-                writer.write(formatDouble(table.get(instant, version)));
+                writer.write(versionBalances.points.get(point) ? formatDouble(versionBalances.values[point]) : "?");
             }
             writer.newLine();
         }
@@ -248,11 +302,10 @@ public class BalanceSummary extends DefaultTimeSeriesMapperObserver {
     }
 
     public double[] getValuesSortedByInstantByVersion(int version) {
-        return table.column(version).entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(Map.Entry::getValue)
-                .mapToDouble(Double::doubleValue)
-                .toArray();
+        VersionBalances versionBalances = balancesPerVersion.get(version);
+        if (versionBalances == null) {
+            return new double[0];
+        }
+        return versionBalances.points.stream().mapToDouble(point -> versionBalances.values[point]).toArray();
     }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.timeseries.*;
+
+import java.util.*;
+
+/**
+ * Detection of the time series keeping the same value, NaN values apart, on the points loaded in a mapping table.
+ * <p>
+ * Values are compared to the first one, stopping at the first one differing by more than the tolerance. Stored time
+ * series are read from their data chunks, a compressed chunk being checked with its step values only, and calculated
+ * time series from the table. Results are cached per time series, version and number of loaded points, so that they
+ * are reused from one range of points to the next one of the same store.
+ */
+final class ConstantTimeSeriesDetector {
+
+    private final Map<Key, Boolean> cache = new HashMap<>();
+
+    private ReadOnlyTimeSeriesStore store;
+
+    private TimeSeriesTable table;
+
+    private int version;
+
+    private int pointCount;
+
+    private final Map<String, DoubleTimeSeries> loadedTimeSeries = new HashMap<>();
+
+    /**
+     * Set the table to check, for one version of the store.
+     *
+     * @param store store the table is loaded from, results of another store being discarded
+     * @param pointCount number of points loaded in the table
+     * @param loadedTimeSeries stored time series loaded in the table
+     */
+    void setTable(ReadOnlyTimeSeriesStore store, TimeSeriesTable table, int version, int pointCount, List<DoubleTimeSeries> loadedTimeSeries) {
+        if (store != this.store) {
+            cache.clear();
+            this.store = store;
+        }
+        this.table = Objects.requireNonNull(table);
+        this.version = version;
+        this.pointCount = Math.min(pointCount, table.getTableIndex().getPointCount());
+        this.loadedTimeSeries.clear();
+        loadedTimeSeries.forEach(timeSeries -> this.loadedTimeSeries.put(timeSeries.getMetadata().getName(), timeSeries));
+    }
+
+    boolean isConstant(String timeSeriesName, int timeSeriesNum, double epsilon) {
+        return cache.computeIfAbsent(new Key(timeSeriesName, version, pointCount, epsilon), key -> {
+            ValueChecker checker = new ValueChecker(epsilon);
+            DoubleTimeSeries timeSeries = loadedTimeSeries.get(timeSeriesName);
+            Boolean constant = timeSeries instanceof StoredDoubleTimeSeries ? checkChunks((StoredDoubleTimeSeries) timeSeries, checker) : null;
+            if (constant == null) {
+                constant = checkTable(timeSeriesNum, checker);
+            }
+            return constant && checker.hasValue();
+        });
+    }
+
+    /**
+     * @return null if a chunk cannot be read, the table being checked then
+     */
+    private Boolean checkChunks(StoredDoubleTimeSeries timeSeries, ValueChecker checker) {
+        for (DoubleDataChunk chunk : timeSeries.getChunks()) {
+            if (chunk.getOffset() >= pointCount) {
+                continue;
+            }
+            if (chunk instanceof CompressedDoubleDataChunk) {
+                CompressedDoubleDataChunk compressedChunk = (CompressedDoubleDataChunk) chunk;
+                double[] stepValues = compressedChunk.getStepValues();
+                int[] stepLengths = compressedChunk.getStepLengths();
+                int point = chunk.getOffset();
+                for (int i = 0; i < stepValues.length && point < pointCount; i++) {
+                    if (!checker.check(stepValues[i])) {
+                        return false;
+                    }
+                    point += stepLengths[i];
+                }
+            } else if (chunk instanceof UncompressedDoubleDataChunk) {
+                double[] values = ((UncompressedDoubleDataChunk) chunk).getValues();
+                int length = Math.min(values.length, pointCount - chunk.getOffset());
+                for (int i = 0; i < length; i++) {
+                    if (!checker.check(values[i])) {
+                        return false;
+                    }
+                }
+            } else {
+                return null;
+            }
+        }
+        return true;
+    }
+
+    private boolean checkTable(int timeSeriesNum, ValueChecker checker) {
+        for (int point = 0; point < pointCount; point++) {
+            if (!checker.check(table.getDoubleValue(version, timeSeriesNum, point))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class ValueChecker {
+
+        private final double epsilon;
+
+        private double firstValue = Double.NaN;
+
+        private ValueChecker(double epsilon) {
+            this.epsilon = epsilon;
+        }
+
+        private boolean check(double value) {
+            if (Double.isNaN(value)) {
+                return true;
+            }
+            if (Double.isNaN(firstValue)) {
+                firstValue = value;
+                return !Double.isInfinite(value);
+            }
+            return Math.abs(value - firstValue) < epsilon;
+        }
+
+        private boolean hasValue() {
+            return !Double.isNaN(firstValue);
+        }
+    }
+
+    private static final class Key {
+
+        private final String timeSeriesName;
+
+        private final int version;
+
+        private final int pointCount;
+
+        private final double epsilon;
+
+        private Key(String timeSeriesName, int version, int pointCount, double epsilon) {
+            this.timeSeriesName = Objects.requireNonNull(timeSeriesName);
+            this.version = version;
+            this.pointCount = pointCount;
+            this.epsilon = epsilon;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return timeSeriesName.equals(other.timeSeriesName) && version == other.version && pointCount == other.pointCount
+                    && Double.compare(epsilon, other.epsilon) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(timeSeriesName, version, pointCount, epsilon);
+        }
+    }
+}
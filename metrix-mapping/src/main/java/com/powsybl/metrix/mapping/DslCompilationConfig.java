@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.google.common.collect.ImmutableMap;
+import com.powsybl.commons.config.ModuleConfig;
+import com.powsybl.commons.config.PlatformConfig;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Compilation options of the mapping and Metrix DSL scripts, read from the {@code dsl-compilation} module.
+ * By default, scripts are compiled dynamically at each load, as a plain {@link groovy.lang.GroovyShell} does.
+ */
+public class DslCompilationConfig {
+
+    private static final boolean DEFAULT_COMPILE_STATIC = false;
+
+    public static DslCompilationConfig load() {
+        return load(PlatformConfig.defaultConfig());
+    }
+
+    public static DslCompilationConfig load(PlatformConfig platformConfig) {
+        DslCompilationConfig config = new DslCompilationConfig();
+        if (platformConfig.moduleExists("dsl-compilation")) {
+            ModuleConfig moduleConfig = platformConfig.getModuleConfig("dsl-compilation");
+            config.setCompileStatic(moduleConfig.getBooleanProperty("compile-static", DEFAULT_COMPILE_STATIC));
+            moduleConfig.getOptionalPathProperty("script-cache-dir").ifPresent(config::setScriptCacheDir);
+        }
+        return config;
+    }
+
+    private boolean compileStatic = DEFAULT_COMPILE_STATIC;
+
+    private Path scriptCacheDir;
+
+    public boolean isCompileStatic() {
+        return compileStatic;
+    }
+
+    /**
+     * Statically compile the scripts where possible: the script code is type checked and compiled statically,
+     * except the calls to the DSL methods and variables, which cannot be resolved at compilation time and
+     * remain dynamic. Scripts failing type checking are compiled dynamically.
+     */
+    public DslCompilationConfig setCompileStatic(boolean compileStatic) {
+        this.compileStatic = compileStatic;
+        return this;
+    }
+
+    public Optional<Path> getScriptCacheDir() {
+        return Optional.ofNullable(scriptCacheDir);
+    }
+
+    /**
+     * Directory where compiled script classes are stored, keyed by script content, Groovy version and DSL version,
+     * so that loading an unchanged script again skips its compilation.
+     */
+    public DslCompilationConfig setScriptCacheDir(Path scriptCacheDir) {
+        this.scriptCacheDir = Objects.requireNonNull(scriptCacheDir);
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(compileStatic, scriptCacheDir);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof DslCompilationConfig) {
+            DslCompilationConfig other = (DslCompilationConfig) obj;
+            return compileStatic == other.compileStatic && Objects.equals(scriptCacheDir, other.scriptCacheDir);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return ImmutableMap.of("compileStatic", compileStatic, "scriptCacheDir", Objects.toString(scriptCacheDir)).toString();
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import groovy.lang.GroovySystem;
+import groovy.transform.CompileStatic;
+import groovy.transform.TypeCheckingMode;
+import org.codehaus.groovy.ast.*;
+import org.codehaus.groovy.ast.expr.*;
+import org.codehaus.groovy.ast.stmt.ForStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.*;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.tools.GroovyClass;
+import org.codehaus.groovy.transform.stc.AbstractTypeCheckingExtension;
+import org.codehaus.groovy.transform.stc.StaticTypeCheckingVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.*;
+
+/**
+ * Compile and run the mapping and Metrix DSL scripts according to a {@link DslCompilationConfig}: scripts are
+ * optionally compiled statically, except for the DSL calls, and their classes are optionally cached on disk.
+ */
+public final class DslScriptCompiler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DslScriptCompiler.class);
+
+    /**
+     * Version of the compiled script cache, part of the cache keys: to be incremented whenever the cache file format
+     * or the code generated by this compiler changes.
+     */
+    private static final int CACHE_FORMAT_VERSION = 1;
+
+    /**
+     * Type checking extension turning the variables, properties and methods unknown at compilation time, such as
+     * the DSL keywords and the binding variables, into dynamic calls on the script.
+     * <p>
+     * A statically compiled closure would resolve them against the script instead of its delegate: they are
+     * reported as errors inside the closures left by {@link StaticScriptCustomizer}, as well as operators
+     * applied to dynamic values, so that the script is compiled dynamically.
+     */
+    public static class DynamicDslExtension extends AbstractTypeCheckingExtension {
+
+        public DynamicDslExtension(StaticTypeCheckingVisitor typeCheckingVisitor) {
+            super(typeCheckingVisitor);
+        }
+
+        @Override
+        public boolean handleUnresolvedVariableExpression(VariableExpression expression) {
+            if (getEnclosingClosure() != null) {
+                return false;
+            }
+            makeDynamic(expression);
+            return true;
+        }
+
+        @Override
+        public boolean handleUnresolvedProperty(PropertyExpression expression) {
+            if (getEnclosingClosure() != null) {
+                return false;
+            }
+            makeDynamic(expression);
+            return true;
+        }
+
+        @Override
+        public boolean handleUnresolvedAttribute(AttributeExpression expression) {
+            if (getEnclosingClosure() != null) {
+                return false;
+            }
+            makeDynamic(expression);
+            return true;
+        }
+
+        @Override
+        public List<MethodNode> handleMissingMethod(ClassNode receiver, String name, ArgumentListExpression argumentList, ClassNode[] argumentTypes, MethodCall call) {
+            // operators are looked up through synthetic calls, without position, which cannot be made dynamic
+            if (getEnclosingClosure() != null || ((ASTNode) call).getLineNumber() < 0) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(makeDynamic(call));
+        }
+    }
+
+    /**
+     * Prepare a script for static compilation, keeping the semantics of the dynamic code:
+     * <ul>
+     *     <li>the closures which do not use local variables, typically the DSL blocks, are moved to methods excluded
+     *     from static compilation, so that they keep resolving names against their delegate,</li>
+     *     <li>the values iterated by for loops are iterated the dynamic way, as the static code would
+     *     iterate over a single element for an {@link Iterable} which is not a {@link Collection}.</li>
+     * </ul>
+     */
+    private static final class StaticScriptCustomizer extends CompilationCustomizer {
+
+        private static final String CLOSURE_METHOD_PREFIX = "$dslClosure";
+
+        private static final ClassNode COMPILER = ClassHelper.make(DslScriptCompiler.class);
+
+        private StaticScriptCustomizer() {
+            super(CompilePhase.CANONICALIZATION);
+        }
+
+        @Override
+        public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+            if (!classNode.isScript()) {
+                return;
+            }
+            AnnotationNode compileDynamic = new AnnotationNode(ClassHelper.make(CompileStatic.class));
+            compileDynamic.setMember("value", new PropertyExpression(new ClassExpression(ClassHelper.make(TypeCheckingMode.class)), TypeCheckingMode.SKIP.name()));
+            ClassCodeExpressionTransformer transformer = new ClassCodeExpressionTransformer() {
+
+                private int closureCount = 0;
+
+                @Override
+                protected SourceUnit getSourceUnit() {
+                    return source;
+                }
+
+                @Override
+                public void visitForLoop(ForStatement forLoop) {
+                    super.visitForLoop(forLoop);
+                    Expression collection = forLoop.getCollectionExpression();
+                    if (forLoop.getVariable() != ForStatement.FOR_LOOP_DUMMY
+                            && !(collection instanceof ListExpression) && !(collection instanceof RangeExpression)) {
+                        StaticMethodCallExpression iterator = new StaticMethodCallExpression(COMPILER, "asIterable", new ArgumentListExpression(collection));
+                        iterator.setSourcePosition(collection);
+                        forLoop.setCollectionExpression(iterator);
+                    }
+                }
+
+                @Override
+                public Expression transform(Expression expression) {
+                    if (!(expression instanceof ClosureExpression)) {
+                        return super.transform(expression);
+                    }
+                    ClosureExpression closure = (ClosureExpression) expression;
+                    if (closure.getVariableScope().getReferencedLocalVariablesCount() > 0) {
+                        // statically compiled closure, which fails type checking if it relies on its delegate
+                        closure.getCode().visit(this);
+                        return closure;
+                    }
+                    MethodNode method = classNode.addMethod(CLOSURE_METHOD_PREFIX + closureCount++, Modifier.PRIVATE,
+                            ClassHelper.CLOSURE_TYPE.getPlainNodeReference(), Parameter.EMPTY_ARRAY, ClassNode.EMPTY_ARRAY, new ReturnStatement(closure));
+                    method.addAnnotation(compileDynamic);
+                    method.setVariableScope(new VariableScope());
+                    MethodCallExpression call = new MethodCallExpression(VariableExpression.THIS_EXPRESSION, method.getName(), ArgumentListExpression.EMPTY_ARGUMENTS);
+                    call.setImplicitThis(true);
+                    call.setMethodTarget(method);
+                    call.setSourcePosition(closure);
+                    return call;
+                }
+            };
+            // the closure methods are added while visiting
+            for (MethodNode method : new ArrayList<>(classNode.getMethods())) {
+                transformer.visitMethod(method);
+            }
+        }
+    }
+
+    private static final class CompiledScript {
+
+        private final String scriptClassName;
+
+        private final Map<String, byte[]> classes;
+
+        private CompiledScript(String scriptClassName, Map<String, byte[]> classes) {
+            this.scriptClassName = Objects.requireNonNull(scriptClassName);
+            this.classes = Objects.requireNonNull(classes);
+        }
+
+        private Class<?> define(GroovyClassLoader classLoader) {
+            // classes reference each other, so all of them are defined before the script class is used
+            Class<?> scriptClass = null;
+            for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+                Class<?> clazz = classLoader.defineClass(e.getKey(), e.getValue());
+                if (e.getKey().equals(scriptClassName)) {
+                    scriptClass = clazz;
+                }
+            }
+            if (scriptClass == null) {
+                throw new IllegalStateException("Script class " + scriptClassName + " not found");
+            }
+            return scriptClass;
+        }
+
+        private void write(Path file) throws IOException {
+            try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                os.writeInt(CACHE_FORMAT_VERSION);
+                os.writeUTF(scriptClassName);
+                os.writeInt(classes.size());
+                for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+                    os.writeUTF(e.getKey());
+                    os.writeInt(e.getValue().length);
+                    os.write(e.getValue());
+                }
+            }
+        }
+
+        private static CompiledScript read(Path file) throws IOException {
+            try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                int version = is.readInt();
+                if (version != CACHE_FORMAT_VERSION) {
+                    throw new IOException("Unsupported compiled script format version " + version);
+                }
+                String scriptClassName = is.readUTF();
+                int classCount = is.readInt();
+                Map<String, byte[]> classes = new LinkedHashMap<>(classCount);
+                for (int i = 0; i < classCount; i++) {
+                    String name = is.readUTF();
+                    byte[] bytes = new byte[is.readInt()];
+                    is.readFully(bytes);
+                    classes.put(name, bytes);
+                }
+                return new CompiledScript(scriptClassName, classes);
+            }
+        }
+    }
+
+    private DslScriptCompiler() {
+    }
+
+    /**
+     * Compile the script with the given compiler configuration and run it with the given binding.
+     *
+     * @param dslVersion version of the DSL, that is of the compiler configuration and of the binding the script
+     *                   is compiled against, used to invalidate the cached script classes
+     */
+    public static void evaluate(GroovyCodeSource dslSrc, Binding binding, CompilerConfiguration config, String dslVersion,
+                                DslCompilationConfig compilationConfig) {
+        Objects.requireNonNull(dslSrc);
+        Objects.requireNonNull(binding);
+        Objects.requireNonNull(config);
+        Objects.requireNonNull(dslVersion);
+        Objects.requireNonNull(compilationConfig);
+
+        if (!compilationConfig.isCompileStatic() && !compilationConfig.getScriptCacheDir().isPresent()) {
+            new GroovyShell(binding, config).evaluate(dslSrc);
+            return;
+        }
+
+        InvokerHelper.createScript(parseClass(dslSrc, config, dslVersion, compilationConfig), binding).run();
+    }
+
+    static Class<?> parseClass(GroovyCodeSource dslSrc, CompilerConfiguration config, String dslVersion, DslCompilationConfig compilationConfig) {
+        GroovyClassLoader classLoader = createClassLoader(config);
+        Path cacheDir = compilationConfig.getScriptCacheDir().orElse(null);
+        return cacheDir != null
+                ? loadOrCompile(cacheDir, dslSrc, config, dslVersion, compilationConfig.isCompileStatic(), classLoader)
+                : compile(dslSrc, config, compilationConfig.isCompileStatic(), classLoader).define(classLoader);
+    }
+
+    private static GroovyClassLoader createClassLoader(CompilerConfiguration config) {
+        // same parent class loader as a GroovyShell
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ClassLoader parent = contextClassLoader != null ? contextClassLoader : GroovyShell.class.getClassLoader();
+        return AccessController.doPrivileged((PrivilegedAction<GroovyClassLoader>) () -> new GroovyClassLoader(parent, config));
+    }
+
+    private static Class<?> loadOrCompile(Path cacheDir, GroovyCodeSource dslSrc, CompilerConfiguration config, String dslVersion,
+                                          boolean compileStatic, GroovyClassLoader classLoader) {
+        Path file = cacheDir.resolve(cacheKey(dslSrc, dslVersion, compileStatic) + ".bin");
+        if (Files.exists(file)) {
+            try {
+                return CompiledScript.read(file).define(classLoader);
+            } catch (IOException | LinkageError | IllegalStateException e) {
+                LOGGER.warn("Cannot load compiled script {}, compiling it again: {}", file, e.toString());
+            }
+        }
+        // classes of a partially loaded cache entry may already be defined
+        GroovyClassLoader compileClassLoader = createClassLoader(config);
+        CompiledScript compiledScript = compile(dslSrc, config, compileStatic, compileClassLoader);
+        try {
+            Files.createDirectories(cacheDir);
+            Path tmpFile = Files.createTempFile(cacheDir, file.getFileName().toString(), ".tmp");
+            try {
+                compiledScript.write(tmpFile);
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmpFile);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot store compiled script {}: {}", file, e.toString());
+        }
+        return compiledScript.define(compileClassLoader);
+    }
+
+    /**
+     * Values iterated by a dynamically compiled for loop.
+     */
+    public static Iterable<Object> asIterable(Object value) {
+        return () -> (Iterator<Object>) InvokerHelper.asIterator(value);
+    }
+
+    static String cacheKey(GroovyCodeSource dslSrc, String dslVersion, boolean compileStatic) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String part : Arrays.asList(dslVersion, GroovySystem.getVersion(), Integer.toString(CACHE_FORMAT_VERSION),
+                Boolean.toString(compileStatic), dslSrc.getName(), dslSrc.getScriptText())) {
+            hasher.putInt(part.length()).putString(part, StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static CompiledScript compile(GroovyCodeSource dslSrc, CompilerConfiguration config, boolean compileStatic, GroovyClassLoader classLoader) {
+        if (compileStatic) {
+            // the copy constructor does not copy the compilation customizers
+            CompilerConfiguration staticConfig = new CompilerConfiguration(config);
+            for (CompilationCustomizer customizer : config.getCompilationCustomizers()) {
+                if (!staticConfig.getCompilationCustomizers().contains(customizer)) {
+                    staticConfig.addCompilationCustomizers(customizer);
+                }
+            }
+            staticConfig.addCompilationCustomizers(new StaticScriptCustomizer(), new ASTTransformationCustomizer(
+                    Collections.singletonMap("extensions", DynamicDslExtension.class.getName()), CompileStatic.class));
+            try {
+                return compile(dslSrc, staticConfig, classLoader);
+            } catch (CompilationFailedException e) {
+                LOGGER.info("Script {} cannot be compiled statically, it is compiled dynamically: {}", dslSrc.getName(), e.getMessage());
+            }
+        }
+        return compile(dslSrc, config, classLoader);
+    }
+
+    private static CompiledScript compile(GroovyCodeSource dslSrc, CompilerConfiguration config, GroovyClassLoader classLoader) {
+        long start = System.currentTimeMillis();
+        CompilationUnit unit = new CompilationUnit(config, dslSrc.getCodeSource(), classLoader);
+        unit.addSource(dslSrc.getName(), dslSrc.getScriptText());
+        unit.compile(Phases.CLASS_GENERATION);
+
+        // script class, or first class of a script only made of class declarations, as run by a GroovyShell
+        String scriptClassName = null;
+        for (ModuleNode module : unit.getAST().getModules()) {
+            for (ClassNode classNode : module.getClasses()) {
+                if (classNode.getOuterClass() == null && (scriptClassName == null || classNode.isScript())) {
+                    scriptClassName = classNode.getName();
+                }
+            }
+        }
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (GroovyClass groovyClass : unit.getClasses()) {
+            classes.put(groovyClass.getName(), groovyClass.getBytes());
+        }
+        LOGGER.debug("Script {} compiled in {} ms", dslSrc.getName(), System.currentTimeMillis() - start);
+        return new CompiledScript(scriptClassName, classes);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.timeseries.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressed columnar binary form of the equipment time series written by {@link EquipmentTimeSeriesWriter}.
+ * <p>
+ * The file is gzipped and holds the column names, then the rows in chunks: the row count and the instants of a
+ * chunk, followed by each column of the chunk as runs of equal values, which is compact for the many equipment
+ * time series that rarely change. Rows are written as they come, only one chunk being kept in memory.
+ */
+public final class EquipmentTimeSeriesBinary {
+
+    private static final int MAGIC = 0x45545342;
+
+    private static final int FORMAT_VERSION = 2;
+
+    // values buffered by chunk, whatever the number of columns
+    private static final int MAX_CHUNK_VALUES = 1 << 20;
+
+    private static final int INITIAL_ROW_COUNT = 64;
+
+    private EquipmentTimeSeriesBinary() {
+    }
+
+    /**
+     * Writes the rows of a file, chunk by chunk.
+     */
+    public static final class RowWriter implements Closeable {
+
+        private final DataOutputStream os;
+
+        private final int maxChunkRowCount;
+
+        private long[] instants;
+
+        // values of the chunk, by column then row
+        private final double[][] columns;
+
+        private int rowCount = 0;
+
+        private RowWriter(Path file, List<String> columnNames, int maxChunkRowCount) throws IOException {
+            this.maxChunkRowCount = maxChunkRowCount;
+            int initialRowCount = Math.min(INITIAL_ROW_COUNT, maxChunkRowCount);
+            instants = new long[initialRowCount];
+            columns = new double[columnNames.size()][initialRowCount];
+            os = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))));
+            try {
+                os.writeInt(MAGIC);
+                os.writeInt(FORMAT_VERSION);
+                os.writeInt(columnNames.size());
+                for (String columnName : columnNames) {
+                    os.writeUTF(columnName);
+                }
+            } catch (IOException e) {
+                os.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @param instant instant of the row, in epoch milliseconds
+         * @param values values of the row, by column
+         */
+        public void addRow(long instant, double[] values) {
+            if (rowCount == instants.length) {
+                int length = Math.min(2 * rowCount, maxChunkRowCount);
+                instants = Arrays.copyOf(instants, length);
+                for (int column = 0; column < columns.length; column++) {
+                    columns[column] = Arrays.copyOf(columns[column], length);
+                }
+            }
+            instants[rowCount] = instant;
+            for (int column = 0; column < columns.length; column++) {
+                columns[column][rowCount] = values[column];
+            }
+            rowCount++;
+            if (rowCount == maxChunkRowCount) {
+                writeChunk();
+            }
+        }
+
+        private void writeChunk() {
+            try {
+                os.writeInt(rowCount);
+                for (int row = 0; row < rowCount; row++) {
+                    os.writeLong(instants[row]);
+                }
+                for (double[] column : columns) {
+                    writeColumn(os, column, rowCount);
+                }
+                rowCount = 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (rowCount > 0) {
+                    writeChunk();
+                }
+                // end of the chunks
+                os.writeInt(0);
+                os.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static RowWriter open(Path file, List<String> columnNames) {
+        Objects.requireNonNull(columnNames);
+        return open(file, columnNames, Math.max(1, MAX_CHUNK_VALUES / Math.max(1, columnNames.size())));
+    }
+
+    static RowWriter open(Path file, List<String> columnNames, int maxChunkRowCount) {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(columnNames);
+        try {
+            return new RowWriter(file, columnNames, maxChunkRowCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeColumn(DataOutputStream os, double[] values, int rowCount) throws IOException {
+        int stepCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (row == 0 || !sameValue(values[row], values[row - 1])) {
+                stepCount++;
+            }
+        }
+        os.writeInt(stepCount);
+        int row = 0;
+        while (row < rowCount) {
+            int length = 1;
+            while (row + length < rowCount && sameValue(values[row + length], values[row])) {
+                length++;
+            }
+            os.writeDouble(values[row]);
+            os.writeInt(length);
+            row += length;
+        }
+    }
+
+    private static boolean sameValue(double value1, double value2) {
+        return Double.doubleToLongBits(value1) == Double.doubleToLongBits(value2);
+    }
+
+    /**
+     * Runs of a column, those of consecutive chunks being merged when equal.
+     */
+    private static final class ColumnSteps {
+
+        private double[] values = new double[1];
+
+        private int[] lengths = new int[1];
+
+        private int size = 0;
+
+        private void add(double value, int length) {
+            if (size > 0 && sameValue(values[size - 1], value)) {
+                lengths[size - 1] += length;
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+                lengths = Arrays.copyOf(lengths, 2 * size);
+            }
+            values[size] = value;
+            lengths[size] = length;
+            size++;
+        }
+    }
+
+    /**
+     * Read the equipment time series of a file, the values of a time series being compressed data chunks.
+     */
+    public static List<DoubleTimeSeries> read(Path file) {
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (is.readInt() != MAGIC) {
+                throw new IOException("Not a binary equipment time series file");
+            }
+            int version = is.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported binary equipment time series version " + version);
+            }
+            String[] columnNames = new String[is.readInt()];
+            ColumnSteps[] columnSteps = new ColumnSteps[columnNames.length];
+            for (int column = 0; column < columnNames.length; column++) {
+                columnNames[column] = is.readUTF();
+                columnSteps[column] = new ColumnSteps();
+            }
+            List<Instant> instants = new ArrayList<>();
+            int chunkRowCount;
+            while ((chunkRowCount = is.readInt()) > 0) {
+                for (int row = 0; row < chunkRowCount; row++) {
+                    instants.add(Instant.ofEpochMilli(is.readLong()));
+                }
+                for (ColumnSteps steps : columnSteps) {
+                    int stepCount = is.readInt();
+                    for (int step = 0; step < stepCount; step++) {
+                        steps.add(is.readDouble(), is.readInt());
+                    }
+                }
+            }
+            TimeSeriesIndex index = IrregularTimeSeriesIndex.create(instants);
+            List<DoubleTimeSeries> timeSeriesList = new ArrayList<>(columnNames.length);
+            for (int column = 0; column < columnNames.length; column++) {
+                ColumnSteps steps = columnSteps[column];
+                timeSeriesList.add(new StoredDoubleTimeSeries(new TimeSeriesMetadata(columnNames[column], TimeSeriesDataType.DOUBLE, index),
+                        new CompressedDoubleDataChunk(0, instants.size(), Arrays.copyOf(steps.values, steps.size), Arrays.copyOf(steps.lengths, steps.size))));
+            }
+            return timeSeriesList;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
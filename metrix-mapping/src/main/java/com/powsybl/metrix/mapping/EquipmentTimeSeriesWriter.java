@@ -17,33 +17,62 @@ import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.stream.IntStream;
 
+/**
+ * Writes the equipment time series of each version, one column by mapped (equipment, variable) pair, to a
+ * {@code version_N.csv} file and, optionally, to a compressed columnar {@code version_N.bin} file
+ * ({@link EquipmentTimeSeriesBinary}).
+ * <p>
+ * Each (equipment, variable) pair gets a slot when first mapped and the columns, in the order of their names, are
+ * fixed at the first point. Values of a point are stored in a reused row of slots, initialized with the constant values.
+ */
 public class EquipmentTimeSeriesWriter extends DefaultTimeSeriesMapperObserver {
 
     private static final char SEPARATOR = ';';
 
     private final Path dir;
 
+    private final boolean writeBinary;
+
     private BufferedWriter writer;
 
-    private final Map<String, Double> values = new HashMap<>();
-    private final Map<String, Double> constantValues = new HashMap<>();
+    private int version;
+
+    // slots of the mapped (equipment, variable) pairs of the version
+    private final Map<Identifiable<?>, EquipmentSlots> equipmentSlots = new HashMap<>();
+    private final List<String> slotNames = new ArrayList<>();
 
-    private List<String> columnNames;
+    // values of the constant variant and of the current point, by slot
+    private double[] constantValues = new double[0];
+    private double[] values = new double[0];
 
-    private boolean header;
+    // slots of the columns, null until the header is written
+    private int[] columnSlots;
+
+    private final StringBuilder line = new StringBuilder();
+    private char[] lineChars = new char[0];
+
+    // binary file of the version and its row of column values
+    private EquipmentTimeSeriesBinary.RowWriter binaryWriter;
+    private double[] binaryRow;
 
     public EquipmentTimeSeriesWriter(Path dir) {
+        this(dir, false);
+    }
+
+    /**
+     * @param writeBinary also write the equipment time series in compressed columnar binary files
+     */
+    public EquipmentTimeSeriesWriter(Path dir, boolean writeBinary) {
         this.dir = Objects.requireNonNull(dir);
+        this.writeBinary = writeBinary;
     }
 
     public EquipmentTimeSeriesWriter(BufferedWriter writer) {
         this.dir = null;
+        this.writeBinary = false;
         this.writer = Objects.requireNonNull(writer);
     }
 
@@ -53,7 +82,11 @@ public class EquipmentTimeSeriesWriter extends DefaultTimeSeriesMapperObserver {
             if (dir != null) {
                 writer = Files.newBufferedWriter(dir.resolve("version_" + version + ".csv"), StandardCharsets.UTF_8);
             }
-            header = true;
+            this.version = version;
+            equipmentSlots.clear();
+            slotNames.clear();
+            Arrays.fill(constantValues, Double.NaN);
+            columnSlots = null;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -61,45 +94,117 @@ public class EquipmentTimeSeriesWriter extends DefaultTimeSeriesMapperObserver {
 
     @Override
     public void timeSeriesMappingStart(int point, TimeSeriesIndex index) {
-        values.clear();
         if (point != TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-            values.putAll(constantValues);
+            System.arraycopy(constantValues, 0, values, 0, values.length);
         }
     }
 
     @Override
     public void timeSeriesMappedToEquipment(int point, String timeSeriesName, Identifiable<?> identifiable, MappingVariable variable, double equipmentValue) {
         if (!Double.isNaN(equipmentValue) && !timeSeriesName.isEmpty()) {
-            if (point == TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-                constantValues.put(identifiable.getId() + "_" + variable.getVariableName(), equipmentValue);
-            } else {
-                values.put(identifiable.getId() + "_" + variable.getVariableName(), equipmentValue);
+            int slot = getSlot(identifiable, variable);
+            if (slot >= 0) {
+                if (point == TimeSeriesMapper.CONSTANT_VARIANT_ID) {
+                    constantValues[slot] = equipmentValue;
+                } else {
+                    values[slot] = equipmentValue;
+                }
             }
         }
     }
 
+    /**
+     * @return the slot of the (equipment, variable) pair, added while the columns are not fixed, -1 otherwise
+     */
+    private int getSlot(Identifiable<?> identifiable, MappingVariable variable) {
+        EquipmentSlots slots = equipmentSlots.get(identifiable);
+        int slot = slots != null ? slots.find(variable) : -1;
+        if (slot >= 0 || columnSlots != null) {
+            return slot;
+        }
+        if (slots == null) {
+            slots = new EquipmentSlots();
+            equipmentSlots.put(identifiable, slots);
+        }
+        slot = slotNames.size();
+        slots.add(variable, slot);
+        slotNames.add(identifiable.getId() + "_" + variable.getVariableName());
+        if (slot == values.length) {
+            int length = Math.max(16, 2 * values.length);
+            constantValues = grow(constantValues, length);
+            values = grow(values, length);
+        }
+        return slot;
+    }
+
+    private static double[] grow(double[] array, int length) {
+        double[] newArray = Arrays.copyOf(array, length);
+        Arrays.fill(newArray, array.length, length, Double.NaN);
+        return newArray;
+    }
+
+    private void writeHeader() throws IOException {
+        columnSlots = IntStream.range(0, slotNames.size())
+                .filter(slot -> !Double.isNaN(values[slot]))
+                .boxed()
+                .sorted(Comparator.comparing(slotNames::get))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        writer.write("time");
+        for (int slot : columnSlots) {
+            writer.write(SEPARATOR);
+            writer.write(slotNames.get(slot));
+        }
+        if (writeBinary) {
+            List<String> columnNames = new ArrayList<>(columnSlots.length);
+            for (int slot : columnSlots) {
+                columnNames.add(slotNames.get(slot));
+            }
+            binaryWriter = EquipmentTimeSeriesBinary.open(dir.resolve("version_" + version + ".bin"), columnNames);
+            binaryRow = new double[columnSlots.length];
+        }
+    }
+
+    private void writeLine() throws IOException {
+        int length = line.length();
+        if (lineChars.length < length) {
+            lineChars = new char[Math.max(length, 2 * lineChars.length)];
+        }
+        line.getChars(0, length, lineChars, 0);
+        writer.write(lineChars, 0, length);
+    }
+
+    private void addBinaryRow(long instant) {
+        for (int column = 0; column < columnSlots.length; column++) {
+            binaryRow[column] = values[columnSlots[column]];
+        }
+        binaryWriter.addRow(instant, binaryRow);
+    }
+
     @Override
     public void timeSeriesMappingEnd(int point, TimeSeriesIndex index, double balance) {
         try {
             if (point != TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-                if (header) {
-                    writer.write("time");
-                    columnNames = values.keySet().stream().sorted().collect(Collectors.toList());
-                    for (String columnName : columnNames) {
-                        writer.write(SEPARATOR);
-                        writer.write(columnName);
-                    }
-                    header = false;
+                if (columnSlots == null) {
+                    writeHeader();
                 }
 
                 writer.newLine();
 
-                writer.write(index.getInstantAt(point).toString());
+                line.setLength(0);
+                line.append(index.getInstantAt(point).toString());
+                for (int slot : columnSlots) {
+                    double value = values[slot];
+                    line.append(SEPARATOR);
+                    if (!Double.isNaN(value)) {
+                        // same format as Double.toString
+                        line.append(value);
+                    }
+                }
+                writeLine();
 
-                for (String columnName : columnNames) {
-                    double value = values.get(columnName);
-                    writer.write(SEPARATOR);
-                    writer.write(Double.isNaN(value) ? "" : Double.toString(value));
+                if (writeBinary) {
+                    addBinaryRow(index.getTimeAt(point));
                 }
             }
         } catch (IOException e) {
@@ -113,8 +218,43 @@ public class EquipmentTimeSeriesWriter extends DefaultTimeSeriesMapperObserver {
             writer.close();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
+        } finally {
+            if (binaryWriter != null) {
+                binaryWriter.close();
+                binaryWriter = null;
+                binaryRow = null;
+            }
+        }
+    }
+
+    /**
+     * Slots of the variables of an equipment, which are few.
+     */
+    private static final class EquipmentSlots {
+
+        private MappingVariable[] variables = new MappingVariable[2];
+
+        private int[] slots = new int[2];
+
+        private int size = 0;
+
+        private int find(MappingVariable variable) {
+            for (int i = 0; i < size; i++) {
+                if (variables[i].equals(variable)) {
+                    return slots[i];
+                }
+            }
+            return -1;
         }
 
-        constantValues.clear();
+        private void add(MappingVariable variable, int slot) {
+            if (size == variables.length) {
+                variables = Arrays.copyOf(variables, 2 * size);
+                slots = Arrays.copyOf(slots, 2 * size);
+            }
+            variables[size] = variable;
+            slots[size] = slot;
+            size++;
+        }
     }
 }
@@ -16,9 +16,20 @@ public class IndexedMappingKey {
 
     private final int num;
 
+    private final int keyIndex;
+
     public IndexedMappingKey(MappingKey key, int num) {
+        this(key, num, -1);
+    }
+
+    /**
+     * @param num index of the time series in the table
+     * @param keyIndex index of the key in the {@link MappingKeyTable} of the configuration, -1 if unknown
+     */
+    public IndexedMappingKey(MappingKey key, int num, int keyIndex) {
         this.key = Objects.requireNonNull(key);
         this.num = num;
+        this.keyIndex = keyIndex;
     }
 
     public MappingKey getKey() {
@@ -29,6 +40,10 @@ public class IndexedMappingKey {
         return num;
     }
 
+    public int getKeyIndex() {
+        return keyIndex;
+    }
+
     @Override
     public int hashCode() {
         return key.hashCode() + Integer.hashCode(num);
@@ -24,6 +24,8 @@ public class MappingKey {
 
     private final String id;
 
+    private final int hash;
+
     public static String toJson(MappingKey key) {
         Objects.requireNonNull(key);
         return JsonUtil.toJson(key::toJson);
@@ -85,6 +87,7 @@ public class MappingKey {
         Objects.requireNonNull(id);
         this.mappingVariable = Objects.requireNonNull(mappingVariable);
         this.id = Objects.requireNonNull(id);
+        this.hash = id.hashCode() + mappingVariable.hashCode();
     }
 
     public MappingVariable getMappingVariable() {
@@ -97,14 +100,14 @@ public class MappingKey {
 
     @Override
     public int hashCode() {
-        return id.hashCode() + mappingVariable.hashCode();
+        return hash;
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof MappingKey) {
             MappingKey other = (MappingKey) obj;
-            return id.equals(other.id) && mappingVariable.equals(other.mappingVariable);
+            return hash == other.hash && id.equals(other.id) && mappingVariable.equals(other.mappingVariable);
         }
         return false;
     }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import java.util.*;
+
+/**
+ * Interning table of mapping keys: each (variable, id) pair gets a single key instance, shared by all the maps of a
+ * mapping configuration, and a dense index, in the order the keys are interned, so that the structures used while
+ * mapping can be indexed arrays instead of hash maps.
+ */
+public class MappingKeyTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private MappingKey[] keys = new MappingKey[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+    // open addressing hash table of the key indexes + 1, 0 for a free bucket, at most half full
+    private int[] buckets = new int[2 * INITIAL_CAPACITY];
+
+    /**
+     * @return the key of the table equal to the given one, the given one being added if there is none
+     */
+    public MappingKey intern(MappingKey key) {
+        int index = getIndex(key);
+        return keys[index];
+    }
+
+    public MappingKey intern(MappingVariable variable, String id) {
+        return intern(new MappingKey(variable, id));
+    }
+
+    /**
+     * @return the index of the key, the key being added if not already in the table
+     */
+    public int getIndex(MappingKey key) {
+        Objects.requireNonNull(key);
+        int bucket = findBucket(key);
+        if (buckets[bucket] != 0) {
+            return buckets[bucket] - 1;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            rehash(4 * size);
+            bucket = findBucket(key);
+        }
+        keys[size] = key;
+        buckets[bucket] = ++size;
+        return size - 1;
+    }
+
+    /**
+     * @return the index of the key, -1 if not in the table
+     */
+    public int findIndex(MappingKey key) {
+        return buckets[findBucket(Objects.requireNonNull(key))] - 1;
+    }
+
+    public MappingKey getKey(int index) {
+        Objects.checkIndex(index, size);
+        return keys[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the bucket of the key, or the free bucket where to add it
+     */
+    private int findBucket(MappingKey key) {
+        int mask = buckets.length - 1;
+        int hash = key.hashCode();
+        int bucket = (hash ^ (hash >>> 16)) & mask;
+        while (buckets[bucket] != 0 && !keys[buckets[bucket] - 1].equals(key)) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    private void rehash(int capacity) {
+        buckets = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            buckets[findBucket(keys[i])] = i + 1;
+        }
+    }
+}
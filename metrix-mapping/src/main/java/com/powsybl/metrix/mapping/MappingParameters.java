@@ -18,6 +18,8 @@ public class MappingParameters {
 
     private static final float DEFAULT_TOLERANCE_THRESHOLD = 0.0001f;
 
+    private static final int DEFAULT_FILTER_PARALLELISM = 1;
+
     public static MappingParameters load() {
         MappingParameters parameters = new MappingParameters();
         if (PlatformConfig.defaultConfig().moduleExists("mapping-default-parameters")) {
@@ -25,6 +27,7 @@ public class MappingParameters {
             if (config != null) {
                 parameters.setToleranceThreshold(config.getOptionalFloatProperty("tolerance-threshold")
                         .orElseGet(() -> config.getFloatProperty("toleranceThreshold", DEFAULT_TOLERANCE_THRESHOLD)));
+                parameters.setFilterParallelism(config.getIntProperty("filter-parallelism", DEFAULT_FILTER_PARALLELISM));
             }
         }
         return parameters;
@@ -34,6 +37,8 @@ public class MappingParameters {
 
     private boolean withTimeSeriesStats;
 
+    private int filterParallelism = DEFAULT_FILTER_PARALLELISM;
+
     public MappingParameters() {
         this(DEFAULT_TOLERANCE_THRESHOLD, false);
     }
@@ -61,16 +66,34 @@ public class MappingParameters {
         return this;
     }
 
+    public int getFilterParallelism() {
+        return filterParallelism;
+    }
+
+    /**
+     * Number of threads evaluating the mapping script filters which cannot be answered from the equipment indexes.
+     * Filters are then called concurrently: they must be pure, neither modifying the script state nor the network,
+     * which is not checked. The network topology is computed before the filters are called.
+     */
+    public MappingParameters setFilterParallelism(int filterParallelism) {
+        if (filterParallelism < 1) {
+            throw new IllegalArgumentException("Invalid filter parallelism " + filterParallelism);
+        }
+        this.filterParallelism = filterParallelism;
+        return this;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(toleranceThreshold, withTimeSeriesStats);
+        return Objects.hash(toleranceThreshold, withTimeSeriesStats, filterParallelism);
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof MappingParameters) {
             MappingParameters other = (MappingParameters) obj;
-            return toleranceThreshold == other.toleranceThreshold && withTimeSeriesStats == other.withTimeSeriesStats;
+            return toleranceThreshold == other.toleranceThreshold && withTimeSeriesStats == other.withTimeSeriesStats
+                    && filterParallelism == other.filterParallelism;
         }
         return false;
     }
@@ -79,7 +102,8 @@ public class MappingParameters {
     public String toString() {
         ImmutableMap.Builder<String, Object> builder = ImmutableMap.<String, Object>builder()
                 .put("toleranceThreshold", toleranceThreshold)
-                .put("withTimeSeriesStats", withTimeSeriesStats);
+                .put("withTimeSeriesStats", withTimeSeriesStats)
+                .put("filterParallelism", filterParallelism);
 
         return builder.build().toString();
     }
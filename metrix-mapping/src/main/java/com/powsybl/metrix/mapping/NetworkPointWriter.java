@@ -10,6 +10,7 @@ package com.powsybl.metrix.mapping;
 
 import com.powsybl.commons.datasource.DataSource;
 import com.powsybl.commons.datasource.MemDataSource;
+import com.powsybl.commons.datasource.ReadOnlyDataSource;
 import com.powsybl.iidm.export.ExportOptions;
 import com.powsybl.iidm.network.*;
 import com.powsybl.iidm.network.extensions.HvdcAngleDroopActivePowerControl;
@@ -20,21 +21,61 @@ import com.powsybl.iidm.xml.NetworkXml;
 import com.powsybl.metrix.mapping.common.MetrixIidmConfiguration;
 import com.powsybl.timeseries.TimeSeriesIndex;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.io.UncheckedIOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static com.powsybl.metrix.mapping.TimeSeriesMapper.*;
 
+/**
+ * Export of the network of each mapped point.
+ * <p>
+ * The network of a point is built in a variant reused from one point to the next. With more than one thread, the
+ * values mapped on a point are recorded and the serialization is handed to a bounded pool of writers, each one
+ * replaying the points on its own copy of the network, so that the mapping goes on while the files are written.
+ * <p>
+ * In delta mode, the network is written once per version, with the constant values of the version, then each point
+ * is written as the list of the values mapped on the point and of the limits changed by the mapping checker, from
+ * which {@link #readNetworkPoint} rebuilds the network of the point.
+ */
 public class NetworkPointWriter extends DefaultTimeSeriesMapperObserver {
 
     private static final int OFF_VALUE = 0;
 
+    private static final String POINT_VARIANT_ID = "network-point";
+
+    private static final String EXTENSION = "xiidm";
+
+    private static final String DELTA_EXTENSION = "delta.csv";
+
+    private static final String GZ_EXTENSION = ".gz";
+
+    private static final String BASE_SUFFIX = "base";
+
+    private static final String DELTA_HEADER = "type;id;attribute;value";
+
+    private static final String MAPPING_TYPE = "mapping";
+
+    private static final String LIMIT_TYPE = "limit";
+
+    private static final char SEPARATOR = ';';
+
+    /**
+     * Limits not depending on the variant, changed on the network of a point.
+     */
+    private enum LimitAttribute {
+        maxP,
+        minP,
+        hvdcMaxP,
+        oprFromCS1toCS2,
+        oprFromCS2toCS1
+    }
+
     private static final class GeneratorInitialValues {
 
         private final double minP;
@@ -75,15 +116,79 @@ public class NetworkPointWriter extends DefaultTimeSeriesMapperObserver {
 
     private final DataSource dataSource;
 
+    private final ExportOptions exportOptions;
+
+    private final int threadCount;
+
+    private final boolean compress;
+
+    private final boolean delta;
+
     private int version = -1;
 
+    // parallel export
+    private ExecutorService executorService;
+
+    private BlockingQueue<NetworkPointWriter> pointWriters;
+
+    private Semaphore pendingPoints;
+
+    private final List<Future<?>> pointTasks = new ArrayList<>();
+
+    private NetworkPoint networkPoint;
+
     public NetworkPointWriter(Network network, DataSource dataSource) {
+        this(network, dataSource, 1, false);
+    }
+
+    /**
+     * @param threadCount number of threads writing the networks, the networks being written by the mapping thread if 1
+     * @param compress if true, the networks are written gzip compressed in xiidm.gz files
+     */
+    public NetworkPointWriter(Network network, DataSource dataSource, int threadCount, boolean compress) {
+        this(network, dataSource, threadCount, compress, false);
+    }
+
+    /**
+     * @param delta if true, the network is written once per version and the points as deltas, written by the mapping
+     *              thread whatever the number of threads
+     */
+    public NetworkPointWriter(Network network, DataSource dataSource, int threadCount, boolean compress, boolean delta) {
+        this(network, dataSource, createExportOptions(), threadCount, compress, delta);
+    }
+
+    private NetworkPointWriter(Network network, DataSource dataSource, ExportOptions exportOptions, int threadCount, boolean compress, boolean delta) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Invalid thread count " + threadCount);
+        }
         this.network = Objects.requireNonNull(network);
         this.dataSource = Objects.requireNonNull(dataSource);
+        this.exportOptions = Objects.requireNonNull(exportOptions);
+        this.threadCount = threadCount;
+        this.compress = compress;
+        this.delta = delta;
+    }
+
+    /**
+     * Writer only replaying points on a network.
+     */
+    private NetworkPointWriter(Network network) {
+        this.network = Objects.requireNonNull(network);
+        this.dataSource = null;
+        this.exportOptions = null;
+        this.threadCount = 1;
+        this.compress = false;
+        this.delta = false;
     }
 
-    private static String getStateId(int point, TimeSeriesIndex index) {
-        return "point-" + index.getInstantAt(point);
+    private static ExportOptions createExportOptions() {
+        ExportOptions exportOptions = new ExportOptions();
+        exportOptions.setVersion(MetrixIidmConfiguration.load().getNetworkExportVersion());
+        return exportOptions;
+    }
+
+    private boolean isParallel() {
+        return threadCount > 1 && !delta;
     }
 
     private void mapToEquipmentVariable(Identifiable<?> identifiable, EquipmentVariable variable, double equipmentValue) {
@@ -352,6 +457,13 @@ public class NetworkPointWriter extends DefaultTimeSeriesMapperObserver {
         return "_" + version + "_" + FMT.format(index.getInstantAt(point).atZone(ZoneId.of("UTC")));
     }
 
+    /**
+     * Suffix of the network of a version written in delta mode.
+     */
+    public static String getBaseSuffix(int version) {
+        return "_" + version + "_" + BASE_SUFFIX;
+    }
+
     private void storeInitialStateValues() {
         network.getGenerators().forEach(g -> generatorToInitialValues.put(g.getId(),
                 new GeneratorInitialValues(
@@ -387,6 +499,335 @@ public class NetworkPointWriter extends DefaultTimeSeriesMapperObserver {
         }
     }
 
+    /**
+     * Limits of the network differing from the initial ones at the end of the point, the limits being also changed by
+     * the mapping checker.
+     */
+    private void storeLimitChanges(NetworkPoint point) {
+        for (Map.Entry<String, GeneratorInitialValues> e : generatorToInitialValues.entrySet()) {
+            Generator g = network.getGenerator(e.getKey());
+            GeneratorInitialValues initialValues = e.getValue();
+            if (g.getMinP() != initialValues.minP || g.getMaxP() != initialValues.maxP) {
+                point.limitValues.add(g.getId(), LimitAttribute.maxP, g.getMaxP());
+                point.limitValues.add(g.getId(), LimitAttribute.minP, g.getMinP());
+            }
+        }
+        for (Map.Entry<String, HvdcLineInitialValues> e : hvdcLineToInitialValues.entrySet()) {
+            HvdcLine l = network.getHvdcLine(e.getKey());
+            HvdcLineInitialValues initialValues = e.getValue();
+            HvdcOperatorActivePowerRange activePowerRange = l.getExtension(HvdcOperatorActivePowerRange.class);
+            if (l.getMaxP() != initialValues.maxP || activePowerRange != null
+                    && (!initialValues.isActivePowerRange || activePowerRange.getOprFromCS1toCS2() != initialValues.oprFromCS1toCS2
+                    || activePowerRange.getOprFromCS2toCS1() != initialValues.oprFromCS2toCS1)) {
+                point.limitValues.add(l.getId(), LimitAttribute.hvdcMaxP, l.getMaxP());
+                if (activePowerRange != null) {
+                    point.limitValues.add(l.getId(), LimitAttribute.oprFromCS1toCS2, activePowerRange.getOprFromCS1toCS2());
+                    point.limitValues.add(l.getId(), LimitAttribute.oprFromCS2toCS1, activePowerRange.getOprFromCS2toCS1());
+                }
+            }
+        }
+    }
+
+    private void applyLimitChange(String id, LimitAttribute attribute, double value) {
+        switch (attribute) {
+            case maxP:
+                network.getGenerator(id).setMaxP(value);
+                break;
+            case minP:
+                network.getGenerator(id).setMinP(value);
+                break;
+            case hvdcMaxP:
+                network.getHvdcLine(id).setMaxP(value);
+                break;
+            case oprFromCS1toCS2:
+                addActivePowerRangeExtension(network.getHvdcLine(id)).setOprFromCS1toCS2((float) value);
+                break;
+            case oprFromCS2toCS1:
+                addActivePowerRangeExtension(network.getHvdcLine(id)).setOprFromCS2toCS1((float) value);
+                break;
+            default:
+                throw new AssertionError("Unknown limit attribute " + attribute);
+        }
+    }
+
+    /**
+     * Apply the values of a point to the working variant of the network.
+     */
+    private void applyPoint(NetworkPoint point) {
+        PointValues<EquipmentVariable> mappedValues = point.mappedValues;
+        for (int i = 0; i < mappedValues.size(); i++) {
+            String id = mappedValues.ids.get(i);
+            Identifiable<?> identifiable = network.getIdentifiable(id);
+            if (identifiable == null) {
+                throw new IllegalStateException("Equipment " + id + " not found");
+            }
+            mapToEquipmentVariable(identifiable, mappedValues.attributes.get(i), mappedValues.values[i]);
+        }
+        PointValues<LimitAttribute> limitValues = point.limitValues;
+        for (int i = 0; i < limitValues.size(); i++) {
+            applyLimitChange(limitValues.ids.get(i), limitValues.attributes.get(i), limitValues.values[i]);
+        }
+    }
+
+    private void startPoint() {
+        // the whole initial variant is copied on each point: the attributes changed by the previous point, through the
+        // mapping or the other observers, are not tracked
+        network.getVariantManager().cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, POINT_VARIANT_ID, true);
+        network.getVariantManager().setWorkingVariant(POINT_VARIANT_ID);
+    }
+
+    private void endPoint() {
+        network.getVariantManager().setWorkingVariant(VariantManagerConstants.INITIAL_VARIANT_ID);
+
+        // Return to initial values for attributes not depending on the variant
+        restoreInitialStateValues();
+    }
+
+    private void removePointVariant() {
+        if (network.getVariantManager().getVariantIds().contains(POINT_VARIANT_ID)) {
+            network.getVariantManager().removeVariant(POINT_VARIANT_ID);
+        }
+        network.getVariantManager().setWorkingVariant(VariantManagerConstants.INITIAL_VARIANT_ID);
+    }
+
+    private String getExtension(String extension) {
+        return compress ? extension + GZ_EXTENSION : extension;
+    }
+
+    private static String getDataSourceSuffix(ReadOnlyDataSource dataSource, String suffix) {
+        if (dataSource instanceof MemDataSource) {
+            // for the moment, it is not possible with PowSyBl to import with a suffix different from null ...
+            return null;
+        }
+        return suffix;
+    }
+
+    private String getDataSourceSuffix(int point, TimeSeriesIndex index) {
+        return getDataSourceSuffix(dataSource, getSuffix(point, index));
+    }
+
+    private void writeNetwork(OutputStream os) throws IOException {
+        if (compress) {
+            try (OutputStream gzos = new GZIPOutputStream(os)) {
+                NetworkXml.write(network, exportOptions, gzos);
+            }
+        } else {
+            NetworkXml.write(network, exportOptions, os);
+        }
+    }
+
+    private void writePoint(int point, TimeSeriesIndex index) {
+        try (OutputStream os = dataSource.newOutputStream(getDataSourceSuffix(point, index), getExtension(EXTENSION), false)) {
+            writeNetwork(os);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeBase() {
+        try (OutputStream os = dataSource.newOutputStream(getDataSourceSuffix(dataSource, getBaseSuffix(version)), getExtension(EXTENSION), false)) {
+            writeNetwork(os);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T extends Enum<T>> void writeValues(Writer writer, String type, PointValues<T> pointValues) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < pointValues.size(); i++) {
+            line.setLength(0);
+            line.append(type).append(SEPARATOR)
+                    .append(pointValues.ids.get(i)).append(SEPARATOR)
+                    .append(pointValues.attributes.get(i).name()).append(SEPARATOR)
+                    .append(pointValues.values[i]);
+            writer.write(line.toString());
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    private void writeDelta(NetworkPoint point) {
+        try (OutputStream os = dataSource.newOutputStream(getDataSourceSuffix(point.point, point.index), getExtension(DELTA_EXTENSION), false);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(compress ? new GZIPOutputStream(os) : os, StandardCharsets.UTF_8))) {
+            writer.write(DELTA_HEADER);
+            writer.write(System.lineSeparator());
+            writeValues(writer, MAPPING_TYPE, point.mappedValues);
+            writeValues(writer, LIMIT_TYPE, point.limitValues);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static NetworkPoint readDelta(BufferedReader reader) throws IOException {
+        NetworkPoint point = new NetworkPoint(-1, -1, null);
+        String line = reader.readLine();
+        if (!DELTA_HEADER.equals(line)) {
+            throw new IOException("Invalid network point delta header: " + line);
+        }
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            // identifiers may contain the separator, contrary to the other columns
+            int typeEnd = line.indexOf(SEPARATOR);
+            int valueStart = line.lastIndexOf(SEPARATOR);
+            int attributeStart = line.lastIndexOf(SEPARATOR, valueStart - 1);
+            if (typeEnd < 0 || attributeStart <= typeEnd) {
+                throw new IOException("Invalid network point delta line: " + line);
+            }
+            String type = line.substring(0, typeEnd);
+            String id = line.substring(typeEnd + 1, attributeStart);
+            String attribute = line.substring(attributeStart + 1, valueStart);
+            double value = Double.parseDouble(line.substring(valueStart + 1));
+            if (MAPPING_TYPE.equals(type)) {
+                point.mappedValues.add(id, EquipmentVariable.valueOf(attribute), value);
+            } else if (LIMIT_TYPE.equals(type)) {
+                point.limitValues.add(id, LimitAttribute.valueOf(attribute), value);
+            } else {
+                throw new IOException("Unknown network point delta type: " + type);
+            }
+        }
+        return point;
+    }
+
+    /**
+     * Apply a network point delta to the working variant of the network written for its version, the limits not
+     * depending on the variant being changed too.
+     */
+    public static void applyDelta(Network network, Reader reader) {
+        Objects.requireNonNull(reader);
+        try {
+            NetworkPoint point = readDelta(reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader));
+            new NetworkPointWriter(network).applyPoint(point);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream newInputStream(ReadOnlyDataSource dataSource, String suffix, String extension) throws IOException {
+        if (dataSource.exists(suffix, extension + GZ_EXTENSION)) {
+            return new GZIPInputStream(dataSource.newInputStream(suffix, extension + GZ_EXTENSION));
+        }
+        return dataSource.newInputStream(suffix, extension);
+    }
+
+    /**
+     * Rebuild the network of a point written in delta mode, compressed or not, from the network of its version and its
+     * delta, the values of the point being in a variant set as the working one.
+     */
+    public static Network readNetworkPoint(ReadOnlyDataSource dataSource, int version, int point, TimeSeriesIndex index) {
+        Objects.requireNonNull(dataSource);
+        Objects.requireNonNull(index);
+        try {
+            Network network;
+            try (InputStream is = newInputStream(dataSource, getDataSourceSuffix(dataSource, getBaseSuffix(version)), EXTENSION)) {
+                network = NetworkXml.read(is);
+            }
+            network.getVariantManager().cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, POINT_VARIANT_ID);
+            network.getVariantManager().setWorkingVariant(POINT_VARIANT_ID);
+            try (Reader reader = new InputStreamReader(newInputStream(dataSource, getDataSourceSuffix(dataSource, getSuffix(version, point, index)), DELTA_EXTENSION), StandardCharsets.UTF_8)) {
+                applyDelta(network, reader);
+            }
+            return network;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replay a point recorded by the mapping thread on the network of this writer, the file being written by a single
+     * thread at a time as data sources are not thread safe.
+     */
+    private void writePoint(NetworkPoint point) {
+        version = point.version;
+        startPoint();
+        applyPoint(point);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeNetwork(bytes);
+            synchronized (dataSource) {
+                try (OutputStream os = dataSource.newOutputStream(getDataSourceSuffix(point.point, point.index), getExtension(EXTENSION), false)) {
+                    bytes.writeTo(os);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            endPoint();
+        }
+    }
+
+    /**
+     * Create the writers of the version, each one on a copy of the network with the constant values of the version.
+     */
+    private void createPointWriters() {
+        if (executorService == null) {
+            executorService = Executors.newFixedThreadPool(threadCount);
+            pendingPoints = new Semaphore(2 * threadCount);
+        }
+        byte[] initialState = NetworkXml.gzip(network);
+        List<Future<NetworkPointWriter>> copies = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            copies.add(executorService.submit(() -> {
+                NetworkPointWriter pointWriter = new NetworkPointWriter(NetworkXml.gunzip(initialState), dataSource, exportOptions, 1, compress, false);
+                pointWriter.storeInitialStateValues();
+                return pointWriter;
+            }));
+        }
+        pointWriters = new ArrayBlockingQueue<>(threadCount);
+        for (Future<NetworkPointWriter> copy : copies) {
+            pointWriters.add(getResult(copy));
+        }
+    }
+
+    private void submitPoint(NetworkPoint point) {
+        try {
+            pendingPoints.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        BlockingQueue<NetworkPointWriter> versionPointWriters = pointWriters;
+        pointTasks.add(executorService.submit(() -> {
+            try {
+                NetworkPointWriter pointWriter = versionPointWriters.take();
+                try {
+                    pointWriter.writePoint(point);
+                } finally {
+                    versionPointWriters.add(pointWriter);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                pendingPoints.release();
+            }
+        }));
+    }
+
+    private void waitPoints() {
+        try {
+            for (Future<?> pointTask : pointTasks) {
+                getResult(pointTask);
+            }
+        } finally {
+            pointTasks.clear();
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public void start() {
         //Nothing to do
@@ -401,9 +842,10 @@ public class NetworkPointWriter extends DefaultTimeSeriesMapperObserver {
     @Override
     public void timeSeriesMappingStart(int point, TimeSeriesIndex index) {
         if (point != TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-            String stateId = getStateId(point, index);
-            network.getVariantManager().cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, stateId);
-            network.getVariantManager().setWorkingVariant(stateId);
+            startPoint();
+            if (isParallel() || delta) {
+                networkPoint = new NetworkPoint(version, point, index);
+            }
         }
     }
 
@@ -411,40 +853,104 @@ public class NetworkPointWriter extends DefaultTimeSeriesMapperObserver {
     public void timeSeriesMappingEnd(int point, TimeSeriesIndex index, double balance) {
         if (point == TimeSeriesMapper.CONSTANT_VARIANT_ID) {
             storeInitialStateValues();
+            if (isParallel()) {
+                createPointWriters();
+            } else if (delta) {
+                writeBase();
+            }
             return;
         }
 
         // Write variant
-        String suffix = getSuffix(point, index);
-        if (dataSource instanceof MemDataSource) {
-            // for the moment, it is not possible with PowSyBl to import with a suffix different from null ...
-            suffix = null;
-        }
-        try (OutputStream os = dataSource.newOutputStream(suffix, "xiidm", false)) {
-            ExportOptions exportOptions = new ExportOptions();
-            exportOptions.setVersion(MetrixIidmConfiguration.load().getNetworkExportVersion());
-            NetworkXml.write(network, exportOptions, os);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        if (delta) {
+            storeLimitChanges(networkPoint);
+            writeDelta(networkPoint);
+            networkPoint = null;
+        } else if (isParallel()) {
+            storeLimitChanges(networkPoint);
+            submitPoint(networkPoint);
+            networkPoint = null;
+        } else {
+            writePoint(point, index);
         }
 
-        // Remove variant
-        network.getVariantManager().removeVariant(getStateId(point, index));
-        network.getVariantManager().setWorkingVariant(VariantManagerConstants.INITIAL_VARIANT_ID);
-
-        // Return to initial values for attributes not depending on the variant
-        restoreInitialStateValues();
+        endPoint();
     }
 
     @Override
     public void timeSeriesMappedToEquipment(int point, String timeSeriesName, Identifiable<?> identifiable, MappingVariable variable, double equipmentValue) {
         if (variable instanceof EquipmentVariable) {
             mapToEquipmentVariable(identifiable, (EquipmentVariable) variable, equipmentValue);
+            if (networkPoint != null && !Double.isNaN(equipmentValue)) {
+                networkPoint.mappedValues.add(identifiable.getId(), (EquipmentVariable) variable, equipmentValue);
+            }
         }
     }
 
     @Override
     public void versionEnd(int version) {
+        if (isParallel()) {
+            waitPoints();
+        }
         this.version = -1;
     }
+
+    @Override
+    public void end() {
+        try {
+            waitPoints();
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
+                executorService = null;
+            }
+            pointWriters = null;
+            removePointVariant();
+        }
+    }
+
+    /**
+     * Values mapped on a point, recorded to be written by another thread or as a delta.
+     */
+    private static final class NetworkPoint {
+
+        private final int version;
+
+        private final int point;
+
+        private final TimeSeriesIndex index;
+
+        private final PointValues<EquipmentVariable> mappedValues = new PointValues<>();
+
+        private final PointValues<LimitAttribute> limitValues = new PointValues<>();
+
+        private NetworkPoint(int version, int point, TimeSeriesIndex index) {
+            this.version = version;
+            this.point = point;
+            this.index = index;
+        }
+    }
+
+    private static final class PointValues<T extends Enum<T>> {
+
+        private final List<String> ids = new ArrayList<>();
+
+        private final List<T> attributes = new ArrayList<>();
+
+        private double[] values = new double[16];
+
+        private void add(String id, T attribute, double value) {
+            int size = ids.size();
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            ids.add(id);
+            attributes.add(attribute);
+            values[size] = value;
+        }
+
+        private int size() {
+            return ids.size();
+        }
+    }
 }
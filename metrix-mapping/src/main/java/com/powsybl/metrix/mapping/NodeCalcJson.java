@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.powsybl.commons.json.JsonUtil;
+import com.powsybl.timeseries.TimeSeriesException;
+import com.powsybl.timeseries.ast.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * JSON serialization of calculated time series nodes, in the format of {@link NodeCalc#writeJson(NodeCalc, JsonGenerator)}
+ * and {@link NodeCalc#parseJson(JsonParser)}, using an explicit stack instead of recursion so that deep trees, such as
+ * long sums of time series, do not overflow the thread stack.
+ */
+final class NodeCalcJson {
+
+    private static final String BINARY_OPERATION = "binaryOp";
+    private static final String UNARY_OPERATION = "unaryOp";
+    private static final String MIN = "min";
+    private static final String MAX = "max";
+    private static final String TIME = "time";
+    private static final String OPERATOR = "op";
+    private static final String VALUE = "value";
+
+    private static final Object END_OBJECT = new Object();
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private NodeCalcJson() {
+    }
+
+    /**
+     * Compact JSON of a node: indentation would grow with the square of the tree depth.
+     */
+    static String toJson(NodeCalc node) {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            writeJson(node, generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    static void writeJson(NodeCalc node, JsonGenerator generator) {
+        Objects.requireNonNull(node);
+        Objects.requireNonNull(generator);
+        try {
+            generator.writeStartObject();
+            // nodes to write as fields of the current object, end of objects and min/max values
+            Deque<Object> stack = new ArrayDeque<>();
+            stack.push(node);
+            while (!stack.isEmpty()) {
+                Object item = stack.pop();
+                if (item == END_OBJECT) {
+                    generator.writeEndObject();
+                } else if (item instanceof Double) {
+                    generator.writeNumberField(VALUE, (Double) item);
+                } else {
+                    writeFields((NodeCalc) item, generator, stack);
+                }
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeFields(NodeCalc node, JsonGenerator generator, Deque<Object> stack) throws IOException {
+        if (node instanceof BinaryOperation) {
+            BinaryOperation operation = (BinaryOperation) node;
+            generator.writeObjectFieldStart(BINARY_OPERATION);
+            generator.writeStringField(OPERATOR, operation.getOperator().name());
+            stack.push(END_OBJECT);
+            stack.push(operation.getRight());
+            stack.push(operation.getLeft());
+        } else if (node instanceof UnaryOperation) {
+            UnaryOperation operation = (UnaryOperation) node;
+            generator.writeObjectFieldStart(UNARY_OPERATION);
+            generator.writeStringField(OPERATOR, operation.getOperator().name());
+            stack.push(END_OBJECT);
+            stack.push(operation.getChild());
+        } else if (node instanceof MinNodeCalc || node instanceof MaxNodeCalc) {
+            AbstractMinMaxNodeCalc minMax = (AbstractMinMaxNodeCalc) node;
+            generator.writeObjectFieldStart(node instanceof MinNodeCalc ? MIN : MAX);
+            stack.push(END_OBJECT);
+            stack.push(node instanceof MinNodeCalc ? ((MinNodeCalc) node).getMin() : ((MaxNodeCalc) node).getMax());
+            stack.push(minMax.getChild());
+        } else if (node instanceof TimeNodeCalc) {
+            generator.writeObjectFieldStart(TIME);
+            stack.push(END_OBJECT);
+            stack.push(((TimeNodeCalc) node).getChild());
+        } else {
+            // literals and time series names have no child
+            node.writeJson(generator);
+        }
+    }
+
+    static NodeCalc parseJson(String json) {
+        return JsonUtil.parseJson(json, NodeCalcJson::parseJson);
+    }
+
+    /**
+     * Parse a node from the next JSON object.
+     */
+    static NodeCalc parseJson(JsonParser parser) {
+        Objects.requireNonNull(parser);
+        try {
+            JsonToken token = parser.currentToken() == JsonToken.START_OBJECT ? JsonToken.START_OBJECT : parser.nextToken();
+            if (token != JsonToken.START_OBJECT) {
+                throw NodeCalc.createUnexpectedToken(token);
+            }
+            Deque<ParsingContext> contexts = new ArrayDeque<>();
+            ParsingContext context = new ParsingContext(null);
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.getCurrentName();
+                    switch (fieldName) {
+                        case BINARY_OPERATION:
+                        case UNARY_OPERATION:
+                        case MIN:
+                        case MAX:
+                        case TIME:
+                            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                                throw NodeCalc.createUnexpectedToken(parser.currentToken());
+                            }
+                            contexts.push(context);
+                            context = new ParsingContext(fieldName);
+                            break;
+                        case OPERATOR:
+                            context.operator = parser.nextTextValue();
+                            break;
+                        case VALUE:
+                            parser.nextToken();
+                            context.value = parser.getValueAsDouble();
+                            break;
+                        default:
+                            context.add(NodeCalc.parseJson(parser, token));
+                            break;
+                    }
+                } else if (token == JsonToken.END_OBJECT) {
+                    NodeCalc node = context.build();
+                    if (contexts.isEmpty()) {
+                        return node;
+                    }
+                    context = contexts.pop();
+                    context.add(node);
+                } else {
+                    throw NodeCalc.createUnexpectedToken(token);
+                }
+            }
+            throw new TimeSeriesException("Invalid node calc JSON");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class ParsingContext {
+
+        private final String name;
+
+        private String operator;
+
+        private double value = Double.NaN;
+
+        private NodeCalc first;
+
+        private NodeCalc second;
+
+        private ParsingContext(String name) {
+            this.name = name;
+        }
+
+        private void add(NodeCalc node) {
+            if (first == null) {
+                first = node;
+            } else if (second == null && BINARY_OPERATION.equals(name)) {
+                second = node;
+            } else {
+                throw new TimeSeriesException("Unexpected node calc in " + (name != null ? name : "root") + " JSON");
+            }
+        }
+
+        private NodeCalc build() {
+            if (first == null || BINARY_OPERATION.equals(name) && second == null) {
+                throw new TimeSeriesException("Invalid " + (name != null ? name : "root") + " node calc JSON");
+            }
+            if (name == null) {
+                return first;
+            }
+            switch (name) {
+                case BINARY_OPERATION:
+                    return createBinaryOperation(BinaryOperation.Operator.valueOf(Objects.requireNonNull(operator)), first, second);
+                case UNARY_OPERATION:
+                    return createUnaryOperation(UnaryOperation.Operator.valueOf(Objects.requireNonNull(operator)), first);
+                case MIN:
+                    return new MinNodeCalc(first, value);
+                case MAX:
+                    return new MaxNodeCalc(first, value);
+                case TIME:
+                    return new TimeNodeCalc(first);
+                default:
+                    throw new IllegalStateException("Unexpected node calc " + name);
+            }
+        }
+    }
+
+    private static NodeCalc createBinaryOperation(BinaryOperation.Operator operator, NodeCalc left, NodeCalc right) {
+        switch (operator) {
+            case PLUS:
+                return BinaryOperation.plus(left, right);
+            case MINUS:
+                return BinaryOperation.minus(left, right);
+            case MULTIPLY:
+                return BinaryOperation.multiply(left, right);
+            case DIVIDE:
+                return BinaryOperation.div(left, right);
+            case LESS_THAN:
+                return BinaryOperation.lessThan(left, right);
+            case LESS_THAN_OR_EQUALS_TO:
+                return BinaryOperation.lessThanOrEqualsTo(left, right);
+            case GREATER_THAN:
+                return BinaryOperation.greaterThan(left, right);
+            case GREATER_THAN_OR_EQUALS_TO:
+                return BinaryOperation.greaterThanOrEqualsTo(left, right);
+            case EQUALS:
+                return BinaryOperation.equals(left, right);
+            case NOT_EQUALS:
+                return BinaryOperation.notEquals(left, right);
+            default:
+                throw new IllegalStateException("Unexpected binary operator " + operator);
+        }
+    }
+
+    private static NodeCalc createUnaryOperation(UnaryOperation.Operator operator, NodeCalc child) {
+        switch (operator) {
+            case ABS:
+                return UnaryOperation.abs(child);
+            case NEGATIVE:
+                return UnaryOperation.negative(child);
+            case POSITIVE:
+                return UnaryOperation.positive(child);
+            default:
+                throw new IllegalStateException("Unexpected unary operator " + operator);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import com.powsybl.iidm.network.extensions.LoadDetail;
 import com.powsybl.metrix.mapping.log.*;
 import com.powsybl.metrix.mapping.timeseries.MappedEquipment;
 import com.powsybl.metrix.mapping.timeseries.EquipmentTimeSeriesMap;
+import com.powsybl.timeseries.DoubleTimeSeries;
 import com.powsybl.timeseries.ReadOnlyTimeSeriesStore;
 import com.powsybl.timeseries.TimeSeriesIndex;
 import com.powsybl.timeseries.TimeSeriesTable;
@@ -45,6 +46,15 @@ public class TimeSeriesMapper {
 
     private TimeSeriesTable table;
 
+    // power mappings with ignore limits option, by mapping key index
+    private boolean[] ignoreLimitsKeys = new boolean[0];
+
+    // kept from one call to the next one, for the ranges of points of the same store
+    private final ConstantTimeSeriesDetector constantTimeSeriesDetector = new ConstantTimeSeriesDetector();
+
+    // resolved at first mapping, the unmapped equipments of the configuration being fixed
+    private UnmappedEquipments unmappedEquipments;
+
     private static class MapperContext {
         private final EquipmentTimeSeriesMap timeSeriesToLoadsMapping = new EquipmentTimeSeriesMap();
         private final EquipmentTimeSeriesMap timeSeriesToGeneratorsMapping = new EquipmentTimeSeriesMap();
@@ -60,6 +70,117 @@ public class TimeSeriesMapper {
         private Map<IndexedName, Set<MappingKey>> equipmentTimeSeries;
     }
 
+    /**
+     * Unmapped equipments of the mapping configuration, resolved once in the network for all the versions.
+     */
+    private static final class UnmappedEquipments {
+
+        // generators and hvdc lines with an unmapped power or limit, to correct in the base case
+        private final Generator[] correctedGenerators;
+        private final boolean[] generatorMinPUnmapped;
+        private final boolean[] generatorMaxPUnmapped;
+        private final HvdcLine[] correctedHvdcLines;
+        private final boolean[] hvdcLineMinPUnmapped;
+        private final boolean[] hvdcLineMaxPUnmapped;
+
+        // equipments keeping their base case power, summed in the constant balance
+        private final Generator[] generators;
+        private final Load[] loads;
+        private final LoadDetail[] fixedActivePowerLoadDetails;
+        private final LoadDetail[] variableActivePowerLoadDetails;
+        private final DanglingLine[] danglingLines;
+
+        private UnmappedEquipments(TimeSeriesMappingConfig config, Network network) {
+            correctedGenerators = network.getGeneratorStream()
+                    .filter(g -> config.getUnmappedGenerators().contains(g.getId()))
+                    .toArray(Generator[]::new);
+            generatorMinPUnmapped = new boolean[correctedGenerators.length];
+            generatorMaxPUnmapped = new boolean[correctedGenerators.length];
+            for (int i = 0; i < correctedGenerators.length; i++) {
+                generatorMinPUnmapped[i] = config.getUnmappedMinPGenerators().contains(correctedGenerators[i].getId());
+                generatorMaxPUnmapped[i] = config.getUnmappedMaxPGenerators().contains(correctedGenerators[i].getId());
+            }
+            correctedHvdcLines = network.getHvdcLineStream()
+                    .filter(l -> config.getUnmappedHvdcLines().contains(l.getId()))
+                    .toArray(HvdcLine[]::new);
+            hvdcLineMinPUnmapped = new boolean[correctedHvdcLines.length];
+            hvdcLineMaxPUnmapped = new boolean[correctedHvdcLines.length];
+            for (int i = 0; i < correctedHvdcLines.length; i++) {
+                hvdcLineMinPUnmapped[i] = config.getUnmappedMinPHvdcLines().contains(correctedHvdcLines[i].getId());
+                hvdcLineMaxPUnmapped[i] = config.getUnmappedMaxPHvdcLines().contains(correctedHvdcLines[i].getId());
+            }
+
+            Set<String> unmappedGenerators = new HashSet<>(config.getUnmappedGenerators());
+            unmappedGenerators.retainAll(config.getUnmappedMinPGenerators());
+            unmappedGenerators.retainAll(config.getUnmappedMaxPGenerators());
+            generators = unmappedGenerators.stream().map(id -> getGenerator(network, id)).toArray(Generator[]::new);
+            Set<String> unmappedLoads = config.getUnmappedLoads();
+            loads = unmappedLoads.stream().map(id -> getLoad(network, id)).toArray(Load[]::new);
+            fixedActivePowerLoadDetails = config.getUnmappedFixedActivePowerLoads().stream()
+                    .filter(id -> !unmappedLoads.contains(id))
+                    .map(id -> getLoadDetail(network, id))
+                    .toArray(LoadDetail[]::new);
+            variableActivePowerLoadDetails = config.getUnmappedVariableActivePowerLoads().stream()
+                    .filter(id -> !unmappedLoads.contains(id))
+                    .map(id -> getLoadDetail(network, id))
+                    .toArray(LoadDetail[]::new);
+            danglingLines = config.getUnmappedDanglingLines().stream().map(id -> {
+                DanglingLine danglingLine = network.getDanglingLine(id);
+                if (danglingLine == null) {
+                    throw new TimeSeriesMappingException("Dangling line '" + id + "' not found");
+                }
+                return danglingLine;
+            }).toArray(DanglingLine[]::new);
+        }
+
+        private static Generator getGenerator(Network network, String id) {
+            Generator generator = network.getGenerator(id);
+            if (generator == null) {
+                throw new TimeSeriesMappingException("Generator '" + id + "' not found");
+            }
+            return generator;
+        }
+
+        private static Load getLoad(Network network, String id) {
+            Load load = network.getLoad(id);
+            if (load == null) {
+                throw new TimeSeriesMappingException("Load '" + id + "' not found");
+            }
+            return load;
+        }
+
+        private static LoadDetail getLoadDetail(Network network, String id) {
+            LoadDetail loadDetail = getLoad(network, id).getExtension(LoadDetail.class);
+            if (loadDetail == null) {
+                throw new TimeSeriesMappingException("LoadDetail '" + id + "' not found");
+            }
+            return loadDetail;
+        }
+
+        /**
+         * @return the balance of the equipments keeping their base case power
+         */
+        private double getConstantBalance() {
+            double constantBalance = 0;
+            for (Generator generator : generators) {
+                constantBalance += generator.getTargetP();
+            }
+            for (Load load : loads) {
+                constantBalance += -load.getP0();
+            }
+            for (LoadDetail loadDetail : fixedActivePowerLoadDetails) {
+                constantBalance += -loadDetail.getFixedActivePower();
+            }
+            for (LoadDetail loadDetail : variableActivePowerLoadDetails) {
+                constantBalance += -loadDetail.getVariableActivePower();
+            }
+            for (DanglingLine danglingLine : danglingLines) {
+                constantBalance += -danglingLine.getP0();
+            }
+            return constantBalance;
+        }
+    }
+
     public TimeSeriesMapper(TimeSeriesMappingConfig config, Network network, TimeSeriesMappingLogger timeSeriesMappingLogger) {
         this.config = Objects.requireNonNull(config);
         this.network = Objects.requireNonNull(network);
@@ -246,11 +367,20 @@ public class TimeSeriesMapper {
 
         if (observer != null) {
             List<Identifiable<?>> identifiables = mappedEquipments.stream().map(MappedEquipment::getIdentifiable).collect(Collectors.toList());
-            boolean ignoreLimitsForTimeSeries = ignoreLimits || TimeSeriesMapper.isPowerVariable(variable) && config.getIgnoreLimitsTimeSeriesNames().contains(timeSeriesName);
+            boolean ignoreLimitsForTimeSeries = ignoreLimits || isIgnoreLimits(mappingKey);
             observer.timeSeriesMappedToEquipments(variantId, timeSeriesName, timeSeriesValue, identifiables, variable, equipmentValues, ignoreLimitsForTimeSeries);
         }
     }
 
+    private boolean isIgnoreLimits(IndexedMappingKey mappingKey) {
+        int keyIndex = mappingKey.getKeyIndex();
+        if (keyIndex >= 0 && keyIndex < ignoreLimitsKeys.length) {
+            return ignoreLimitsKeys[keyIndex];
+        }
+        return TimeSeriesMapper.isPowerVariable(mappingKey.getKey().getMappingVariable())
+                && config.getIgnoreLimitsTimeSeriesNames().contains(mappingKey.getKey().getId());
+    }
+
     private boolean logHvdcLimitSign(List<MappedEquipment> mappedEquipments, String timeSeriesName, MappingVariable variable, double timeSeriesValue, LogBuilder logBuilder) {
         if (mappedEquipments.get(0).getIdentifiable() instanceof HvdcLine) {
             LimitSignBuilder limitSignBuilder = new LimitSignBuilder()
@@ -313,7 +443,7 @@ public class TimeSeriesMapper {
                               EquipmentTimeSeriesMap timeSeriesToEquipmentsMapping,
                               TimeSeriesMapperChecker observer, boolean ignoreLimits,
                               boolean ignoreEmptyFilter) {
-        timeSeriesToEquipmentsMapping.getEquipmentTimeSeries().forEach((mappingKey, mappedEquipments) ->
+        timeSeriesToEquipmentsMapping.forEach((mappingKey, mappedEquipments) ->
             mapToNetwork(version, variantId, point, mappingKey, mappedEquipments, observer, ignoreLimits, ignoreEmptyFilter));
     }
 
@@ -321,14 +451,14 @@ public class TimeSeriesMapper {
         return new IndexedMappingKey(key, timeSeriesTable.getDoubleTimeSeriesIndex(key.getId()));
     }
 
-    private void identifyConstantTimeSeries(boolean forceNoConstantTimeSeries, TimeSeriesTable table, int version,
+    private void identifyConstantTimeSeries(boolean forceNoConstantTimeSeries,
                                             EquipmentTimeSeriesMap sourceTimeSeries,
                                             EquipmentTimeSeriesMap constantTimeSeries,
                                             EquipmentTimeSeriesMap variableTimeSeries) {
         if (forceNoConstantTimeSeries) {
             variableTimeSeries.init(sourceTimeSeries);
         } else {
-            sourceTimeSeries.getEquipmentTimeSeries().forEach((indexedMappingKey, mappedEquipments) -> {
+            sourceTimeSeries.forEach((indexedMappingKey, mappedEquipments) -> {
                 int timeSeriesNum = indexedMappingKey.getNum();
                 MappingVariable variable = indexedMappingKey.getKey().getMappingVariable();
                 if (variable == EquipmentVariable.targetP ||
@@ -336,7 +466,7 @@ public class TimeSeriesMapper {
                     // Active power mapping is not tested in order to allow later correction of values not included in [minP, maxP]
                     variableTimeSeries.addMappedEquipmentTimeSeries(indexedMappingKey, mappedEquipments);
                 } else {
-                    if (table.getStdDev(version, timeSeriesNum) < EPSILON_ZERO_STD_DEV) { // std dev == 0 means time-series is constant
+                    if (constantTimeSeriesDetector.isConstant(indexedMappingKey.getKey().getId(), timeSeriesNum, EPSILON_ZERO_STD_DEV)) {
                         LOGGER.debug("Mapping time-series '{}' is constant", indexedMappingKey.getKey().getId());
                         constantTimeSeries.addMappedEquipmentTimeSeries(indexedMappingKey, mappedEquipments);
                     } else {
@@ -347,7 +477,7 @@ public class TimeSeriesMapper {
         }
     }
 
-    private void identifyConstantLoadTimeSeries(boolean forceNoConstantTimeSeries, TimeSeriesTable table, int version,
+    private void identifyConstantLoadTimeSeries(boolean forceNoConstantTimeSeries,
                                                 MapperContext context,
                                                 EquipmentTimeSeriesMap constantTimeSeries,
                                                 EquipmentTimeSeriesMap variableTimeSeries) {
@@ -360,11 +490,11 @@ public class TimeSeriesMapper {
         EquipmentTimeSeriesMap possiblyConstantLoadDetailsMapping = new EquipmentTimeSeriesMap();
         Set<String> variableLoadDetailsIds = new HashSet<>();
 
-        context.timeSeriesToLoadsMapping.getEquipmentTimeSeries().forEach((indexedMappingKey, mappedEquipments) ->
-            identifyConstantLoadOneTimeSerie(table, version, constantTimeSeries, variableTimeSeries,
+        context.timeSeriesToLoadsMapping.forEach((indexedMappingKey, mappedEquipments) ->
+            identifyConstantLoadOneTimeSerie(constantTimeSeries, variableTimeSeries,
                     possiblyConstantLoadDetailsMapping, variableLoadDetailsIds, indexedMappingKey, mappedEquipments));
 
-        possiblyConstantLoadDetailsMapping.getEquipmentTimeSeries().forEach((indexedMappingKey, mappedEquipments) ->
+        possiblyConstantLoadDetailsMapping.forEach((indexedMappingKey, mappedEquipments) ->
             mappedEquipments.forEach(mappedEquipment -> {
                 if (variableLoadDetailsIds.contains(mappedEquipment.getIdentifiable().getId())) {
                     variableTimeSeries.computeIfAbsent(indexedMappingKey, mappedEquipment);
@@ -375,8 +505,7 @@ public class TimeSeriesMapper {
         );
     }
 
-    private void identifyConstantLoadOneTimeSerie(TimeSeriesTable table, int version,
-                                                  EquipmentTimeSeriesMap constantTimeSeries,
+    private void identifyConstantLoadOneTimeSerie(EquipmentTimeSeriesMap constantTimeSeries,
                                                   EquipmentTimeSeriesMap variableTimeSeries,
                                                   EquipmentTimeSeriesMap possiblyConstantLoadDetailsMapping,
                                                   Set<String> variableLoadDetailsIds, IndexedMappingKey indexedMappingKey,
@@ -392,7 +521,7 @@ public class TimeSeriesMapper {
             return;
         }
 
-        if (table.getStdDev(version, timeSeriesNum) < EPSILON_ZERO_STD_DEV) { // std dev == 0 means time-series is constant
+        if (constantTimeSeriesDetector.isConstant(indexedMappingKey.getKey().getId(), timeSeriesNum, EPSILON_ZERO_STD_DEV)) {
             LOGGER.debug("Mapping time-series '{}' is constant", indexedMappingKey.getKey().getId());
             if (variable == EquipmentVariable.p0) {
                 constantTimeSeries.addMappedEquipmentTimeSeries(indexedMappingKey, mappedEquipments);
@@ -532,64 +661,64 @@ public class TimeSeriesMapper {
         // Check if some load mappings are constant
         EquipmentTimeSeriesMap timeSeriesToLoadsMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToLoadsMapping = new EquipmentTimeSeriesMap();
-        identifyConstantLoadTimeSeries(forceNoConstantTimeSeries, table, version, context, constantTimeSeriesToLoadsMapping, timeSeriesToLoadsMapping);
+        identifyConstantLoadTimeSeries(forceNoConstantTimeSeries, context, constantTimeSeriesToLoadsMapping, timeSeriesToLoadsMapping);
 
         // Check if some generator mappings are constant
         EquipmentTimeSeriesMap timeSeriesToGeneratorsMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToGeneratorsMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToGeneratorsMapping, constantTimeSeriesToGeneratorsMapping, timeSeriesToGeneratorsMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToGeneratorsMapping, constantTimeSeriesToGeneratorsMapping, timeSeriesToGeneratorsMapping);
 
         // Check if some dangling lines mappings are constant
         EquipmentTimeSeriesMap timeSeriesToDanglingLinesMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToDanglingLinesMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToDanglingLinesMapping, constantTimeSeriesToDanglingLinesMapping, timeSeriesToDanglingLinesMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToDanglingLinesMapping, constantTimeSeriesToDanglingLinesMapping, timeSeriesToDanglingLinesMapping);
 
         // Check if some hvdc lines mappings are constant
         EquipmentTimeSeriesMap timeSeriesToHvdcLinesMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToHvdcLinesMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToHvdcLinesMapping, constantTimeSeriesToHvdcLinesMapping, timeSeriesToHvdcLinesMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToHvdcLinesMapping, constantTimeSeriesToHvdcLinesMapping, timeSeriesToHvdcLinesMapping);
 
         // Check if some phase tap changers mappings are constant
         EquipmentTimeSeriesMap timeSeriesToPhaseTapChangersMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToPhaseTapChangersMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToPhaseTapChangersMapping, constantTimeSeriesToPhaseTapChangersMapping, timeSeriesToPhaseTapChangersMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToPhaseTapChangersMapping, constantTimeSeriesToPhaseTapChangersMapping, timeSeriesToPhaseTapChangersMapping);
 
         // Check if some breaker mappings are constant
         EquipmentTimeSeriesMap timeSeriesToBreakersMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToBreakersMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToBreakersMapping, constantTimeSeriesToBreakersMapping, timeSeriesToBreakersMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToBreakersMapping, constantTimeSeriesToBreakersMapping, timeSeriesToBreakersMapping);
 
         // Check if some transformers mappings are constant
         EquipmentTimeSeriesMap timeSeriesToTransformersMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToTransformersMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToTransformersMapping, constantTimeSeriesToTransformersMapping, timeSeriesToTransformersMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToTransformersMapping, constantTimeSeriesToTransformersMapping, timeSeriesToTransformersMapping);
 
         // Check if some tap changers mappings are constant
         EquipmentTimeSeriesMap timeSeriesToRatioTapChangersMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToRatioTapChangersMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToRatioTapChangersMapping, constantTimeSeriesToRatioTapChangersMapping, timeSeriesToRatioTapChangersMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToRatioTapChangersMapping, constantTimeSeriesToRatioTapChangersMapping, timeSeriesToRatioTapChangersMapping);
 
         // Check if some lcc converters mappings are constant
         EquipmentTimeSeriesMap timeSeriesToLccConverterStationsMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToLccConverterStationsMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToLccConverterStationsMapping, constantTimeSeriesToLccConverterStationsMapping, timeSeriesToLccConverterStationsMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToLccConverterStationsMapping, constantTimeSeriesToLccConverterStationsMapping, timeSeriesToLccConverterStationsMapping);
 
         // Check if some vsc converters mappings are constant
         EquipmentTimeSeriesMap timeSeriesToVscConverterStationsMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToVscConverterStationsMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToVscConverterStationsMapping, constantTimeSeriesToVscConverterStationsMapping, timeSeriesToVscConverterStationsMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToVscConverterStationsMapping, constantTimeSeriesToVscConverterStationsMapping, timeSeriesToVscConverterStationsMapping);
 
         // Check if some lines mappings are constant
         EquipmentTimeSeriesMap timeSeriesToLinesMapping = new EquipmentTimeSeriesMap();
         EquipmentTimeSeriesMap constantTimeSeriesToLinesMapping = new EquipmentTimeSeriesMap();
-        identifyConstantTimeSeries(forceNoConstantTimeSeries, table, version, context.timeSeriesToLinesMapping, constantTimeSeriesToLinesMapping, timeSeriesToLinesMapping);
+        identifyConstantTimeSeries(forceNoConstantTimeSeries, context.timeSeriesToLinesMapping, constantTimeSeriesToLinesMapping, timeSeriesToLinesMapping);
 
         // Check if some equipement mappings are constant
         Map<IndexedName, Set<MappingKey>> equipmentTimeSeries = new HashMap<>();
         Map<IndexedName, Set<MappingKey>> constantEquipmentTimeSeries = new HashMap<>();
         context.equipmentTimeSeries.forEach((indexedName, mappingKeys) -> {
             int timeSeriesNum = indexedName.getNum();
-            if (table.getStdDev(version, timeSeriesNum) < EPSILON_COMPARISON) { // std dev == 0 means time-series is constant
+            if (constantTimeSeriesDetector.isConstant(indexedName.getName(), timeSeriesNum, EPSILON_COMPARISON)) {
                 LOGGER.debug("Equipment time-series '{}' is constant", indexedName.getName());
                 constantEquipmentTimeSeries.put(indexedName, mappingKeys);
             } else {
@@ -598,20 +727,17 @@ public class TimeSeriesMapper {
         });
 
         // Correct base case values
-        network.getGeneratorStream()
-                .filter(g -> config.getUnmappedGenerators().contains(g.getId()))
-                .forEach(g -> {
-                    final boolean isMinPUnmapped = config.getUnmappedMinPGenerators().contains(g.getId());
-                    final boolean isMaxPUnmapped = config.getUnmappedMaxPGenerators().contains(g.getId());
-                    correctUnmappedGenerator(isMinPUnmapped, isMaxPUnmapped, g, version, parameters.isIgnoreLimits(), table.getTableIndex());
-                });
-        network.getHvdcLineStream()
-                .filter(l -> config.getUnmappedHvdcLines().contains(l.getId()))
-                .forEach(l -> {
-                    final boolean isMinPUnmapped = config.getUnmappedMinPHvdcLines().contains(l.getId());
-                    final boolean isMaxPUnmapped = config.getUnmappedMaxPHvdcLines().contains(l.getId());
-                    correctUnmappedHvdcLine(isMinPUnmapped, isMaxPUnmapped, l, version, parameters.isIgnoreLimits(), table.getTableIndex());
-                });
+        if (unmappedEquipments == null) {
+            unmappedEquipments = new UnmappedEquipments(config, network);
+        }
+        for (int i = 0; i < unmappedEquipments.correctedGenerators.length; i++) {
+            correctUnmappedGenerator(unmappedEquipments.generatorMinPUnmapped[i], unmappedEquipments.generatorMaxPUnmapped[i],
+                    unmappedEquipments.correctedGenerators[i], version, parameters.isIgnoreLimits(), table.getTableIndex());
+        }
+        for (int i = 0; i < unmappedEquipments.correctedHvdcLines.length; i++) {
+            correctUnmappedHvdcLine(unmappedEquipments.hvdcLineMinPUnmapped[i], unmappedEquipments.hvdcLineMaxPUnmapped[i],
+                    unmappedEquipments.correctedHvdcLines[i], version, parameters.isIgnoreLimits(), table.getTableIndex());
+        }
 
         // process constant time series
         if (observer != null) {
@@ -648,58 +774,7 @@ public class TimeSeriesMapper {
         }
 
         // for unmapped equipments, keep base case value which is constant
-        double constantBalance = 0;
-        Set<String> unmappedGenerators = new HashSet<>(config.getUnmappedGenerators());
-        unmappedGenerators.retainAll(config.getUnmappedMinPGenerators());
-        unmappedGenerators.retainAll(config.getUnmappedMaxPGenerators());
-        for (String id : unmappedGenerators) {
-            Generator generator = network.getGenerator(id);
-            if (generator == null) {
-                throw new TimeSeriesMappingException("Generator '" + id + "' not found");
-            }
-            constantBalance += generator.getTargetP();
-        }
-        Set<String> unmappedLoads = config.getUnmappedLoads();
-        for (String id : unmappedLoads) {
-            Load load = network.getLoad(id);
-            if (load == null) {
-                throw new TimeSeriesMappingException("Load '" + id + "' not found");
-            }
-            constantBalance += -load.getP0();
-        }
-        for (String id : config.getUnmappedFixedActivePowerLoads()) {
-            if (!unmappedLoads.contains(id)) {
-                Load load = network.getLoad(id);
-                if (load == null) {
-                    throw new TimeSeriesMappingException("Load '" + id + "' not found");
-                }
-                LoadDetail loadDetail = load.getExtension(LoadDetail.class);
-                if (loadDetail == null) {
-                    throw new TimeSeriesMappingException("LoadDetail '" + id + "' not found");
-                }
-                constantBalance += -loadDetail.getFixedActivePower();
-            }
-        }
-        for (String id : config.getUnmappedVariableActivePowerLoads()) {
-            if (!unmappedLoads.contains(id)) {
-                Load load = network.getLoad(id);
-                if (load == null) {
-                    throw new TimeSeriesMappingException("Load '" + id + "' not found");
-                }
-                LoadDetail loadDetail = load.getExtension(LoadDetail.class);
-                if (loadDetail == null) {
-                    throw new TimeSeriesMappingException("LoadDetail '" + id + "' not found");
-                }
-                constantBalance += -loadDetail.getVariableActivePower();
-            }
-        }
-        for (String id : config.getUnmappedDanglingLines()) {
-            DanglingLine danglingLine = network.getDanglingLine(id);
-            if (danglingLine == null) {
-                throw new TimeSeriesMappingException("Dangling line '" + id + "' not found");
-            }
-            constantBalance += -danglingLine.getP0();
-        }
+        double constantBalance = unmappedEquipments.getConstantBalance();
 
         if (observer != null) {
             observer.timeSeriesMappingEnd(CONSTANT_VARIANT_ID, table.getTableIndex(), constantBalance);
@@ -780,6 +855,15 @@ public class TimeSeriesMapper {
         }
     }
 
+    private void initIgnoreLimitsKeys() {
+        MappingKeyTable keyTable = config.getMappingKeyTable();
+        ignoreLimitsKeys = new boolean[keyTable.size()];
+        for (int i = 0; i < ignoreLimitsKeys.length; i++) {
+            MappingKey key = keyTable.getKey(i);
+            ignoreLimitsKeys[i] = isPowerVariable(key.getMappingVariable()) && config.getIgnoreLimitsTimeSeriesNames().contains(key.getId());
+        }
+    }
+
     public void mapToNetwork(ReadOnlyTimeSeriesStore store, TimeSeriesMapperParameters parameters,
                                                 List<TimeSeriesMapperObserver> observers) {
 
@@ -797,8 +881,12 @@ public class TimeSeriesMapper {
                 // load time series involved in the config in a table
                 Set<String> usedTimeSeriesNames = StreamSupport.stream(config.findUsedTimeSeriesNames().spliterator(), false).collect(Collectors.toSet());
                 usedTimeSeriesNames.addAll(parameters.getRequiredTimeseries());
-                ReadOnlyTimeSeriesStore storeWithPlannedOutages = TimeSeriesMappingConfig.buildPlannedOutagesTimeSeriesStore(store, version, config.getTimeSeriesToPlannedOutagesMapping());
-                table = config.loadToTable(new TreeSet<>(ImmutableSet.of(version)), storeWithPlannedOutages, parameters.getPointRange(), usedTimeSeriesNames);
+                ReadOnlyTimeSeriesStore storeWithPlannedOutages = config.getPlannedOutagesTimeSeriesStore(store, version);
+                List<DoubleTimeSeries> loadedTimeSeries = new ArrayList<>();
+                table = config.loadToTable(new TreeSet<>(ImmutableSet.of(version)), storeWithPlannedOutages, parameters.getPointRange(), usedTimeSeriesNames,
+                    (timeSeriesList, loadedVersion) -> loadedTimeSeries.addAll(timeSeriesList));
+                constantTimeSeriesDetector.setTable(store, table, version,
+                        TimeSeriesMappingConfig.getNbPointsToLoad(table.getTableIndex(), parameters.getPointRange()), loadedTimeSeries);
 
                 if (context == null) {
                     context = new MapperContext();
@@ -815,6 +903,7 @@ public class TimeSeriesMapper {
                     context.timeSeriesToLinesMapping.convertToEquipmentTimeSeriesMap(config.getTimeSeriesToLinesMapping(), table, network, config);
                     context.equipmentTimeSeries = config.getTimeSeriesToEquipment().entrySet().stream()
                             .collect(Collectors.toMap(e -> new IndexedName(e.getKey(), table.getDoubleTimeSeriesIndex(e.getKey())), Map.Entry::getValue));
+                    initIgnoreLimitsKeys();
                 }
 
                 mapToNetwork(context, parameters, version, checker);
@@ -22,6 +22,108 @@ import static com.powsybl.metrix.mapping.TimeSeriesMapper.addActivePowerRangeExt
 
 public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
 
+    private static final int INITIAL_SLOT_CAPACITY = 16;
+
+    /**
+     * Mapped power and limits of generators and hvdc lines, indexed by equipment slot.
+     */
+    private static final class MappedPowers {
+
+        private int[] slots = new int[INITIAL_SLOT_CAPACITY];
+        private int size = 0;
+        private boolean[] contains = new boolean[INITIAL_SLOT_CAPACITY];
+        private String[] timeSeriesNameP = new String[INITIAL_SLOT_CAPACITY];
+        private double[] minP = new double[INITIAL_SLOT_CAPACITY];
+        private double[] p = new double[INITIAL_SLOT_CAPACITY];
+        private double[] maxP = new double[INITIAL_SLOT_CAPACITY];
+        private boolean[] isMappedMinP = new boolean[INITIAL_SLOT_CAPACITY];
+        private boolean[] isMappedP = new boolean[INITIAL_SLOT_CAPACITY];
+        private boolean[] isMappedMaxP = new boolean[INITIAL_SLOT_CAPACITY];
+        private boolean[] ignoreLimits = new boolean[INITIAL_SLOT_CAPACITY];
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > contains.length) {
+                int newCapacity = Math.max(capacity, 2 * contains.length);
+                slots = Arrays.copyOf(slots, newCapacity);
+                contains = Arrays.copyOf(contains, newCapacity);
+                timeSeriesNameP = Arrays.copyOf(timeSeriesNameP, newCapacity);
+                minP = Arrays.copyOf(minP, newCapacity);
+                p = Arrays.copyOf(p, newCapacity);
+                maxP = Arrays.copyOf(maxP, newCapacity);
+                isMappedMinP = Arrays.copyOf(isMappedMinP, newCapacity);
+                isMappedP = Arrays.copyOf(isMappedP, newCapacity);
+                isMappedMaxP = Arrays.copyOf(isMappedMaxP, newCapacity);
+                ignoreLimits = Arrays.copyOf(ignoreLimits, newCapacity);
+            }
+        }
+
+        private void add(int slot) {
+            if (!contains[slot]) {
+                contains[slot] = true;
+                slots[size++] = slot;
+            }
+        }
+
+        private void copy(MappedPowers other) {
+            for (int i = 0; i < other.size; i++) {
+                int slot = other.slots[i];
+                add(slot);
+                timeSeriesNameP[slot] = other.timeSeriesNameP[slot];
+                minP[slot] = other.minP[slot];
+                p[slot] = other.p[slot];
+                maxP[slot] = other.maxP[slot];
+                isMappedMinP[slot] = other.isMappedMinP[slot];
+                isMappedP[slot] = other.isMappedP[slot];
+                isMappedMaxP[slot] = other.isMappedMaxP[slot];
+                ignoreLimits[slot] = other.ignoreLimits[slot];
+            }
+        }
+
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                int slot = slots[i];
+                contains[slot] = false;
+                timeSeriesNameP[slot] = null;
+                isMappedMinP[slot] = false;
+                isMappedP[slot] = false;
+                isMappedMaxP[slot] = false;
+                ignoreLimits[slot] = false;
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * Limits of generators or hvdc lines changed to include mapped power values, indexed by equipment slot.
+     */
+    private static final class LimitChanges {
+
+        private int[] slots = new int[INITIAL_SLOT_CAPACITY];
+        private int size = 0;
+        private boolean[] contains = new boolean[INITIAL_SLOT_CAPACITY];
+        private double[] baseCaseLimit = new double[INITIAL_SLOT_CAPACITY];
+        private double[] limit = new double[INITIAL_SLOT_CAPACITY];
+        private int[] baseCaseLimitNbOfViolation = new int[INITIAL_SLOT_CAPACITY];
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > contains.length) {
+                int newCapacity = Math.max(capacity, 2 * contains.length);
+                slots = Arrays.copyOf(slots, newCapacity);
+                contains = Arrays.copyOf(contains, newCapacity);
+                baseCaseLimit = Arrays.copyOf(baseCaseLimit, newCapacity);
+                limit = Arrays.copyOf(limit, newCapacity);
+                baseCaseLimitNbOfViolation = Arrays.copyOf(baseCaseLimitNbOfViolation, newCapacity);
+            }
+        }
+
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                contains[slots[i]] = false;
+            }
+            size = 0;
+        }
+    }
+
     private int version;
 
     private TimeSeriesIndex index;
@@ -30,21 +132,26 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
 
     private final float toleranceThreshold;
 
-    private final Map<String, Boolean> hvdcLineToActivePowerRange = new HashMap<>();
-    private final Map<Identifiable<?>, MappedPower> identifiableToConstantMappedPowers = new LinkedHashMap<>();
-    private final Map<Identifiable<?>, MappedPower> identifiableToMappedPower = new LinkedHashMap<>();
+    // dense slot of each generator or hvdc line mapped so far
+    private final Map<Identifiable<?>, Integer> slots = new HashMap<>();
+    private Identifiable<?>[] slotEquipments = new Identifiable<?>[INITIAL_SLOT_CAPACITY];
+    // 0 if unknown, 1 if the hvdc line has no active power range, 2 otherwise
+    private byte[] hvdcLineToActivePowerRange = new byte[INITIAL_SLOT_CAPACITY];
+
+    private final MappedPowers constantMappedPowers = new MappedPowers();
+    private final MappedPowers mappedPowers = new MappedPowers();
     private final Map<String, MappedEquipments> targetPTimeSeriesToEquipments = new HashMap<>();
     private final Map<String, MappedEquipments> setpointTimeSeriesToEquipments = new HashMap<>();
     private final Map<String, Set<ScalingDownPowerChange>> targetPTimeSeriesToScalingDownPowerChangeSynthesis = new HashMap<>();
     private final Map<String, Set<ScalingDownPowerChange>> setpointTimeSeriesToScalingDownPowerChangeSynthesis = new HashMap<>();
     private final Map<String, Set<ScalingDownLimitViolation>> targetPTimeSeriesToScalingDownLimitViolationSynthesis = new HashMap<>();
     private final Map<String, Set<ScalingDownLimitViolation>> setpointTimeSeriesToScalingDownLimitViolationSynthesis = new HashMap<>();
-    private final Map<Identifiable<?>, LimitChange> generatorToMaxValues = new HashMap<>();
-    private final Map<Identifiable<?>, LimitChange> generatorToMinValues = new HashMap<>();
-    private final Map<Identifiable<?>, LimitChange> hvdcLineToMaxValues = new HashMap<>();
-    private final Map<Identifiable<?>, LimitChange> hvdcLineToMinValues = new HashMap<>();
-    private final Map<Identifiable<?>, LimitChange> hvdcLineToCS1toCS2Values = new HashMap<>();
-    private final Map<Identifiable<?>, LimitChange> hvdcLineToCS2toCS1Values = new HashMap<>();
+    private final LimitChanges generatorToMaxValues = new LimitChanges();
+    private final LimitChanges generatorToMinValues = new LimitChanges();
+    private final LimitChanges hvdcLineToMaxValues = new LimitChanges();
+    private final LimitChanges hvdcLineToMinValues = new LimitChanges();
+    private final LimitChanges hvdcLineToCS1toCS2Values = new LimitChanges();
+    private final LimitChanges hvdcLineToCS2toCS1Values = new LimitChanges();
 
     private static final String MAX_P_VARIABLE_NAME = EquipmentVariable.maxP.getVariableName();
     private static final String MIN_P_VARIABLE_NAME = EquipmentVariable.minP.getVariableName();
@@ -68,27 +175,83 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         super.versionStart(version);
     }
 
+    /**
+     * Restore the extended limits of the version, writing to the network only the limits it does not hold anymore, so
+     * that points mapped without a network writer only update the limits extended by the previous points.
+     */
+    private void restoreLimits() {
+        for (int i = 0; i < generatorToMaxValues.size; i++) {
+            int slot = generatorToMaxValues.slots[i];
+            double limit = generatorToMaxValues.limit[slot];
+            Generator generator = (Generator) slotEquipments[slot];
+            if (!Double.isNaN(limit) && generator.getMaxP() != limit) {
+                generator.setMaxP(limit);
+            }
+        }
+        for (int i = 0; i < generatorToMinValues.size; i++) {
+            int slot = generatorToMinValues.slots[i];
+            double limit = generatorToMinValues.limit[slot];
+            Generator generator = (Generator) slotEquipments[slot];
+            if (!Double.isNaN(limit) && generator.getMinP() != limit) {
+                generator.setMinP(limit);
+            }
+        }
+        for (int i = 0; i < hvdcLineToMaxValues.size; i++) {
+            int slot = hvdcLineToMaxValues.slots[i];
+            double limit = hvdcLineToMaxValues.limit[slot];
+            HvdcLine hvdcLine = (HvdcLine) slotEquipments[slot];
+            if (!Double.isNaN(limit) && hvdcLine.getMaxP() != limit) {
+                hvdcLine.setMaxP(limit);
+            }
+        }
+        for (int i = 0; i < hvdcLineToMinValues.size; i++) {
+            int slot = hvdcLineToMinValues.slots[i];
+            double limit = hvdcLineToMinValues.limit[slot];
+            HvdcLine hvdcLine = (HvdcLine) slotEquipments[slot];
+            if (!Double.isNaN(limit) && hvdcLine.getMaxP() != Math.abs(limit)) {
+                hvdcLine.setMaxP(Math.abs(limit));
+            }
+        }
+        for (int i = 0; i < hvdcLineToCS1toCS2Values.size; i++) {
+            int slot = hvdcLineToCS1toCS2Values.slots[i];
+            double limit = hvdcLineToCS1toCS2Values.limit[slot];
+            if (!Double.isNaN(limit)) {
+                HvdcOperatorActivePowerRange activePowerRange = ((HvdcLine) slotEquipments[slot]).getExtension(HvdcOperatorActivePowerRange.class);
+                if (activePowerRange.getOprFromCS1toCS2() != (float) limit) {
+                    activePowerRange.setOprFromCS1toCS2((float) limit);
+                }
+            }
+        }
+        for (int i = 0; i < hvdcLineToCS2toCS1Values.size; i++) {
+            int slot = hvdcLineToCS2toCS1Values.slots[i];
+            double limit = hvdcLineToCS2toCS1Values.limit[slot];
+            if (!Double.isNaN(limit)) {
+                HvdcOperatorActivePowerRange activePowerRange = ((HvdcLine) slotEquipments[slot]).getExtension(HvdcOperatorActivePowerRange.class);
+                if (activePowerRange.getOprFromCS2toCS1() != (float) Math.abs(limit)) {
+                    activePowerRange.setOprFromCS2toCS1((float) Math.abs(limit));
+                }
+            }
+        }
+    }
+
     @Override
     public void timeSeriesMappingStart(int point, TimeSeriesIndex index) {
         // With ignore limits option, restore previous extended limits (potentially overwritten by NetworkPointWriter)
-        generatorToMaxValues.entrySet().stream().filter(e -> !Double.isNaN(e.getValue().getLimit())).forEach(e -> ((Generator) (e.getKey())).setMaxP(e.getValue().getLimit()));
-        generatorToMinValues.entrySet().stream().filter(e -> !Double.isNaN(e.getValue().getLimit())).forEach(e -> ((Generator) (e.getKey())).setMinP(e.getValue().getLimit()));
-        hvdcLineToMaxValues.entrySet().stream().filter(e -> !Double.isNaN(e.getValue().getLimit())).forEach(e -> ((HvdcLine) (e.getKey())).setMaxP(e.getValue().getLimit()));
-        hvdcLineToMinValues.entrySet().stream().filter(e -> !Double.isNaN(e.getValue().getLimit())).forEach(e -> ((HvdcLine) (e.getKey())).setMaxP(Math.abs(e.getValue().getLimit())));
-        hvdcLineToCS1toCS2Values.entrySet().stream().filter(e -> !Double.isNaN(e.getValue().getLimit())).forEach(e -> ((HvdcLine) (e.getKey())).getExtension(HvdcOperatorActivePowerRange.class).setOprFromCS1toCS2((float) e.getValue().getLimit()));
-        hvdcLineToCS2toCS1Values.entrySet().stream().filter(e -> !Double.isNaN(e.getValue().getLimit())).forEach(e -> ((HvdcLine) (e.getKey())).getExtension(HvdcOperatorActivePowerRange.class).setOprFromCS2toCS1((float) Math.abs(e.getValue().getLimit())));
+        restoreLimits();
 
         super.timeSeriesMappingStart(point, index);
         this.index = index;
         if (point != TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-            identifiableToConstantMappedPowers.forEach((key, value) -> identifiableToMappedPower.put(key, new MappedPower(value)));
+            mappedPowers.copy(constantMappedPowers);
         }
     }
 
     @Override
     public void timeSeriesMappingEnd(int point, TimeSeriesIndex index, double balance) {
         // Correct each mapped power value if necessary and notify observers
-        identifiableToMappedPower.forEach((key, value) -> correctAndNotifyMappedPowers(point, key, value));
+        for (int i = 0; i < mappedPowers.size; i++) {
+            correctAndNotifyMappedPowers(point, mappedPowers.slots[i]);
+        }
 
         // Add scaling down logs to logger
         targetPTimeSeriesToEquipments.forEach((key, value) -> addScalingDownLogs(index, point, key, value,
@@ -100,7 +263,7 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
                 setpointTimeSeriesToScalingDownPowerChangeSynthesis,
                 setpointTimeSeriesToScalingDownLimitViolationSynthesis));
 
-        identifiableToMappedPower.clear();
+        mappedPowers.clear();
         targetPTimeSeriesToEquipments.clear();
         setpointTimeSeriesToEquipments.clear();
 
@@ -123,7 +286,7 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         setpointTimeSeriesToScalingDownPowerChangeSynthesis.forEach((key, value) -> value.forEach(change -> addScalingDownLogSynthesis(EquipmentVariable.activePowerSetpoint.getVariableName(), change, version, key)));
         setpointTimeSeriesToScalingDownLimitViolationSynthesis.forEach((key, value) -> value.forEach(change -> addScalingDownLimitViolationLogSynthesis(change, version, key)));
 
-        identifiableToConstantMappedPowers.clear();
+        constantMappedPowers.clear();
         generatorToMinValues.clear();
         generatorToMaxValues.clear();
         hvdcLineToMinValues.clear();
@@ -144,6 +307,29 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         this.toleranceThreshold = parameters.getToleranceThreshold();
     }
 
+    private int getSlot(Identifiable<?> identifiable) {
+        Integer slot = slots.get(identifiable);
+        if (slot == null) {
+            slot = slots.size();
+            slots.put(identifiable, slot);
+            if (slot == slotEquipments.length) {
+                int capacity = 2 * slot;
+                slotEquipments = Arrays.copyOf(slotEquipments, capacity);
+                hvdcLineToActivePowerRange = Arrays.copyOf(hvdcLineToActivePowerRange, capacity);
+                constantMappedPowers.ensureCapacity(capacity);
+                mappedPowers.ensureCapacity(capacity);
+                generatorToMaxValues.ensureCapacity(capacity);
+                generatorToMinValues.ensureCapacity(capacity);
+                hvdcLineToMaxValues.ensureCapacity(capacity);
+                hvdcLineToMinValues.ensureCapacity(capacity);
+                hvdcLineToCS1toCS2Values.ensureCapacity(capacity);
+                hvdcLineToCS2toCS1Values.ensureCapacity(capacity);
+            }
+            slotEquipments[slot] = identifiable;
+        }
+        return slot;
+    }
+
     public void timeSeriesMappedToEquipments(int point, String timeSeriesName, double timeSeriesValue, List<Identifiable<?>> identifiables, MappingVariable variable, double[] equipmentValues, boolean ignoreLimits) {
         if (variable == EquipmentVariable.targetP) {
             targetPTimeSeriesToEquipments.put(timeSeriesName, new MappedEquipments(timeSeriesValue, new HashSet<>(identifiables)));
@@ -157,11 +343,14 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
 
             if (TimeSeriesMapper.isPowerOrLimitVariable(variable)) {
                 // Store mapped power values and limits in order to correct power values not included in limits
-                addTimeSeriesMappedToEquipments(point, timeSeriesName, identifiable, variable, equipmentValue, ignoreLimits);
+                addTimeSeriesMappedToEquipments(point, timeSeriesName, getSlot(identifiable), variable, equipmentValue, ignoreLimits);
             }
 
             if (identifiable instanceof HvdcLine) {
-                hvdcLineToActivePowerRange.computeIfAbsent(identifiable.getId(), e -> ((HvdcLine) identifiable).getExtension(HvdcOperatorActivePowerRange.class) != null);
+                int slot = getSlot(identifiable);
+                if (hvdcLineToActivePowerRange[slot] == 0) {
+                    hvdcLineToActivePowerRange[slot] = (byte) (((HvdcLine) identifiable).getExtension(HvdcOperatorActivePowerRange.class) != null ? 2 : 1);
+                }
             }
 
             if (!TimeSeriesMapper.isPowerVariable(variable)) {
@@ -172,56 +361,54 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         }
     }
 
-    private void addTimeSeriesMappedToEquipments(int point, String timeSeriesName, Identifiable<?> identifiable, MappingVariable variable, double equipmentValue, boolean ignoreLimits) {
-        MappedPower mappedPower;
-        if (point == TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-            identifiableToConstantMappedPowers.computeIfAbsent(identifiable, e -> new MappedPower());
-            mappedPower = identifiableToConstantMappedPowers.get(identifiable);
-        } else {
-            identifiableToMappedPower.computeIfAbsent(identifiable, e -> new MappedPower());
-            mappedPower = identifiableToMappedPower.get(identifiable);
-        }
-
-        mappedPower.setIgnoreLimits(ignoreLimits);
+    private void addTimeSeriesMappedToEquipments(int point, String timeSeriesName, int slot, MappingVariable variable, double equipmentValue, boolean ignoreLimits) {
+        MappedPowers powers = point == TimeSeriesMapper.CONSTANT_VARIANT_ID ? constantMappedPowers : mappedPowers;
+        powers.add(slot);
+        powers.ignoreLimits[slot] = ignoreLimits;
         if (variable == EquipmentVariable.minP) {
-            mappedPower.setMinP(equipmentValue);
+            powers.minP[slot] = equipmentValue;
+            powers.isMappedMinP[slot] = true;
         } else if (TimeSeriesMapper.isPowerVariable(variable)) {
-            mappedPower.setTimeSeriesNameP(timeSeriesName);
-            mappedPower.setP(equipmentValue);
+            powers.timeSeriesNameP[slot] = timeSeriesName;
+            powers.p[slot] = equipmentValue;
+            powers.isMappedP[slot] = true;
         } else if (variable == EquipmentVariable.maxP) {
-            mappedPower.setMaxP(equipmentValue);
+            powers.maxP[slot] = equipmentValue;
+            powers.isMappedMaxP[slot] = true;
         }
     }
 
-    private void correctAndNotifyMappedPowers(int point, Identifiable<?> identifiable, MappedPower mappedPower) {
+    private void correctAndNotifyMappedPowers(int point, int slot) {
+        Identifiable<?> identifiable = slotEquipments[slot];
         double value;
         if (identifiable instanceof Generator) {
-            value = correctMappedPowerGenerator(point, (Generator) identifiable, mappedPower);
+            value = correctMappedPowerGenerator(point, (Generator) identifiable, slot);
         } else if (identifiable instanceof HvdcLine) {
-            value = correctMappedPowerHvdcLine(point, (HvdcLine) identifiable, mappedPower);
+            value = correctMappedPowerHvdcLine(point, (HvdcLine) identifiable, slot);
         } else {
             throw new AssertionError("Unsupported equipment type for id " + identifiable.getId());
         }
-        mappedPower.setP(value);
+        mappedPowers.p[slot] = value;
+        mappedPowers.isMappedP[slot] = true;
         super.timeSeriesMappedToEquipment(point, timeSeriesName != null ? timeSeriesName : "", identifiable, TimeSeriesMapper.getPowerVariable(identifiable), value);
     }
 
-    private double correctMappedPowerGenerator(int point, Generator generator, MappedPower mappedPower) {
+    private double correctMappedPowerGenerator(int point, Generator generator, int slot) {
 
-        initCorrector(mappedPower);
+        initCorrector(slot);
         id = generator.getId();
-        minP = isMappedMinP ? mappedPower.getMinP() : generator.getMinP();
-        maxP = isMappedMaxP ? mappedPower.getMaxP() : generator.getMaxP();
+        minP = isMappedMinP ? mappedPowers.minP[slot] : generator.getMinP();
+        maxP = isMappedMaxP ? mappedPowers.maxP[slot] : generator.getMaxP();
         if (minP > maxP) {
             throw new AssertionError("Equipment '" + id + "' : invalid active limits [" + minP + ", " + maxP + "] at point " + point);
         }
-        final boolean isMappedTargetP = mappedPower.getP() != null;
-        double targetP = isMappedTargetP ? mappedPower.getP() : TimeSeriesMapper.getP(generator);
+        final boolean isMappedTargetP = mappedPowers.isMappedP[slot];
+        double targetP = isMappedTargetP ? mappedPowers.p[slot] : TimeSeriesMapper.getP(generator);
         isOkMinP = targetP >= minP - toleranceThreshold;
         isOkMaxP = targetP <= maxP + toleranceThreshold;
         targetP = applyToleranceThresholdOnTargetP(isMappedTargetP, targetP);
 
-        addGeneratorLimitValue(generator, isMappedTargetP, targetP);
+        addGeneratorLimitValue(generator, slot, isMappedTargetP, targetP);
 
         if (!isMappedTargetP) {
             double result = correctMappedPowerGeneratorWhenTargetPIsNotMapped(targetP, point, TARGET_P_VARIABLE_NAME, false);
@@ -292,13 +479,13 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         return Double.NaN;
     }
 
-    private double correctMappedPowerHvdcLinesWithIgnoreLimits(double setpoint, HvdcLine hvdcLine, boolean isActivePowerRange) {
+    private double correctMappedPowerHvdcLinesWithIgnoreLimits(double setpoint, HvdcLine hvdcLine, int slot, boolean isActivePowerRange) {
         final long round = Math.round(Math.abs(setpoint) + 0.5f);
         if (!isOkMaxP && !isMappedMaxP) {
             // setpoint is mapped, maxP is not mapped -> increase base case maxP to setpoint
             addActivePowerRangeExtension(hvdcLine);
             if (!isActivePowerRange) {
-                hvdcLine.getExtension(HvdcOperatorActivePowerRange.class).setOprFromCS1toCS2((float) Math.abs(hvdcLineToMinValues.get(hvdcLine).getBaseCaseLimit()));
+                hvdcLine.getExtension(HvdcOperatorActivePowerRange.class).setOprFromCS1toCS2((float) Math.abs(hvdcLineToMinValues.baseCaseLimit[slot]));
             }
             TimeSeriesMapper.setHvdcMax(hvdcLine, round);
             setpointTimeSeriesToEquipments.get(timeSeriesName).getScalingDownLimitViolation().add(isActivePowerRange ? ScalingDownLimitViolation.CS1TOCS2_BY_ACTIVEPOWER : ScalingDownLimitViolation.MAXP_BY_ACTIVEPOWER);
@@ -309,7 +496,7 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         } else if (!isOkMinP && !isMappedMinP) {
             addActivePowerRangeExtension(hvdcLine);
             if (!isActivePowerRange) {
-                hvdcLine.getExtension(HvdcOperatorActivePowerRange.class).setOprFromCS2toCS1((float) Math.abs(hvdcLineToMaxValues.get(hvdcLine).getBaseCaseLimit()));
+                hvdcLine.getExtension(HvdcOperatorActivePowerRange.class).setOprFromCS2toCS1((float) Math.abs(hvdcLineToMaxValues.baseCaseLimit[slot]));
             }
             TimeSeriesMapper.setHvdcMin(hvdcLine, round);
             setpointTimeSeriesToEquipments.get(timeSeriesName).getScalingDownLimitViolation().add(isActivePowerRange ? ScalingDownLimitViolation.CS2TOCS1_BY_ACTIVEPOWER : ScalingDownLimitViolation.MINP_BY_ACTIVEPOWER);
@@ -387,44 +574,44 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         return targetP;
     }
 
-    private void initCorrector(MappedPower mappedPower) {
-        timeSeriesName = mappedPower.getTimeSeriesNameP();
-        isMappedMinP = mappedPower.getMinP() != null;
-        isMappedMaxP = mappedPower.getMaxP() != null;
-        ignoreLimits = mappedPower.isIgnoreLimits();
+    private void initCorrector(int slot) {
+        timeSeriesName = mappedPowers.timeSeriesNameP[slot];
+        isMappedMinP = mappedPowers.isMappedMinP[slot];
+        isMappedMaxP = mappedPowers.isMappedMaxP[slot];
+        ignoreLimits = mappedPowers.ignoreLimits[slot];
     }
 
-    private void addGeneratorLimitValue(Generator generator, boolean isMappedTargetP, double targetP) {
+    private void addGeneratorLimitValue(Generator generator, int slot, boolean isMappedTargetP, double targetP) {
         if (ignoreLimits && isMappedTargetP) {
             if (!isMappedMaxP) {
-                addLimitValueChange(MappingLimitType.MAX, generatorToMaxValues, generator, generator.getMaxP(), targetP);
+                addLimitValueChange(MappingLimitType.MAX, generatorToMaxValues, slot, generator.getMaxP(), targetP);
             }
             if (!isMappedMinP && minP <= 0) {
-                addLimitValueChange(MappingLimitType.MIN, generatorToMinValues, generator, generator.getMinP(), targetP);
+                addLimitValueChange(MappingLimitType.MIN, generatorToMinValues, slot, generator.getMinP(), targetP);
             }
         }
     }
 
-    private void addHvdcLineLimitValue(HvdcLine hvdcLine, boolean isMappedSetpoint, boolean isActivePowerRange,  double setpoint) {
+    private void addHvdcLineLimitValue(HvdcLine hvdcLine, int slot, boolean isMappedSetpoint, boolean isActivePowerRange,  double setpoint) {
         if (ignoreLimits && isMappedSetpoint) {
             if (!isMappedMaxP) {
-                addLimitValueChange(MappingLimitType.MAX, isActivePowerRange ? hvdcLineToCS1toCS2Values : hvdcLineToMaxValues, hvdcLine, TimeSeriesMapper.getMax(hvdcLine), setpoint);
+                addLimitValueChange(MappingLimitType.MAX, isActivePowerRange ? hvdcLineToCS1toCS2Values : hvdcLineToMaxValues, slot, TimeSeriesMapper.getMax(hvdcLine), setpoint);
             }
             if (!isMappedMinP) {
-                addLimitValueChange(MappingLimitType.MIN, isActivePowerRange ? hvdcLineToCS2toCS1Values : hvdcLineToMinValues, hvdcLine, TimeSeriesMapper.getMin(hvdcLine), setpoint);
+                addLimitValueChange(MappingLimitType.MIN, isActivePowerRange ? hvdcLineToCS2toCS1Values : hvdcLineToMinValues, slot, TimeSeriesMapper.getMin(hvdcLine), setpoint);
             }
         }
     }
 
-    private double correctMappedPowerHvdcLine(int point, HvdcLine hvdcLine, MappedPower mappedPower) {
+    private double correctMappedPowerHvdcLine(int point, HvdcLine hvdcLine, int slot) {
 
-        initCorrector(mappedPower);
+        initCorrector(slot);
         id = hvdcLine.getId();
-        minP = isMappedMinP ? mappedPower.getMinP() : TimeSeriesMapper.getMin(hvdcLine);
-        maxP = isMappedMaxP ? mappedPower.getMaxP() : TimeSeriesMapper.getMax(hvdcLine);
-        final boolean isMappedSetpoint = mappedPower.getP() != null;
-        final boolean isActivePowerRange = hvdcLineToActivePowerRange.get(id);
-        double setpoint = isMappedSetpoint ? mappedPower.getP() : TimeSeriesMapper.getHvdcLineSetPoint(hvdcLine);
+        minP = isMappedMinP ? mappedPowers.minP[slot] : TimeSeriesMapper.getMin(hvdcLine);
+        maxP = isMappedMaxP ? mappedPowers.maxP[slot] : TimeSeriesMapper.getMax(hvdcLine);
+        final boolean isMappedSetpoint = mappedPowers.isMappedP[slot];
+        final boolean isActivePowerRange = hvdcLineToActivePowerRange[slot] == 2;
+        double setpoint = isMappedSetpoint ? mappedPowers.p[slot] : TimeSeriesMapper.getHvdcLineSetPoint(hvdcLine);
         isOkMinP = setpoint >= minP - toleranceThreshold;
         isOkMaxP = setpoint <= maxP + toleranceThreshold;
 
@@ -436,7 +623,7 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
             throw new AssertionError("Equipment '" + id + "' : invalid active limits [" + minP + ", " + maxP + "] at point " + point);
         }
 
-        addHvdcLineLimitValue(hvdcLine, isMappedSetpoint, isActivePowerRange, setpoint);
+        addHvdcLineLimitValue(hvdcLine, slot, isMappedSetpoint, isActivePowerRange, setpoint);
 
         if (!isMappedSetpoint) {
             double result = correctMappedPowerGeneratorWhenTargetPIsNotMapped(setpoint, point, SET_POINT_VARIABLE_NAME, true);
@@ -446,7 +633,7 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         }
 
         if (ignoreLimits) {
-            double result = correctMappedPowerHvdcLinesWithIgnoreLimits(setpoint, hvdcLine, isActivePowerRange);
+            double result = correctMappedPowerHvdcLinesWithIgnoreLimits(setpoint, hvdcLine, slot, isActivePowerRange);
             if (!Double.isNaN(result)) {
                 return result;
             }
@@ -463,21 +650,26 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         return Double.NaN;
     }
 
-    private void addLimitValueChange(MappingLimitType limitType, Map<Identifiable<?>, LimitChange> equipmentToLimitValues, Identifiable<?> identifiable, double oldLimit, double newLimit) {
-        if ((limitType == MappingLimitType.MAX) || (limitType == MappingLimitType.MIN)) {
-            equipmentToLimitValues.computeIfAbsent(identifiable, e -> new LimitChange(oldLimit, Double.NaN));
-            if ((limitType == MappingLimitType.MAX && newLimit > oldLimit + toleranceThreshold) || (limitType == MappingLimitType.MIN && newLimit < oldLimit - toleranceThreshold)) {
-                LimitChange limitChange = equipmentToLimitValues.get(identifiable);
-                limitChange.setLimit(newLimit);
-            }
+    private void addLimitValueChange(MappingLimitType limitType, LimitChanges limitChanges, int slot, double oldLimit, double newLimit) {
+        if (!limitChanges.contains[slot]) {
+            limitChanges.contains[slot] = true;
+            limitChanges.slots[limitChanges.size++] = slot;
+            limitChanges.baseCaseLimit[slot] = oldLimit;
+            limitChanges.limit[slot] = Double.NaN;
+            limitChanges.baseCaseLimitNbOfViolation[slot] = 0;
         }
-        equipmentToLimitValues.computeIfPresent(identifiable, (k, v) -> {
-            LimitChange limitChange = equipmentToLimitValues.get(identifiable);
-            if (!Double.isNaN(limitChange.getLimit()) && (limitType == MappingLimitType.MAX && newLimit > limitChange.getBaseCaseLimit()) || (limitType == MappingLimitType.MIN && newLimit < limitChange.getBaseCaseLimit())) {
-                limitChange.setBaseCaseLimitNbOfViolation(limitChange.getBaseCaseLimitNbOfViolation() + 1);
-            }
-            return v;
-        });
+        if ((limitType == MappingLimitType.MAX && newLimit > oldLimit + toleranceThreshold) || (limitType == MappingLimitType.MIN && newLimit < oldLimit - toleranceThreshold)) {
+            limitChanges.limit[slot] = newLimit;
+        }
+        double baseCaseLimit = limitChanges.baseCaseLimit[slot];
+        if (!Double.isNaN(limitChanges.limit[slot]) && (limitType == MappingLimitType.MAX && newLimit > baseCaseLimit) || (limitType == MappingLimitType.MIN && newLimit < baseCaseLimit)) {
+            limitChanges.baseCaseLimitNbOfViolation[slot]++;
+        }
+    }
+
+    private double getMappedPower(Identifiable<?> identifiable) {
+        int slot = slots.get(identifiable);
+        return mappedPowers.isMappedP[slot] ? mappedPowers.p[slot] : TimeSeriesMapper.getP(identifiable);
     }
 
     private void addScalingDownLogs(TimeSeriesIndex index, int point, String timeSeriesName, MappedEquipments mappedEquipments,
@@ -487,9 +679,8 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
 
         if (!mappedEquipments.getScalingDownPowerChange().isEmpty()) {
             double value = mappedEquipments.getTimeSeriesValue();
-            Set<Identifiable<?>> identifiables = mappedEquipments.getIdentifiables();
-            double sum = identifiables.stream()
-                    .mapToDouble(e -> identifiableToMappedPower.get(e).getP() != null ? identifiableToMappedPower.get(e).getP() : TimeSeriesMapper.getP(e))
+            double sum = mappedEquipments.getIdentifiables().stream()
+                    .mapToDouble(this::getMappedPower)
                     .sum();
             mappedEquipments.getScalingDownPowerChange().forEach(e -> addScalingDownLog(variable.getVariableName(), e, index, timeSeriesName, value, sum, point));
 
@@ -638,21 +829,24 @@ public class TimeSeriesMapperChecker extends MultipleTimeSeriesMapperObserver {
         timeSeriesMappingLogger.addLog(log);
     }
 
-    private void addLimitChangeLog(Map<Identifiable<?>, LimitChange> equipmentToValues, MappingLimitType limitType,
+    private void addLimitChangeLog(LimitChanges limitChanges, MappingLimitType limitType,
                                    int version, String variableToChange, String variable) {
-        equipmentToValues.entrySet().stream()
-                .filter(e -> !Double.isNaN(e.getValue().getLimit()))
-                .forEach(e -> timeSeriesMappingLogger.addLog(getLimitLog(limitType, version, variableToChange, variable, e)));
+        for (int i = 0; i < limitChanges.size; i++) {
+            int slot = limitChanges.slots[i];
+            if (!Double.isNaN(limitChanges.limit[slot])) {
+                timeSeriesMappingLogger.addLog(getLimitLog(limitType, version, variableToChange, variable, limitChanges, slot));
+            }
+        }
     }
 
     private Log getLimitLog(MappingLimitType limitType, int version, String variableToChange,
-                                        String variable, Map.Entry<Identifiable<?>, LimitChange> e) {
+                                        String variable, LimitChanges limitChanges, int slot) {
         LimitLogBuilder limitLogBuilder = new LimitLogBuilder()
-                .id(e.getKey().getId())
+                .id(slotEquipments[slot].getId())
                 .variable(variable)
-                .nbViolation(e.getValue().getBaseCaseLimitNbOfViolation())
-                .newValue(e.getValue().getLimit())
-                .oldValue(e.getValue().getBaseCaseLimit())
+                .nbViolation(limitChanges.baseCaseLimitNbOfViolation[slot])
+                .newValue(limitChanges.limit[slot])
+                .oldValue(limitChanges.baseCaseLimit[slot])
                 .variableToChange(variableToChange);
         LogContent logContent;
         if (limitType == MappingLimitType.MIN) {
@@ -12,27 +12,25 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
 import com.powsybl.iidm.network.*;
 import com.powsybl.iidm.network.extensions.LoadDetail;
+import com.powsybl.metrix.mapping.timeseries.PlannedOutagesTimeSeriesBuilder;
 import com.powsybl.timeseries.*;
 import com.powsybl.timeseries.ast.NodeCalc;
-import com.powsybl.timeseries.ast.TimeSeriesNameNodeCalc;
 import com.powsybl.timeseries.ast.TimeSeriesNames;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
-import java.util.stream.DoubleStream;
-import java.util.stream.Stream;
-
-import static com.powsybl.metrix.mapping.TimeSeriesMapper.CONNECTED_VALUE;
-import static com.powsybl.metrix.mapping.TimeSeriesMapper.DISCONNECTED_VALUE;
 
 public class TimeSeriesMappingConfig {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TimeSeriesMappingConfig.class);
     private static final int MIN_NUMBER_OF_POINTS = 50;
 
+    // single instance and dense index of the keys of the configuration, not part of the configuration
+    private final MappingKeyTable mappingKeys = new MappingKeyTable();
+
     private final Map<MappingKey, DistributionKey> distributionKeys = new HashMap<>();
 
     private final Map<MappingKey, List<String>> timeSeriesToGeneratorsMapping = new LinkedHashMap<>();
@@ -111,6 +109,13 @@ public class TimeSeriesMappingConfig {
     // time series to map with ignore limits option
     private final Set<String> ignoreLimitsTimeSeriesNames = new HashSet<>();
 
+    // cached statistics of the time series of the last used store, not part of the configuration
+    private TimeSeriesStats timeSeriesStats;
+
+    // cached planned outages stores of the last used store, by version, not part of the configuration
+    private ReadOnlyTimeSeriesStore plannedOutagesSourceStore;
+    private final Map<Integer, ReadOnlyTimeSeriesStore> plannedOutagesStores = new HashMap<>();
+
     @Override
     public int hashCode() {
         return Objects.hash(
@@ -248,60 +253,46 @@ public class TimeSeriesMappingConfig {
     }
 
     public static double getTimeSeriesMin(NodeCalc nodeCalc, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).min().orElse(Double.NaN)).min().orElse(Double.NaN);
+        return new TimeSeriesStats(store).getMin(nodeCalc, computationRange);
     }
 
     public static double getTimeSeriesMin(String timeSeriesName, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        NodeCalc nodeCalc = new TimeSeriesNameNodeCalc(timeSeriesName);
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).min().orElse(Double.NaN)).min().orElse(Double.NaN);
+        return new TimeSeriesStats(store).getMin(timeSeriesName, computationRange);
     }
 
     public static double getTimeSeriesMax(NodeCalc nodeCalc, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).max().orElse(Double.NaN)).max().orElse(Double.NaN);
+        return new TimeSeriesStats(store).getMax(nodeCalc, computationRange);
     }
 
     public static double getTimeSeriesMax(String timeSeriesName, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        NodeCalc nodeCalc = new TimeSeriesNameNodeCalc(timeSeriesName);
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).max().orElse(Double.NaN)).max().orElse(Double.NaN);
+        return new TimeSeriesStats(store).getMax(timeSeriesName, computationRange);
     }
 
     public static double getTimeSeriesAvg(NodeCalc nodeCalc, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).average().orElse(Double.NaN)).average().orElse(Double.NaN);
+        return new TimeSeriesStats(store).getAvg(nodeCalc, computationRange);
     }
 
     public static double getTimeSeriesAvg(String timeSeriesName, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        NodeCalc nodeCalc = new TimeSeriesNameNodeCalc(timeSeriesName);
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).average().orElse(Double.NaN)).average().orElse(Double.NaN);
+        return new TimeSeriesStats(store).getAvg(timeSeriesName, computationRange);
     }
 
     public static double getTimeSeriesSum(NodeCalc nodeCalc, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).sum()).sum();
+        return new TimeSeriesStats(store).getSum(nodeCalc, computationRange);
     }
 
     public static double getTimeSeriesSum(String timeSeriesName, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        NodeCalc nodeCalc = new TimeSeriesNameNodeCalc(timeSeriesName);
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).sum()).sum();
+        return new TimeSeriesStats(store).getSum(timeSeriesName, computationRange);
     }
 
     public static double getTimeSeriesMedian(NodeCalc nodeCalc, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        double[] values = computationRange.getVersions().stream().flatMapToDouble(version -> {
-            CalculatedTimeSeries calculatedTimeSeries = createCalculatedTimeSeries(nodeCalc, version, store);
-            return Arrays.stream(calculatedTimeSeries.toArray()).skip(computationRange.getFirstVariant()).limit(computationRange.getVariantCount());
-        }).toArray();
-        return Arrays.stream(values).sorted().skip(new BigDecimal(values.length / 2).longValue()).limit(1).findFirst().orElse(Double.NaN);
+        return new TimeSeriesStats(store).getMedian(nodeCalc, computationRange);
     }
 
     public static double getTimeSeriesMedian(String timeSeriesName, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        NodeCalc nodeCalc = new TimeSeriesNameNodeCalc(timeSeriesName);
-        return computationRange.getVersions().stream().mapToDouble(version -> getTimeSeriesStream(nodeCalc, version, store, computationRange).sum()).sum();
+        return new TimeSeriesStats(store).getMedian(timeSeriesName, computationRange);
     }
 
-    private static DoubleStream getTimeSeriesStream(NodeCalc nodeCalc, int version, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
-        CalculatedTimeSeries calculatedTimeSeries = createCalculatedTimeSeries(nodeCalc, version, store);
-        return Arrays.stream(calculatedTimeSeries.toArray()).skip(computationRange.getFirstVariant()).limit(computationRange.getVariantCount());
-    }
-
-    private static CalculatedTimeSeries createCalculatedTimeSeries(NodeCalc nodeCalc, int version, ReadOnlyTimeSeriesStore store) {
+    static CalculatedTimeSeries createCalculatedTimeSeries(NodeCalc nodeCalc, int version, ReadOnlyTimeSeriesStore store) {
         CalculatedTimeSeries calculatedTimeSeries = new CalculatedTimeSeries("", nodeCalc, new FromStoreTimeSeriesNameResolver(store, version));
         if (calculatedTimeSeries.getIndex() instanceof InfiniteTimeSeriesIndex) {
             getRegularIndex(store).ifPresent(calculatedTimeSeries::synchronize);
@@ -309,6 +300,23 @@ public class TimeSeriesMappingConfig {
         return calculatedTimeSeries;
     }
 
+    /**
+     * Get the cached statistics of the time series of the given store, reset when the store changes.
+     */
+    public synchronized TimeSeriesStats getTimeSeriesStats(ReadOnlyTimeSeriesStore store) {
+        if (timeSeriesStats == null || timeSeriesStats.getStore() != store) {
+            timeSeriesStats = new TimeSeriesStats(store);
+        }
+        return timeSeriesStats;
+    }
+
+    /**
+     * Whether statistics were computed, that is whether time series values were read to build this configuration.
+     */
+    synchronized boolean hasTimeSeriesStats() {
+        return timeSeriesStats != null;
+    }
+
     public static Optional<TimeSeriesIndex> getRegularIndex(ReadOnlyTimeSeriesStore store) {
         return store
                 .getTimeSeriesMetadata(store.getTimeSeriesNames(null))
@@ -346,7 +354,7 @@ public class TimeSeriesMappingConfig {
     }
 
     public void setDistributionKeys(Map<MappingKey, DistributionKey> keys) {
-        distributionKeys.putAll(keys);
+        putAllInterned(distributionKeys, keys);
     }
 
     public Map<MappingKey, DistributionKey> getDistributionKeys() {
@@ -358,7 +366,7 @@ public class TimeSeriesMappingConfig {
     }
 
     public void setTimeSeriesToEquipment(Map<String, Set<MappingKey>> map) {
-        timeSeriesToEquipmentMap.putAll(map);
+        map.forEach((timeSeriesName, keys) -> timeSeriesToEquipmentMap.put(timeSeriesName, new LinkedHashSet<>(internAll(keys))));
     }
 
     public Map<MappingKey, String> getEquipmentToTimeSeries() {
@@ -366,7 +374,7 @@ public class TimeSeriesMappingConfig {
     }
 
     public void setEquipmentToTimeSeries(Map<MappingKey, String> map) {
-        equipmentToTimeSeriesMap.putAll(map);
+        putAllInterned(equipmentToTimeSeriesMap, map);
     }
 
     public Map<String, NodeCalc> getTimeSeriesNodes() {
@@ -414,7 +422,7 @@ public class TimeSeriesMappingConfig {
     }
 
     public void addEquipmentTimeSeries(String timeSeriesName, MappingVariable variable, String id) {
-        MappingKey mappingKey = new MappingKey(variable, id);
+        MappingKey mappingKey = mappingKeys.intern(variable, id);
         equipmentToTimeSeriesMap.computeIfPresent(mappingKey, (k, v) -> {
             timeSeriesToEquipmentMap.get(v).remove(mappingKey);
             return v;
@@ -439,16 +447,28 @@ public class TimeSeriesMappingConfig {
     }
 
     private static List<String> getMultimapValue(Map<MappingKey, List<String>> multimap, MappingKey key) {
-        return multimap.computeIfAbsent(key, k -> new LinkedList<>());
+        return multimap.computeIfAbsent(key, k -> new ArrayList<>(1));
+    }
+
+    public MappingKeyTable getMappingKeyTable() {
+        return mappingKeys;
+    }
+
+    private <V> void putAllInterned(Map<MappingKey, V> map, Map<MappingKey, V> values) {
+        values.forEach((key, value) -> map.put(mappingKeys.intern(key), value));
+    }
+
+    private List<MappingKey> internAll(Collection<MappingKey> keys) {
+        return keys.stream().map(mappingKeys::intern).collect(Collectors.toList());
     }
 
     private void addMapping(String timeSeriesName, String equipmentId, DistributionKey distributionKey, MappingVariable variable,
                             Map<MappingKey, List<String>> timeSerieToEquipmentsMapping,
                             Map<MappingKey, List<String>> equipmentToTimeSeriesMapping) {
 
-        MappingKey timeSerieToEquipmentsKey = new MappingKey(variable, timeSeriesName);
+        MappingKey timeSerieToEquipmentsKey = mappingKeys.intern(variable, timeSeriesName);
         if (equipmentId != null) {
-            MappingKey equipmentToTimeSeriesKey = new MappingKey(variable, equipmentId);
+            MappingKey equipmentToTimeSeriesKey = mappingKeys.intern(variable, equipmentId);
             List<String> timeSeriesAlreadyMappedToThisEquipment = getMultimapValue(equipmentToTimeSeriesMapping, equipmentToTimeSeriesKey);
             if (!timeSeriesAlreadyMappedToThisEquipment.isEmpty()) {
                 // remove old mapping
@@ -612,7 +632,7 @@ public class TimeSeriesMappingConfig {
 
     public void addEquipmentTimeSeries(MappableEquipmentType equipmentType, String equipmentId, Set<EquipmentVariable> equipmentVariables) {
         for (EquipmentVariable equipmentVariable : equipmentVariables) {
-            MappingKey mappingKey = new MappingKey(equipmentVariable, equipmentId);
+            MappingKey mappingKey = mappingKeys.intern(equipmentVariable, equipmentId);
             switch (equipmentType) {
                 case GENERATOR:
                     generatorTimeSeries.add(mappingKey);
@@ -658,47 +678,47 @@ public class TimeSeriesMappingConfig {
     }
 
     public void setTimeSeriesToGeneratorsMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToGeneratorsMapping.putAll(map);
+        putAllInterned(timeSeriesToGeneratorsMapping, map);
     }
 
     public void setTimeSeriesToLoadsMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToLoadsMapping.putAll(map);
+        putAllInterned(timeSeriesToLoadsMapping, map);
     }
 
     public void setTimeSeriesToDanglingLinesMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToDanglingLinesMapping.putAll(map);
+        putAllInterned(timeSeriesToDanglingLinesMapping, map);
     }
 
     public void setTimeSeriesToHvdcLinesMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToHvdcLinesMapping.putAll(map);
+        putAllInterned(timeSeriesToHvdcLinesMapping, map);
     }
 
     public void setTimeSeriesToPhaseTapChangersMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToPhaseTapChangersMapping.putAll(map);
+        putAllInterned(timeSeriesToPhaseTapChangersMapping, map);
     }
 
     public void setTimeSeriesToBreakersMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToBreakersMapping.putAll(map);
+        putAllInterned(timeSeriesToBreakersMapping, map);
     }
 
     public void setTimeSeriesToTransformersMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToTransformersMapping.putAll(map);
+        putAllInterned(timeSeriesToTransformersMapping, map);
     }
 
     public void setTimeSeriesToLinesMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToLinesMapping.putAll(map);
+        putAllInterned(timeSeriesToLinesMapping, map);
     }
 
     public void setTimeSeriesToRatioTapChangersMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToRatioTapChangersMapping.putAll(map);
+        putAllInterned(timeSeriesToRatioTapChangersMapping, map);
     }
 
     public void setTimeSeriesToLccConverterStationsMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToLccConverterStationsMapping.putAll(map);
+        putAllInterned(timeSeriesToLccConverterStationsMapping, map);
     }
 
     public void setTimeSeriesToVscConverterStationsMapping(Map<MappingKey, List<String>> map) {
-        timeSeriesToVscConverterStationsMapping.putAll(map);
+        putAllInterned(timeSeriesToVscConverterStationsMapping, map);
     }
 
     public Map<MappingKey, List<String>> getTimeSeriesToGeneratorsMapping() {
@@ -749,56 +769,58 @@ public class TimeSeriesMappingConfig {
         return Collections.unmodifiableMap(timeSeriesToPlannedOutagesMapping);
     }
 
-    public void setTimeSeriesToPlannedOutagesMapping(Map<String, Set<String>> map) {
+    public synchronized void setTimeSeriesToPlannedOutagesMapping(Map<String, Set<String>> map) {
+        plannedOutagesStores.clear();
         timeSeriesToPlannedOutagesMapping.putAll(map);
     }
 
-    public void addPlannedOutages(String timeSeriesName, Set<String> disconnectedIds) {
+    public synchronized void addPlannedOutages(String timeSeriesName, Set<String> disconnectedIds) {
+        plannedOutagesStores.clear();
         timeSeriesToPlannedOutagesMapping.put(timeSeriesName, disconnectedIds);
     }
 
     public void setGeneratorToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        generatorToTimeSeriesMapping.putAll(map);
+        putAllInterned(generatorToTimeSeriesMapping, map);
     }
 
     public void setLoadToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        loadToTimeSeriesMapping.putAll(map);
+        putAllInterned(loadToTimeSeriesMapping, map);
     }
 
     public void setDanglingLineToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        danglingLineToTimeSeriesMapping.putAll(map);
+        putAllInterned(danglingLineToTimeSeriesMapping, map);
     }
 
     public void setBreakerToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        breakerToTimeSeriesMapping.putAll(map);
+        putAllInterned(breakerToTimeSeriesMapping, map);
     }
 
     public void setTransformerToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        transformerToTimeSeriesMapping.putAll(map);
+        putAllInterned(transformerToTimeSeriesMapping, map);
     }
 
     public void setLineToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        lineToTimeSeriesMapping.putAll(map);
+        putAllInterned(lineToTimeSeriesMapping, map);
     }
 
     public void setRatioTapChangerToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        ratioTapChangerToTimeSeriesMapping.putAll(map);
+        putAllInterned(ratioTapChangerToTimeSeriesMapping, map);
     }
 
     public void setLccConverterStationToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        lccConverterStationToTimeSeriesMapping.putAll(map);
+        putAllInterned(lccConverterStationToTimeSeriesMapping, map);
     }
 
     public void setVscConverterStationToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        vscConverterStationToTimeSeriesMapping.putAll(map);
+        putAllInterned(vscConverterStationToTimeSeriesMapping, map);
     }
 
     public void setHvdcLineToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        hvdcLineToTimeSeriesMapping.putAll(map);
+        putAllInterned(hvdcLineToTimeSeriesMapping, map);
     }
 
     public void setPhaseTapChangerToTimeSeriesMapping(Map<MappingKey, List<String>> map) {
-        phaseTapChangerToTimeSeriesMapping.putAll(map);
+        putAllInterned(phaseTapChangerToTimeSeriesMapping, map);
     }
 
     public Map<MappingKey, List<String>> getGeneratorToTimeSeriesMapping() {
@@ -846,47 +868,47 @@ public class TimeSeriesMappingConfig {
     }
 
     public void setGeneratorTimeSeries(Set<MappingKey> set) {
-        generatorTimeSeries.addAll(set);
+        generatorTimeSeries.addAll(internAll(set));
     }
 
     public void setLoadTimeSeries(Set<MappingKey> set) {
-        loadTimeSeries.addAll(set);
+        loadTimeSeries.addAll(internAll(set));
     }
 
     public void setDanglingLineTimeSeries(Set<MappingKey> set) {
-        danglingLineTimeSeries.addAll(set);
+        danglingLineTimeSeries.addAll(internAll(set));
     }
 
     public void setHvdcLineTimeSeries(Set<MappingKey> set) {
-        hvdcLineTimeSeries.addAll(set);
+        hvdcLineTimeSeries.addAll(internAll(set));
     }
 
     public void setPhaseTapChangerTimeSeries(Set<MappingKey> set) {
-        phaseTapChangerTimeSeries.addAll(set);
+        phaseTapChangerTimeSeries.addAll(internAll(set));
     }
 
     public void setBreakerTimeSeries(Set<MappingKey> set) {
-        breakerTimeSeries.addAll(set);
+        breakerTimeSeries.addAll(internAll(set));
     }
 
     public void setTransformerTimeSeries(Set<MappingKey> set) {
-        transformerTimeSeries.addAll(set);
+        transformerTimeSeries.addAll(internAll(set));
     }
 
     public void setLineTimeSeries(Set<MappingKey> set) {
-        lineTimeSeries.addAll(set);
+        lineTimeSeries.addAll(internAll(set));
     }
 
     public void setRatioTapChangerTimeSeries(Set<MappingKey> set) {
-        ratioTapChangerTimeSeries.addAll(set);
+        ratioTapChangerTimeSeries.addAll(internAll(set));
     }
 
     public void setLccConverterStationTimeSeries(Set<MappingKey> set) {
-        lccConverterStationTimeSeries.addAll(set);
+        lccConverterStationTimeSeries.addAll(internAll(set));
     }
 
     public void setVscConverterStationTimeSeries(Set<MappingKey> set) {
-        vscConverterStationTimeSeries.addAll(set);
+        vscConverterStationTimeSeries.addAll(internAll(set));
     }
 
     public void setUnmappedGenerators(Set<String> set) {
@@ -1198,6 +1220,26 @@ public class TimeSeriesMappingConfig {
     }
 
     public TimeSeriesTable loadToTable(NavigableSet<Integer> versions, ReadOnlyTimeSeriesStore store, Range<Integer> pointRange, Iterable<String> usedTimeSeriesNames) {
+        return loadToTable(versions, store, pointRange, usedTimeSeriesNames, (loadedTimeSeries, version) -> { });
+    }
+
+    /**
+     * Number of points loaded in the table of a point range: the whole index or, to avoid loading all values, the
+     * points up to the end of the range.
+     */
+    static int getNbPointsToLoad(TimeSeriesIndex index, Range<Integer> pointRange) {
+        int nbPointsToCompute = pointRange.upperEndpoint() - pointRange.lowerEndpoint() + 1;
+        if (index.getPointCount() != nbPointsToCompute) {
+            return Math.max(pointRange.upperEndpoint() + 1, Math.min(index.getPointCount(), MIN_NUMBER_OF_POINTS));
+        }
+        return index.getPointCount();
+    }
+
+    /**
+     * Load the used time series in a table, giving to the consumer the stored time series loaded for each version.
+     */
+    TimeSeriesTable loadToTable(NavigableSet<Integer> versions, ReadOnlyTimeSeriesStore store, Range<Integer> pointRange, Iterable<String> usedTimeSeriesNames,
+                                ObjIntConsumer<List<DoubleTimeSeries>> loadedTimeSeriesConsumer) {
         Set<String> timeSeriesNamesToLoad = findTimeSeriesNamesToLoad(usedTimeSeriesNames);
 
         TimeSeriesIndex index = checkIndexUnicity(store, timeSeriesNamesToLoad);
@@ -1211,9 +1253,8 @@ public class TimeSeriesMappingConfig {
             if (!timeSeriesNamesToLoad.isEmpty()) {
                 List<DoubleTimeSeries> timeSeriesList = store.getDoubleTimeSeries(timeSeriesNamesToLoad, version);
                 int nbPointsToCompute = pointRange.upperEndpoint() - pointRange.lowerEndpoint() + 1;
-                if (index.getPointCount() != nbPointsToCompute) {
-                    // to avoid loading all values
-                    int nbPointsToLoad = Math.max(pointRange.upperEndpoint() + 1, Math.min(index.getPointCount(), MIN_NUMBER_OF_POINTS));
+                int nbPointsToLoad = getNbPointsToLoad(index, pointRange);
+                if (nbPointsToLoad != index.getPointCount()) {
                     try {
                         List<List<DoubleTimeSeries>> split = TimeSeries.split(timeSeriesList, nbPointsToLoad);
                         loadedTimeSeries = split.get(0);
@@ -1225,6 +1266,7 @@ public class TimeSeriesMappingConfig {
                     loadedTimeSeries = store.getDoubleTimeSeries(timeSeriesNamesToLoad, version);
                 }
             }
+            loadedTimeSeriesConsumer.accept(loadedTimeSeries, version);
             List<DoubleTimeSeries> timeSeriesToAddToTable = new ArrayList<>(loadedTimeSeries);
             ReadOnlyTimeSeriesStore storeCache = new ReadOnlyTimeSeriesStoreCache(loadedTimeSeries);
             TimeSeriesNameResolver resolver = new FromStoreTimeSeriesNameResolver(storeCache, version);
@@ -1361,6 +1403,18 @@ public class TimeSeriesMappingConfig {
         return keys;
     }
 
+    /**
+     * Get the store completed with the equipment planned outages time series of the given version.
+     * Built stores are kept until the store or the planned outages mapping change.
+     */
+    public synchronized ReadOnlyTimeSeriesStore getPlannedOutagesTimeSeriesStore(ReadOnlyTimeSeriesStore store, int version) {
+        if (plannedOutagesSourceStore != store) {
+            plannedOutagesStores.clear();
+            plannedOutagesSourceStore = store;
+        }
+        return plannedOutagesStores.computeIfAbsent(version, v -> buildPlannedOutagesTimeSeriesStore(store, v, timeSeriesToPlannedOutagesMapping));
+    }
+
     public static ReadOnlyTimeSeriesStore buildPlannedOutagesTimeSeriesStore(ReadOnlyTimeSeriesStore store, int version, Map<String, Set<String>> timeSeriesToPlannedOutagesMapping) {
         List<DoubleTimeSeries> doubleTimeSeries = new ArrayList<>();
 
@@ -1376,27 +1430,10 @@ public class TimeSeriesMappingConfig {
         // Build equipment planned outages time series
         LOGGER.info("Building equipment planned outages time series");
         TimeSeriesIndex index = checkIndexUnicity(store, timeSeriesToPlannedOutagesMapping.keySet());
-        int nbPoints = index.getPointCount();
         for (Map.Entry<String, Set<String>> entry : timeSeriesToPlannedOutagesMapping.entrySet()) {
             String timeSeriesName = entry.getKey();
-            Set<String> disconnectedIds = entry.getValue();
-
             StringTimeSeries plannedOutagesTimeSeries = store.getStringTimeSeries(timeSeriesName, version).orElseThrow(() -> new TimeSeriesException("Invalid planned outages time series name " + timeSeriesName));
-            String[] array = plannedOutagesTimeSeries.toArray();
-            for (String id : disconnectedIds) {
-                double[] values = new double[nbPoints];
-                Arrays.fill(values, CONNECTED_VALUE);
-                for (int i = 0; i < nbPoints; i++) {
-                    String[] ids = array[i].split(",");
-                    if (Stream.of(ids).anyMatch(e -> e.equals(id))) {
-                        values[i] = DISCONNECTED_VALUE;
-                    }
-                }
-                DoubleTimeSeries doubleTs = new StoredDoubleTimeSeries(
-                        new TimeSeriesMetadata(timeSeriesName + "_" + id, TimeSeriesDataType.DOUBLE, index),
-                        new UncompressedDoubleDataChunk(0, values).tryToCompress());
-                doubleTimeSeries.add(doubleTs);
-            }
+            doubleTimeSeries.addAll(new PlannedOutagesTimeSeriesBuilder(plannedOutagesTimeSeries, index).build(entry.getValue()));
         }
         return new ReadOnlyTimeSeriesStoreAggregator(new ReadOnlyTimeSeriesStoreCache(doubleTimeSeries), store);
     }
@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.commons.json.JsonUtil;
+import com.powsybl.timeseries.ast.NodeCalc;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Compact binary serialization of a {@link TimeSeriesMappingConfig}, holding the same content as its JSON
+ * serialization ({@link TimeSeriesMappingConfigJson}).
+ * <p>
+ * Strings and mapping variables are written once, then referenced by their index in the order they were first
+ * written. Calculated time series and mapping variables, which are extensible, are written as JSON.
+ */
+public final class TimeSeriesMappingConfigBinary {
+
+    private static final int MAGIC = 0x544D4342;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte NUMBER_DISTRIBUTION_KEY = 0;
+
+    private static final byte TIME_SERIES_DISTRIBUTION_KEY = 1;
+
+    private TimeSeriesMappingConfigBinary() {
+    }
+
+    public static void write(TimeSeriesMappingConfig config, Path file) {
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            write(config, os);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static TimeSeriesMappingConfig read(Path file) {
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return read(is);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void write(TimeSeriesMappingConfig config, DataOutput out) throws IOException {
+        Objects.requireNonNull(config);
+        Objects.requireNonNull(out);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        new Writer(out).write(config);
+    }
+
+    public static TimeSeriesMappingConfig read(DataInput in) throws IOException {
+        Objects.requireNonNull(in);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary time series mapping config");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported binary time series mapping config version " + version);
+        }
+        return new Reader(in).read();
+    }
+
+    private static final class Writer {
+
+        private final DataOutput out;
+
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private final Map<MappingVariable, Integer> variables = new HashMap<>();
+
+        private Writer(DataOutput out) {
+            this.out = out;
+        }
+
+        private void write(TimeSeriesMappingConfig config) throws IOException {
+            writeMappingKeyMap(config.getTimeSeriesToGeneratorsMapping());
+            writeMappingKeyMap(config.getTimeSeriesToLoadsMapping());
+            writeMappingKeyMap(config.getTimeSeriesToDanglingLinesMapping());
+            writeMappingKeyMap(config.getTimeSeriesToHvdcLinesMapping());
+            writeMappingKeyMap(config.getTimeSeriesToPhaseTapChangersMapping());
+            writeMappingKeyMap(config.getTimeSeriesToBreakersMapping());
+            writeMappingKeyMap(config.getTimeSeriesToTransformersMapping());
+            writeMappingKeyMap(config.getTimeSeriesToLinesMapping());
+            writeMappingKeyMap(config.getTimeSeriesToRatioTapChangersMapping());
+            writeMappingKeyMap(config.getTimeSeriesToLccConverterStationsMapping());
+            writeMappingKeyMap(config.getTimeSeriesToVscConverterStationsMapping());
+            writeMappingKeyMap(config.getGeneratorToTimeSeriesMapping());
+            writeMappingKeyMap(config.getLoadToTimeSeriesMapping());
+            writeMappingKeyMap(config.getDanglingLineToTimeSeriesMapping());
+            writeMappingKeyMap(config.getHvdcLineToTimeSeriesMapping());
+            writeMappingKeyMap(config.getPhaseTapChangerToTimeSeriesMapping());
+            writeMappingKeyMap(config.getBreakerToTimeSeriesMapping());
+            writeMappingKeyMap(config.getTransformerToTimeSeriesMapping());
+            writeMappingKeyMap(config.getLineToTimeSeriesMapping());
+            writeMappingKeyMap(config.getRatioTapChangerToTimeSeriesMapping());
+            writeMappingKeyMap(config.getLccConverterStationToTimeSeriesMapping());
+            writeMappingKeyMap(config.getVscConverterStationToTimeSeriesMapping());
+            writeMappingKeySet(config.getGeneratorTimeSeries());
+            writeMappingKeySet(config.getLoadTimeSeries());
+            writeMappingKeySet(config.getDanglingLineTimeSeries());
+            writeMappingKeySet(config.getHvdcLineTimeSeries());
+            writeMappingKeySet(config.getPhaseTapChangerTimeSeries());
+            writeMappingKeySet(config.getBreakerTimeSeries());
+            writeMappingKeySet(config.getTransformerTimeSeries());
+            writeMappingKeySet(config.getLineTimeSeries());
+            writeMappingKeySet(config.getRatioTapChangerTimeSeries());
+            writeMappingKeySet(config.getLccConverterStationTimeSeries());
+            writeMappingKeySet(config.getVscConverterStationTimeSeries());
+            writeStrings(config.getUnmappedGenerators());
+            writeStrings(config.getUnmappedLoads());
+            writeStrings(config.getUnmappedFixedActivePowerLoads());
+            writeStrings(config.getUnmappedVariableActivePowerLoads());
+            writeStrings(config.getUnmappedDanglingLines());
+            writeStrings(config.getUnmappedHvdcLines());
+            writeStrings(config.getUnmappedPhaseTapChangers());
+            writeStrings(config.getUnmappedMinPGenerators());
+            writeStrings(config.getUnmappedMaxPGenerators());
+            writeStrings(config.getUnmappedMinPHvdcLines());
+            writeStrings(config.getUnmappedMaxPHvdcLines());
+            writeStrings(config.getIgnoredUnmappedGenerators());
+            writeStrings(config.getIgnoredUnmappedLoads());
+            writeStrings(config.getIgnoredUnmappedDanglingLines());
+            writeStrings(config.getIgnoredUnmappedHvdcLines());
+            writeStrings(config.getIgnoredUnmappedPhaseTapChangers());
+            writeStrings(config.getDisconnectedGenerators());
+            writeStrings(config.getDisconnectedLoads());
+            writeStrings(config.getDisconnectedDanglingLines());
+            writeStrings(config.getOutOfMainCcGenerators());
+            writeStrings(config.getOutOfMainCcLoads());
+            writeStrings(config.getOutOfMainCcDanglingLines());
+            writeDistributionKeys(config.getDistributionKeys());
+            writeTimeSeriesNodes(config.getTimeSeriesNodes());
+            writeTimeSeriesToEquipment(config.getTimeSeriesToEquipment());
+            writeEquipmentToTimeSeries(config.getEquipmentToTimeSeries());
+            writeStrings(config.getMappedTimeSeriesNames());
+            writeStrings(config.getIgnoreLimitsTimeSeriesNames());
+            writeTimeSeriesToPlannedOutages(config.getTimeSeriesToPlannedOutagesMapping());
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            int remaining = value;
+            while ((remaining & ~0x7F) != 0) {
+                out.writeByte((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            out.writeByte(remaining);
+        }
+
+        private void writeText(String text) throws IOException {
+            // writeUTF is limited to 64 KB
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeString(String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarInt(index);
+            } else {
+                // a new string is referenced by the next index and directly followed by its value
+                strings.put(value, strings.size());
+                writeVarInt(strings.size() - 1);
+                writeText(value);
+            }
+        }
+
+        private void writeStrings(Collection<String> values) throws IOException {
+            writeVarInt(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        private void writeMappingKey(MappingKey key) throws IOException {
+            Integer index = variables.get(key.getMappingVariable());
+            if (index != null) {
+                writeVarInt(index);
+            } else {
+                variables.put(key.getMappingVariable(), variables.size());
+                writeVarInt(variables.size() - 1);
+                writeText(JsonUtil.toJson(generator -> MappingVariable.writeJson(key.getMappingVariable(), generator)));
+            }
+            writeString(key.getId());
+        }
+
+        private void writeMappingKeySet(Set<MappingKey> keys) throws IOException {
+            writeVarInt(keys.size());
+            for (MappingKey key : keys) {
+                writeMappingKey(key);
+            }
+        }
+
+        private void writeMappingKeyMap(Map<MappingKey, List<String>> map) throws IOException {
+            writeVarInt(map.size());
+            for (Map.Entry<MappingKey, List<String>> e : map.entrySet()) {
+                writeMappingKey(e.getKey());
+                writeStrings(e.getValue());
+            }
+        }
+
+        private void writeDistributionKeys(Map<MappingKey, DistributionKey> distributionKeys) throws IOException {
+            writeVarInt(distributionKeys.size());
+            for (Map.Entry<MappingKey, DistributionKey> e : distributionKeys.entrySet()) {
+                writeMappingKey(e.getKey());
+                DistributionKey distributionKey = e.getValue();
+                if (distributionKey instanceof NumberDistributionKey) {
+                    out.writeByte(NUMBER_DISTRIBUTION_KEY);
+                    out.writeDouble(((NumberDistributionKey) distributionKey).getValue());
+                } else if (distributionKey instanceof TimeSeriesDistributionKey) {
+                    out.writeByte(TIME_SERIES_DISTRIBUTION_KEY);
+                    writeString(((TimeSeriesDistributionKey) distributionKey).getTimeSeriesName());
+                } else {
+                    throw new IllegalStateException("Unknown distribution key type " + distributionKey.getClass().getName());
+                }
+            }
+        }
+
+        private void writeTimeSeriesNodes(Map<String, NodeCalc> timeSeriesNodes) throws IOException {
+            writeVarInt(timeSeriesNodes.size());
+            for (Map.Entry<String, NodeCalc> e : timeSeriesNodes.entrySet()) {
+                writeString(e.getKey());
+                writeText(NodeCalcJson.toJson(e.getValue()));
+            }
+        }
+
+        private void writeTimeSeriesToEquipment(Map<String, Set<MappingKey>> map) throws IOException {
+            writeVarInt(map.size());
+            for (Map.Entry<String, Set<MappingKey>> e : map.entrySet()) {
+                writeString(e.getKey());
+                writeMappingKeySet(e.getValue());
+            }
+        }
+
+        private void writeEquipmentToTimeSeries(Map<MappingKey, String> map) throws IOException {
+            writeVarInt(map.size());
+            for (Map.Entry<MappingKey, String> e : map.entrySet()) {
+                writeMappingKey(e.getKey());
+                writeString(e.getValue());
+            }
+        }
+
+        private void writeTimeSeriesToPlannedOutages(Map<String, Set<String>> map) throws IOException {
+            writeVarInt(map.size());
+            for (Map.Entry<String, Set<String>> e : map.entrySet()) {
+                writeString(e.getKey());
+                writeStrings(e.getValue());
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInput in;
+
+        private final List<String> strings = new ArrayList<>();
+
+        private final List<MappingVariable> variables = new ArrayList<>();
+
+        private Reader(DataInput in) {
+            this.in = in;
+        }
+
+        private TimeSeriesMappingConfig read() throws IOException {
+            TimeSeriesMappingConfig config = new TimeSeriesMappingConfig();
+            config.setTimeSeriesToGeneratorsMapping(readMappingKeyMap());
+            config.setTimeSeriesToLoadsMapping(readMappingKeyMap());
+            config.setTimeSeriesToDanglingLinesMapping(readMappingKeyMap());
+            config.setTimeSeriesToHvdcLinesMapping(readMappingKeyMap());
+            config.setTimeSeriesToPhaseTapChangersMapping(readMappingKeyMap());
+            config.setTimeSeriesToBreakersMapping(readMappingKeyMap());
+            config.setTimeSeriesToTransformersMapping(readMappingKeyMap());
+            config.setTimeSeriesToLinesMapping(readMappingKeyMap());
+            config.setTimeSeriesToRatioTapChangersMapping(readMappingKeyMap());
+            config.setTimeSeriesToLccConverterStationsMapping(readMappingKeyMap());
+            config.setTimeSeriesToVscConverterStationsMapping(readMappingKeyMap());
+            config.setGeneratorToTimeSeriesMapping(readMappingKeyMap());
+            config.setLoadToTimeSeriesMapping(readMappingKeyMap());
+            config.setDanglingLineToTimeSeriesMapping(readMappingKeyMap());
+            config.setHvdcLineToTimeSeriesMapping(readMappingKeyMap());
+            config.setPhaseTapChangerToTimeSeriesMapping(readMappingKeyMap());
+            config.setBreakerToTimeSeriesMapping(readMappingKeyMap());
+            config.setTransformerToTimeSeriesMapping(readMappingKeyMap());
+            config.setLineToTimeSeriesMapping(readMappingKeyMap());
+            config.setRatioTapChangerToTimeSeriesMapping(readMappingKeyMap());
+            config.setLccConverterStationToTimeSeriesMapping(readMappingKeyMap());
+            config.setVscConverterStationToTimeSeriesMapping(readMappingKeyMap());
+            config.setGeneratorTimeSeries(readMappingKeySet());
+            config.setLoadTimeSeries(readMappingKeySet());
+            config.setDanglingLineTimeSeries(readMappingKeySet());
+            config.setHvdcLineTimeSeries(readMappingKeySet());
+            config.setPhaseTapChangerTimeSeries(readMappingKeySet());
+            config.setBreakerTimeSeries(readMappingKeySet());
+            config.setTransformerTimeSeries(readMappingKeySet());
+            config.setLineTimeSeries(readMappingKeySet());
+            config.setRatioTapChangerTimeSeries(readMappingKeySet());
+            config.setLccConverterStationTimeSeries(readMappingKeySet());
+            config.setVscConverterStationTimeSeries(readMappingKeySet());
+            config.setUnmappedGenerators(readStrings());
+            config.setUnmappedLoads(readStrings());
+            config.setUnmappedFixedActivePowerLoads(readStrings());
+            config.setUnmappedVariableActivePowerLoads(readStrings());
+            config.setUnmappedDanglingLines(readStrings());
+            config.setUnmappedHvdcLines(readStrings());
+            config.setUnmappedPhaseTapChangers(readStrings());
+            config.setUnmappedMinPGenerators(readStrings());
+            config.setUnmappedMaxPGenerators(readStrings());
+            config.setUnmappedMinPHvdcLines(readStrings());
+            config.setUnmappedMaxPHvdcLines(readStrings());
+            config.setIgnoredUnmappedGenerators(readStrings());
+            config.setIgnoredUnmappedLoads(readStrings());
+            config.setIgnoredUnmappedDanglingLines(readStrings());
+            config.setIgnoredUnmappedHvdcLines(readStrings());
+            config.setIgnoredUnmappedPhaseTapChangers(readStrings());
+            config.setDisconnectedGenerators(readStrings());
+            config.setDisconnectedLoads(readStrings());
+            config.setDisconnectedDanglingLines(readStrings());
+            config.setOutOfMainCcGenerators(readStrings());
+            config.setOutOfMainCcLoads(readStrings());
+            config.setOutOfMainCcDanglingLines(readStrings());
+            config.setDistributionKeys(readDistributionKeys());
+            config.setTimeSeriesNodes(readTimeSeriesNodes());
+            config.setTimeSeriesToEquipment(readTimeSeriesToEquipment());
+            config.setEquipmentToTimeSeries(readEquipmentToTimeSeries());
+            config.setMappedTimeSeriesNames(readStrings());
+            config.setIgnoreLimitsTimeSeriesNames(readStrings());
+            config.setTimeSeriesToPlannedOutagesMapping(readTimeSeriesToPlannedOutages());
+            return config;
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable length integer");
+        }
+
+        private String readText() throws IOException {
+            byte[] bytes = new byte[readVarInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private String readString() throws IOException {
+            int index = readVarInt();
+            if (index < strings.size()) {
+                return strings.get(index);
+            }
+            if (index != strings.size()) {
+                throw new IOException("Invalid string reference " + index);
+            }
+            String value = readText();
+            strings.add(value);
+            return value;
+        }
+
+        private Set<String> readStrings() throws IOException {
+            int size = readVarInt();
+            Set<String> values = new LinkedHashSet<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        private List<String> readStringList() throws IOException {
+            int size = readVarInt();
+            List<String> values = new LinkedList<>();
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        private MappingKey readMappingKey() throws IOException {
+            int index = readVarInt();
+            MappingVariable variable;
+            if (index < variables.size()) {
+                variable = variables.get(index);
+            } else if (index == variables.size()) {
+                variable = JsonUtil.parseJson(readText(), MappingVariable::parseJson);
+                variables.add(variable);
+            } else {
+                throw new IOException("Invalid mapping variable reference " + index);
+            }
+            return new MappingKey(variable, readString());
+        }
+
+        private Set<MappingKey> readMappingKeySet() throws IOException {
+            int size = readVarInt();
+            Set<MappingKey> keys = new LinkedHashSet<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                keys.add(readMappingKey());
+            }
+            return keys;
+        }
+
+        private Map<MappingKey, List<String>> readMappingKeyMap() throws IOException {
+            int size = readVarInt();
+            Map<MappingKey, List<String>> map = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                MappingKey key = readMappingKey();
+                map.put(key, readStringList());
+            }
+            return map;
+        }
+
+        private Map<MappingKey, DistributionKey> readDistributionKeys() throws IOException {
+            int size = readVarInt();
+            Map<MappingKey, DistributionKey> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                MappingKey key = readMappingKey();
+                byte type = in.readByte();
+                if (type == NUMBER_DISTRIBUTION_KEY) {
+                    map.put(key, new NumberDistributionKey(in.readDouble()));
+                } else if (type == TIME_SERIES_DISTRIBUTION_KEY) {
+                    map.put(key, new TimeSeriesDistributionKey(readString()));
+                } else {
+                    throw new IOException("Invalid distribution key type " + type);
+                }
+            }
+            return map;
+        }
+
+        private Map<String, NodeCalc> readTimeSeriesNodes() throws IOException {
+            int size = readVarInt();
+            Map<String, NodeCalc> nodes = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                String name = readString();
+                nodes.put(name, NodeCalcJson.parseJson(readText()));
+            }
+            return nodes;
+        }
+
+        private Map<String, Set<MappingKey>> readTimeSeriesToEquipment() throws IOException {
+            int size = readVarInt();
+            Map<String, Set<MappingKey>> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                String name = readString();
+                map.put(name, readMappingKeySet());
+            }
+            return map;
+        }
+
+        private Map<MappingKey, String> readEquipmentToTimeSeries() throws IOException {
+            int size = readVarInt();
+            Map<MappingKey, String> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                MappingKey key = readMappingKey();
+                map.put(key, readString());
+            }
+            return map;
+        }
+
+        private Map<String, Set<String>> readTimeSeriesToPlannedOutages() throws IOException {
+            int size = readVarInt();
+            Map<String, Set<String>> map = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                String name = readString();
+                map.put(name, readStrings());
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.powsybl.commons.config.PlatformConfig;
+import com.powsybl.iidm.network.Identifiable;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.xml.NetworkXml;
+import com.powsybl.timeseries.ReadOnlyTimeSeriesStore;
+import com.powsybl.timeseries.TimeSeriesFilter;
+import com.powsybl.timeseries.TimeSeriesMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Cache of the mapping configurations built by mapping scripts, read from the {@code mapping-config-cache} module.
+ * <p>
+ * A configuration is stored in binary form ({@link TimeSeriesMappingConfigBinary}), with the script logs and the
+ * parameters changed by the script, under a hash of the script, the network fingerprint, the time series store
+ * metadata and the mapping parameters. Configurations depending on time series values, through statistics or planned
+ * outages, are not stored since the store metadata does not identify these values.
+ * <p>
+ * The default network fingerprint ({@link #fingerprint(Network)}) hashes the whole network XML export, so that any
+ * attribute read by the script filters is covered. Callers knowing that their networks are not modified in place may
+ * opt in for the cheaper {@link #structureFingerprint(Network)}, or supply their own fingerprint, such as a version
+ * number of the network content.
+ */
+public class TimeSeriesMappingConfigCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeSeriesMappingConfigCache.class);
+
+    /**
+     * Version of the cache entries, part of the cache keys: to be incremented whenever the entry format changes.
+     */
+    private static final int ENTRY_FORMAT_VERSION = 1;
+
+    public static Optional<TimeSeriesMappingConfigCache> load() {
+        return load(PlatformConfig.defaultConfig());
+    }
+
+    public static Optional<TimeSeriesMappingConfigCache> load(PlatformConfig platformConfig) {
+        return platformConfig.getOptionalModuleConfig("mapping-config-cache")
+                .flatMap(moduleConfig -> moduleConfig.getOptionalPathProperty("directory"))
+                .map(TimeSeriesMappingConfigCache::new);
+    }
+
+    private final Path directory;
+
+    private final Function<Network, String> networkFingerprint;
+
+    public TimeSeriesMappingConfigCache(Path directory) {
+        this(directory, TimeSeriesMappingConfigCache::fingerprint);
+    }
+
+    /**
+     * @param networkFingerprint identifies the network content the mapping scripts depend on
+     */
+    public TimeSeriesMappingConfigCache(Path directory, Function<Network, String> networkFingerprint) {
+        this.directory = Objects.requireNonNull(directory);
+        this.networkFingerprint = Objects.requireNonNull(networkFingerprint);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the configuration built by a mapping script from the cache, or build it with the given loader and store it.
+     *
+     * @param scriptName name of the mapping script
+     * @param script text of the mapping script
+     * @param dslVersion version of the mapping DSL
+     * @param out script logs writer, may be null
+     * @param loader builds the configuration, writing the script logs to the given writer
+     */
+    public TimeSeriesMappingConfig getOrLoad(String scriptName, String script, String dslVersion, Network network, MappingParameters parameters,
+                                             ReadOnlyTimeSeriesStore store, Writer out, ComputationRange computationRange,
+                                             Function<Writer, TimeSeriesMappingConfig> loader) {
+        Objects.requireNonNull(loader);
+        Path file = directory.resolve(key(scriptName, script, dslVersion, networkFingerprint.apply(network), parameters, store, out != null, computationRange) + ".bin");
+        if (Files.exists(file)) {
+            try {
+                TimeSeriesMappingConfig config = read(file, parameters, out);
+                LOGGER.debug("Mapping configuration of script {} loaded from {}", scriptName, file);
+                return config;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Cannot load cached mapping configuration {}, running the script again: {}", file, e.toString());
+            }
+        }
+
+        StringWriter logs = new StringWriter();
+        TimeSeriesMappingConfig config = loader.apply(out != null ? new TeeWriter(out, logs) : null);
+        if (config.hasTimeSeriesStats() || !config.getTimeSeriesToPlannedOutagesMapping().isEmpty()) {
+            LOGGER.info("Mapping configuration of script {} depends on time series values and is not cached", scriptName);
+            return config;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path tmpFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                write(tmpFile, config, parameters, logs.toString());
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmpFile);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot store mapping configuration {}: {}", file, e.toString());
+        }
+        return config;
+    }
+
+    private static void write(Path file, TimeSeriesMappingConfig config, MappingParameters parameters, String logs) throws IOException {
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            os.writeInt(ENTRY_FORMAT_VERSION);
+            // parameters set by the script
+            os.writeFloat(parameters.getToleranceThreshold());
+            os.writeBoolean(parameters.getWithTimeSeriesStats());
+            byte[] logBytes = logs.getBytes(StandardCharsets.UTF_8);
+            os.writeInt(logBytes.length);
+            os.write(logBytes);
+            TimeSeriesMappingConfigBinary.write(config, os);
+        }
+    }
+
+    private static TimeSeriesMappingConfig read(Path file, MappingParameters parameters, Writer out) throws IOException {
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = is.readInt();
+            if (version != ENTRY_FORMAT_VERSION) {
+                throw new IOException("Unsupported cache entry version " + version);
+            }
+            float toleranceThreshold = is.readFloat();
+            boolean withTimeSeriesStats = is.readBoolean();
+            byte[] logBytes = new byte[is.readInt()];
+            is.readFully(logBytes);
+            TimeSeriesMappingConfig config = TimeSeriesMappingConfigBinary.read(is);
+
+            // replay the script side effects only once the whole entry is read
+            parameters.setToleranceThreshold(toleranceThreshold);
+            parameters.setWithTimeSeriesStats(withTimeSeriesStats);
+            if (out != null) {
+                out.write(new String(logBytes, StandardCharsets.UTF_8));
+            }
+            return config;
+        }
+    }
+
+    /**
+     * Network content: hash of the XML export of the network working variant.
+     */
+    public static String fingerprint(Network network) {
+        Objects.requireNonNull(network);
+        Hasher hasher = Hashing.sha256().newHasher();
+        try (OutputStream os = new BufferedOutputStream(Funnels.asOutputStream(hasher))) {
+            NetworkXml.write(network, os);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Network identity and structure: id, case date, forecast distance, working variant and type and id of every
+     * identifiable. Equipment attributes are not read: only valid for networks which are not modified in place
+     * between two loads.
+     */
+    public static String structureFingerprint(Network network) {
+        Objects.requireNonNull(network);
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String part : Arrays.asList(network.getId(), network.getCaseDate().toString(), network.getVariantManager().getWorkingVariantId())) {
+            hasher.putInt(part.length()).putString(part, StandardCharsets.UTF_8);
+        }
+        hasher.putInt(network.getForecastDistance());
+        Collection<Identifiable<?>> identifiables = network.getIdentifiables();
+        hasher.putInt(identifiables.size());
+        for (Identifiable<?> identifiable : identifiables) {
+            String type = identifiable.getClass().getSimpleName();
+            hasher.putInt(type.length()).putString(type, StandardCharsets.UTF_8)
+                    .putInt(identifiable.getId().length()).putString(identifiable.getId(), StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    static String key(String scriptName, String script, String dslVersion, String networkFingerprint, MappingParameters parameters,
+                      ReadOnlyTimeSeriesStore store, boolean withLogs, ComputationRange computationRange) {
+        Objects.requireNonNull(parameters);
+        Objects.requireNonNull(store);
+        Hasher hasher = Hashing.sha256().newHasher().putInt(ENTRY_FORMAT_VERSION);
+        for (String part : Arrays.asList(dslVersion, scriptName, script, networkFingerprint)) {
+            hasher.putInt(part.length()).putString(part, StandardCharsets.UTF_8);
+        }
+        hasher.putFloat(parameters.getToleranceThreshold())
+                .putBoolean(parameters.getWithTimeSeriesStats())
+                .putBoolean(withLogs);
+        if (computationRange != null) {
+            hasher.putBoolean(true)
+                    .putString(Objects.toString(computationRange.getVersions() != null ? new TreeSet<>(computationRange.getVersions()) : null), StandardCharsets.UTF_8)
+                    .putInt(computationRange.getFirstVariant())
+                    .putInt(computationRange.getVariantCount());
+        } else {
+            hasher.putBoolean(false);
+        }
+        try (OutputStream os = new BufferedOutputStream(Funnels.asOutputStream(hasher))) {
+            putStoreMetadata(store, os);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putStoreMetadata(ReadOnlyTimeSeriesStore store, OutputStream os) throws IOException {
+        List<TimeSeriesMetadata> metadataList = new ArrayList<>(store.getTimeSeriesMetadata(store.getTimeSeriesNames(new TimeSeriesFilter())));
+        metadataList.sort(Comparator.comparing(TimeSeriesMetadata::getName));
+        try (JsonGenerator generator = new JsonFactory().createGenerator(os)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName("versions");
+            generator.writeStartArray();
+            for (int version : new TreeSet<>(store.getTimeSeriesDataVersions())) {
+                generator.writeNumber(version);
+            }
+            generator.writeEndArray();
+            generator.writeFieldName("metadata");
+            generator.writeStartArray();
+            for (TimeSeriesMetadata metadata : metadataList) {
+                metadata.writeJson(generator);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes to the script logs writer and keeps a copy of the logs, without closing the script logs writer.
+     */
+    private static final class TeeWriter extends Writer {
+
+        private final Writer out;
+
+        private final Writer copy;
+
+        private TeeWriter(Writer out, Writer copy) {
+            this.out = out;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            copy.write(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -8,7 +8,6 @@
 
 package com.powsybl.metrix.mapping;
 
-import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.powsybl.commons.io.table.AsciiTableFormatter;
 import com.powsybl.commons.io.table.Column;
@@ -18,6 +17,7 @@ import com.powsybl.iidm.network.*;
 import com.powsybl.iidm.network.extensions.HvdcOperatorActivePowerRange;
 import com.powsybl.iidm.network.extensions.LoadDetail;
 import com.powsybl.iidm.network.extensions.LoadDetailAdder;
+import com.powsybl.metrix.mapping.common.FixedDecimalFormatter;
 import com.powsybl.timeseries.ReadOnlyTimeSeriesStore;
 import com.powsybl.timeseries.TimeSeriesFilter;
 import org.apache.commons.lang3.StringUtils;
@@ -26,8 +26,6 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -41,7 +39,14 @@ public class TimeSeriesMappingConfigCsvWriter {
 
     private static final int N = 1;
 
-    private final DecimalFormat formatter = new DecimalFormat("0." + Strings.repeat("#", N), new DecimalFormatSymbols(Locale.US));
+    private final FixedDecimalFormatter formatter = new FixedDecimalFormatter(N);
+
+    private final StringBuilder formatBuffer = new StringBuilder();
+
+    // min, max and average of the mapped time series, shared by the mapping files written with the same statistics and range
+    private final Map<String, double[]> timeSeriesMinMaxAvg = new HashMap<>();
+    private TimeSeriesStats timeSeriesMinMaxAvgStats;
+    private ComputationRange timeSeriesMinMaxAvgRange;
 
     private static final String MAPPING_SYNTHESIS = "Mapping synthesis";
     private static final String VARIABLE_SYNTHESIS = "Variable synthesis";
@@ -403,8 +408,23 @@ public class TimeSeriesMappingConfigCsvWriter {
         if (Double.isNaN(value)) {
             writer.write("-");
         } else {
-            writer.write(formatDouble(value));
+            formatBuffer.setLength(0);
+            writer.append(formatter.format(value, formatBuffer));
+        }
+    }
+
+    private double[] getTimeSeriesMinMaxAvg(String timeSeriesName, ReadOnlyTimeSeriesStore store, ComputationRange computationRange) {
+        TimeSeriesStats stats = config.getTimeSeriesStats(store);
+        if (stats != timeSeriesMinMaxAvgStats || computationRange != timeSeriesMinMaxAvgRange) {
+            timeSeriesMinMaxAvg.clear();
+            timeSeriesMinMaxAvgStats = stats;
+            timeSeriesMinMaxAvgRange = computationRange;
         }
+        return timeSeriesMinMaxAvg.computeIfAbsent(timeSeriesName, name -> new double[] {
+            stats.getMin(name, computationRange),
+            stats.getMax(name, computationRange),
+            stats.getAvg(name, computationRange)
+        });
     }
 
     private void writeMultimap(BufferedWriter writer, String equipmentsLabel, MappingVariable variable, String key, Collection<String> values, ReadOnlyTimeSeriesStore store, ComputationRange computationRange, boolean withTimeSeriesStats, Map<MappingKey, Double> networkPowerMap, int nbEquipmentValues, boolean isEqToTS) {
@@ -433,11 +453,12 @@ public class TimeSeriesMappingConfigCsvWriter {
                 writer.write(CSV_SEPARATOR);
             }
             if (withTimeSeriesStats && !isEqToTS && store != null && computationRange != null) {
-                writeValue(writer, getTimeSeriesMin(key, store, computationRange));
+                double[] minMaxAvg = getTimeSeriesMinMaxAvg(key, store, computationRange);
+                writeValue(writer, minMaxAvg[0]);
                 writer.write(CSV_SEPARATOR);
-                writeValue(writer, getTimeSeriesMax(key, store, computationRange));
+                writeValue(writer, minMaxAvg[1]);
                 writer.write(CSV_SEPARATOR);
-                writeValue(writer, getTimeSeriesAvg(key, store, computationRange));
+                writeValue(writer, minMaxAvg[2]);
                 writer.write(CSV_SEPARATOR);
             }
             if (networkPowerMap != null) {
@@ -11,15 +11,10 @@ package com.powsybl.metrix.mapping;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.powsybl.commons.json.JsonUtil;
 import com.powsybl.metrix.mapping.json.JsonFieldName;
 import com.powsybl.timeseries.*;
 import com.powsybl.timeseries.ast.NodeCalc;
-import com.powsybl.timeseries.json.TimeSeriesJsonModule;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -29,15 +24,14 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Streaming JSON serialization of {@link TimeSeriesMappingConfig}. Collections are written and read token by token,
+ * and calculated time series with {@link NodeCalcJson}, without recursion, so that deep calculated time series can be
+ * read on any thread.
+ */
 public class TimeSeriesMappingConfigJson {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(TimeSeriesMappingConfig.class);
-    private static final long DESERIALIZATION_EXTENDED_MAX_STACK_SIZE = 4096000L;
-
-    private final ObjectMapper mapper = new ObjectMapper();
-
     protected final TimeSeriesMappingConfig config;
 
     public TimeSeriesMappingConfigJson(TimeSeriesMappingConfig config) {
@@ -203,7 +197,7 @@ public class TimeSeriesMappingConfigJson {
                 generator.writeFieldName(JsonFieldName.MAPPING_KEY.getFieldName());
                 MappingKey.writeJson(generator, e.getKey());
                 generator.writeFieldName(JsonFieldName.MAPPING_LIST.getFieldName());
-                mapper.writeValue(generator, e.getValue());
+                writeStrings(generator, e.getValue());
                 generator.writeEndObject();
             }
             generator.writeEndArray();
@@ -217,12 +211,20 @@ public class TimeSeriesMappingConfigJson {
         Objects.requireNonNull(mappingSet);
         try {
             generator.writeFieldName(fieldName.getFieldName());
-            mapper.writeValue(generator, mappingSet);
+            writeStrings(generator, mappingSet);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    private static void writeStrings(JsonGenerator generator, Collection<String> strings) throws IOException {
+        generator.writeStartArray();
+        for (String string : strings) {
+            generator.writeString(string);
+        }
+        generator.writeEndArray();
+    }
+
     void writeMappingKeySet(JsonGenerator generator, JsonFieldName jsonFieldName, Set<MappingKey> mappingSet) {
         Objects.requireNonNull(generator);
         Objects.requireNonNull(mappingSet);
@@ -264,18 +266,21 @@ public class TimeSeriesMappingConfigJson {
     void writeTimeSeriesNodes(JsonGenerator generator, Map<String, NodeCalc> timeSeriesNodes) {
         Objects.requireNonNull(generator);
         Objects.requireNonNull(timeSeriesNodes);
-        ObjectMapper timeSeriesMapper = JsonUtil.createObjectMapper()
-                .registerModule(new TimeSeriesJsonModule());
         try {
             generator.writeFieldName(JsonFieldName.TIME_SERIES_NODES.getFieldName());
-            timeSeriesMapper.writeValue(generator, timeSeriesNodes);
+            generator.writeStartObject();
+            for (Map.Entry<String, NodeCalc> e : timeSeriesNodes.entrySet()) {
+                generator.writeFieldName(e.getKey());
+                NodeCalcJson.writeJson(e.getValue(), generator);
+            }
+            generator.writeEndObject();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
     public static TimeSeriesMappingConfig parseJson(Reader reader) {
-        return JsonUtil.parseJson(reader, TimeSeriesMappingConfigJson::parseJsonWithExtendedThreadStackSize);
+        return JsonUtil.parseJson(reader, TimeSeriesMappingConfigJson::parseJson);
     }
 
     public static TimeSeriesMappingConfig parseJson(Path file) {
@@ -286,43 +291,34 @@ public class TimeSeriesMappingConfigJson {
         }
     }
 
-    public static TimeSeriesMappingConfig parseJsonWithExtendedThreadStackSize(JsonParser parser) {
-        AtomicReference<TimeSeriesMappingConfig> result = new AtomicReference<>(null);
-        Thread extendedStackSizeThread = new Thread(null, null, "MappingConfigDeserialization", DESERIALIZATION_EXTENDED_MAX_STACK_SIZE) {
-            @Override
-            public void run() {
-                result.set(TimeSeriesMappingConfigJson.parseJson(parser));
-            }
-        };
-        extendedStackSizeThread.start();
-        try {
-            extendedStackSizeThread.join();
-        } catch (InterruptedException e) {
-            LOGGER.error("Mapping deserialization interrupted", e);
-            extendedStackSizeThread.interrupt();
-            throw new RuntimeException(e);
-        }
-        return result.get();
-    }
-
     public static TimeSeriesMappingConfig parseJson(String json) {
-        return JsonUtil.parseJson(json, TimeSeriesMappingConfigJson::parseJsonWithExtendedThreadStackSize);
+        return JsonUtil.parseJson(json, TimeSeriesMappingConfigJson::parseJson);
     }
 
     static Set<String> parseMappingSet(JsonParser parser) {
         Objects.requireNonNull(parser);
         try {
-            JsonToken token;
-            ObjectMapper mapper = new ObjectMapper();
-            if ((token = parser.nextToken()) == JsonToken.START_ARRAY) {
-                return mapper.readValue(parser, TypeFactory.defaultInstance().constructCollectionType(Set.class, String.class));
-            }
-            throw new TimeSeriesException("Unexpected JSON token: " + token);
+            Set<String> set = new HashSet<>();
+            parseStrings(parser, set);
+            return set;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    private static void parseStrings(JsonParser parser, Collection<String> strings) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_ARRAY) {
+            throw new TimeSeriesException("Unexpected JSON token: " + token);
+        }
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_STRING) {
+                throw new TimeSeriesException("Unexpected JSON token: " + token);
+            }
+            strings.add(parser.getText());
+        }
+    }
+
     static Set<MappingKey> parseMappingKeySet(JsonParser parser) {
         Objects.requireNonNull(parser);
         try {
@@ -362,11 +358,10 @@ public class TimeSeriesMappingConfigJson {
             MappingKey mappingKey = null;
             List<String> mappingList = null;
             JsonToken token;
-            ObjectMapper mapper = new ObjectMapper();
             while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
                 switch (token) {
                     case START_OBJECT:
-                        mappingList = new LinkedList<>();
+                        mappingList = new ArrayList<>();
                         break;
                     case FIELD_NAME:
                         String fieldName = parser.getCurrentName();
@@ -375,10 +370,8 @@ public class TimeSeriesMappingConfigJson {
                                 mappingKey = MappingKey.parseJson(parser);
                                 break;
                             case MAPPING_LIST:
-                                if (parser.nextToken() == JsonToken.START_ARRAY) {
-                                    assert mappingList != null;
-                                    mappingList.addAll(mapper.readValue(parser, TypeFactory.defaultInstance().constructCollectionType(List.class, String.class)));
-                                }
+                                assert mappingList != null;
+                                parseStrings(parser, mappingList);
                                 break;
                             default:
                                 throw new IllegalStateException("Unexpected field name " + fieldName);
@@ -442,10 +435,11 @@ public class TimeSeriesMappingConfigJson {
         Objects.requireNonNull(parser);
         Map<String, NodeCalc> map = new HashMap<>();
         try {
-            ObjectMapper mapper = JsonUtil.createObjectMapper()
-                    .registerModule(new TimeSeriesJsonModule());
             if (parser.nextToken() == JsonToken.START_OBJECT) {
-                map.putAll(mapper.readValue(parser, TypeFactory.defaultInstance().constructMapType(Map.class, String.class, NodeCalc.class)));
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String timeSeriesName = parser.getCurrentName();
+                    map.put(timeSeriesName, NodeCalcJson.parseJson(parser));
+                }
             }
             return map;
         } catch (IOException e) {
@@ -602,7 +596,8 @@ public class TimeSeriesMappingConfigJson {
         TimeSeriesMappingConfig config = new TimeSeriesMappingConfig();
         try {
             JsonToken token;
-            while ((token = parser.nextToken()) != null) {
+            // stops at the end of the configuration object, the parser may be part of a larger document
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_OBJECT) {
                 if (token == JsonToken.FIELD_NAME) {
                     String fieldName = parser.getCurrentName();
                     switch (JsonFieldName.nameOf(fieldName)) {
@@ -8,16 +8,16 @@
 
 package com.powsybl.metrix.mapping;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.powsybl.commons.json.JsonUtil;
 import com.powsybl.metrix.mapping.log.*;
+import com.powsybl.timeseries.TimeSeriesIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.io.Writer;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -29,23 +29,137 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.powsybl.metrix.mapping.TimeSeriesConstants.CSV_SEPARATOR;
 
-public class TimeSeriesMappingLogger {
+/**
+ * Logs of a mapping, aggregated by level, label and equipment or time series.
+ * <p>
+ * Detailed logs are kept in memory up to a maximum count, the following ones being only aggregated, or streamed to a
+ * CSV file when a spill file is given, so that the heap does not grow with the number of mapped points. Spilled logs
+ * are also streamed as JSON lines to a temporary file, deleted on close, from which the JSON output is written.
+ */
+public class TimeSeriesMappingLogger implements Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TimeSeriesMappingLogger.class);
 
+    public static final int DEFAULT_MAX_LOG_COUNT = 1_000_000;
+
     private final List<Log> logs = new ArrayList<>();
 
+    private final int maxLogCount;
+
+    private int droppedLogCount = 0;
+
+    private final Map<GroupKey, LogGroup> groups = new LinkedHashMap<>();
+
+    private final Path spillFile;
+
+    private final BufferedWriter spillWriter;
+
+    private final TimeSeriesLoggerConfig spillConfig;
+
+    private final ZoneId spillZoneId;
+
+    private final Path jsonSpillFile;
+
+    private final BufferedWriter jsonSpillWriter;
+
+    private final ObjectMapper mapper = JsonUtil.createObjectMapper();
+
+    public TimeSeriesMappingLogger() {
+        this(DEFAULT_MAX_LOG_COUNT);
+    }
+
+    /**
+     * @param maxLogCount maximum number of detailed logs kept in memory
+     */
+    public TimeSeriesMappingLogger(int maxLogCount) {
+        if (maxLogCount < 0) {
+            throw new IllegalArgumentException("Invalid maximum log count " + maxLogCount);
+        }
+        this.maxLogCount = maxLogCount;
+        this.spillFile = null;
+        this.spillWriter = null;
+        this.spillConfig = null;
+        this.spillZoneId = null;
+        this.jsonSpillFile = null;
+        this.jsonSpillWriter = null;
+    }
+
+    /**
+     * Logger streaming the detailed logs to a CSV file, in the format of {@link #writeCsv(Path, ZoneId)}, instead of
+     * keeping them in memory.
+     */
+    public TimeSeriesMappingLogger(Path spillFile, ZoneId zoneId) {
+        this.maxLogCount = 0;
+        this.spillFile = Objects.requireNonNull(spillFile);
+        this.spillZoneId = Objects.requireNonNull(zoneId);
+        this.spillConfig = new TimeSeriesLoggerConfig(CSV_SEPARATOR, DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(zoneId));
+        try {
+            this.spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8);
+            writeHeader(spillWriter, spillConfig);
+            this.jsonSpillFile = Files.createTempFile(spillFile.toAbsolutePath().getParent(), spillFile.getFileName().toString(), ".json");
+            this.jsonSpillWriter = Files.newBufferedWriter(jsonSpillFile, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public void addLog(Log log) {
-        logs.add(log);
+        Objects.requireNonNull(log);
+        groups.computeIfAbsent(new GroupKey(log.getLevel(), log.getLabel(), log.getKey()),
+            k -> new LogGroup(log.getLevel(), log.getLabel(), log.getKey(), log.getIndex())).add(log);
+        if (spillWriter != null) {
+            try {
+                writeLog(spillWriter, spillConfig, spillZoneId, log);
+                jsonSpillWriter.write(mapper.writeValueAsString(log));
+                jsonSpillWriter.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else if (logs.size() < maxLogCount) {
+            logs.add(log);
+        } else {
+            if (droppedLogCount == 0) {
+                LOGGER.warn("More than {} mapping logs, following logs are only aggregated", maxLogCount);
+            }
+            droppedLogCount++;
+        }
+    }
+
+    /**
+     * @return the groups of logs, in the order of their first log
+     */
+    public Collection<LogGroup> getLogGroups() {
+        return Collections.unmodifiableCollection(groups.values());
+    }
+
+    /**
+     * @return the number of logs neither kept in memory nor spilled
+     */
+    public int getDroppedLogCount() {
+        return droppedLogCount;
     }
 
     public void printLogSynthesis() {
         Map<String, AtomicInteger> labelCount = new HashMap<>();
-        for (Log log : logs) {
-            AtomicInteger count = labelCount.computeIfAbsent(log.getLabel(), k -> new AtomicInteger(0));
-            count.incrementAndGet();
+        for (LogGroup group : groups.values()) {
+            AtomicInteger count = labelCount.computeIfAbsent(group.getLabel(), k -> new AtomicInteger(0));
+            count.addAndGet(group.getCount());
         }
         labelCount.forEach((label, count) -> LOGGER.error("{} {}", count, label));
+        if (droppedLogCount > 0) {
+            LOGGER.warn("{} logs after the first {} are not detailed", droppedLogCount, maxLogCount);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (spillWriter != null) {
+            try (BufferedWriter writer = spillWriter; BufferedWriter jsonWriter = jsonSpillWriter) {
+                Files.deleteIfExists(jsonSpillFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     public void writeJson(Path file) {
@@ -57,14 +171,34 @@ public class TimeSeriesMappingLogger {
     }
 
     private void writeJson(Writer writer) {
-        ObjectMapper mapper = JsonUtil.createObjectMapper();
         try {
+            if (jsonSpillWriter != null) {
+                writeSpilledJson(writer);
+                return;
+            }
             mapper.writerWithDefaultPrettyPrinter().writeValue(writer, logs);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Write the spilled logs as a JSON array, one log at a time, in the format of the logs kept in memory.
+     */
+    private void writeSpilledJson(Writer writer) throws IOException {
+        jsonSpillWriter.flush();
+        try (BufferedReader reader = Files.newBufferedReader(jsonSpillFile, StandardCharsets.UTF_8);
+             JsonGenerator generator = mapper.getFactory().createGenerator(writer)) {
+            generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            generator.writeStartArray();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                generator.writeTree(mapper.readTree(line));
+            }
+            generator.writeEndArray();
+        }
+    }
+
     public void writeCsv(Path file) {
         writeCsv(file, CSV_SEPARATOR);
     }
@@ -78,6 +212,10 @@ public class TimeSeriesMappingLogger {
     }
 
     private void writeCsv(Path file, char separator, ZoneId zoneId) {
+        if (spillFile != null && Files.exists(file) && isSpillFile(file)) {
+            flushSpill();
+            return;
+        }
         try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
             writeCsv(writer, separator, zoneId);
         } catch (IOException e) {
@@ -85,6 +223,22 @@ public class TimeSeriesMappingLogger {
         }
     }
 
+    private boolean isSpillFile(Path file) {
+        try {
+            return Files.isSameFile(file, spillFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushSpill() {
+        try {
+            spillWriter.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public void writeCsv(BufferedWriter writer) {
         writeCsv(writer, CSV_SEPARATOR);
     }
@@ -97,47 +251,149 @@ public class TimeSeriesMappingLogger {
         writeCsv(writer, CSV_SEPARATOR, zoneId);
     }
 
+    /**
+     * Write the detailed logs, the logs of a spill file being copied as they are, with the zone of the spill file.
+     */
     private void writeCsv(BufferedWriter writer, char separator, ZoneId zoneId) {
         try {
+            if (spillWriter != null) {
+                spillWriter.flush();
+                try (BufferedReader reader = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+                    reader.transferTo(writer);
+                }
+                return;
+            }
             TimeSeriesLoggerConfig config = new TimeSeriesLoggerConfig(separator, DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(zoneId));
-            writer.write("Type");
-            writer.write(config.separator);
-            writer.write("Label");
-            writer.write(config.separator);
-            writer.write("Time");
-            writer.write(config.separator);
-            writer.write("Variant");
-            writer.write(config.separator);
-            writer.write("Version");
-            writer.write(config.separator);
-            writer.write("Message");
-            writer.newLine();
+            writeHeader(writer, config);
             for (Log log : logs) {
-                int point = log.getPoint();
-                String pointLabel = "";
-                String dateLabel = "";
-                if (point == TimeSeriesMapper.CONSTANT_VARIANT_ID) {
-                    pointLabel = "all";
-                } else if (point != Integer.MAX_VALUE) {
-                    pointLabel = Integer.toString(point + 1);
-                    ZonedDateTime dateTime = ZonedDateTime.ofInstant(log.getIndex().getInstantAt(point), zoneId);
-                    dateLabel = dateTime.format(config.dateTimeFormatter);
-                }
-                writer.write(log.getLevel().name());
+                writeLog(writer, config, zoneId, log);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeHeader(BufferedWriter writer, TimeSeriesLoggerConfig config) throws IOException {
+        writer.write("Type");
+        writer.write(config.separator);
+        writer.write("Label");
+        writer.write(config.separator);
+        writer.write("Time");
+        writer.write(config.separator);
+        writer.write("Variant");
+        writer.write(config.separator);
+        writer.write("Version");
+        writer.write(config.separator);
+        writer.write("Message");
+        writer.newLine();
+    }
+
+    private static String getPointLabel(int point) {
+        if (point == TimeSeriesMapper.CONSTANT_VARIANT_ID) {
+            return "all";
+        } else if (point != Integer.MAX_VALUE) {
+            return Integer.toString(point + 1);
+        }
+        return "";
+    }
+
+    private static String getDateLabel(TimeSeriesIndex index, int point, TimeSeriesLoggerConfig config, ZoneId zoneId) {
+        if (point == TimeSeriesMapper.CONSTANT_VARIANT_ID || point == Integer.MAX_VALUE) {
+            return "";
+        }
+        ZonedDateTime dateTime = ZonedDateTime.ofInstant(index.getInstantAt(point), zoneId);
+        return dateTime.format(config.dateTimeFormatter);
+    }
+
+    private static void writeLog(BufferedWriter writer, TimeSeriesLoggerConfig config, ZoneId zoneId, Log log) throws IOException {
+        int point = log.getPoint();
+        writer.write(log.getLevel().name());
+        writer.write(config.separator);
+        writer.write(log.getLabel());
+        writer.write(config.separator);
+        writer.write(getDateLabel(log.getIndex(), point, config, zoneId));
+        writer.write(config.separator);
+        writer.write(getPointLabel(point));
+        writer.write(config.separator);
+        writer.write(Integer.toString(log.getVersion()));
+        writer.write(config.separator);
+        writer.write(log.getMessage());
+        writer.newLine();
+    }
+
+    public void writeSynthesisCsv(Path file, ZoneId zoneId) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeSynthesisCsv(writer, zoneId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the groups of logs, with their count and their first and last points.
+     */
+    public void writeSynthesisCsv(BufferedWriter writer, ZoneId zoneId) {
+        TimeSeriesLoggerConfig config = new TimeSeriesLoggerConfig(CSV_SEPARATOR, DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(zoneId));
+        try {
+            writer.write(String.join(String.valueOf(config.separator), "Type", "Label", "Key", "Count",
+                "First time", "First variant", "First version", "Last time", "Last variant", "Last version"));
+            writer.newLine();
+            for (LogGroup group : groups.values()) {
+                writer.write(group.getLevel().name());
+                writer.write(config.separator);
+                writer.write(group.getLabel());
+                writer.write(config.separator);
+                writer.write(Objects.toString(group.getKey(), ""));
                 writer.write(config.separator);
-                writer.write(log.getLabel());
+                writer.write(Integer.toString(group.getCount()));
                 writer.write(config.separator);
-                writer.write(dateLabel);
+                writer.write(getDateLabel(group.getIndex(), group.getFirstPoint(), config, zoneId));
                 writer.write(config.separator);
-                writer.write(pointLabel);
+                writer.write(getPointLabel(group.getFirstPoint()));
                 writer.write(config.separator);
-                writer.write(Integer.toString(log.getVersion()));
+                writer.write(Integer.toString(group.getFirstVersion()));
                 writer.write(config.separator);
-                writer.write(log.getMessage());
+                writer.write(getDateLabel(group.getIndex(), group.getLastPoint(), config, zoneId));
+                writer.write(config.separator);
+                writer.write(getPointLabel(group.getLastPoint()));
+                writer.write(config.separator);
+                writer.write(Integer.toString(group.getLastVersion()));
                 writer.newLine();
             }
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
+
+    private static final class GroupKey {
+
+        private final System.Logger.Level level;
+
+        private final String label;
+
+        private final String key;
+
+        private GroupKey(System.Logger.Level level, String label, String key) {
+            this.level = level;
+            this.label = label;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey other = (GroupKey) obj;
+            return level == other.level && Objects.equals(label, other.label) && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, label, key);
+        }
+    }
 }
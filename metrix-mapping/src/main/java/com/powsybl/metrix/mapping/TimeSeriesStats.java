@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.timeseries.ReadOnlyTimeSeriesStore;
+import com.powsybl.timeseries.ast.NodeCalc;
+import com.powsybl.timeseries.ast.TimeSeriesNameNodeCalc;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistics (min, max, average, sum and median) of time series of a store, over a computation range.
+ * <p>
+ * The statistics of a time series version are computed in a single pass, the median using a selection
+ * algorithm instead of a sort, and cached per (time series, version, variant range). As the store is
+ * read only and the range is part of the key, the cache never has to be invalidated: a new instance has
+ * to be created for another store.
+ * <p>
+ * Results are identical to the ones of the {@link java.util.stream.DoubleStream} based computation:
+ * min and max propagate NaN, the average over several versions is the average of the version averages,
+ * and the median is the upper median of the values of all the versions.
+ */
+public class TimeSeriesStats {
+
+    private static final class Key {
+
+        private final NodeCalc nodeCalc;
+        private final Set<Integer> versions;
+        private final int firstVariant;
+        private final int variantCount;
+
+        private Key(NodeCalc nodeCalc, Set<Integer> versions, int firstVariant, int variantCount) {
+            this.nodeCalc = nodeCalc;
+            this.versions = versions;
+            this.firstVariant = firstVariant;
+            this.variantCount = variantCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nodeCalc, versions, firstVariant, variantCount);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return nodeCalc.equals(other.nodeCalc)
+                        && versions.equals(other.versions)
+                        && firstVariant == other.firstVariant
+                        && variantCount == other.variantCount;
+            }
+            return false;
+        }
+    }
+
+    private static final class VersionStats {
+
+        private final DoubleSummaryStatistics summary;
+        private final double median;
+
+        private VersionStats(DoubleSummaryStatistics summary, double median) {
+            this.summary = summary;
+            this.median = median;
+        }
+
+        private double getMin() {
+            return summary.getCount() > 0 ? summary.getMin() : Double.NaN;
+        }
+
+        private double getMax() {
+            return summary.getCount() > 0 ? summary.getMax() : Double.NaN;
+        }
+
+        private double getAverage() {
+            return summary.getCount() > 0 ? summary.getAverage() : Double.NaN;
+        }
+    }
+
+    private final ReadOnlyTimeSeriesStore store;
+
+    private final Map<Key, VersionStats> versionStats = new ConcurrentHashMap<>();
+
+    private final Map<Key, Double> medians = new ConcurrentHashMap<>();
+
+    public TimeSeriesStats(ReadOnlyTimeSeriesStore store) {
+        this.store = Objects.requireNonNull(store);
+    }
+
+    public ReadOnlyTimeSeriesStore getStore() {
+        return store;
+    }
+
+    private double[] getValues(NodeCalc nodeCalc, int version) {
+        return TimeSeriesMappingConfig.createCalculatedTimeSeries(nodeCalc, version, store).toArray();
+    }
+
+    private static int getFrom(double[] values, ComputationRange computationRange) {
+        return Math.min(computationRange.getFirstVariant(), values.length);
+    }
+
+    private static int getTo(double[] values, int from, ComputationRange computationRange) {
+        return (int) Math.max(from, Math.min((long) from + computationRange.getVariantCount(), values.length));
+    }
+
+    private VersionStats computeVersionStats(NodeCalc nodeCalc, int version, ComputationRange computationRange) {
+        double[] values = getValues(nodeCalc, version);
+        int from = getFrom(values, computationRange);
+        int to = getTo(values, from, computationRange);
+        DoubleSummaryStatistics summary = new DoubleSummaryStatistics();
+        for (int i = from; i < to; i++) {
+            summary.accept(values[i]);
+        }
+        // values is a private copy: it can be reordered
+        double median = to > from ? select(values, from, to, from + (to - from) / 2) : Double.NaN;
+        return new VersionStats(summary, median);
+    }
+
+    private VersionStats getVersionStats(NodeCalc nodeCalc, int version, ComputationRange computationRange) {
+        Key key = new Key(nodeCalc, Collections.singleton(version), computationRange.getFirstVariant(), computationRange.getVariantCount());
+        VersionStats stats = versionStats.get(key);
+        if (stats == null) {
+            stats = computeVersionStats(nodeCalc, version, computationRange);
+            VersionStats previous = versionStats.putIfAbsent(key, stats);
+            if (previous != null) {
+                stats = previous;
+            }
+        }
+        return stats;
+    }
+
+    public double getMin(NodeCalc nodeCalc, ComputationRange computationRange) {
+        return computationRange.getVersions().stream()
+                .mapToDouble(version -> getVersionStats(nodeCalc, version, computationRange).getMin())
+                .min()
+                .orElse(Double.NaN);
+    }
+
+    public double getMax(NodeCalc nodeCalc, ComputationRange computationRange) {
+        return computationRange.getVersions().stream()
+                .mapToDouble(version -> getVersionStats(nodeCalc, version, computationRange).getMax())
+                .max()
+                .orElse(Double.NaN);
+    }
+
+    public double getAvg(NodeCalc nodeCalc, ComputationRange computationRange) {
+        return computationRange.getVersions().stream()
+                .mapToDouble(version -> getVersionStats(nodeCalc, version, computationRange).getAverage())
+                .average()
+                .orElse(Double.NaN);
+    }
+
+    public double getSum(NodeCalc nodeCalc, ComputationRange computationRange) {
+        return computationRange.getVersions().stream()
+                .mapToDouble(version -> getVersionStats(nodeCalc, version, computationRange).summary.getSum())
+                .sum();
+    }
+
+    public double getMedian(NodeCalc nodeCalc, ComputationRange computationRange) {
+        Set<Integer> versions = computationRange.getVersions();
+        if (versions.size() == 1) {
+            return getVersionStats(nodeCalc, versions.iterator().next(), computationRange).median;
+        }
+        Key key = new Key(nodeCalc, new HashSet<>(versions), computationRange.getFirstVariant(), computationRange.getVariantCount());
+        return medians.computeIfAbsent(key, k -> computeMedian(nodeCalc, computationRange));
+    }
+
+    private double computeMedian(NodeCalc nodeCalc, ComputationRange computationRange) {
+        double[] allValues = new double[0];
+        int size = 0;
+        for (int version : computationRange.getVersions()) {
+            double[] values = getValues(nodeCalc, version);
+            int from = getFrom(values, computationRange);
+            int to = getTo(values, from, computationRange);
+            if (size + to - from > allValues.length) {
+                allValues = Arrays.copyOf(allValues, Math.max(size + to - from, 2 * allValues.length));
+            }
+            System.arraycopy(values, from, allValues, size, to - from);
+            size += to - from;
+        }
+        return size > 0 ? select(allValues, 0, size, size / 2) : Double.NaN;
+    }
+
+    public double getMin(String timeSeriesName, ComputationRange computationRange) {
+        return getMin(new TimeSeriesNameNodeCalc(timeSeriesName), computationRange);
+    }
+
+    public double getMax(String timeSeriesName, ComputationRange computationRange) {
+        return getMax(new TimeSeriesNameNodeCalc(timeSeriesName), computationRange);
+    }
+
+    public double getAvg(String timeSeriesName, ComputationRange computationRange) {
+        return getAvg(new TimeSeriesNameNodeCalc(timeSeriesName), computationRange);
+    }
+
+    public double getSum(String timeSeriesName, ComputationRange computationRange) {
+        return getSum(new TimeSeriesNameNodeCalc(timeSeriesName), computationRange);
+    }
+
+    public double getMedian(String timeSeriesName, ComputationRange computationRange) {
+        return getMedian(new TimeSeriesNameNodeCalc(timeSeriesName), computationRange);
+    }
+
+    /**
+     * Reorder values[from, to[ so that values[k] is the value which would be at index k if the range was sorted
+     * with {@link Arrays#sort(double[])}, and return it.
+     */
+    static double select(double[] values, int from, int to, int k) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            double pivot = values[lo + (hi - lo) / 2];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (Double.compare(values[i], pivot) < 0) {
+                    i++;
+                }
+                while (Double.compare(values[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    double tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+}
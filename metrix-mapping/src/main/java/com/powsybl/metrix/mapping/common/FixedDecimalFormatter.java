@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping.common;
+
+import com.google.common.base.Strings;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.FieldPosition;
+import java.util.Locale;
+
+/**
+ * Allocation-free equivalent of {@code new DecimalFormat("0.##…#", new DecimalFormatSymbols(Locale.US))}.
+ * <p>
+ * Values are rendered with at most {@code fractionDigits} fraction digits, half-even rounding and no grouping.
+ * The rare values that cannot be rounded exactly with double arithmetic (ties, huge values, NaN, infinities)
+ * are delegated to a {@link DecimalFormat}, so that the output is always identical to the one of the JDK formatter.
+ * <p>
+ * Like {@link DecimalFormat}, instances are not thread safe.
+ */
+public final class FixedDecimalFormatter {
+
+    private static final int MAX_FRACTION_DIGITS = 9;
+
+    /**
+     * Above this value, the scaled value may not fit the 53 bits mantissa of a double anymore.
+     */
+    private static final double MAX_FAST_VALUE = 1e12;
+
+    /**
+     * Relative error bound of the scaling multiplication, with a comfortable margin (exact bound is 2^-53).
+     */
+    private static final double TIE_TOLERANCE = 0x1p-50;
+
+    private final int fractionDigits;
+
+    private final long scale;
+
+    private final DecimalFormat fallback;
+
+    private final StringBuffer fallbackBuffer = new StringBuffer();
+
+    private final FieldPosition fieldPosition = new FieldPosition(0);
+
+    public FixedDecimalFormatter(int fractionDigits) {
+        if (fractionDigits < 0 || fractionDigits > MAX_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("Fraction digits must be in [0, " + MAX_FRACTION_DIGITS + "]: " + fractionDigits);
+        }
+        this.fractionDigits = fractionDigits;
+        long s = 1;
+        for (int i = 0; i < fractionDigits; i++) {
+            s *= 10;
+        }
+        this.scale = s;
+        String pattern = fractionDigits == 0 ? "0" : "0." + Strings.repeat("#", fractionDigits);
+        this.fallback = new DecimalFormat(pattern, new DecimalFormatSymbols(Locale.US));
+    }
+
+    public int getFractionDigits() {
+        return fractionDigits;
+    }
+
+    public String format(double value) {
+        return format(value, new StringBuilder()).toString();
+    }
+
+    /**
+     * Append the formatted value to the given builder.
+     */
+    public StringBuilder format(double value, StringBuilder out) {
+        double abs = Math.abs(value);
+        if (!(abs < MAX_FAST_VALUE)) {
+            return formatWithFallback(value, out);
+        }
+        double scaled = abs * scale;
+        double floor = Math.floor(scaled);
+        double diff = scaled - floor - 0.5;
+        if (Math.abs(diff) <= scaled * TIE_TOLERANCE) {
+            // too close to a tie to decide with double arithmetic
+            return formatWithFallback(value, out);
+        }
+        long units = (long) floor + (diff > 0 ? 1 : 0);
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            out.append('-');
+        }
+        out.append(units / scale);
+        long fraction = units % scale;
+        if (fraction != 0) {
+            int digits = fractionDigits;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            out.append('.');
+            long divisor = 1;
+            for (int i = 1; i < digits; i++) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                out.append((char) ('0' + fraction / divisor % 10));
+            }
+        }
+        return out;
+    }
+
+    private StringBuilder formatWithFallback(double value, StringBuilder out) {
+        fallbackBuffer.setLength(0);
+        fallback.format(value, fallbackBuffer, fieldPosition);
+        return out.append(fallbackBuffer);
+    }
+}
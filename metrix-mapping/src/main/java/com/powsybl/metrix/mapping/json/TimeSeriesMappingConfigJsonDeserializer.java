@@ -24,7 +24,7 @@ public class TimeSeriesMappingConfigJsonDeserializer extends StdDeserializer<Tim
     @Override
     public TimeSeriesMappingConfig deserialize(JsonParser parser, DeserializationContext deserializationContext) {
         Objects.requireNonNull(parser);
-        return TimeSeriesMappingConfigJson.parseJsonWithExtendedThreadStackSize(parser);
+        return TimeSeriesMappingConfigJson.parseJson(parser);
     }
 
 }
@@ -25,6 +25,7 @@ public class EmptyFilter implements LogDescriptionBuilder {
 
     public LogContent build() {
         LogContent log = new LogContent();
+        log.key = timeSeriesName;
         log.message = String.format("Impossible to scale down %s of ts %s to empty equipment list",
                 formatDouble(timeSeriesValue), timeSeriesName);
         log.label = "empty filter error";
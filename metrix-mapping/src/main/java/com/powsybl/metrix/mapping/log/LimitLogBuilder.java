@@ -54,6 +54,7 @@ public class LimitLogBuilder implements LogDescriptionBuilder {
 
     public LogContent build() {
         LogContent log = new LogContent();
+        log.key = id;
         log.label = LIMIT_CHANGE + variableToChange;
         log.message = String.format("%s of %s%s%s for %s variants, %s%s%s to %s", variableToChange, id, comparision,
                 variable, nbViolation, variableToChange, evolution, formatDouble(oldValue), formatDouble(newValue));
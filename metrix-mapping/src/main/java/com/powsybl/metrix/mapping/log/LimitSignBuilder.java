@@ -48,6 +48,7 @@ public class LimitSignBuilder implements LogDescriptionBuilder {
 
     public LogContent build() {
         LogContent log = new LogContent();
+        log.key = timeSeriesName;
         log.label = MAPPING_SIGN_PROBLEM;
         log.message = String.format("Impossible to map %s %s of ts %s%s%s value", variable, formatDouble(timeSeriesValue),
                 timeSeriesName, sign, variable);
@@ -23,13 +23,20 @@ public class Log {
 
     private final String message;
 
+    private final String key;
+
     public Log(System.Logger.Level level, TimeSeriesIndex index, int version, int point, String label, String message) {
+        this(level, index, version, point, label, message, null);
+    }
+
+    public Log(System.Logger.Level level, TimeSeriesIndex index, int version, int point, String label, String message, String key) {
         this.level = level;
         this.index = index;
         this.version = version;
         this.point = point;
         this.label = label;
         this.message = message;
+        this.key = key;
     }
 
     public final TimeSeriesIndex getIndex() {
@@ -55,5 +62,11 @@ public class Log {
     public final String getMessage() {
         return message;
     }
-}
 
+    /**
+     * @return the equipment or time series the log is about, null if unknown
+     */
+    public final String getKey() {
+        return key;
+    }
+}
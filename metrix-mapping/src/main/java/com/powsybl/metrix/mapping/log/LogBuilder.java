@@ -22,9 +22,12 @@ public class LogBuilder {
 
     private String label;
 
+    private String key;
+
     public LogBuilder logDescription(LogContent log) {
         this.message = log.message;
         this.label = log.label;
+        this.key = log.key;
         return this;
     }
 
@@ -49,6 +52,6 @@ public class LogBuilder {
     }
 
     public Log build() {
-        return new Log(level, index, version, point, label, message);
+        return new Log(level, index, version, point, label, message, key);
     }
 }
@@ -10,4 +10,8 @@ package com.powsybl.metrix.mapping.log;
 public class LogContent {
     String message;
     String label;
+    /**
+     * Equipment or time series the log is about.
+     */
+    String key;
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package com.powsybl.metrix.mapping.log;
+
+import com.powsybl.timeseries.TimeSeriesIndex;
+
+import java.util.Objects;
+
+/**
+ * Logs of a same level and label about a same equipment or time series, with their count and the first and last
+ * logged points.
+ */
+public class LogGroup {
+
+    private final System.Logger.Level level;
+
+    private final String label;
+
+    private final String key;
+
+    private final TimeSeriesIndex index;
+
+    private int count = 0;
+
+    private int firstVersion;
+
+    private int firstPoint;
+
+    private int lastVersion;
+
+    private int lastPoint;
+
+    public LogGroup(System.Logger.Level level, String label, String key, TimeSeriesIndex index) {
+        this.level = level;
+        this.label = label;
+        this.key = key;
+        this.index = index;
+    }
+
+    public void add(Log log) {
+        Objects.requireNonNull(log);
+        if (count == 0) {
+            firstVersion = log.getVersion();
+            firstPoint = log.getPoint();
+        }
+        lastVersion = log.getVersion();
+        lastPoint = log.getPoint();
+        count++;
+    }
+
+    public System.Logger.Level getLevel() {
+        return level;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return the equipment or time series of the logs, null if unknown
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public TimeSeriesIndex getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getFirstVersion() {
+        return firstVersion;
+    }
+
+    public int getFirstPoint() {
+        return firstPoint;
+    }
+
+    public int getLastVersion() {
+        return lastVersion;
+    }
+
+    public int getLastPoint() {
+        return lastPoint;
+    }
+}
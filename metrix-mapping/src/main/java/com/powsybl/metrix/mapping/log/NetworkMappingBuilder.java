@@ -25,6 +25,7 @@ public class NetworkMappingBuilder implements LogDescriptionBuilder {
 
     public LogContent build() {
         LogContent log = new LogContent();
+        log.key = id;
         log.message = String.format("Network update not applied : %s of item %s",
                 notificationTypeName, id);
         log.label = "network update";
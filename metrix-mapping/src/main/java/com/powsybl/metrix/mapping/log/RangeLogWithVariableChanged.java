@@ -89,6 +89,7 @@ public class RangeLogWithVariableChanged implements LogDescriptionBuilder {
 
     public LogContent build() {
         LogContent log = new LogContent();
+        log.key = id;
         log.label = String.format("%s%s changed to %s%s%s", problemDescription, oldValue, toVariable.isEmpty() ? "0" : actionDescription,
                 toVariable, disabled ? IGNORE_LIMITS_DISABLED : "");
         log.message = String.format("%s %s of %s not included in %s to %s, %s changed to %s", notIncludedVariable,
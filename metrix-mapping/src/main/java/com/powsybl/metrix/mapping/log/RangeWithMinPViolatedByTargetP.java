@@ -59,6 +59,7 @@ public class RangeWithMinPViolatedByTargetP implements LogDescriptionBuilder {
 
     public LogContent build() {
         LogContent log = new LogContent();
+        log.key = id;
         log.message = String.format("%s %s of %s not included in %s to %s, but %s has not been changed",
                 notIncludedVariable, value, id, minValue, maxValue, notIncludedVariable);
         log.label = String.format("%s%s minP violated by %s targetP", problem, type, type);
@@ -65,6 +65,7 @@ public class ScalingDownChangeToVariable implements LogDescriptionBuilder {
 
     public LogContent build() {
         LogContent log = new LogContent();
+        log.key = timeSeriesName;
         log.label = String.format("%sat least one %s changed to %s%s%s%s", SCALING_DOWN_PROBLEM, changedVariable,
                 type, toVariable, disabled ? IGNORE_LIMITS_DISABLED : "", synthesis ? TS_SYNTHESIS : "");
         log.message = String.format("Impossible to scale down %s of ts %s%s%s%s has been applied", timeSeriesValue, timeSeriesName,
@@ -52,6 +52,7 @@ public class ScalingDownLimitChangeSynthesis implements LogDescriptionBuilder {
 
     public LogContent buildLimitChange() {
         LogContent log = new LogContent();
+        log.key = timeSeriesName;
         log.label = String.format("%sat least one %s%s%s", SCALING_DOWN_PROBLEM, violatedVariable, evolution, TS_SYNTHESIS);
         log.message = String.format("%s violated by %s in scaling down of at least one value of ts %s, %s has been%s for equipments",
                 violatedVariable, variable, timeSeriesName, violatedVariable, evolution);
@@ -60,6 +61,7 @@ public class ScalingDownLimitChangeSynthesis implements LogDescriptionBuilder {
 
     public LogContent buildNotModified() {
         LogContent log = new LogContent();
+        log.key = timeSeriesName;
         log.label = String.format("%s%s minP violated by mapped targetP%s", SCALING_DOWN_PROBLEM, type, TS_SYNTHESIS);
         log.message = String.format("Impossible to scale down at least one value of ts %s, but aimed targetP of equipments have been applied",
                 timeSeriesName);
@@ -27,6 +27,7 @@ public class ZeroDistributionKeyInfo implements LogDescriptionBuilder {
 
     public LogContent build() {
         LogContent log = new LogContent();
+        log.key = timeSeriesName;
         log.label = "zero distribution key warning";
         log.message = String.format("Distribution key are all equal to zero in scaling down %s of ts %s on equipments %s -> uniform distribution",
                 formatDouble(timeSeriesValue), timeSeriesName, equipmentIds);
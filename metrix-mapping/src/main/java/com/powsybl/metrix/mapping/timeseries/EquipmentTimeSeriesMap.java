@@ -13,21 +13,120 @@ import com.powsybl.metrix.mapping.*;
 import com.powsybl.timeseries.TimeSeriesTable;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
-import static com.powsybl.metrix.mapping.TimeSeriesMapper.indexMappingKey;
-
+/**
+ * Time series mapped to equipments, in the order of the mapping configuration.
+ * <p>
+ * Mappings are stored in slots, found from the index of their key in the {@link MappingKeyTable} of the configuration,
+ * so that neither the mapping of a point nor the split of the mappings in constant and variable ones hash the keys.
+ */
 public class EquipmentTimeSeriesMap {
-    private final Map<IndexedMappingKey, List<MappedEquipment>> equimentTimeSeries = new LinkedHashMap<>();
+
+    private final List<IndexedMappingKey> keys = new ArrayList<>();
+
+    private final List<List<MappedEquipment>> mappedEquipments = new ArrayList<>();
+
+    // slot + 1 of the mappings by key index, 0 if the key is not mapped
+    private int[] slots = new int[0];
+
+    private final Map<IndexedMappingKey, List<MappedEquipment>> equipmentTimeSeries = new AbstractMap<IndexedMappingKey, List<MappedEquipment>>() {
+
+        @Override
+        public List<MappedEquipment> get(Object key) {
+            int slot = key instanceof IndexedMappingKey ? findSlot((IndexedMappingKey) key) : -1;
+            return slot >= 0 && keys.get(slot).equals(key) ? mappedEquipments.get(slot) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public List<MappedEquipment> put(IndexedMappingKey key, List<MappedEquipment> value) {
+            List<MappedEquipment> previous = get(key);
+            addMappedEquipmentTimeSeries(key, value);
+            return previous;
+        }
+
+        @Override
+        public List<MappedEquipment> remove(Object key) {
+            List<MappedEquipment> previous = get(key);
+            if (previous != null) {
+                removeSlot(findSlot((IndexedMappingKey) key));
+            }
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            EquipmentTimeSeriesMap.this.clear();
+        }
+
+        @Override
+        public Set<Entry<IndexedMappingKey, List<MappedEquipment>>> entrySet() {
+            return new AbstractSet<Entry<IndexedMappingKey, List<MappedEquipment>>>() {
+
+                @Override
+                public Iterator<Entry<IndexedMappingKey, List<MappedEquipment>>> iterator() {
+                    return new Iterator<Entry<IndexedMappingKey, List<MappedEquipment>>>() {
+
+                        private int slot = 0;
+
+                        private boolean removable = false;
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < keys.size();
+                        }
+
+                        @Override
+                        public Entry<IndexedMappingKey, List<MappedEquipment>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int entrySlot = slot++;
+                            removable = true;
+                            return new SimpleEntry<IndexedMappingKey, List<MappedEquipment>>(keys.get(entrySlot), mappedEquipments.get(entrySlot)) {
+                                @Override
+                                public List<MappedEquipment> setValue(List<MappedEquipment> value) {
+                                    addMappedEquipmentTimeSeries(getKey(), value);
+                                    return super.setValue(value);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (!removable) {
+                                throw new IllegalStateException();
+                            }
+                            removeSlot(--slot);
+                            removable = false;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.size();
+                }
+            };
+        }
+    };
 
     public void init(EquipmentTimeSeriesMap map) {
-        equimentTimeSeries.putAll(map.equimentTimeSeries);
+        map.forEach(this::addMappedEquipmentTimeSeries);
     }
 
     public void convertToEquipmentTimeSeriesMap(Map<MappingKey, List<String>> timeSerieMap, TimeSeriesTable table, Network network, TimeSeriesMappingConfig config) {
-        equimentTimeSeries.clear();
-        timeSerieMap.entrySet().stream().forEach(timeSeries -> equimentTimeSeries
-                .put(indexMappingKey(table, timeSeries.getKey()), mapEquipments(timeSeries.getKey(), timeSeries.getValue(), network, config)));
+        clear();
+        MappingKeyTable keyTable = config.getMappingKeyTable();
+        timeSerieMap.forEach((key, equipmentIds) -> addMappedEquipmentTimeSeries(
+                new IndexedMappingKey(key, table.getDoubleTimeSeriesIndex(key.getId()), keyTable.getIndex(key)),
+                mapEquipments(key, equipmentIds, network, config)));
     }
 
     public List<MappedEquipment> mapEquipments(MappingKey key, List<String> equipmentIds, Network network, TimeSeriesMappingConfig config) {
@@ -47,20 +146,84 @@ public class EquipmentTimeSeriesMap {
         return identifiable;
     }
 
+    private int findSlot(IndexedMappingKey indexedMappingKey) {
+        int keyIndex = indexedMappingKey.getKeyIndex();
+        if (keyIndex >= 0) {
+            return keyIndex < slots.length ? slots[keyIndex] - 1 : -1;
+        }
+        return keys.indexOf(indexedMappingKey);
+    }
+
+    private void addSlot(IndexedMappingKey indexedMappingKey, List<MappedEquipment> mappedEquipmentsTimeSeries) {
+        int keyIndex = indexedMappingKey.getKeyIndex();
+        if (keyIndex >= 0) {
+            if (keyIndex >= slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(keyIndex + 1, 2 * slots.length));
+            }
+            slots[keyIndex] = keys.size() + 1;
+        }
+        keys.add(indexedMappingKey);
+        mappedEquipments.add(mappedEquipmentsTimeSeries);
+    }
+
+    private void removeSlot(int slot) {
+        keys.remove(slot);
+        mappedEquipments.remove(slot);
+        Arrays.fill(slots, 0);
+        for (int i = 0; i < keys.size(); i++) {
+            int keyIndex = keys.get(i).getKeyIndex();
+            if (keyIndex >= 0) {
+                slots[keyIndex] = i + 1;
+            }
+        }
+    }
+
     public void addMappedEquipmentTimeSeries(IndexedMappingKey indexedMappingKey,
                                             List<MappedEquipment> mappedEquipmentsTimeSeries) {
-        equimentTimeSeries.put(indexedMappingKey, mappedEquipmentsTimeSeries);
+        int slot = findSlot(indexedMappingKey);
+        if (slot >= 0 && keys.get(slot).equals(indexedMappingKey)) {
+            mappedEquipments.set(slot, mappedEquipmentsTimeSeries);
+        } else {
+            addSlot(indexedMappingKey, mappedEquipmentsTimeSeries);
+        }
+    }
+
+    public void forEach(BiConsumer<IndexedMappingKey, List<MappedEquipment>> consumer) {
+        for (int i = 0; i < keys.size(); i++) {
+            consumer.accept(keys.get(i), mappedEquipments.get(i));
+        }
     }
 
+    /**
+     * View of the mappings, in insertion order, reflecting the later changes of this map. Changes of the view are
+     * written through to this map.
+     */
     public Map<IndexedMappingKey, List<MappedEquipment>> getEquipmentTimeSeries() {
-        return equimentTimeSeries;
+        return equipmentTimeSeries;
+    }
+
+    public int size() {
+        return keys.size();
     }
 
     public boolean isEmpty() {
-        return equimentTimeSeries.isEmpty();
+        return keys.isEmpty();
+    }
+
+    private void clear() {
+        keys.clear();
+        mappedEquipments.clear();
+        Arrays.fill(slots, 0);
     }
 
     public void computeIfAbsent(IndexedMappingKey indexedMappingKey, MappedEquipment mappedEquipment) {
-        equimentTimeSeries.computeIfAbsent(indexedMappingKey, i -> new ArrayList<>()).add(mappedEquipment);
+        int slot = findSlot(indexedMappingKey);
+        if (slot >= 0 && keys.get(slot).equals(indexedMappingKey)) {
+            mappedEquipments.get(slot).add(mappedEquipment);
+        } else {
+            List<MappedEquipment> equipments = new ArrayList<>();
+            equipments.add(mappedEquipment);
+            addSlot(indexedMappingKey, equipments);
+        }
     }
 }
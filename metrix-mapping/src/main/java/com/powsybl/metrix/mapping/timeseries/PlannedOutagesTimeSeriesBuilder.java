@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping.timeseries;
+
+import com.powsybl.timeseries.*;
+
+import java.util.*;
+
+import static com.powsybl.metrix.mapping.TimeSeriesMapper.CONNECTED_VALUE;
+import static com.powsybl.metrix.mapping.TimeSeriesMapper.DISCONNECTED_VALUE;
+
+/**
+ * Expand a planned outages string time series, whose values are comma separated lists of disconnected
+ * equipment ids, into one 0/1 double time series per equipment.
+ * <p>
+ * The string time series is first reduced to runs of identical values, using the steps of compressed chunks,
+ * and each distinct value is split only once. Equipment time series are then built run by run, directly as
+ * compressed chunks.
+ */
+public class PlannedOutagesTimeSeriesBuilder {
+
+    private static final String SEPARATOR = ",";
+
+    private final String timeSeriesName;
+
+    private final TimeSeriesIndex index;
+
+    private final int pointCount;
+
+    private final Map<String, Set<String>> parsedValues = new HashMap<>();
+
+    // disconnected ids of each run, the same set instance being shared by all the runs of a given value
+    private final List<Set<String>> runIds = new ArrayList<>();
+
+    private int[] runLengths = new int[16];
+
+    private int coveredPointCount = 0;
+
+    public PlannedOutagesTimeSeriesBuilder(StringTimeSeries timeSeries, TimeSeriesIndex index) {
+        this.timeSeriesName = timeSeries.getMetadata().getName();
+        this.index = Objects.requireNonNull(index);
+        this.pointCount = index.getPointCount();
+        List<StringDataChunk> chunks = new ArrayList<>(timeSeries.getChunks());
+        chunks.sort(Comparator.comparingInt(DataChunk::getOffset));
+        for (StringDataChunk chunk : chunks) {
+            addRun(Collections.emptySet(), chunk.getOffset() - coveredPointCount);
+            if (chunk instanceof CompressedStringDataChunk) {
+                CompressedStringDataChunk compressedChunk = (CompressedStringDataChunk) chunk;
+                String[] stepValues = compressedChunk.getStepValues();
+                int[] stepLengths = compressedChunk.getStepLengths();
+                for (int i = 0; i < stepValues.length; i++) {
+                    addRun(parse(stepValues[i]), stepLengths[i]);
+                }
+            } else {
+                String[] values = ((UncompressedStringDataChunk) chunk).getValues();
+                int start = 0;
+                for (int i = 1; i <= values.length; i++) {
+                    if (i == values.length || !Objects.equals(values[i], values[start])) {
+                        addRun(parse(values[start]), i - start);
+                        start = i;
+                    }
+                }
+            }
+        }
+        addRun(Collections.emptySet(), pointCount - coveredPointCount);
+    }
+
+    private Set<String> parse(String value) {
+        if (value == null) {
+            return Collections.emptySet();
+        }
+        return parsedValues.computeIfAbsent(value, v -> new HashSet<>(Arrays.asList(v.split(SEPARATOR))));
+    }
+
+    private void addRun(Set<String> ids, int length) {
+        int clippedLength = Math.min(length, pointCount - coveredPointCount);
+        if (clippedLength <= 0) {
+            return;
+        }
+        int last = runIds.size() - 1;
+        if (last >= 0 && runIds.get(last) == ids) {
+            runLengths[last] += clippedLength;
+        } else {
+            if (runIds.size() == runLengths.length) {
+                runLengths = Arrays.copyOf(runLengths, 2 * runLengths.length);
+            }
+            runLengths[runIds.size()] = clippedLength;
+            runIds.add(ids);
+        }
+        coveredPointCount += clippedLength;
+    }
+
+    /**
+     * Get all the equipment ids disconnected at least once.
+     */
+    public Set<String> getDisconnectedIds() {
+        Set<String> disconnectedIds = new HashSet<>();
+        parsedValues.values().forEach(disconnectedIds::addAll);
+        disconnectedIds.remove("");
+        return disconnectedIds;
+    }
+
+    /**
+     * Build the 0/1 time series of an equipment, named after the planned outages time series and the equipment id.
+     */
+    public DoubleTimeSeries build(String id) {
+        double[] stepValues = new double[runIds.size()];
+        int[] stepLengths = new int[runIds.size()];
+        int stepCount = 0;
+        for (int run = 0; run < runIds.size(); run++) {
+            double value = runIds.get(run).contains(id) ? DISCONNECTED_VALUE : CONNECTED_VALUE;
+            if (stepCount > 0 && stepValues[stepCount - 1] == value) {
+                stepLengths[stepCount - 1] += runLengths[run];
+            } else {
+                stepValues[stepCount] = value;
+                stepLengths[stepCount] = runLengths[run];
+                stepCount++;
+            }
+        }
+        return new StoredDoubleTimeSeries(
+                new TimeSeriesMetadata(timeSeriesName + "_" + id, TimeSeriesDataType.DOUBLE, index),
+                createChunk(Arrays.copyOf(stepValues, stepCount), Arrays.copyOf(stepLengths, stepCount)));
+    }
+
+    public List<DoubleTimeSeries> build(Collection<String> ids) {
+        List<DoubleTimeSeries> timeSeries = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            timeSeries.add(build(id));
+        }
+        return timeSeries;
+    }
+
+    private DoubleDataChunk createChunk(double[] stepValues, int[] stepLengths) {
+        if (pointCount == 0) {
+            return new UncompressedDoubleDataChunk(0, new double[0]);
+        }
+        CompressedDoubleDataChunk chunk = new CompressedDoubleDataChunk(0, pointCount, stepValues, stepLengths);
+        if (chunk.getCompressionFactor() < 1) {
+            return chunk;
+        }
+        // as UncompressedDoubleDataChunk.tryToCompress, keep the uncompressed chunk when it is smaller
+        double[] values = new double[pointCount];
+        int offset = 0;
+        for (int i = 0; i < stepValues.length; i++) {
+            Arrays.fill(values, offset, offset + stepLengths[i], stepValues[i]);
+            offset += stepLengths[i];
+        }
+        return new UncompressedDoubleDataChunk(0, values);
+    }
+}
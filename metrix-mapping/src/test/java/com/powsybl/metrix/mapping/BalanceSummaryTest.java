@@ -14,7 +14,6 @@ import com.powsybl.iidm.network.Network;
 import com.powsybl.iidm.xml.NetworkXml;
 import com.powsybl.timeseries.*;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.threeten.extra.Interval;
 
@@ -25,9 +24,8 @@ import java.time.ZoneId;
 import java.util.*;
 
 import static com.powsybl.metrix.mapping.AbstractCompareTxt.compareStreamTxt;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
-@Disabled
 class BalanceSummaryTest {
 
     private static final char SEPARATOR = ';';
@@ -178,4 +176,49 @@ class BalanceSummaryTest {
             }
         }
     }
+
+    @Test
+    void periodicSummaryTest() throws Exception {
+        TimeSeriesIndex index = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T01:00:00Z/2015-01-01T03:00:00Z"), Duration.ofHours(1));
+        ByteArrayOutputStream balanceSummaryOutput = new ByteArrayOutputStream();
+        BalanceSummary balanceSummary = new BalanceSummary(new PrintStream(balanceSummaryOutput), 2);
+        double[][] balances = {{10, 20, 60}, {-5, 5, Double.NaN}};
+        for (int version = 1; version <= 2; version++) {
+            balanceSummary.versionStart(version);
+            balanceSummary.timeSeriesMappingStart(TimeSeriesMapper.CONSTANT_VARIANT_ID, index);
+            balanceSummary.timeSeriesMappingEnd(TimeSeriesMapper.CONSTANT_VARIANT_ID, index, 0);
+            for (int point = 0; point < index.getPointCount(); point++) {
+                if (!Double.isNaN(balances[version - 1][point])) {
+                    balanceSummary.timeSeriesMappingStart(point, index);
+                    balanceSummary.timeSeriesMappingEnd(point, index, balances[version - 1][point]);
+                }
+            }
+            balanceSummary.versionEnd(version);
+        }
+
+        String expectedOutput = String.join(System.lineSeparator(),
+                "Version 1",
+                "Balance after 2 points: min=10 MWh, max=20 MWh, average=15 MWh",
+                "Balance summary: min=10 MWh, max=60 MWh, average=30 MWh",
+                "Version 2",
+                "Balance after 2 points: min=-5 MWh, max=5 MWh, average=0 MWh",
+                "Balance summary: min=-5 MWh, max=5 MWh, average=0 MWh",
+                "");
+        assertEquals(expectedOutput, balanceSummaryOutput.toString(StandardCharsets.UTF_8));
+        assertArrayEquals(new double[] {10, 20, 60}, balanceSummary.getValuesSortedByInstantByVersion(1));
+        assertArrayEquals(new double[] {-5, 5}, balanceSummary.getValuesSortedByInstantByVersion(2));
+
+        StringWriter balanceSummaryCsvOutput = new StringWriter();
+        try (BufferedWriter bufferedWriter = new BufferedWriter(balanceSummaryCsvOutput)) {
+            balanceSummary.writeCsv(bufferedWriter, SEPARATOR, ZoneId.of("UTC"));
+        }
+        String expectedCsv = String.join(System.lineSeparator(),
+                "Time;Version 1;Version 2",
+                "2015-01-01T01:00:00Z;10;-5",
+                "2015-01-01T02:00:00Z;20;5",
+                "2015-01-01T03:00:00Z;60;?",
+                "");
+        assertEquals(expectedCsv, balanceSummaryCsvOutput.toString());
+        assertThrows(IllegalArgumentException.class, () -> new BalanceSummary(System.out, -1));
+    }
 }
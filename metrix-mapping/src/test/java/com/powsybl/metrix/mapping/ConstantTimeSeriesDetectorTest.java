@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.google.common.collect.Range;
+import com.powsybl.timeseries.*;
+import com.powsybl.timeseries.ast.BinaryOperation;
+import com.powsybl.timeseries.ast.IntegerNodeCalc;
+import com.powsybl.timeseries.ast.TimeSeriesNameNodeCalc;
+import org.junit.jupiter.api.Test;
+import org.threeten.extra.Interval;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstantTimeSeriesDetectorTest {
+
+    private static final TimeSeriesIndex INDEX = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T00:00:00Z/2015-01-05T03:00:00Z"), Duration.ofHours(1));
+
+    private static final double EPSILON = 1e-6;
+
+    private static DoubleTimeSeries createTimeSeries(String name, DoubleDataChunk... chunks) {
+        return new StoredDoubleTimeSeries(new TimeSeriesMetadata(name, TimeSeriesDataType.DOUBLE, INDEX), chunks);
+    }
+
+    /**
+     * Same value on all points but the last one.
+     */
+    private static DoubleDataChunk createChunk(double value, double lastValue) {
+        double[] values = new double[INDEX.getPointCount()];
+        Arrays.fill(values, value);
+        values[values.length - 1] = lastValue;
+        return new UncompressedDoubleDataChunk(0, values);
+    }
+
+    private static Map<String, Boolean> detect(ConstantTimeSeriesDetector detector, ReadOnlyTimeSeriesStore store, TimeSeriesMappingConfig config,
+                                               Range<Integer> pointRange, double epsilon) {
+        Set<String> names = new TreeSet<>(store.getTimeSeriesNames(new TimeSeriesFilter()));
+        names.addAll(config.getTimeSeriesNodes().keySet());
+        List<DoubleTimeSeries> loadedTimeSeries = new ArrayList<>();
+        TimeSeriesTable table = config.loadToTable(new TreeSet<>(Collections.singleton(1)), store, pointRange, names,
+            (timeSeriesList, version) -> loadedTimeSeries.addAll(timeSeriesList));
+        detector.setTable(store, table, 1, TimeSeriesMappingConfig.getNbPointsToLoad(INDEX, pointRange), loadedTimeSeries);
+        Map<String, Boolean> constants = new TreeMap<>();
+        for (String name : names) {
+            constants.put(name, detector.isConstant(name, table.getDoubleTimeSeriesIndex(name), epsilon));
+        }
+        return constants;
+    }
+
+    @Test
+    void constantTest() {
+        ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(
+                createTimeSeries("compressed", new CompressedDoubleDataChunk(0, 100, new double[] {2d}, new int[] {100})),
+                createTimeSeries("compressedSteps", new CompressedDoubleDataChunk(0, 100, new double[] {2d, 2d + 1e-7, 3d}, new int[] {30, 60, 10})),
+                createTimeSeries("uncompressed", createChunk(1, 1)),
+                createTimeSeries("variable", createChunk(1, 2)),
+                createTimeSeries("noise", createChunk(1, 1 + 1e-5)),
+                createTimeSeries("nan", createChunk(3, Double.NaN)),
+                createTimeSeries("allNan", new CompressedDoubleDataChunk(0, 100, new double[] {Double.NaN}, new int[] {100})),
+                createTimeSeries("chunks", new UncompressedDoubleDataChunk(0, new double[] {4, 4, 4, 4}),
+                        new CompressedDoubleDataChunk(4, 96, new double[] {4d, 5d}, new int[] {90, 6})));
+        TimeSeriesMappingConfig config = new TimeSeriesMappingConfig();
+        config.setTimeSeriesNodes(Map.of("calculated", BinaryOperation.plus(new TimeSeriesNameNodeCalc("compressed"), new IntegerNodeCalc(1)),
+                "calculatedVariable", BinaryOperation.plus(new TimeSeriesNameNodeCalc("variable"), new TimeSeriesNameNodeCalc("compressed"))));
+
+        // all points
+        ConstantTimeSeriesDetector detector = new ConstantTimeSeriesDetector();
+        Map<String, Boolean> expected = new TreeMap<>(Map.of("compressed", true, "compressedSteps", false, "uncompressed", true, "variable", false,
+                "noise", false, "nan", true, "allNan", false, "chunks", false, "calculated", true, "calculatedVariable", false));
+        assertEquals(expected, detect(detector, store, config, Range.closed(0, 99), EPSILON));
+
+        // first points only, the variations being on the last ones
+        Map<String, Boolean> expectedFirstPoints = new TreeMap<>(expected);
+        expectedFirstPoints.putAll(Map.of("compressedSteps", true, "variable", true, "noise", true, "chunks", true, "calculatedVariable", true));
+        assertEquals(expectedFirstPoints, detect(new ConstantTimeSeriesDetector(), store, config, Range.closed(0, 59), EPSILON));
+        assertEquals(expectedFirstPoints, detect(detector, store, config, Range.closed(0, 59), EPSILON));
+
+        // tolerance
+        expected.put("noise", true);
+        assertEquals(expected, detect(detector, store, config, Range.closed(0, 99), 1e-4));
+    }
+
+    @Test
+    void cacheTest() {
+        ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(createTimeSeries("ts", createChunk(2, 2)));
+        ConstantTimeSeriesDetector detector = new ConstantTimeSeriesDetector();
+        TimeSeriesMappingConfig config = new TimeSeriesMappingConfig();
+        assertTrue(detect(detector, store, config, Range.closed(0, 99), EPSILON).get("ts"));
+
+        // results of a store are kept until another store is checked
+        DoubleTimeSeries variable = createTimeSeries("ts", createChunk(1, 2));
+        TimeSeriesTable table = config.loadToTable(new TreeSet<>(Collections.singleton(1)), new ReadOnlyTimeSeriesStoreCache(variable), Range.closed(0, 99), Set.of("ts"));
+        detector.setTable(store, table, 1, INDEX.getPointCount(), List.of(variable));
+        assertTrue(detector.isConstant("ts", 0, EPSILON));
+        assertFalse(detect(detector, new ReadOnlyTimeSeriesStoreCache(variable), config, Range.closed(0, 99), EPSILON).get("ts"));
+    }
+}
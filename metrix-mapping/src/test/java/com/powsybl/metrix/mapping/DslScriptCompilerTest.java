@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.google.common.collect.FluentIterable;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.timeseries.*;
+import groovy.lang.Binding;
+import groovy.lang.Closure;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ImportCustomizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.threeten.extra.Interval;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DslScriptCompilerTest {
+
+    private static final String DSL_VERSION = "test";
+
+    private static final String SCRIPT = String.join(System.lineSeparator(),
+            "int sum = 0",
+            "for (int i = 0; i < 10; i++) {",
+            "    sum += i",
+            "}",
+            "for (v in values) {",
+            "    add v",
+            "}",
+            "add sum / 2",
+            "configure {",
+            "    add label",
+            "    add maxP",
+            "}");
+
+    @TempDir
+    Path cacheDir;
+
+    /**
+     * DSL binding: {@code add} collects values, {@code configure} calls a closure whose delegate has a {@code label} property.
+     */
+    private static Binding createBinding(List<Object> values) {
+        Binding binding = new Binding();
+        // an iterable which is not a collection
+        binding.setVariable("values", FluentIterable.from(Arrays.asList(1, 2)));
+        binding.setVariable("add", new Closure<Void>(null) {
+            @Override
+            public Void call(Object... args) {
+                values.add(args[0]);
+                return null;
+            }
+        });
+        binding.setVariable("configure", new Closure<Object>(null) {
+            @Override
+            public Object call(Object... args) {
+                Closure<?> closure = (Closure<?>) ((Closure<?>) args[0]).clone();
+                closure.setDelegate(Collections.singletonMap("label", "delegate"));
+                return closure.call();
+            }
+        });
+        return binding;
+    }
+
+    private static CompilerConfiguration createCompilerConfig() {
+        ImportCustomizer imports = new ImportCustomizer();
+        imports.addStaticStars(EquipmentVariable.class.getName());
+        CompilerConfiguration config = new CompilerConfiguration();
+        config.addCompilationCustomizers(imports);
+        return config;
+    }
+
+    private static List<Object> evaluate(String script, DslCompilationConfig compilationConfig) {
+        List<Object> values = new ArrayList<>();
+        DslScriptCompiler.evaluate(new GroovyCodeSource(script, "script", GroovyShell.DEFAULT_CODE_BASE), createBinding(values),
+                createCompilerConfig(), DSL_VERSION, compilationConfig);
+        return values;
+    }
+
+    private static boolean isCompiledStatically(String script) {
+        Class<?> scriptClass = DslScriptCompiler.parseClass(new GroovyCodeSource(script, "script", GroovyShell.DEFAULT_CODE_BASE),
+                createCompilerConfig(), DSL_VERSION, new DslCompilationConfig().setCompileStatic(true));
+        // DSL closures are moved to dynamically compiled methods
+        return Stream.of(scriptClass.getDeclaredMethods()).map(Method::getName).anyMatch(name -> name.startsWith("$dslClosure"));
+    }
+
+    private List<Path> getCacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void compileStaticTest() {
+        List<Object> expected = Arrays.asList(1, 2, new BigDecimal("22.5"), "delegate", EquipmentVariable.maxP);
+        assertEquals(expected, evaluate(SCRIPT, new DslCompilationConfig()));
+        assertEquals(expected, evaluate(SCRIPT, new DslCompilationConfig().setCompileStatic(true)));
+        assertTrue(isCompiledStatically(SCRIPT));
+
+        // a closure using a local variable cannot be statically compiled if it relies on its delegate
+        String script = "def prefix = 'my'" + System.lineSeparator() + "configure { add prefix + label }";
+        assertEquals(Collections.singletonList("mydelegate"), evaluate(script, new DslCompilationConfig().setCompileStatic(true)));
+        assertFalse(isCompiledStatically(script));
+    }
+
+    @Test
+    void cacheTest() throws IOException {
+        DslCompilationConfig compilationConfig = new DslCompilationConfig().setScriptCacheDir(cacheDir);
+        List<Object> expected = evaluate(SCRIPT, new DslCompilationConfig());
+
+        assertEquals(expected, evaluate(SCRIPT, compilationConfig));
+        List<Path> files = getCacheFiles();
+        assertEquals(1, files.size());
+        long lastModified = Files.getLastModifiedTime(files.get(0)).toMillis();
+        assertEquals(expected, evaluate(SCRIPT, compilationConfig));
+        assertEquals(files, getCacheFiles());
+        assertEquals(lastModified, Files.getLastModifiedTime(files.get(0)).toMillis());
+
+        // statically compiled script and other script are cached separately
+        assertEquals(expected, evaluate(SCRIPT, new DslCompilationConfig().setScriptCacheDir(cacheDir).setCompileStatic(true)));
+        assertEquals(Collections.singletonList(1), evaluate("add 1", compilationConfig));
+        assertEquals(3, getCacheFiles().size());
+
+        // unreadable cached script is compiled again
+        Files.write(files.get(0), "corrupted".getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, evaluate(SCRIPT, compilationConfig));
+        assertEquals(expected, evaluate(SCRIPT, compilationConfig));
+        assertEquals(3, getCacheFiles().size());
+    }
+
+    @Test
+    void cacheKeyTest() {
+        GroovyCodeSource script = new GroovyCodeSource(SCRIPT, "script", GroovyShell.DEFAULT_CODE_BASE);
+        String key = DslScriptCompiler.cacheKey(script, DSL_VERSION, false);
+        assertEquals(key, DslScriptCompiler.cacheKey(new GroovyCodeSource(SCRIPT, "script", GroovyShell.DEFAULT_CODE_BASE), DSL_VERSION, false));
+        assertNotEquals(key, DslScriptCompiler.cacheKey(script, "other", false));
+        assertNotEquals(key, DslScriptCompiler.cacheKey(script, DSL_VERSION, true));
+        assertNotEquals(key, DslScriptCompiler.cacheKey(new GroovyCodeSource(SCRIPT + " ", "script", GroovyShell.DEFAULT_CODE_BASE), DSL_VERSION, false));
+        assertNotEquals(key, DslScriptCompiler.cacheKey(new GroovyCodeSource(SCRIPT, "other", GroovyShell.DEFAULT_CODE_BASE), DSL_VERSION, false));
+    }
+
+    private static String createMappingScript(int substationCount, int injectionCount) {
+        List<String> lines = new ArrayList<>();
+        lines.add("double threshold = 0");
+        lines.add("for (int i = 0; i < 100; i++) {");
+        lines.add("    threshold += i");
+        lines.add("}");
+        lines.add("println threshold");
+        for (int s = 0; s < substationCount; s++) {
+            for (int i = 0; i < injectionCount; i++) {
+                lines.add(FilteringContextIndexTest.mapping("mapToGenerators", "generator.id == 'VL" + s + "_400_G" + i + "'"));
+                lines.add(FilteringContextIndexTest.mapping("mapToLoads", "load.id == 'VL" + s + "_225_L" + i + "'"));
+                lines.add(FilteringContextIndexTest.mapping("mapToGenerators", "generator.id == 'VL" + s + "_225_G" + i + "'"));
+            }
+        }
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    @Test
+    void mappingScriptTest() {
+        Network network = FilteringContextIndexTest.createNetwork(2, 3);
+        TimeSeriesIndex index = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T00:00:00Z/2015-07-20T00:00:00Z"), Duration.ofDays(200));
+        ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(TimeSeries.createDouble("ts", index, 1d, 1d));
+        MappingParameters parameters = MappingParameters.load();
+        String script = createMappingScript(2, 3);
+
+        String expectedJson = TimeSeriesMappingConfigJson.toJson(new TimeSeriesDslLoader(script).load(network, parameters, store, null));
+        for (DslCompilationConfig compilationConfig : Arrays.asList(new DslCompilationConfig().setCompileStatic(true),
+                new DslCompilationConfig().setScriptCacheDir(cacheDir), new DslCompilationConfig().setScriptCacheDir(cacheDir).setCompileStatic(true))) {
+            // the cached configurations are loaded twice, the second time from the cache
+            for (int i = 0; i < 2; i++) {
+                TimeSeriesMappingConfig config = new TimeSeriesDslLoader(script).setCompilationConfig(compilationConfig).load(network, parameters, store, null);
+                assertEquals(expectedJson, TimeSeriesMappingConfigJson.toJson(config));
+            }
+        }
+    }
+}
@@ -15,16 +15,22 @@ import com.powsybl.iidm.xml.NetworkXml;
 import com.powsybl.timeseries.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.threeten.extra.Interval;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.TreeSet;
 
 import static com.powsybl.metrix.mapping.AbstractCompareTxt.compareStreamTxt;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 class EquipmentTimeSeriesWriterTest {
 
@@ -42,6 +48,9 @@ class EquipmentTimeSeriesWriterTest {
 
     private final MappingParameters mappingParameters = MappingParameters.load();
 
+    @TempDir
+    Path outputDir;
+
     @BeforeEach
     public void setUp() throws IOException {
         // create test network
@@ -102,4 +111,51 @@ class EquipmentTimeSeriesWriterTest {
             }
         }
     }
+
+    @Test
+    void equipmentTimeSeriesBinaryTest() throws Exception {
+        EquipmentTimeSeriesWriter equipmentTimeSeriesWriter = new EquipmentTimeSeriesWriter(outputDir, true);
+        TimeSeriesMapperParameters parameters = new TimeSeriesMapperParameters(new TreeSet<>(Collections.singleton(1)),
+                Range.closed(0, 1), ignoreLimits, ignoreEmptyFilter, identifyConstantTimeSeries, mappingParameters.getToleranceThreshold());
+        mapper.mapToNetwork(store, parameters, ImmutableList.of(equipmentTimeSeriesWriter));
+
+        // same csv file
+        try (InputStream expected = getClass().getResourceAsStream("/expected/EquipmentTimeSeriesWriter/version_1.csv")) {
+            try (InputStream actual = Files.newInputStream(outputDir.resolve("version_1.csv"))) {
+                assertNotNull(compareStreamTxt(expected, actual));
+            }
+        }
+
+        // and the same values in the binary file
+        List<DoubleTimeSeries> timeSeriesList = EquipmentTimeSeriesBinary.read(outputDir.resolve("version_1.bin"));
+        assertEquals(3, timeSeriesList.size());
+        DoubleTimeSeries minP = timeSeriesList.get(1);
+        assertEquals("FSSV.O11_G_minP", minP.getMetadata().getName());
+        assertArrayEquals(new double[] {10d, 11d}, minP.toArray(), 0d);
+        assertEquals(Instant.parse("2015-01-01T02:00:00Z"), minP.getMetadata().getIndex().getInstantAt(1));
+        assertArrayEquals(new double[] {100d, 100d}, timeSeriesList.get(0).toArray(), 0d);
+        assertEquals("FSSV.O12_G_targetP", timeSeriesList.get(2).getMetadata().getName());
+    }
+
+    @Test
+    void binaryChunksTest() {
+        Path file = outputDir.resolve("chunks.bin");
+        double[] constant = {1d, 1d, 1d, 1d, 1d, 1d, 1d};
+        double[] steps = {2d, 2d, Double.NaN, Double.NaN, 3d, 3d, 4d};
+        // chunks of 3 rows
+        try (EquipmentTimeSeriesBinary.RowWriter writer = EquipmentTimeSeriesBinary.open(file, Arrays.asList("constant", "steps"), 3)) {
+            for (int row = 0; row < constant.length; row++) {
+                writer.addRow(1000L * row, new double[] {constant[row], steps[row]});
+            }
+        }
+
+        List<DoubleTimeSeries> timeSeriesList = EquipmentTimeSeriesBinary.read(file);
+        assertEquals(2, timeSeriesList.size());
+        assertEquals("steps", timeSeriesList.get(1).getMetadata().getName());
+        assertArrayEquals(constant, timeSeriesList.get(0).toArray(), 0d);
+        assertArrayEquals(steps, timeSeriesList.get(1).toArray(), 0d);
+        TimeSeriesIndex index = timeSeriesList.get(0).getMetadata().getIndex();
+        assertEquals(7, index.getPointCount());
+        assertEquals(Instant.ofEpochMilli(6000), index.getInstantAt(6));
+    }
 }
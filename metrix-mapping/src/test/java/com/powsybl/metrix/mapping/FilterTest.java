@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.xml.NetworkXml;
+import com.powsybl.timeseries.*;
+import groovy.lang.MissingPropertyException;
+import org.junit.jupiter.api.Test;
+import org.threeten.extra.Interval;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterTest {
+
+    private static final TimeSeriesIndex INDEX = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T00:00:00Z/2015-07-20T00:00:00Z"), Duration.ofDays(200));
+
+    private final ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(TimeSeries.createDouble("ts", INDEX, 1d, 1d));
+
+    private String load(String script, Network network, int filterParallelism) {
+        MappingParameters parameters = new MappingParameters().setFilterParallelism(filterParallelism);
+        TimeSeriesMappingConfig config = new TimeSeriesDslLoader(script).load(network, parameters, store, null);
+        return TimeSeriesMappingConfigJson.toJson(config);
+    }
+
+    @Test
+    void parallelEvaluationTest() {
+        int substationCount = 10;
+        int injectionCount = 10;
+        Network network = FilteringContextIndexTest.createNetwork(substationCount, injectionCount);
+        String script = FilteringContextIndexTest.withoutIndexedFilters(FilteringContextIndexTest.createScript(substationCount, injectionCount));
+
+        assertEquals(load(script, network, 1), load(script, network, 4));
+    }
+
+    @Test
+    void nodeBreakerNetworkTest() {
+        // filters reading the topology computed by IIDM from the node-breaker voltage levels
+        String script = String.join(System.lineSeparator(),
+                FilteringContextIndexTest.mapping("mapToGenerators", "generator.terminal.busView.bus?.connectedComponent?.num == 0"),
+                FilteringContextIndexTest.mapping("mapToLoads", "load.terminal.busBreakerView.bus != null"));
+        String json = load(script, NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xiidm")), 1);
+        assertEquals(json, load(script, NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xiidm")), 4));
+
+        assertNull(TimeSeriesDslLoader.createFilterPool(FilteringContextIndexTest.createNetwork(2, 2), new MappingParameters()));
+        ForkJoinPool pool = TimeSeriesDslLoader.createFilterPool(NetworkXml.read(getClass().getResourceAsStream("/simpleNetwork.xiidm")),
+                new MappingParameters().setFilterParallelism(4));
+        assertNotNull(pool);
+        assertEquals(4, pool.getParallelism());
+        pool.shutdown();
+    }
+
+    @Test
+    void parallelErrorTest() {
+        Network network = FilteringContextIndexTest.createNetwork(4, 4);
+        // only the generators of the last substation, evaluated by the last worker, fail
+        String script = FilteringContextIndexTest.mapping("mapToGenerators", "boolean result = substation.id == 'S3' ? generator.id.unknownProperty : false; result");
+        MissingPropertyException sequentialError = assertThrows(MissingPropertyException.class, () -> load(script, network, 1));
+        MissingPropertyException parallelError = assertThrows(MissingPropertyException.class, () -> load(script, network, 4));
+        assertEquals(sequentialError.getMessage(), parallelError.getMessage());
+    }
+
+    @Test
+    void invalidParallelismTest() {
+        MappingParameters parameters = new MappingParameters();
+        assertThrows(IllegalArgumentException.class, () -> parameters.setFilterParallelism(0));
+    }
+}
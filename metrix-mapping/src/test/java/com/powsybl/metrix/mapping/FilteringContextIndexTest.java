@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.iidm.network.*;
+import com.powsybl.timeseries.*;
+import groovy.lang.MissingPropertyException;
+import org.junit.jupiter.api.Test;
+import org.threeten.extra.Interval;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FilteringContextIndexTest {
+
+    private static final Country[] COUNTRIES = {Country.FR, Country.BE, Country.DE};
+
+    private static final EnergySource[] ENERGY_SOURCES = {EnergySource.NUCLEAR, EnergySource.HYDRO, EnergySource.THERMAL, EnergySource.WIND};
+
+    private static final Pattern FILTER = Pattern.compile("filter \\{ (.*?) }");
+
+    private final MappingParameters parameters = MappingParameters.load();
+
+    static Network createNetwork(int substationCount, int injectionCount) {
+        Network network = NetworkFactory.findDefault().createNetwork("test", "test");
+        Bus previousBus = null;
+        for (int s = 0; s < substationCount; s++) {
+            Substation substation = network.newSubstation()
+                    .setId("S" + s)
+                    .setCountry(COUNTRIES[s % COUNTRIES.length])
+                    .add();
+            for (double nominalV : new double[] {400, 225}) {
+                VoltageLevel voltageLevel = substation.newVoltageLevel()
+                        .setId("VL" + s + "_" + (int) nominalV)
+                        .setNominalV(nominalV)
+                        .setTopologyKind(TopologyKind.BUS_BREAKER)
+                        .add();
+                Bus bus = voltageLevel.getBusBreakerView().newBus()
+                        .setId(voltageLevel.getId() + "_B")
+                        .add();
+                for (int i = 0; i < injectionCount; i++) {
+                    voltageLevel.newGenerator()
+                            .setId(voltageLevel.getId() + "_G" + i)
+                            .setBus(bus.getId())
+                            .setConnectableBus(bus.getId())
+                            .setEnergySource(ENERGY_SOURCES[i % ENERGY_SOURCES.length])
+                            .setMinP(0)
+                            .setMaxP(100 + i)
+                            .setTargetP(50)
+                            .setTargetQ(0)
+                            .setVoltageRegulatorOn(false)
+                            .add();
+                    voltageLevel.newLoad()
+                            .setId(voltageLevel.getId() + "_L" + i)
+                            .setBus(bus.getId())
+                            .setConnectableBus(bus.getId())
+                            .setP0(10)
+                            .setQ0(0)
+                            .add();
+                }
+                if (previousBus != null) {
+                    network.newLine()
+                            .setId(previousBus.getId() + "_" + bus.getId())
+                            .setVoltageLevel1(previousBus.getVoltageLevel().getId())
+                            .setBus1(previousBus.getId())
+                            .setVoltageLevel2(voltageLevel.getId())
+                            .setBus2(bus.getId())
+                            .setR(1)
+                            .setX(1)
+                            .setG1(0)
+                            .setB1(0)
+                            .setG2(0)
+                            .setB2(0)
+                            .add();
+                }
+                previousBus = bus;
+            }
+        }
+        return network;
+    }
+
+    static String mapping(String function, String filter) {
+        return String.join(System.lineSeparator(),
+                function + " {",
+                "    timeSeriesName 'ts'",
+                "    filter { " + filter + " }",
+                "}");
+    }
+
+    static String createScript(int substationCount, int injectionCount) {
+        List<String> lines = new ArrayList<>();
+        lines.add(mapping("mapToGenerators", "generator.energySource == HYDRO && substation.country == BE"));
+        lines.add(mapping("mapToGenerators", "generator.energySource == NUCLEAR || voltageLevel.nominalV == 225"));
+        lines.add(mapping("mapToGenerators", "generator.terminal.voltageLevel.substation.country == com.powsybl.iidm.network.Country.DE"));
+        lines.add(mapping("mapToGenerators", "voltageLevel.nominalV == 400.0 && generator.maxP == 101"));
+        lines.add(mapping("mapToGenerators", "generator.id in ['VL0_400_G0', 'VL1_225_G1', 'unknown']"));
+        lines.add(mapping("mapToGenerators", "substation.country in [FR, BE]"));
+        lines.add(mapping("mapToGenerators", "generator.energySource == 'HYDRO'"));
+        lines.add(mapping("mapToLoads", "voltageLevel.nominalV in [225.0d]"));
+        lines.add(mapping("mapToLoads", "substation.id == \"S${1 + 1}\""));
+        lines.add(mapping("mapToLoads", "load.p0 == 10 && load.id == 'VL0_400_L0'"));
+        lines.add(mapping("mapToLoads", "voltageLevel.nominalV == 0.1"));
+        lines.add("unmappedLoads { filter { voltageLevel.nominalV == 400 && substation.id == 'S" + (substationCount - 1) + "' } }");
+        lines.add("def ids = ['VL0_225_L0', 'VL2_400_L3']");
+        lines.add(mapping("mapToLoads", "load.id in ids"));
+        lines.add("for (id in ['VL1_400_L1', 'VL1_400_L2']) {");
+        lines.add(mapping("mapToLoads", "load.id == id"));
+        lines.add("}");
+        for (int s = 0; s < substationCount; s++) {
+            for (int i = 0; i < injectionCount; i++) {
+                lines.add(mapping("mapToGenerators", "generator.id == 'VL" + s + "_400_G" + i + "'"));
+                lines.add(mapping("mapToLoads", "load.id == 'VL" + s + "_225_L" + i + "'"));
+            }
+        }
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    static String withoutIndexedFilters(String script) {
+        // filters made of several statements are not recognized by IndexedFilterCustomizer
+        Matcher matcher = FILTER.matcher(script);
+        StringBuffer buffer = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(buffer, Matcher.quoteReplacement("filter { boolean result = " + matcher.group(1) + "; result }"));
+        }
+        matcher.appendTail(buffer);
+        return buffer.toString();
+    }
+
+    private String load(String script, Network network, ReadOnlyTimeSeriesStore store) {
+        TimeSeriesMappingConfig config = new TimeSeriesDslLoader(script).load(network, parameters, store, null);
+        return TimeSeriesMappingConfigJson.toJson(config);
+    }
+
+    @Test
+    void sameAsClosureEvaluationTest() {
+        int substationCount = 10;
+        int injectionCount = 10;
+        Network network = createNetwork(substationCount, injectionCount);
+        TimeSeriesIndex index = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T00:00:00Z/2015-07-20T00:00:00Z"), Duration.ofDays(200));
+        ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(TimeSeries.createDouble("ts", index, 1d, 1d));
+        String script = createScript(substationCount, injectionCount);
+
+        assertEquals(load(withoutIndexedFilters(script), network, store), load(script, network, store));
+    }
+
+    @Test
+    void errorTest() {
+        Network network = createNetwork(2, 2);
+        TimeSeriesIndex index = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T00:00:00Z/2015-07-20T00:00:00Z"), Duration.ofDays(200));
+        ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(TimeSeries.createDouble("ts", index, 1d, 1d));
+        String script = mapping("mapToGenerators", "generator.id == unknownVariable");
+        // value evaluation errors are reported by the filter closure
+        assertThrows(MissingPropertyException.class, () -> load(withoutIndexedFilters(script), network, store));
+        assertThrows(MissingPropertyException.class, () -> load(script, network, store));
+    }
+}
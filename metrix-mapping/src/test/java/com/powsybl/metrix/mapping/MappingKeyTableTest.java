@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.metrix.mapping.timeseries.EquipmentTimeSeriesMap;
+import com.powsybl.metrix.mapping.timeseries.MappedEquipment;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappingKeyTableTest {
+
+    @Test
+    void internTest() {
+        MappingKeyTable table = new MappingKeyTable();
+        MappingKey key = new MappingKey(EquipmentVariable.targetP, "g1");
+        assertSame(key, table.intern(key));
+        assertSame(key, table.intern(EquipmentVariable.targetP, "g1"));
+        assertEquals(0, table.getIndex(new MappingKey(EquipmentVariable.targetP, "g1")));
+        assertEquals(-1, table.findIndex(new MappingKey(EquipmentVariable.maxP, "g1")));
+        assertEquals(1, table.getIndex(new MappingKey(EquipmentVariable.maxP, "g1")));
+        assertEquals(1, table.findIndex(new MappingKey(EquipmentVariable.maxP, "g1")));
+        assertEquals(new MappingKey(EquipmentVariable.maxP, "g1"), table.getKey(1));
+        assertEquals(2, table.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getKey(2));
+
+        // growth
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + 2, table.getIndex(new MappingKey(EquipmentVariable.p0, "l" + i)));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + 2, table.findIndex(new MappingKey(EquipmentVariable.p0, "l" + i)));
+        }
+        assertSame(key, table.intern(EquipmentVariable.targetP, "g1"));
+        assertEquals(1002, table.size());
+    }
+
+    @Test
+    void configTest() {
+        TimeSeriesMappingConfig config = new TimeSeriesMappingConfig();
+        config.addEquipmentMapping(MappableEquipmentType.GENERATOR, "ts1", "g1", NumberDistributionKey.ONE, EquipmentVariable.targetP);
+        config.addEquipmentMapping(MappableEquipmentType.GENERATOR, "ts2", "g1", NumberDistributionKey.ONE, EquipmentVariable.targetP);
+        config.addEquipmentTimeSeries("ts3", EquipmentVariable.targetP, "g1");
+
+        // the maps of the configuration share the same key instance
+        MappingKey key = config.getGeneratorToTimeSeriesMapping().keySet().iterator().next();
+        assertSame(key, config.getDistributionKeys().keySet().iterator().next());
+        assertSame(key, config.getEquipmentToTimeSeries().keySet().iterator().next());
+        assertEquals(Arrays.asList("ts2", "ts1"), config.getGeneratorToTimeSeriesMapping().get(key));
+
+        // also when set from another configuration
+        TimeSeriesMappingConfig copy = new TimeSeriesMappingConfig();
+        copy.setGeneratorToTimeSeriesMapping(config.getGeneratorToTimeSeriesMapping());
+        copy.setTimeSeriesToGeneratorsMapping(config.getTimeSeriesToGeneratorsMapping());
+        copy.setDistributionKeys(config.getDistributionKeys());
+        copy.setEquipmentToTimeSeries(config.getEquipmentToTimeSeries());
+        copy.setTimeSeriesToEquipment(config.getTimeSeriesToEquipment());
+        copy.setMappedTimeSeriesNames(config.getMappedTimeSeriesNames());
+        assertEquals(config, copy);
+        MappingKey copyKey = copy.getGeneratorToTimeSeriesMapping().keySet().iterator().next();
+        assertSame(copyKey, copy.getDistributionKeys().keySet().iterator().next());
+        assertSame(copyKey, copy.getTimeSeriesToEquipment().get("ts3").iterator().next());
+        assertEquals(copy.getMappingKeyTable().findIndex(key), copy.getMappingKeyTable().findIndex(copyKey));
+    }
+
+    @Test
+    void equipmentTimeSeriesViewTest() {
+        EquipmentTimeSeriesMap map = new EquipmentTimeSeriesMap();
+        Map<IndexedMappingKey, List<MappedEquipment>> view = map.getEquipmentTimeSeries();
+        IndexedMappingKey key1 = new IndexedMappingKey(new MappingKey(EquipmentVariable.targetP, "ts1"), 0, 0);
+        IndexedMappingKey key2 = new IndexedMappingKey(new MappingKey(EquipmentVariable.targetP, "ts2"), 1);
+        List<MappedEquipment> equipments1 = new ArrayList<>();
+        List<MappedEquipment> equipments2 = new ArrayList<>();
+        map.addMappedEquipmentTimeSeries(key2, equipments2);
+        map.addMappedEquipmentTimeSeries(key1, equipments1);
+
+        // the view follows the map, in insertion order
+        assertEquals(Arrays.asList(key2, key1), new ArrayList<>(view.keySet()));
+        assertSame(equipments1, view.get(key1));
+        assertSame(equipments2, view.get(key2));
+        assertNull(view.get(new IndexedMappingKey(new MappingKey(EquipmentVariable.maxP, "ts1"), 0, 1)));
+
+        // and writes its changes through to the map
+        IndexedMappingKey key3 = new IndexedMappingKey(new MappingKey(EquipmentVariable.targetP, "ts3"), 2, 1);
+        List<MappedEquipment> equipments3 = new ArrayList<>();
+        assertNull(view.put(key3, equipments3));
+        assertSame(equipments1, view.remove(key1));
+        assertEquals(Arrays.asList(key2, key3), new ArrayList<>(view.keySet()));
+        assertEquals(2, map.size());
+        assertSame(equipments3, view.get(key3));
+        assertSame(equipments3, view.put(key3, equipments1));
+        List<IndexedMappingKey> keys = new ArrayList<>();
+        map.forEach((key, equipments) -> keys.add(key));
+        assertEquals(Arrays.asList(key2, key3), keys);
+        assertSame(equipments1, view.get(key3));
+        view.keySet().removeIf(key -> key.equals(key2));
+        assertEquals(Collections.singletonList(key3), new ArrayList<>(view.keySet()));
+        assertSame(equipments1, view.get(key3));
+        view.clear();
+        assertTrue(map.isEmpty());
+        assertNull(view.get(key3));
+    }
+}
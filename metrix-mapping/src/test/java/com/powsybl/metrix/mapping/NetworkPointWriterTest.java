@@ -14,8 +14,12 @@ import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
 import com.powsybl.commons.datasource.DataSource;
 import com.powsybl.commons.datasource.DataSourceUtil;
+import com.powsybl.commons.datasource.MemDataSource;
+import com.powsybl.iidm.export.ExportOptions;
 import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManagerConstants;
 import com.powsybl.iidm.xml.NetworkXml;
+import com.powsybl.metrix.mapping.common.MetrixIidmConfiguration;
 import com.powsybl.timeseries.*;
 import org.apache.commons.io.input.ReaderInputStream;
 import org.junit.jupiter.api.AfterEach;
@@ -31,9 +35,11 @@ import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 import static com.powsybl.metrix.mapping.AbstractCompareTxt.compareStreamTxt;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 class NetworkPointWriterTest {
 
@@ -53,8 +59,61 @@ class NetworkPointWriterTest {
         this.fileSystem.close();
     }
 
+    private interface NetworkPointReader {
+
+        InputStream read(DataSource dataSource, String fileName, int point, TimeSeriesIndex index) throws IOException;
+    }
+
     @Test
     void networkPointConstantVariantTest() throws Exception {
+        checkNetworkPoints(dataSource -> new NetworkPointWriter(network, dataSource),
+            (dataSource, fileName, point, index) -> Files.newInputStream(fileSystem.getPath(fileName + ".xiidm")));
+    }
+
+    @Test
+    void parallelNetworkPointTest() throws Exception {
+        // same files, written by a pool of writers and compressed
+        checkNetworkPoints(dataSource -> new NetworkPointWriter(network, dataSource, 2, true),
+            (dataSource, fileName, point, index) -> new GZIPInputStream(Files.newInputStream(fileSystem.getPath(fileName + ".xiidm.gz"))));
+        assertTrue(network.getVariantManager().getVariantIds().stream().allMatch(VariantManagerConstants.INITIAL_VARIANT_ID::equals));
+        assertThrows(IllegalArgumentException.class, () -> new NetworkPointWriter(network, new MemDataSource(), 0, false));
+    }
+
+    @Test
+    void deltaNetworkPointTest() throws Exception {
+        // same networks, rebuilt from the network of the version and the deltas of the points
+        ExportOptions exportOptions = new ExportOptions();
+        exportOptions.setVersion(MetrixIidmConfiguration.load().getNetworkExportVersion());
+        checkNetworkPoints(dataSource -> new NetworkPointWriter(network, dataSource, 1, false, true), (dataSource, fileName, point, index) -> {
+            assertFalse(Files.exists(fileSystem.getPath(fileName + ".xiidm")));
+            Network networkPoint = NetworkPointWriter.readNetworkPoint(dataSource, 1, point, index);
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            NetworkXml.write(networkPoint, exportOptions, os);
+            return new ByteArrayInputStream(os.toByteArray());
+        });
+        assertTrue(Files.exists(fileSystem.getPath(network.getId() + NetworkPointWriter.getBaseSuffix(1) + ".xiidm")));
+
+        // compressed
+        checkNetworkPoints(dataSource -> new NetworkPointWriter(network, dataSource, 1, true, true), (dataSource, fileName, point, index) -> {
+            Network networkPoint = NetworkPointWriter.readNetworkPoint(dataSource, 1, point, index);
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            NetworkXml.write(networkPoint, exportOptions, os);
+            return new ByteArrayInputStream(os.toByteArray());
+        });
+        assertTrue(Files.exists(fileSystem.getPath(network.getId() + NetworkPointWriter.getBaseSuffix(1) + ".xiidm.gz")));
+    }
+
+    @Test
+    void invalidDeltaTest() {
+        assertThrows(UncheckedIOException.class, () -> NetworkPointWriter.applyDelta(network, new StringReader("id;value")));
+        assertThrows(UncheckedIOException.class, () -> NetworkPointWriter.applyDelta(network, new StringReader("type;id;attribute;value\nother;FSSV.O11_G;minP;1.0")));
+        assertThrows(IllegalStateException.class, () -> NetworkPointWriter.applyDelta(network, new StringReader("type;id;attribute;value\nmapping;unknown;minP;1.0")));
+        NetworkPointWriter.applyDelta(network, new StringReader("type;id;attribute;value\nmapping;FSSV.O11_G;minP;1.0\nlimit;FSSV.O11_G;maxP;2000.0"));
+        assertEquals(1d, network.getGenerator("FSSV.O11_G").getMinP(), 0d);
+        assertEquals(2000d, network.getGenerator("FSSV.O11_G").getMaxP(), 0d);
+    }
+
+    private void checkNetworkPoints(Function<DataSource, NetworkPointWriter> networkPointWriterFactory, NetworkPointReader networkPointReader) throws Exception {
 
         Path networkOutputDir = fileSystem.getPath(".");
 
@@ -318,7 +377,7 @@ class NetworkPointWriterTest {
 
         // Create NetworkPointWriter
         DataSource dataSource = DataSourceUtil.createDataSource(networkOutputDir, network.getId(), null);
-        NetworkPointWriter networkPointWriter = new NetworkPointWriter(network, dataSource);
+        NetworkPointWriter networkPointWriter = networkPointWriterFactory.apply(dataSource);
 
         // Create mapper
         TimeSeriesMappingLogger logger = new TimeSeriesMappingLogger();
@@ -330,26 +389,25 @@ class NetworkPointWriterTest {
 
         for (int point = 0; point < index.getPointCount(); point++) {
             String fileName = NetworkPointWriter.getFileName(network, 1, point, index);
-            Path actualFilePath = fileSystem.getPath(fileName + ".xiidm");
-            compareTxt(actualFilePath, expectedDirectoryName, fileName);
+            try (InputStream actual = networkPointReader.read(dataSource, fileName, point, index)) {
+                compareTxt(actual, expectedDirectoryName, fileName);
+            }
         }
     }
 
-    private void compareTxt(Path actualPath, String directoryName, String fileName) throws Exception {
+    private void compareTxt(InputStream actual, String directoryName, String fileName) throws Exception {
         try (InputStream expected = getClass().getResourceAsStream(directoryName + fileName)) {
-            try (InputStream actual = Files.newInputStream(actualPath)) {
-                // skip the two first lines : xml version line and network line (containing extensions)
-                // because extensions are not ordered in the same way for each test launching
-                BufferedReader expectedReader = new BufferedReader(new InputStreamReader(expected));
-                expectedReader.readLine();
-                expectedReader.readLine();
-                BufferedReader actualReader = new BufferedReader(new InputStreamReader(actual));
-                actualReader.readLine();
-                actualReader.readLine();
-                InputStream expectedStream = new ReaderInputStream(expectedReader, StandardCharsets.UTF_8);
-                InputStream actualStream = new ReaderInputStream(actualReader, StandardCharsets.UTF_8);
-                assertNotNull(compareStreamTxt(expectedStream, actualStream));
-            }
+            // skip the two first lines : xml version line and network line (containing extensions)
+            // because extensions are not ordered in the same way for each test launching
+            BufferedReader expectedReader = new BufferedReader(new InputStreamReader(expected));
+            expectedReader.readLine();
+            expectedReader.readLine();
+            BufferedReader actualReader = new BufferedReader(new InputStreamReader(actual));
+            actualReader.readLine();
+            actualReader.readLine();
+            InputStream expectedStream = new ReaderInputStream(expectedReader, StandardCharsets.UTF_8);
+            InputStream actualStream = new ReaderInputStream(actualReader, StandardCharsets.UTF_8);
+            assertNotNull(compareStreamTxt(expectedStream, actualStream));
         }
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.commons.json.JsonUtil;
+import com.powsybl.timeseries.TimeSeriesException;
+import com.powsybl.timeseries.ast.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeCalcJsonTest {
+
+    private static NodeCalc createNode() {
+        NodeCalc a = new TimeSeriesNameNodeCalc("a");
+        NodeCalc node = BinaryOperation.plus(a, UnaryOperation.abs(new MinNodeCalc(new MaxNodeCalc(new TimeNodeCalc(new IntegerNodeCalc(1)), 2.5), 3)));
+        node = BinaryOperation.multiply(node, BinaryOperation.div(new FloatNodeCalc(1.5f), new DoubleNodeCalc(2.25)));
+        node = BinaryOperation.minus(node, UnaryOperation.negative(new BigDecimalNodeCalc(new BigDecimal("1.5"))));
+        node = BinaryOperation.lessThan(node, BinaryOperation.lessThanOrEqualsTo(a, UnaryOperation.positive(a)));
+        node = BinaryOperation.greaterThan(node, BinaryOperation.greaterThanOrEqualsTo(a, new IntegerNodeCalc(2)));
+        return BinaryOperation.notEquals(BinaryOperation.equals(node, a), new BigDecimalNodeCalc(BigDecimal.valueOf(3)));
+    }
+
+    @Test
+    void sameFormatTest() {
+        NodeCalc node = createNode();
+        String json = NodeCalc.toJson(node);
+        assertEquals(json, JsonUtil.toJson(generator -> NodeCalcJson.writeJson(node, generator)));
+        assertEquals(node, NodeCalcJson.parseJson(json));
+        assertEquals(NodeCalc.parseJson(json), NodeCalcJson.parseJson(json));
+        assertEquals(node, NodeCalc.parseJson(NodeCalcJson.toJson(node)));
+        assertEquals(new IntegerNodeCalc(1), NodeCalcJson.parseJson("{\"integer\":1}"));
+    }
+
+    @Test
+    void invalidJsonTest() {
+        assertThrows(TimeSeriesException.class, () -> NodeCalcJson.parseJson("{}"));
+        assertThrows(TimeSeriesException.class, () -> NodeCalcJson.parseJson("{\"integer\":1,\"integer\":2}"));
+        assertThrows(TimeSeriesException.class, () -> NodeCalcJson.parseJson("{\"binaryOp\":{\"op\":\"PLUS\",\"integer\":1}}"));
+        assertThrows(TimeSeriesException.class, () -> NodeCalcJson.parseJson("[]"));
+    }
+
+    @Test
+    void deepNodeTest() {
+        NodeCalc node = new TimeSeriesNameNodeCalc("a");
+        for (int i = 0; i < 100000; i++) {
+            node = UnaryOperation.negative(BinaryOperation.plus(new IntegerNodeCalc(i), node));
+        }
+        String json = NodeCalcJson.toJson(node);
+        NodeCalc node2 = NodeCalcJson.parseJson(json);
+        assertEquals(json, NodeCalcJson.toJson(node2));
+    }
+}
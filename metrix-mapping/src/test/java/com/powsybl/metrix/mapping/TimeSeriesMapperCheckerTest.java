@@ -11,9 +11,7 @@ package com.powsybl.metrix.mapping;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Range;
 import com.powsybl.commons.datasource.MemDataSource;
-import com.powsybl.iidm.network.Generator;
-import com.powsybl.iidm.network.HvdcLine;
-import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.*;
 import com.powsybl.iidm.network.extensions.HvdcAngleDroopActivePowerControl;
 import com.powsybl.iidm.network.extensions.HvdcOperatorActivePowerRange;
 import com.powsybl.iidm.xml.NetworkXml;
@@ -24,12 +22,16 @@ import org.threeten.extra.Interval;
 
 import java.io.*;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TimeSeriesMapperCheckerTest {
 
@@ -796,6 +798,73 @@ class TimeSeriesMapperCheckerTest {
                 INFO, expectedLabel, expectedLabel, VARIANT_1, null, expectedSynthesisMessage);
     }
 
+    @Test
+    void restoreLimitsTest() {
+        Network network = createNetwork();
+        network.getGenerator("N_G").setMaxP(1000);
+        TimeSeriesIndex index = RegularTimeSeriesIndex.create(Interval.parse("1970-01-01T00:00:00Z/1970-01-01T03:00:00Z"), Duration.ofHours(1));
+        ReadOnlyTimeSeriesStore pointStore = new ReadOnlyTimeSeriesStoreCache(
+                TimeSeries.createDouble("chronique_2000", index, 2000d, 1500d, 1800d, 1900d));
+
+        List<String> updates = new ArrayList<>();
+        network.addListener(new DefaultNetworkListener() {
+            @Override
+            public void onUpdate(Identifiable identifiable, String attribute, Object oldValue, Object newValue) {
+                updates.add(identifiable.getId() + " " + attribute + " " + newValue);
+            }
+        });
+
+        // maxP extended at first point then restored once to the targetP without network writer
+        TimeSeriesMappingConfig mappingConfig = new TimeSeriesDslLoader(pmax2Script).load(network, mappingParameters, pointStore, null);
+        TimeSeriesMapper mapper = new TimeSeriesMapper(mappingConfig, network, new TimeSeriesMappingLogger());
+        TimeSeriesMapperParameters parameters = new TimeSeriesMapperParameters(new TreeSet<>(Collections.singleton(1)),
+                Range.closed(0, 3), true, false, true, mappingParameters.getToleranceThreshold());
+        BalanceSummary balanceSummary = new BalanceSummary();
+        mapper.mapToNetwork(pointStore, parameters, ImmutableList.of(balanceSummary));
+
+        assertEquals(List.of("N_G maxP 2001.0", "N_G maxP 2000.0"), updates);
+        assertEquals(2000, network.getGenerator("N_G").getMaxP(), 0);
+    }
+
+    private List<String> mapLimitChanges(Network network, String script) {
+        TimeSeriesMappingLogger logger = new TimeSeriesMappingLogger();
+        TimeSeriesMappingConfig mappingConfig = new TimeSeriesDslLoader(script).load(network, mappingParameters, store, null);
+        TimeSeriesMapperParameters parameters = new TimeSeriesMapperParameters(new TreeSet<>(Collections.singleton(1)),
+                Range.closed(0, 0), true, false, true, mappingParameters.getToleranceThreshold());
+        new TimeSeriesMapper(mappingConfig, network, logger).mapToNetwork(store, parameters, ImmutableList.of(new BalanceSummary()));
+        StringWriter output = new StringWriter();
+        try (BufferedWriter writer = new BufferedWriter(output)) {
+            logger.writeCsv(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Arrays.stream(output.toString().split(System.lineSeparator()))
+                .filter(line -> line.split(";")[1].startsWith(LIMIT_CHANGE))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void limitChangeLogOrderTest() {
+        Network network = createNetwork();
+        List<String> generators = ImmutableList.of("SO_G1", "SE_G", "N_G");
+        generators.forEach(id -> network.getGenerator(id).setMaxP(1000));
+        String script = String.join(System.lineSeparator(),
+                "mapToGenerators {",
+                "    timeSeriesName 'chronique_10000'",
+                "    filter { generator.id == 'SO_G1' || generator.id == 'SE_G' || generator.id == 'N_G' }",
+                "}");
+
+        // limit change logs follow the order of the mapped generators, whatever the network instance
+        List<String> logs = mapLimitChanges(NetworkXml.copy(network), script);
+        assertEquals(logs, mapLimitChanges(NetworkXml.copy(network), script));
+        List<String> mappedGenerators = new TimeSeriesDslLoader(script).load(network, mappingParameters, store, null)
+                .getTimeSeriesToGeneratorsMapping().values().iterator().next();
+        assertEquals(generators.size(), logs.size());
+        for (int i = 0; i < logs.size(); i++) {
+            assertTrue(logs.get(i).contains(" of " + mappedGenerators.get(i) + " "), logs.get(i));
+        }
+    }
+
     /*
      * HVDC TEST
      * base case values HVDC2
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.powsybl.iidm.network.Network;
+import com.powsybl.timeseries.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.threeten.extra.Interval;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesMappingConfigCacheTest {
+
+    private static final TimeSeriesIndex INDEX = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T00:00:00Z/2015-07-20T00:00:00Z"), Duration.ofDays(200));
+
+    @TempDir
+    Path cacheDir;
+
+    private static ReadOnlyTimeSeriesStore createStore(String... names) {
+        return new ReadOnlyTimeSeriesStoreCache(Stream.of(names).map(name -> TimeSeries.createDouble(name, INDEX, 1d, 1d)).collect(Collectors.toList()));
+    }
+
+    private List<Path> getCacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private TimeSeriesMappingConfig load(String script, Network network, MappingParameters parameters, ReadOnlyTimeSeriesStore store, StringWriter out) {
+        return new TimeSeriesDslLoader(script)
+                .setConfigCache(new TimeSeriesMappingConfigCache(cacheDir))
+                .load(network, parameters, store, out, null);
+    }
+
+    @Test
+    void cacheTest() throws IOException {
+        Network network = FilteringContextIndexTest.createNetwork(4, 3);
+        ReadOnlyTimeSeriesStore store = createStore("ts");
+        String script = String.join(System.lineSeparator(),
+                "parameters { toleranceThreshold 0.5f }",
+                FilteringContextIndexTest.createScript(4, 3),
+                "writeLog('INFO', 'section', 'message')");
+        StringWriter expectedOut = new StringWriter();
+        TimeSeriesMappingConfig expected = new TimeSeriesDslLoader(script).load(network, new MappingParameters(), store, expectedOut, null);
+
+        // first load stores the configuration
+        StringWriter out = new StringWriter();
+        assertEquals(expected, load(script, network, new MappingParameters(), store, out));
+        assertEquals(expectedOut.toString(), out.toString());
+        List<Path> files = getCacheFiles();
+        assertEquals(1, files.size());
+
+        // second load reads it, with the script logs and parameters
+        out = new StringWriter();
+        MappingParameters parameters = new MappingParameters();
+        TimeSeriesMappingConfig config = load(script, network, parameters, store, out);
+        assertEquals(expected, config);
+        assertEquals(expectedOut.toString(), out.toString());
+        assertEquals(0.5f, parameters.getToleranceThreshold(), 0f);
+        assertEquals(files, getCacheFiles());
+
+        // any change of the script, the store metadata, the parameters or the network structure gives another entry
+        load(script + System.lineSeparator(), network, new MappingParameters(), store, new StringWriter());
+        assertEquals(2, getCacheFiles().size());
+        load(script, network, new MappingParameters(), createStore("ts", "other"), new StringWriter());
+        assertEquals(3, getCacheFiles().size());
+        load(script, network, new MappingParameters().setWithTimeSeriesStats(true), store, new StringWriter());
+        assertEquals(4, getCacheFiles().size());
+        network.getVoltageLevel("VL0_400").getBusBreakerView().newBus().setId("VL0_400_other").add();
+        load(script, network, new MappingParameters(), store, new StringWriter());
+        assertEquals(5, getCacheFiles().size());
+        network.getVoltageLevel("VL0_400").getBusBreakerView().removeBus("VL0_400_other");
+
+        // unreadable entry is built again
+        Files.write(files.get(0), "corrupted".getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, load(script, network, new MappingParameters(), store, new StringWriter()));
+        assertEquals(expected, load(script, network, new MappingParameters(), store, new StringWriter()));
+        assertEquals(5, getCacheFiles().size());
+    }
+
+    @Test
+    void timeSeriesValuesTest() throws IOException {
+        Network network = FilteringContextIndexTest.createNetwork(2, 2);
+        ReadOnlyTimeSeriesStore store = createStore("ts");
+        // the configuration depends on the time series values
+        String script = "if (sum(ts['ts']) > 0) {" + System.lineSeparator()
+                + FilteringContextIndexTest.mapping("mapToGenerators", "generator.id == 'VL0_400_G0'") + System.lineSeparator()
+                + "}";
+        TimeSeriesMappingConfig config = load(script, network, new MappingParameters(), store, null);
+        assertEquals(1, config.getTimeSeriesToGeneratorsMapping().size());
+        assertTrue(getCacheFiles().isEmpty());
+    }
+
+    @Test
+    void networkFingerprintTest() throws IOException {
+        Network network = FilteringContextIndexTest.createNetwork(2, 2);
+        ReadOnlyTimeSeriesStore store = createStore("ts");
+        String script = FilteringContextIndexTest.mapping("mapToGenerators", "generator.maxP == 1000");
+
+        // equipment attributes are part of the default fingerprint
+        String fingerprint = TimeSeriesMappingConfigCache.fingerprint(network);
+        load(script, network, new MappingParameters(), store, null);
+        network.getGenerator("VL0_400_G0").setMaxP(1000);
+        assertNotEquals(fingerprint, TimeSeriesMappingConfigCache.fingerprint(network));
+        TimeSeriesMappingConfig config = load(script, network, new MappingParameters(), store, null);
+        assertEquals(2, getCacheFiles().size());
+        assertEquals(new TimeSeriesDslLoader(script).load(network, new MappingParameters(), store, null), config);
+
+        // but not of the structure fingerprint
+        String structureFingerprint = TimeSeriesMappingConfigCache.structureFingerprint(network);
+        network.getGenerator("VL0_400_G0").setMaxP(2000);
+        assertEquals(structureFingerprint, TimeSeriesMappingConfigCache.structureFingerprint(network));
+        Network other = FilteringContextIndexTest.createNetwork(2, 3);
+        other.setCaseDate(network.getCaseDate());
+        assertNotEquals(structureFingerprint, TimeSeriesMappingConfigCache.structureFingerprint(other));
+        network.setForecastDistance(60);
+        assertNotEquals(structureFingerprint, TimeSeriesMappingConfigCache.structureFingerprint(network));
+
+        // a fingerprint may be supplied by the caller
+        int[] networkVersion = {0};
+        TimeSeriesMappingConfigCache cache = new TimeSeriesMappingConfigCache(cacheDir, n -> Integer.toString(networkVersion[0]));
+        new TimeSeriesDslLoader(script).setConfigCache(cache).load(network, new MappingParameters(), store, null);
+        new TimeSeriesDslLoader(script).setConfigCache(cache).load(network, new MappingParameters(), store, null);
+        assertEquals(3, getCacheFiles().size());
+        networkVersion[0]++;
+        new TimeSeriesDslLoader(script).setConfigCache(cache).load(network, new MappingParameters(), store, null);
+        assertEquals(4, getCacheFiles().size());
+    }
+}
@@ -11,16 +11,23 @@ package com.powsybl.metrix.mapping;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.powsybl.timeseries.ast.IntegerNodeCalc;
-import com.powsybl.timeseries.ast.NodeCalc;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.powsybl.commons.json.JsonUtil;
+import com.powsybl.metrix.mapping.json.JsonFieldName;
+import com.powsybl.timeseries.ast.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.*;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TimeSeriesMappingConfigToJsonTest {
 
@@ -33,6 +40,7 @@ class TimeSeriesMappingConfigToJsonTest {
     private final Map<MappingKey, List<String>> timeSeriesToPhaseTapChangers = ImmutableMap.of(new MappingKey(EquipmentVariable.phaseTapPosition, "tsP"), ImmutableList.of("p1", "p2", "p3"));
     private final Map<MappingKey, List<String>> timeSeriesToBreakers = ImmutableMap.of(new MappingKey(EquipmentVariable.open, "tsB"), ImmutableList.of("b1"));
     private final Map<MappingKey, List<String>> timeSeriesToTransformers = ImmutableMap.of(new MappingKey(EquipmentVariable.ratedU1, "tsT"), ImmutableList.of("t1", "t2"));
+    private final Map<MappingKey, List<String>> timeSeriesToLines = ImmutableMap.of(new MappingKey(EquipmentVariable.open, "tsLine"), ImmutableList.of("line1", "line2"));
     private final Map<MappingKey, List<String>> timeSeriesToRatioTapChangers = ImmutableMap.of(new MappingKey(EquipmentVariable.ratioTapPosition, "tsTC"), ImmutableList.of("tc1", "tc2"));
     private final Map<MappingKey, List<String>> timeSeriesToLccConverterStations = ImmutableMap.of(new MappingKey(EquipmentVariable.powerFactor, "tsLcc"), ImmutableList.of("lcc1", "lcc2"));
     private final Map<MappingKey, List<String>> timeSeriesToVscConverterStations = ImmutableMap.of(new MappingKey(EquipmentVariable.reactivePowerSetpoint, "tsVsc"), ImmutableList.of("vsc1", "vsc2"));
@@ -44,6 +52,7 @@ class TimeSeriesMappingConfigToJsonTest {
     private final Map<MappingKey, List<String>> phaseTapChangerToTimeSeries = ImmutableMap.of(new MappingKey(EquipmentVariable.phaseTapPosition, "p1"), ImmutableList.of("tsP"));
     private final Map<MappingKey, List<String>> breakerToTimeSeries = ImmutableMap.of(new MappingKey(EquipmentVariable.open, "b1"), ImmutableList.of("tsB"));
     private final Map<MappingKey, List<String>> transformerToTimeSeries = ImmutableMap.of(new MappingKey(EquipmentVariable.ratedU1, "h1"), ImmutableList.of("tsT"));
+    private final Map<MappingKey, List<String>> lineToTimeSeries = ImmutableMap.of(new MappingKey(EquipmentVariable.open, "line1"), ImmutableList.of("tsLine"));
     private final Map<MappingKey, List<String>> ratioTapChangerToTimeSeries = ImmutableMap.of(new MappingKey(EquipmentVariable.ratioTapPosition, "tc1"), ImmutableList.of("tsTC"));
     private final Map<MappingKey, List<String>> lccConverterStationToTimeSeries = ImmutableMap.of(new MappingKey(EquipmentVariable.powerFactor, "lcc1"), ImmutableList.of("tsLcc"));
     private final Map<MappingKey, List<String>> vscConverterStationToTimeSeries = ImmutableMap.of(new MappingKey(EquipmentVariable.reactivePowerSetpoint, "vsc1"), ImmutableList.of("tsVsc"));
@@ -55,6 +64,7 @@ class TimeSeriesMappingConfigToJsonTest {
     private final Set<MappingKey> phaseTapChangerTs = ImmutableSet.of(new MappingKey(EquipmentVariable.phaseTapPosition, "p"));
     private final Set<MappingKey> breakerTs = ImmutableSet.of(new MappingKey(EquipmentVariable.open, "b"));
     private final Set<MappingKey> transformerTs = ImmutableSet.of(new MappingKey(EquipmentVariable.ratedU1, "t1"), new MappingKey(EquipmentVariable.ratedU2, "t2"));
+    private final Set<MappingKey> lineTs = ImmutableSet.of(new MappingKey(EquipmentVariable.open, "line1"));
     private final Set<MappingKey> ratioTapChangerTs = ImmutableSet.of(new MappingKey(EquipmentVariable.ratioTapPosition, "tc1"), new MappingKey(EquipmentVariable.loadTapChangingCapabilities, "tc2"));
     private final Set<MappingKey> lccConverterStationTs = ImmutableSet.of(new MappingKey(EquipmentVariable.powerFactor, "lcc1"));
     private final Set<MappingKey> vscConverterStationTs = ImmutableSet.of(new MappingKey(EquipmentVariable.voltageRegulatorOn, "vsc1"), new MappingKey(EquipmentVariable.voltageSetpoint, "vsc2"));
@@ -86,7 +96,8 @@ class TimeSeriesMappingConfigToJsonTest {
     private final Set<String> outOfMainCcLoads = ImmutableSet.of("ol1", "ol2");
     private final Set<String> outOfMainCcDanglingLines = ImmutableSet.of("odl1");
 
-    private final Map<String, NodeCalc> timeSeriesNodes = ImmutableMap.of("ts", new IntegerNodeCalc(10));
+    private final Map<String, NodeCalc> timeSeriesNodes = ImmutableMap.of("ts", new IntegerNodeCalc(10),
+            "calculated", BinaryOperation.plus(new TimeSeriesNameNodeCalc("ts"), UnaryOperation.abs(new MinNodeCalc(new DoubleNodeCalc(2.5), 1))));
     private final Map<MappingKey, DistributionKey> distributionKeys = ImmutableMap.of(new MappingKey(EquipmentVariable.targetP, "id"), new NumberDistributionKey(2.0));
     private final Map<String, Set<MappingKey>> timeSeriesToEquipment = ImmutableMap.of("ts", ImmutableSet.of(new MappingKey(OtherVariable.OTHER_VARIABLE, "id")));
     private final Map<MappingKey, String> equipmentToTimeSeries = ImmutableMap.of(new MappingKey(OtherVariable.OTHER_VARIABLE, "id"), "ts");
@@ -104,6 +115,7 @@ class TimeSeriesMappingConfigToJsonTest {
         config.setTimeSeriesToPhaseTapChangersMapping(timeSeriesToPhaseTapChangers);
         config.setTimeSeriesToBreakersMapping(timeSeriesToBreakers);
         config.setTimeSeriesToTransformersMapping(timeSeriesToTransformers);
+        config.setTimeSeriesToLinesMapping(timeSeriesToLines);
         config.setTimeSeriesToRatioTapChangersMapping(timeSeriesToRatioTapChangers);
         config.setTimeSeriesToLccConverterStationsMapping(timeSeriesToLccConverterStations);
         config.setTimeSeriesToVscConverterStationsMapping(timeSeriesToVscConverterStations);
@@ -115,6 +127,7 @@ class TimeSeriesMappingConfigToJsonTest {
         config.setPhaseTapChangerToTimeSeriesMapping(phaseTapChangerToTimeSeries);
         config.setBreakerToTimeSeriesMapping(breakerToTimeSeries);
         config.setTransformerToTimeSeriesMapping(transformerToTimeSeries);
+        config.setLineToTimeSeriesMapping(lineToTimeSeries);
         config.setRatioTapChangerToTimeSeriesMapping(ratioTapChangerToTimeSeries);
         config.setLccConverterStationToTimeSeriesMapping(lccConverterStationToTimeSeries);
         config.setVscConverterStationToTimeSeriesMapping(vscConverterStationToTimeSeries);
@@ -126,6 +139,7 @@ class TimeSeriesMappingConfigToJsonTest {
         config.setPhaseTapChangerTimeSeries(phaseTapChangerTs);
         config.setBreakerTimeSeries(breakerTs);
         config.setTransformerTimeSeries(transformerTs);
+        config.setLineTimeSeries(lineTs);
         config.setRatioTapChangerTimeSeries(ratioTapChangerTs);
         config.setLccConverterStationTimeSeries(lccConverterStationTs);
         config.setVscConverterStationTimeSeries(vscConverterStationTs);
@@ -176,6 +190,7 @@ class TimeSeriesMappingConfigToJsonTest {
         assertEquals(timeSeriesToPhaseTapChangers, config.getTimeSeriesToPhaseTapChangersMapping());
         assertEquals(timeSeriesToBreakers, config.getTimeSeriesToBreakersMapping());
         assertEquals(timeSeriesToTransformers, config.getTimeSeriesToTransformersMapping());
+        assertEquals(timeSeriesToLines, config.getTimeSeriesToLinesMapping());
         assertEquals(timeSeriesToRatioTapChangers, config.getTimeSeriesToRatioTapChangersMapping());
         assertEquals(timeSeriesToLccConverterStations, config.getTimeSeriesToLccConverterStationsMapping());
         assertEquals(timeSeriesToVscConverterStations, config.getTimeSeriesToVscConverterStationsMapping());
@@ -187,6 +202,7 @@ class TimeSeriesMappingConfigToJsonTest {
         assertEquals(phaseTapChangerToTimeSeries, config.getPhaseTapChangerToTimeSeriesMapping());
         assertEquals(breakerToTimeSeries, config.getBreakerToTimeSeriesMapping());
         assertEquals(transformerToTimeSeries, config.getTransformerToTimeSeriesMapping());
+        assertEquals(lineToTimeSeries, config.getLineToTimeSeriesMapping());
         assertEquals(ratioTapChangerToTimeSeries, config.getRatioTapChangerToTimeSeriesMapping());
         assertEquals(lccConverterStationToTimeSeries, config.getLccConverterStationToTimeSeriesMapping());
         assertEquals(vscConverterStationToTimeSeries, config.getVscConverterStationToTimeSeriesMapping());
@@ -198,6 +214,7 @@ class TimeSeriesMappingConfigToJsonTest {
         assertEquals(phaseTapChangerTs, config.getPhaseTapChangerTimeSeries());
         assertEquals(breakerTs, config.getBreakerTimeSeries());
         assertEquals(transformerTs, config.getTransformerTimeSeries());
+        assertEquals(lineTs, config.getLineTimeSeries());
         assertEquals(ratioTapChangerTs, config.getRatioTapChangerTimeSeries());
         assertEquals(lccConverterStationTs, config.getLccConverterStationTimeSeries());
         assertEquals(vscConverterStationTs, config.getVscConverterStationTimeSeries());
@@ -243,5 +260,58 @@ class TimeSeriesMappingConfigToJsonTest {
         String json = TimeSeriesMappingConfigJson.toJson(config);
         TimeSeriesMappingConfig config2 = TimeSeriesMappingConfigJson.parseJson(json);
         assertEquals(config, config2);
+        assertEquals(config.getTimeSeriesNodes(), config2.getTimeSeriesNodes());
+        assertEquals(config.getDistributionKeys(), config2.getDistributionKeys());
+
+        // every field is written and read
+        for (JsonFieldName fieldName : EnumSet.complementOf(EnumSet.of(JsonFieldName.MAPPING_KEY, JsonFieldName.MAPPING_KEYS,
+                JsonFieldName.MAPPING_LIST, JsonFieldName.DISTRIBUTION, JsonFieldName.TIME_SERIES_NAME, JsonFieldName.OUTAGES))) {
+            assertTrue(json.contains('"' + fieldName.getFieldName() + '"'), fieldName::toString);
+        }
+
+        // the configuration may be part of a larger document
+        String document = "{\"config\":" + json + ",\"other\":1}";
+        config2 = JsonUtil.parseJson(document, parser -> {
+            try {
+                assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+                assertEquals(JsonToken.FIELD_NAME, parser.nextToken());
+                TimeSeriesMappingConfig parsed = TimeSeriesMappingConfigJson.parseJson(parser);
+                assertEquals("other", parser.nextFieldName());
+                return parsed;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertEquals(config, config2);
+    }
+
+    @Test
+    void testJsonDeepTimeSeriesNode() {
+        // deeper than the recursive node calc JSON serialization supports on the default thread stack
+        NodeCalc node = new TimeSeriesNameNodeCalc("ts");
+        for (int i = 0; i < 100000; i++) {
+            node = BinaryOperation.plus(node, new IntegerNodeCalc(i));
+        }
+        TimeSeriesMappingConfig deepConfig = new TimeSeriesMappingConfig();
+        deepConfig.setTimeSeriesNodes(ImmutableMap.of("deep", node));
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            new TimeSeriesMappingConfigJson(deepConfig).toJson(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TimeSeriesMappingConfig deepConfig2 = TimeSeriesMappingConfigJson.parseJson(writer.toString());
+        // node calc equality is recursive, compare the JSON
+        assertEquals(NodeCalcJson.toJson(node), NodeCalcJson.toJson(deepConfig2.getTimeSeriesNodes().get("deep")));
+    }
+
+    @Test
+    void testBinary() throws IOException {
+        config.setDistributionKeys(ImmutableMap.of(new MappingKey(EquipmentVariable.p0, "dl1"), new TimeSeriesDistributionKey("tsDL")));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TimeSeriesMappingConfigBinary.write(config, new DataOutputStream(bytes));
+        TimeSeriesMappingConfig config2 = TimeSeriesMappingConfigBinary.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(config, config2);
+        assertEquals(config.getDistributionKeys(), config2.getDistributionKeys());
     }
 }
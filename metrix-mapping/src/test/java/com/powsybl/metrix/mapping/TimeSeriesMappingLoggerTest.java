@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.powsybl.commons.json.JsonUtil;
+import com.powsybl.metrix.mapping.log.*;
+import com.powsybl.timeseries.RegularTimeSeriesIndex;
+import com.powsybl.timeseries.TimeSeriesIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.threeten.extra.Interval;
+
+import java.io.BufferedWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesMappingLoggerTest {
+
+    private static final TimeSeriesIndex INDEX = RegularTimeSeriesIndex.create(Interval.parse("2015-01-01T00:00:00Z/2015-01-01T23:00:00Z"), Duration.ofHours(1));
+
+    @TempDir
+    Path tmpDir;
+
+    private static Log createLog(int version, int point, String id) {
+        LogContent logContent = new LimitLogBuilder().id(id).variable("targetP").variableToChange("maxP").nbViolation(1)
+                .oldValue(10).newValue(20).isMax().build();
+        return new LogBuilder().level(System.Logger.Level.INFO).index(INDEX).version(version).point(point).logDescription(logContent).build();
+    }
+
+    private static List<Log> createLogs() {
+        List<Log> logs = new ArrayList<>();
+        for (int point = 0; point < INDEX.getPointCount(); point++) {
+            logs.add(createLog(1, point, "g1"));
+            if (point % 2 == 0) {
+                logs.add(createLog(1, point, "g2"));
+            }
+        }
+        logs.add(createLog(2, TimeSeriesMapper.CONSTANT_VARIANT_ID, "g1"));
+        return logs;
+    }
+
+    private static String writeCsv(TimeSeriesMappingLogger logger) throws Exception {
+        StringWriter output = new StringWriter();
+        try (BufferedWriter writer = new BufferedWriter(output)) {
+            logger.writeCsv(writer, ZoneOffset.UTC);
+        }
+        return output.toString();
+    }
+
+    @Test
+    void groupTest() throws Exception {
+        TimeSeriesMappingLogger logger = new TimeSeriesMappingLogger();
+        createLogs().forEach(logger::addLog);
+
+        List<LogGroup> groups = new ArrayList<>(logger.getLogGroups());
+        assertEquals(2, groups.size());
+        LogGroup group = groups.get(0);
+        assertEquals("g1", group.getKey());
+        assertEquals("limit change / maxP", group.getLabel());
+        assertEquals(System.Logger.Level.INFO, group.getLevel());
+        assertEquals(25, group.getCount());
+        assertEquals(1, group.getFirstVersion());
+        assertEquals(0, group.getFirstPoint());
+        assertEquals(2, group.getLastVersion());
+        assertEquals(TimeSeriesMapper.CONSTANT_VARIANT_ID, group.getLastPoint());
+        assertEquals("g2", groups.get(1).getKey());
+        assertEquals(12, groups.get(1).getCount());
+        assertEquals(22, groups.get(1).getLastPoint());
+
+        StringWriter output = new StringWriter();
+        try (BufferedWriter writer = new BufferedWriter(output)) {
+            logger.writeSynthesisCsv(writer, ZoneOffset.UTC);
+        }
+        String[] lines = output.toString().split(System.lineSeparator());
+        assertEquals(3, lines.length);
+        assertEquals("Type;Label;Key;Count;First time;First variant;First version;Last time;Last variant;Last version", lines[0]);
+        assertEquals("INFO;limit change / maxP;g1;25;2015-01-01T00:00:00Z;1;1;;all;2", lines[1]);
+        assertEquals("INFO;limit change / maxP;g2;12;2015-01-01T00:00:00Z;1;1;2015-01-01T22:00:00Z;23;1", lines[2]);
+    }
+
+    @Test
+    void boundedTest() throws Exception {
+        TimeSeriesMappingLogger logger = new TimeSeriesMappingLogger();
+        TimeSeriesMappingLogger boundedLogger = new TimeSeriesMappingLogger(10);
+        List<Log> logs = createLogs();
+        logs.forEach(logger::addLog);
+        logs.forEach(boundedLogger::addLog);
+
+        // first detailed logs only, but all logs aggregated
+        assertEquals(logs.size() - 10, boundedLogger.getDroppedLogCount());
+        assertEquals(0, logger.getDroppedLogCount());
+        String[] lines = writeCsv(logger).split(System.lineSeparator());
+        String[] boundedLines = writeCsv(boundedLogger).split(System.lineSeparator());
+        assertEquals(logs.size() + 1, lines.length);
+        assertEquals(11, boundedLines.length);
+        for (int i = 0; i < 11; i++) {
+            assertEquals(lines[i], boundedLines[i]);
+        }
+
+        // json output is still the array of the detailed logs
+        Path jsonFile = tmpDir.resolve("logs.json");
+        boundedLogger.writeJson(jsonFile);
+        JsonNode json = JsonUtil.createObjectMapper().readTree(jsonFile.toFile());
+        assertTrue(json.isArray());
+        assertEquals(10, json.size());
+        assertEquals(37, boundedLogger.getLogGroups().stream().mapToInt(LogGroup::getCount).sum());
+        assertThrows(IllegalArgumentException.class, () -> new TimeSeriesMappingLogger(-1));
+    }
+
+    @Test
+    void spillTest() throws Exception {
+        TimeSeriesMappingLogger logger = new TimeSeriesMappingLogger();
+        Path spillFile = tmpDir.resolve("logs.csv");
+        List<Log> logs = createLogs();
+        logs.forEach(logger::addLog);
+        try (TimeSeriesMappingLogger spillLogger = new TimeSeriesMappingLogger(spillFile, ZoneOffset.UTC)) {
+            logs.forEach(spillLogger::addLog);
+
+            // same detailed logs, read back from the spill file
+            String expected = writeCsv(logger);
+            assertEquals(expected, writeCsv(spillLogger));
+            spillLogger.writeCsv(spillFile);
+            assertEquals(expected, Files.readString(spillFile, StandardCharsets.UTF_8));
+            Path otherFile = tmpDir.resolve("other.csv");
+            spillLogger.writeCsv(otherFile, ZoneOffset.UTC);
+            assertEquals(expected, Files.readString(otherFile, StandardCharsets.UTF_8));
+            assertEquals(2, spillLogger.getLogGroups().size());
+            assertEquals(0, spillLogger.getDroppedLogCount());
+
+            // same json output, streamed from the spilled logs
+            Path expectedJsonFile = tmpDir.resolve("expected.json");
+            logger.writeJson(expectedJsonFile);
+            Path jsonFile = tmpDir.resolve("logs.json");
+            spillLogger.writeJson(jsonFile);
+            assertEquals(Files.readString(expectedJsonFile, StandardCharsets.UTF_8), Files.readString(jsonFile, StandardCharsets.UTF_8));
+        }
+        // temporary json spill file deleted on close
+        try (Stream<Path> files = Files.list(tmpDir)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".json") && file.getFileName().toString().startsWith("logs.csv")));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping;
+
+import com.google.common.collect.ImmutableSet;
+import com.powsybl.metrix.mapping.timeseries.InMemoryTimeSeriesStore;
+import com.powsybl.timeseries.*;
+import com.powsybl.timeseries.ast.BinaryOperation;
+import com.powsybl.timeseries.ast.DoubleNodeCalc;
+import com.powsybl.timeseries.ast.NodeCalc;
+import com.powsybl.timeseries.ast.TimeSeriesNameNodeCalc;
+import org.junit.jupiter.api.Test;
+import org.threeten.extra.Interval;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.DoubleStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class TimeSeriesStatsTest {
+
+    // Reference implementation, computing each statistic in its own pass
+    private static DoubleStream stream(NodeCalc nodeCalc, int version, ReadOnlyTimeSeriesStore store, ComputationRange range) {
+        return Arrays.stream(TimeSeriesMappingConfig.createCalculatedTimeSeries(nodeCalc, version, store).toArray())
+                .skip(range.getFirstVariant())
+                .limit(range.getVariantCount());
+    }
+
+    private static double[] referenceStats(NodeCalc nodeCalc, ReadOnlyTimeSeriesStore store, ComputationRange range) {
+        double min = range.getVersions().stream().mapToDouble(v -> stream(nodeCalc, v, store, range).min().orElse(Double.NaN)).min().orElse(Double.NaN);
+        double max = range.getVersions().stream().mapToDouble(v -> stream(nodeCalc, v, store, range).max().orElse(Double.NaN)).max().orElse(Double.NaN);
+        double avg = range.getVersions().stream().mapToDouble(v -> stream(nodeCalc, v, store, range).average().orElse(Double.NaN)).average().orElse(Double.NaN);
+        double sum = range.getVersions().stream().mapToDouble(v -> stream(nodeCalc, v, store, range).sum()).sum();
+        double[] values = range.getVersions().stream().flatMapToDouble(v -> stream(nodeCalc, v, store, range)).toArray();
+        double median = Arrays.stream(values).sorted().skip(values.length / 2).findFirst().orElse(Double.NaN);
+        return new double[] {min, max, avg, sum, median};
+    }
+
+    private static double[] stats(TimeSeriesStats stats, NodeCalc nodeCalc, ComputationRange range) {
+        return new double[] {
+            stats.getMin(nodeCalc, range),
+            stats.getMax(nodeCalc, range),
+            stats.getAvg(nodeCalc, range),
+            stats.getSum(nodeCalc, range),
+            stats.getMedian(nodeCalc, range)
+        };
+    }
+
+    private static InMemoryTimeSeriesStore createStore() {
+        Random random = new Random(0);
+        StringBuilder csv = new StringBuilder("Time;Version;ts1;ts2;ts3").append(System.lineSeparator());
+        for (int version = 1; version <= 2; version++) {
+            Instant time = Instant.parse("2000-01-01T00:00:00Z");
+            for (int point = 0; point < 101; point++) {
+                csv.append(time).append(';').append(version)
+                        .append(';').append(random.nextDouble() * 100 - 50)
+                        .append(';').append(random.nextInt(5))
+                        .append(';').append(point == 42 && version == 2 ? "NaN" : Double.toString(random.nextGaussian()))
+                        .append(System.lineSeparator());
+                time = time.plus(Duration.ofHours(1));
+            }
+        }
+        InMemoryTimeSeriesStore store = new InMemoryTimeSeriesStore();
+        store.importTimeSeries(new BufferedReader(new StringReader(csv.toString())));
+        return store;
+    }
+
+    @Test
+    void sameAsReferenceTest() {
+        InMemoryTimeSeriesStore store = createStore();
+        TimeSeriesStats stats = new TimeSeriesStats(store);
+        List<NodeCalc> nodes = Arrays.asList(
+                new TimeSeriesNameNodeCalc("ts1"),
+                new TimeSeriesNameNodeCalc("ts2"),
+                new TimeSeriesNameNodeCalc("ts3"),
+                BinaryOperation.plus(new TimeSeriesNameNodeCalc("ts1"), new DoubleNodeCalc(2.5)));
+        List<ComputationRange> ranges = Arrays.asList(
+                new ComputationRange(ImmutableSet.of(1), 0, 101),
+                new ComputationRange(ImmutableSet.of(2), 10, 50),
+                new ComputationRange(ImmutableSet.of(1, 2), 0, 101),
+                new ComputationRange(ImmutableSet.of(1, 2), 100, 10),
+                new ComputationRange(ImmutableSet.of(1), 200, 10));
+        for (int pass = 0; pass < 2; pass++) {
+            for (NodeCalc node : nodes) {
+                for (ComputationRange range : ranges) {
+                    assertEquals(Arrays.toString(referenceStats(node, store, range)), Arrays.toString(stats(stats, node, range)));
+                }
+            }
+        }
+        ComputationRange range = new ComputationRange(ImmutableSet.of(1, 2), 0, 101);
+        assertEquals(referenceStats(new TimeSeriesNameNodeCalc("ts1"), store, range)[4], TimeSeriesMappingConfig.getTimeSeriesMedian("ts1", store, range));
+    }
+
+    @Test
+    void selectTest() {
+        Random random = new Random(1);
+        for (int n = 1; n < 200; n++) {
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = random.nextInt(3) == 0 ? random.nextInt(4) : random.nextDouble();
+            }
+            values[random.nextInt(n)] = -0.0;
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int k = random.nextInt(n);
+            assertEquals(sorted[k], TimeSeriesStats.select(values, 0, n, k));
+        }
+    }
+
+    @Test
+    void cacheInvalidationTest() {
+        TimeSeriesMappingConfig config = new TimeSeriesMappingConfig();
+        ReadOnlyTimeSeriesStore store1 = createStore();
+        ReadOnlyTimeSeriesStore store2 = createStore();
+        TimeSeriesStats stats = config.getTimeSeriesStats(store1);
+        assertSame(stats, config.getTimeSeriesStats(store1));
+        assertNotSame(stats, config.getTimeSeriesStats(store2));
+    }
+
+    @Test
+    void randomSeriesTest() {
+        int seriesCount = 50;
+        int pointCount = 200;
+        TimeSeriesIndex index = RegularTimeSeriesIndex.create(Interval.parse("2000-01-01T00:00:00Z/2000-01-09T07:00:00Z"), Duration.ofHours(1));
+        Random random = new Random(0);
+        List<DoubleTimeSeries> timeSeries = new ArrayList<>(seriesCount);
+        List<NodeCalc> nodes = new ArrayList<>(seriesCount);
+        for (int i = 0; i < seriesCount; i++) {
+            double[] values = new double[pointCount];
+            for (int j = 0; j < pointCount; j++) {
+                values[j] = random.nextDouble();
+            }
+            timeSeries.add(TimeSeries.createDouble("ts" + i, index, values));
+            nodes.add(new TimeSeriesNameNodeCalc("ts" + i));
+        }
+        ReadOnlyTimeSeriesStore store = new ReadOnlyTimeSeriesStoreCache(timeSeries);
+        ComputationRange range = new ComputationRange(Collections.singleton(1), 0, pointCount);
+
+        // same statistics as the one pass per statistic computation, computed then read from cache
+        TimeSeriesStats stats = new TimeSeriesStats(store);
+        for (int pass = 0; pass < 2; pass++) {
+            for (NodeCalc node : nodes) {
+                assertEquals(Arrays.toString(referenceStats(node, store, range)), Arrays.toString(stats(stats, node, range)));
+            }
+        }
+    }
+}
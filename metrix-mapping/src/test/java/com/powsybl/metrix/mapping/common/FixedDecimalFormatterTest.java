@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping.common;
+
+import com.google.common.base.Strings;
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixedDecimalFormatterTest {
+
+    private static final double[] SPECIAL_VALUES = {
+        0, -0.0, 1, -1, 0.1, 0.2, 0.1 + 0.2, 0.0005, -0.0005, 0.0015, -0.0001, 0.5, 1.5, 2.5, -2.5,
+        1.0625, -1.0625, 1.0005, 9.9995, 123.456, 999.9995, 999.9999, 1e-10, -1e-10, Double.MIN_VALUE,
+        1e11 + 0.0625, 999999999999.9, 1e12, 123456789012.3456, 1e20, -1e20, Double.MAX_VALUE,
+        Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+
+    private static void assertSameFormat(DecimalFormat expected, FixedDecimalFormatter formatter, double value) {
+        assertEquals(expected.format(value), formatter.format(value), () -> "Value " + value);
+    }
+
+    @Test
+    void sameAsDecimalFormatTest() {
+        Random random = new Random(0);
+        for (int fractionDigits = 0; fractionDigits <= 4; fractionDigits++) {
+            String pattern = fractionDigits == 0 ? "0" : "0." + Strings.repeat("#", fractionDigits);
+            DecimalFormat expected = new DecimalFormat(pattern, new DecimalFormatSymbols(Locale.US));
+            FixedDecimalFormatter formatter = new FixedDecimalFormatter(fractionDigits);
+            for (double value : SPECIAL_VALUES) {
+                assertSameFormat(expected, formatter, value);
+            }
+            for (int i = 0; i < 100000; i++) {
+                // mix of arbitrary doubles, decimal values and exact ties
+                assertSameFormat(expected, formatter, (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(14)));
+                assertSameFormat(expected, formatter, (random.nextInt(2000000) - 1000000) / 1000.0);
+                assertSameFormat(expected, formatter, (random.nextInt(2000000) - 1000000) / 1024.0);
+            }
+        }
+    }
+
+    @Test
+    void appendTest() {
+        FixedDecimalFormatter formatter = new FixedDecimalFormatter(3);
+        StringBuilder builder = new StringBuilder("a;");
+        formatter.format(1.23456, builder).append(';');
+        formatter.format(Double.NaN, builder);
+        assertEquals("a;1.235;NaN", builder.toString());
+        assertEquals(3, formatter.getFractionDigits());
+    }
+
+    @Test
+    void invalidFractionDigitsTest() {
+        assertThrows(IllegalArgumentException.class, () -> new FixedDecimalFormatter(-1));
+        assertThrows(IllegalArgumentException.class, () -> new FixedDecimalFormatter(10));
+    }
+}
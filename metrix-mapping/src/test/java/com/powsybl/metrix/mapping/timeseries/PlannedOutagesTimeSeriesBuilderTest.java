@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2021, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ *
+ */
+
+package com.powsybl.metrix.mapping.timeseries;
+
+import com.google.common.collect.ImmutableSet;
+import com.powsybl.metrix.mapping.TimeSeriesMappingConfig;
+import com.powsybl.timeseries.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static com.powsybl.metrix.mapping.TimeSeriesMapper.CONNECTED_VALUE;
+import static com.powsybl.metrix.mapping.TimeSeriesMapper.DISCONNECTED_VALUE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlannedOutagesTimeSeriesBuilderTest {
+
+    private static final String[] VALUES = {"", "g1", "g1,g2", "g2,l1", "l1,,g1", "g3"};
+
+    private static final Set<String> IDS = ImmutableSet.of("g1", "g2", "g3", "l1", "unknown");
+
+    private static final TimeSeriesIndex INDEX = RegularTimeSeriesIndex.create(Instant.parse("2000-01-01T00:00:00Z"), Instant.parse("2000-01-05T03:00:00Z"), Duration.ofHours(1));
+
+    private static double[] referenceValues(String[] array, String id) {
+        double[] values = new double[array.length];
+        for (int i = 0; i < array.length; i++) {
+            values[i] = Arrays.asList(array[i].split(",")).contains(id) ? DISCONNECTED_VALUE : CONNECTED_VALUE;
+        }
+        return values;
+    }
+
+    private static void assertSameAsReference(StringTimeSeries timeSeries) {
+        String[] array = timeSeries.toArray();
+        PlannedOutagesTimeSeriesBuilder builder = new PlannedOutagesTimeSeriesBuilder(timeSeries, INDEX);
+        Set<String> expectedIds = new HashSet<>();
+        for (String value : array) {
+            expectedIds.addAll(Arrays.asList(value.split(",")));
+        }
+        expectedIds.remove("");
+        assertEquals(expectedIds, builder.getDisconnectedIds());
+        for (String id : IDS) {
+            DoubleTimeSeries doubleTimeSeries = builder.build(id);
+            assertEquals("outages_" + id, doubleTimeSeries.getMetadata().getName());
+            assertArrayEquals(referenceValues(array, id), doubleTimeSeries.toArray());
+        }
+    }
+
+    @Test
+    void uncompressedTest() {
+        Random random = new Random(0);
+        String[] array = new String[INDEX.getPointCount()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = VALUES[random.nextInt(VALUES.length)];
+        }
+        assertSameAsReference(new StringTimeSeries(new TimeSeriesMetadata("outages", TimeSeriesDataType.STRING, INDEX),
+                new UncompressedStringDataChunk(0, array)));
+    }
+
+    @Test
+    void compressedTest() {
+        Random random = new Random(1);
+        List<StringDataChunk> chunks = new ArrayList<>();
+        int offset = 0;
+        while (offset < INDEX.getPointCount()) {
+            int length = Math.min(INDEX.getPointCount() - offset, 10 + random.nextInt(20));
+            String[] array = new String[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = VALUES[(i / 4 + offset) % VALUES.length];
+            }
+            // mix compressed and uncompressed chunks
+            chunks.add(random.nextBoolean() ? new UncompressedStringDataChunk(offset, array).tryToCompress() : new UncompressedStringDataChunk(offset, array));
+            offset += length;
+        }
+        assertTrue(chunks.stream().anyMatch(DataChunk::isCompressed));
+        assertSameAsReference(new StringTimeSeries(new TimeSeriesMetadata("outages", TimeSeriesDataType.STRING, INDEX), chunks));
+    }
+
+    @Test
+    void plannedOutagesStoreTest() {
+        StringBuilder csv = new StringBuilder("Time;Version;outages;ts").append(System.lineSeparator());
+        Instant time = Instant.parse("2000-01-01T00:00:00Z");
+        for (int i = 0; i < 100; i++) {
+            csv.append(time).append(";1;").append(i < 50 ? "g1,g2" : "g2").append(';').append(i).append(System.lineSeparator());
+            time = time.plus(Duration.ofHours(1));
+        }
+        InMemoryTimeSeriesStore store = new InMemoryTimeSeriesStore();
+        store.importTimeSeries(new BufferedReader(new StringReader(csv.toString())));
+
+        TimeSeriesMappingConfig config = new TimeSeriesMappingConfig();
+        config.addPlannedOutages("outages", ImmutableSet.of("g1", "g2"));
+        ReadOnlyTimeSeriesStore storeWithPlannedOutages = config.getPlannedOutagesTimeSeriesStore(store, 1);
+        assertSame(storeWithPlannedOutages, config.getPlannedOutagesTimeSeriesStore(store, 1));
+
+        DoubleTimeSeries g1 = storeWithPlannedOutages.getDoubleTimeSeries("outages_g1", 1).orElseThrow(AssertionError::new);
+        assertTrue(((StoredDoubleTimeSeries) g1).getChunks().get(0).isCompressed());
+        assertArrayEquals(referenceValues(store.getStringTimeSeries("outages", 1).orElseThrow(AssertionError::new).toArray(), "g1"), g1.toArray());
+        assertTrue(storeWithPlannedOutages.timeSeriesExists("ts"));
+
+        config.addPlannedOutages("outages", ImmutableSet.of("g1"));
+        ReadOnlyTimeSeriesStore rebuiltStore = config.getPlannedOutagesTimeSeriesStore(store, 1);
+        assertNotSame(storeWithPlannedOutages, rebuiltStore);
+        assertFalse(rebuiltStore.timeSeriesExists("outages_g2"));
+    }
+}
@@ -34,6 +34,7 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -116,12 +117,30 @@ public class MappingTool implements Tool {
                         .hasArg()
                         .argName("DIR")
                         .build());
+                options.addOption(Option.builder()
+                        .longOpt("network-output-threads")
+                        .desc("number of threads writing IIDM networks, default is 1")
+                        .hasArg()
+                        .argName("COUNT")
+                        .build());
+                options.addOption(Option.builder()
+                        .longOpt("network-output-compress")
+                        .desc("write gzip compressed IIDM networks")
+                        .build());
+                options.addOption(Option.builder()
+                        .longOpt("network-output-delta")
+                        .desc("write IIDM networks once per version and mapped values per variant")
+                        .build());
                 options.addOption(Option.builder()
                         .longOpt("equipment-time-series-dir")
                         .desc("output directory to store equipment level time series")
                         .hasArg()
                         .argName("DIR")
                         .build());
+                options.addOption(Option.builder()
+                        .longOpt("equipment-time-series-binary")
+                        .desc("also store equipment level time series in compressed binary files")
+                        .build());
                 options.addOption(Option.builder()
                         .longOpt("first-variant")
                         .desc("first variant to simulate")
@@ -202,9 +221,13 @@ public class MappingTool implements Tool {
                 throw new IllegalArgumentException("check-versions has to be set when check-equipment-time-series is set");
             }
             Path networkOutputDir = getDir(line, context, "network-output-dir");
+            int networkOutputThreads = line.hasOption("network-output-threads") ? Integer.parseInt(line.getOptionValue("network-output-threads")) : 1;
+            boolean networkOutputCompress = line.hasOption("network-output-compress");
+            boolean networkOutputDelta = line.hasOption("network-output-delta");
             int firstVariant = line.hasOption("first-variant") ? Integer.parseInt(line.getOptionValue("first-variant")) : 0;
             int maxVariantCount = line.hasOption("max-variant-count") ? Integer.parseInt(line.getOptionValue("max-variant-count")) : Integer.MAX_VALUE;
             Path equipmentTimeSeriesDir = getDir(line, context, "equipment-time-series-dir");
+            boolean equipmentTimeSeriesBinary = line.hasOption("equipment-time-series-binary");
             boolean ignoreLimits = line.hasOption("ignore-limits");
             boolean ignoreEmptyFilter = line.hasOption("ignore-empty-filter");
 
@@ -218,68 +241,73 @@ public class MappingTool implements Tool {
             TimeSeriesMappingConfig config;
             MappingParameters mappingParameters = MappingParameters.load();
             ComputationRange computationRange = new ComputationRange(versions != null ? versions : store.getTimeSeriesDataVersions(), firstVariant, maxVariantCount);
-            TimeSeriesMappingLogger logger = new TimeSeriesMappingLogger();
-            try (Reader reader = Files.newBufferedReader(mappingFile, StandardCharsets.UTF_8);
-                 Writer scriptLogWriter = mappingSynthesisDir != null ? getWriter(mappingSynthesisDir.resolve("script-logs.csv")) : null) {
-                TimeSeriesDslLoader dslLoader = new TimeSeriesDslLoader(reader, mappingFile.getFileName().toString());
-                Stopwatch stopwatch = Stopwatch.createStarted();
-                network.addListener(new NetworkTopographyChangeNotifier("extern tool", logger));
-                config = dslLoader.load(network, mappingParameters, store, scriptLogWriter, computationRange);
-                context.getOutputStream().println("Mapping done in " + stopwatch.elapsed(TimeUnit.MILLISECONDS) + " ms");
-            }
+            // detailed logs are streamed to the synthesis directory instead of being kept in memory
+            try (TimeSeriesMappingLogger logger = mappingSynthesisDir != null
+                    ? new TimeSeriesMappingLogger(mappingSynthesisDir.resolve("mapping-logs.csv"), ZoneId.systemDefault())
+                    : new TimeSeriesMappingLogger()) {
+                try (Reader reader = Files.newBufferedReader(mappingFile, StandardCharsets.UTF_8);
+                     Writer scriptLogWriter = mappingSynthesisDir != null ? getWriter(mappingSynthesisDir.resolve("script-logs.csv")) : null) {
+                    TimeSeriesDslLoader dslLoader = new TimeSeriesDslLoader(reader, mappingFile.getFileName().toString());
+                    Stopwatch stopwatch = Stopwatch.createStarted();
+                    network.addListener(new NetworkTopographyChangeNotifier("extern tool", logger));
+                    config = dslLoader.load(network, mappingParameters, store, scriptLogWriter, computationRange);
+                    context.getOutputStream().println("Mapping done in " + stopwatch.elapsed(TimeUnit.MILLISECONDS) + " ms");
+                }
 
-            if (!config.isMappingComplete()) {
-                context.getErrorStream().println("Mapping is incomplete");
-            }
+                if (!config.isMappingComplete()) {
+                    context.getErrorStream().println("Mapping is incomplete");
+                }
 
-            TimeSeriesMappingConfigCsvWriter csvWriter = new TimeSeriesMappingConfigCsvWriter(config, network);
-            csvWriter.printMappingSynthesis(context.getOutputStream());
+                TimeSeriesMappingConfigCsvWriter csvWriter = new TimeSeriesMappingConfigCsvWriter(config, network);
+                csvWriter.printMappingSynthesis(context.getOutputStream());
 
-            if (mappingSynthesisDir != null) {
-                context.getOutputStream().println("Writing mapping synthesis to " + mappingSynthesisDir + "...");
-                csvWriter.writeMappingSynthesis(mappingSynthesisDir);
+                if (mappingSynthesisDir != null) {
+                    context.getOutputStream().println("Writing mapping synthesis to " + mappingSynthesisDir + "...");
+                    csvWriter.writeMappingSynthesis(mappingSynthesisDir);
 
-                List<ReadOnlyTimeSeriesStore> stores = new ArrayList<>(2);
-                stores.add(new CalculatedTimeSeriesStore(config.getTimeSeriesNodes(), store));
-                stores.add(store);
-                ReadOnlyTimeSeriesStoreAggregator storeAggregator = new ReadOnlyTimeSeriesStoreAggregator(stores);
-                csvWriter.writeMappingCsv(mappingSynthesisDir, storeAggregator, computationRange, mappingParameters);
-                csvWriter.writeMappingSynthesisCsv(mappingSynthesisDir);
-            }
+                    List<ReadOnlyTimeSeriesStore> stores = new ArrayList<>(2);
+                    stores.add(new CalculatedTimeSeriesStore(config.getTimeSeriesNodes(), store));
+                    stores.add(store);
+                    ReadOnlyTimeSeriesStoreAggregator storeAggregator = new ReadOnlyTimeSeriesStoreAggregator(stores);
+                    csvWriter.writeMappingCsv(mappingSynthesisDir, storeAggregator, computationRange, mappingParameters);
+                    csvWriter.writeMappingSynthesisCsv(mappingSynthesisDir);
+                }
 
-            if (mappingStatusFile != null) {
-                context.getOutputStream().println("Writing time series mapping status to " + mappingStatusFile + "...");
-                csvWriter.writeTimeSeriesMappingStatus(store, mappingStatusFile);
-            }
+                if (mappingStatusFile != null) {
+                    context.getOutputStream().println("Writing time series mapping status to " + mappingStatusFile + "...");
+                    csvWriter.writeTimeSeriesMappingStatus(store, mappingStatusFile);
+                }
 
-            if (checkEquipmentTimeSeries) {
-                context.getOutputStream().println("Computing equipment time series...");
+                if (checkEquipmentTimeSeries) {
+                    context.getOutputStream().println("Computing equipment time series...");
 
-                BalanceSummary balanceSummary = new BalanceSummary(context.getOutputStream());
-                List<TimeSeriesMapperObserver> observers = new ArrayList<>(1);
-                observers.add(balanceSummary);
-                if (networkOutputDir != null) {
-                    DataSource dataSource = DataSourceUtil.createDataSource(networkOutputDir, network.getId(), null);
-                    observers.add(new NetworkPointWriter(network, dataSource));
-                }
-                if (equipmentTimeSeriesDir != null) {
-                    observers.add(new EquipmentTimeSeriesWriter(equipmentTimeSeriesDir));
-                }
+                    BalanceSummary balanceSummary = new BalanceSummary(context.getOutputStream());
+                    List<TimeSeriesMapperObserver> observers = new ArrayList<>(1);
+                    observers.add(balanceSummary);
+                    if (networkOutputDir != null) {
+                        DataSource dataSource = DataSourceUtil.createDataSource(networkOutputDir, network.getId(), null);
+                        observers.add(new NetworkPointWriter(network, dataSource, networkOutputThreads, networkOutputCompress, networkOutputDelta));
+                    }
+                    if (equipmentTimeSeriesDir != null) {
+                        observers.add(new EquipmentTimeSeriesWriter(equipmentTimeSeriesDir, equipmentTimeSeriesBinary));
+                    }
 
-                TimeSeriesMapper mapper = new TimeSeriesMapper(config, network, logger);
-                TimeSeriesIndex index = config.checkIndexUnicity(store);
-                int lastPoint = Math.min(firstVariant + maxVariantCount, index.getPointCount()) - 1;
-                TimeSeriesMapperParameters parameters = new TimeSeriesMapperParameters(versions, Range.closed(firstVariant, lastPoint), ignoreLimits,
-                        ignoreEmptyFilter, true,  mappingParameters.getToleranceThreshold());
-                mapper.mapToNetwork(store, parameters, observers);
+                    TimeSeriesMapper mapper = new TimeSeriesMapper(config, network, logger);
+                    TimeSeriesIndex index = config.checkIndexUnicity(store);
+                    int lastPoint = Math.min(firstVariant + maxVariantCount, index.getPointCount()) - 1;
+                    TimeSeriesMapperParameters parameters = new TimeSeriesMapperParameters(versions, Range.closed(firstVariant, lastPoint), ignoreLimits,
+                            ignoreEmptyFilter, true,  mappingParameters.getToleranceThreshold());
+                    mapper.mapToNetwork(store, parameters, observers);
 
-                if (mappingSynthesisDir != null) {
-                    balanceSummary.writeCsv(mappingSynthesisDir, SEPARATOR);
+                    if (mappingSynthesisDir != null) {
+                        balanceSummary.writeCsv(mappingSynthesisDir, SEPARATOR);
+                    }
                 }
-            }
 
-            if (mappingSynthesisDir != null) {
-                logger.writeCsv(mappingSynthesisDir.resolve("mapping-logs.csv"));
+                if (mappingSynthesisDir != null) {
+                    logger.writeCsv(mappingSynthesisDir.resolve("mapping-logs.csv"));
+                    logger.writeSynthesisCsv(mappingSynthesisDir.resolve("mapping-logs-synthesis.csv"), ZoneId.systemDefault());
+                }
             }
         } catch (Exception e) {
             Throwable rootCause = StackTraceUtils.sanitizeRootCause(e);
@@ -42,7 +42,7 @@ class MappingToolTest extends AbstractToolTest {
     public void assertCommand() {
         Command command = tool.getCommand();
         Options options = command.getOptions();
-        assertCommand(command, "mapping", 13, 3);
+        assertCommand(command, "mapping", 17, 3);
         assertOption(options, "case-file", true, true);
         assertOption(options, "mapping-file", true, true);
         assertOption(options, "time-series", true, true);
@@ -51,7 +51,11 @@ class MappingToolTest extends AbstractToolTest {
         assertOption(options, "check-versions", false, true);
         assertOption(options, "mapping-status-file", false, true);
         assertOption(options, "network-output-dir", false, true);
+        assertOption(options, "network-output-threads", false, true);
+        assertOption(options, "network-output-compress", false, false);
+        assertOption(options, "network-output-delta", false, false);
         assertOption(options, "equipment-time-series-dir", false, true);
+        assertOption(options, "equipment-time-series-binary", false, false);
         assertOption(options, "first-variant", false, true);
         assertOption(options, "max-variant-count", false, true);
         assertOption(options, "ignore-limits", false, false);